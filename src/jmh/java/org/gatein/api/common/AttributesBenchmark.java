@@ -0,0 +1,80 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.gatein.api.common;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Baseline of getting and putting typed attributes, which convert values from and to strings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AttributesBenchmark {
+    private static final Attributes.Key<String> STRING = Attributes.key("string", String.class);
+    private static final Attributes.Key<Integer> INTEGER = Attributes.key("integer", Integer.class);
+    private static final Attributes.Key<Boolean> BOOLEAN = Attributes.key("boolean", Boolean.class);
+
+    private Attributes attributes;
+
+    @Setup
+    public void setup() {
+        attributes = new Attributes();
+        attributes.put(STRING, "value");
+        attributes.put(INTEGER, 42);
+        attributes.put(BOOLEAN, true);
+    }
+
+    @Benchmark
+    public String getString() {
+        return attributes.get(STRING);
+    }
+
+    @Benchmark
+    public Integer getInteger() {
+        return attributes.get(INTEGER);
+    }
+
+    @Benchmark
+    public Boolean getBoolean() {
+        return attributes.get(BOOLEAN);
+    }
+
+    @Benchmark
+    public Integer putInteger() {
+        return attributes.put(INTEGER, 42);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.gatein.api.common.i18n;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Baseline of looking up the value of a <code>LocalizedString</code> by locale.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocalizedStringBenchmark {
+    private static final Locale[] LOCALES = { Locale.ENGLISH, Locale.FRENCH, Locale.GERMAN, Locale.ITALIAN,
+            Locale.JAPANESE, Locale.KOREAN, Locale.CHINESE, new Locale("es"), new Locale("pt"), new Locale("nl") };
+
+    private LocalizedString localized;
+    private LocalizedString value;
+    private final Locale missing = new Locale("fi");
+
+    @Setup
+    public void setup() {
+        localized = new LocalizedString(Locale.ENGLISH, "Home");
+        for (Locale locale : LOCALES) {
+            localized.setLocalizedValue(locale, "Home " + locale);
+        }
+        value = new LocalizedString("Home");
+    }
+
+    @Benchmark
+    public String first() {
+        return localized.getValue(LOCALES[0]);
+    }
+
+    @Benchmark
+    public String last() {
+        return localized.getValue(LOCALES[LOCALES.length - 1]);
+    }
+
+    @Benchmark
+    public String missing() {
+        return localized.getValue(missing);
+    }
+
+    @Benchmark
+    public String notLocalized() {
+        return value.getValue();
+    }
+}
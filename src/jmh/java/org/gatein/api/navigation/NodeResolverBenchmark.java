@@ -0,0 +1,89 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.navigation;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares resolving a URI with a {@link NodeResolver} to parsing a <code>NodePath</code> and walking the children of the
+ * nodes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NodeResolverBenchmark {
+    @Param({ "/node-5", "/node-5/node-5/node-5/node-5", "/node-5/node-5/missing/node-5" })
+    public String uri;
+
+    private Node root;
+    private NodeResolver resolver;
+
+    @Setup
+    public void setup() {
+        root = MockNode.root();
+        addChildren(root, 4, 20);
+        resolver = new NodeResolver(root);
+    }
+
+    private static void addChildren(Node node, int depth, int count) {
+        if (depth == 0)
+            return;
+
+        for (int i = 0; i < count; i++) {
+            addChildren(node.addChild("node-" + i), depth - 1, count);
+        }
+    }
+
+    @Benchmark
+    public Node resolveNode() {
+        return resolver.resolveNode(uri);
+    }
+
+    @Benchmark
+    public Node walk() {
+        Node node = root;
+        for (String segment : NodePath.fromString(uri)) {
+            Node child = node.getChild(segment);
+            if (child == null)
+                break;
+
+            node = child;
+        }
+        return node;
+    }
+}
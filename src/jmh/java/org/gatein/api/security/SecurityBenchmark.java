@@ -0,0 +1,76 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.gatein.api.security;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Baseline of creating the security value types: parsing a <code>Membership</code> and a <code>Group</code>, and adding a
+ * membership to a <code>Permission</code>. Also measures evaluating a permission with a {@link PermissionEvaluator}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SecurityBenchmark {
+    private final String membership = "manager:/platform/administrators";
+    private final String group = "/organization/management/executive-board";
+    private final Permission permission = Permission.any("platform", "users").addMembership(
+            new Membership("manager", new Group("platform", "administrators")));
+    private final Membership added = new Membership("member", new Group("organization", "employees"));
+    private final Identity identity = new Identity(new User("john"), Arrays.asList(added, new Membership("member",
+            new Group("platform", "users"))));
+    private final PermissionEvaluator evaluator = new PermissionEvaluator();
+
+    @Benchmark
+    public Membership membershipFromString() {
+        return Membership.fromString(membership);
+    }
+
+    @Benchmark
+    public Group groupFromId() {
+        return new Group(group);
+    }
+
+    @Benchmark
+    public Permission addMembership() {
+        return permission.addMembership(added);
+    }
+
+    @Benchmark
+    public boolean hasPermission() {
+        return evaluator.hasPermission(identity, permission);
+    }
+}
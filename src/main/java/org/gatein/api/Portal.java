@@ -24,20 +24,28 @@ package org.gatein.api;
 
 import org.gatein.api.application.Application;
 import org.gatein.api.application.ApplicationRegistry;
+import org.gatein.api.common.BatchResult;
+import org.gatein.api.common.Cursor;
 import org.gatein.api.navigation.Navigation;
+import org.gatein.api.navigation.NavigationListener;
 import org.gatein.api.oauth.OAuthProvider;
 import org.gatein.api.page.Page;
 import org.gatein.api.composition.Container;
 import org.gatein.api.composition.PageBuilder;
 import org.gatein.api.page.PageId;
 import org.gatein.api.page.PageQuery;
+import org.gatein.api.page.PageSummary;
 import org.gatein.api.site.Site;
 import org.gatein.api.site.SiteId;
 import org.gatein.api.site.SiteQuery;
+import org.gatein.api.site.SiteSummary;
 import org.gatein.api.security.Permission;
 import org.gatein.api.security.User;
 
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * The main interface of the portal public API. This is available from the <code>PortalRequest</code> object which can be
@@ -57,6 +65,17 @@ public interface Portal {
      */
     Site getSite(SiteId siteId);
 
+    /**
+     * Returns the sites given their <code>SiteId</code>'s, loaded in a single operation. Sites that do not exist are left out
+     * of the map.
+     *
+     * @param siteIds the site ids
+     * @return a map of the sites found by site id, which is empty if no sites were found
+     * @throws IllegalArgumentException if siteIds is null or contains null
+     * @throws ApiException if something prevented this operation to succeed
+     */
+    Map<SiteId, Site> getSites(Collection<SiteId> siteIds);
+
     /**
      * Creates a a site given the <code>SiteId</code>. This site is not saved until
      * {@link Portal#saveSite(org.gatein.api.site.Site)} is called. Will use the default site template configured by
@@ -93,6 +112,45 @@ public interface Portal {
      */
     List<Site> findSites(SiteQuery query);
 
+    /**
+     * Finds summaries of the sites matching the <code>SiteQuery</code>. Only the fields of the summaries are loaded, not the
+     * attributes of the sites. Pagination, sorting and criteria are applied as for {@link #findSites(SiteQuery)}. The filter
+     * of the query requires full sites, so it should not be used with projection queries.
+     *
+     * @param query the site query
+     * @param includePermissions true to include the access and edit permissions of the sites in the summaries
+     * @return list of site summaries found. The list will be empty if no sites were found.
+     * @throws IllegalArgumentException if query is null
+     * @throws ApiException if something prevented this operation to succeed
+     */
+    List<SiteSummary> findSiteSummaries(SiteQuery query, boolean includePermissions);
+
+    /**
+     * Returns a cursor over all sites matching the <code>SiteQuery</code>, ordered by <code>SiteId</code>. Sites are fetched
+     * lazily in batches of fetchSize, each starting after the last site of the previous batch, so iterating all sites costs
+     * time proportional to the number of sites and memory proportional to the fetch size. The pagination and sorting of the
+     * query are ignored, and iterating starts after {@link SiteQuery#getStartAfter()} if set.
+     *
+     * @param query the site query
+     * @param fetchSize the number of sites to fetch in one batch
+     * @return a cursor over the sites found, which should be closed once no longer used
+     * @throws IllegalArgumentException if query is null, or fetchSize is less than 1
+     * @throws ApiException if something prevented this operation to succeed
+     */
+    Cursor<Site> streamSites(SiteQuery query, int fetchSize);
+
+    /**
+     * Counts the sites matching the <code>SiteQuery</code>, without loading them. The pagination of the query is ignored, so
+     * this is the total number of sites {@link #findSites(SiteQuery)} can return over all pages.
+     *
+     * @param query the site query
+     * @return the number of sites found
+     * @throws IllegalArgumentException if query is null
+     * @throws ApiException if something prevented this operation to succeed
+     * @see org.gatein.api.common.Pagination#getPageCount(int)
+     */
+    int countSites(SiteQuery query);
+
     /**
      * Saves a site
      *
@@ -112,6 +170,33 @@ public interface Portal {
      */
     boolean removeSite(SiteId siteId);
 
+    /**
+     * Saves sites in chunks, each chunk written in a single operation. A site that cannot be saved is reported in the result
+     * and does not prevent the other sites from being saved, if the operation writing a chunk fails all sites of the chunk are
+     * reported as failed.
+     *
+     * @param sites the sites to save
+     * @param chunkSize the maximum number of sites written in one operation, for example
+     *        {@link BatchResult#DEFAULT_CHUNK_SIZE}
+     * @return the ids of the sites saved, and of the sites that failed along with the cause
+     * @throws IllegalArgumentException if sites is null or contains null, or chunkSize is less than 1
+     * @throws ApiException if something prevented this operation to succeed
+     */
+    BatchResult<SiteId> saveSites(Collection<Site> sites, int chunkSize);
+
+    /**
+     * Removes sites in chunks, each chunk removed in a single operation. Sites that do not exist are reported as failed with
+     * an {@link EntityNotFoundException}.
+     *
+     * @param siteIds the ids of the sites to remove
+     * @param chunkSize the maximum number of sites removed in one operation, for example
+     *        {@link BatchResult#DEFAULT_CHUNK_SIZE}
+     * @return the ids of the sites removed, and of the sites that failed along with the cause
+     * @throws IllegalArgumentException if siteIds is null or contains null, or chunkSize is less than 1
+     * @throws ApiException if something prevented this operation to succeed
+     */
+    BatchResult<SiteId> removeSites(Collection<SiteId> siteIds, int chunkSize);
+
     /**
      * Returns the navigation of a site given the <code>SiteId</code>. Can return null if the navigation does not exist.
      *
@@ -122,6 +207,24 @@ public interface Portal {
      */
     Navigation getNavigation(SiteId siteId);
 
+    /**
+     * Adds a listener which is notified of changes saved to any navigation of the portal. Events are delivered
+     * asynchronously, in batches, once the changes were saved.
+     *
+     * @param listener the listener
+     * @throws IllegalArgumentException if listener is null
+     */
+    void addNavigationListener(NavigationListener listener);
+
+    /**
+     * Removes a listener added by {@link #addNavigationListener(NavigationListener)}
+     *
+     * @param listener the listener
+     * @return true if the listener was removed, false if it was not added
+     * @throws IllegalArgumentException if listener is null
+     */
+    boolean removeNavigationListener(NavigationListener listener);
+
     /**
      * Returns a representation of the Application Registry.
      * @return a representation of the Application Registry.
@@ -138,6 +241,17 @@ public interface Portal {
      */
     Page getPage(PageId pageId);
 
+    /**
+     * Returns the pages given their <code>PageId</code>'s, loaded in a single operation. Pages that do not exist are left out
+     * of the map.
+     *
+     * @param pageIds the page ids
+     * @return a map of the pages found by page id, which is empty if no pages were found
+     * @throws IllegalArgumentException if pageIds is null or contains null
+     * @throws ApiException if something prevented this operation to succeed
+     */
+    Map<PageId, Page> getPages(Collection<PageId> pageIds);
+
     /**
      * Creates a page for a site given the <code>PageId</code>. This page is not saved until
      * {@link Portal#savePage(org.gatein.api.page.Page)} is called.
@@ -161,6 +275,45 @@ public interface Portal {
      */
     List<Page> findPages(PageQuery query);
 
+    /**
+     * Finds summaries of the pages matching the <code>PageQuery</code>. Only the fields of the summaries are loaded, not the
+     * layout of the pages. Pagination, sorting and criteria are applied as for {@link #findPages(PageQuery)}. The filter of
+     * the query requires full pages, so it should not be used with projection queries.
+     *
+     * @param query the page query
+     * @param includePermissions true to include the access and edit permissions of the pages in the summaries
+     * @return list of page summaries found. The list will be empty if no pages were found.
+     * @throws IllegalArgumentException if query is null
+     * @throws ApiException if something prevented this operation to succeed
+     */
+    List<PageSummary> findPageSummaries(PageQuery query, boolean includePermissions);
+
+    /**
+     * Returns a cursor over all pages matching the <code>PageQuery</code>, ordered by <code>PageId</code>. Pages are fetched
+     * lazily in batches of fetchSize, each starting after the last page of the previous batch, so iterating all pages costs
+     * time proportional to the number of pages and memory proportional to the fetch size. The pagination of the query is
+     * ignored, and iterating starts after {@link PageQuery#getStartAfter()} if set.
+     *
+     * @param query the page query
+     * @param fetchSize the number of pages to fetch in one batch
+     * @return a cursor over the pages found, which should be closed once no longer used
+     * @throws IllegalArgumentException if query is null, or fetchSize is less than 1
+     * @throws ApiException if something prevented this operation to succeed
+     */
+    Cursor<Page> streamPages(PageQuery query, int fetchSize);
+
+    /**
+     * Counts the pages matching the <code>PageQuery</code>, without loading them. The pagination of the query is ignored, so
+     * this is the total number of pages {@link #findPages(PageQuery)} can return over all pages of results.
+     *
+     * @param query the page query
+     * @return the number of pages found
+     * @throws IllegalArgumentException if query is null
+     * @throws ApiException if something prevented this operation to succeed
+     * @see org.gatein.api.common.Pagination#getPageCount(int)
+     */
+    int countPages(PageQuery query);
+
     /**
      * Saves a page
      *
@@ -180,6 +333,33 @@ public interface Portal {
      */
     boolean removePage(PageId pageId);
 
+    /**
+     * Saves pages in chunks, each chunk written in a single operation. A page that cannot be saved, for example because it's
+     * site does not exist, is reported in the result and does not prevent the other pages from being saved, if the operation
+     * writing a chunk fails all pages of the chunk are reported as failed.
+     *
+     * @param pages the pages to save
+     * @param chunkSize the maximum number of pages written in one operation, for example
+     *        {@link BatchResult#DEFAULT_CHUNK_SIZE}
+     * @return the ids of the pages saved, and of the pages that failed along with the cause
+     * @throws IllegalArgumentException if pages is null or contains null, or chunkSize is less than 1
+     * @throws ApiException if something prevented this operation to succeed
+     */
+    BatchResult<PageId> savePages(Collection<Page> pages, int chunkSize);
+
+    /**
+     * Removes pages in chunks, each chunk removed in a single operation. Pages that do not exist are reported as failed with
+     * an {@link EntityNotFoundException}.
+     *
+     * @param pageIds the ids of the pages to remove
+     * @param chunkSize the maximum number of pages removed in one operation, for example
+     *        {@link BatchResult#DEFAULT_CHUNK_SIZE}
+     * @return the ids of the pages removed, and of the pages that failed along with the cause
+     * @throws IllegalArgumentException if pageIds is null or contains null, or chunkSize is less than 1
+     * @throws ApiException if something prevented this operation to succeed
+     */
+    BatchResult<PageId> removePages(Collection<PageId> pageIds, int chunkSize);
+
     /**
      * Returns true if the given user has the rights represented by the permission
      *
@@ -190,6 +370,20 @@ public interface Portal {
      */
     boolean hasPermission(User user, Permission permission);
 
+    /**
+     * Returns which of the permissions the given user has, resolving the user and the memberships of the user once for
+     * all of them. This should be used instead of calling {@link #hasPermission(User, Permission)} for each permission when
+     * checking many permissions for the same user, for example when filtering a navigation.
+     *
+     * @param user the user
+     * @param permissions the permissions
+     * @return a bit set where the bit at the index of each permission in the list is set if the user has the rights
+     *         represented by the permission
+     * @throws IllegalArgumentException if user or permissions is null, or permissions contains null
+     * @throws ApiException if something prevented this operation to succeed
+     */
+    BitSet hasPermissions(User user, List<Permission> permissions);
+
     /**
      * Return {@link org.gatein.api.oauth.OAuthProvider} for given key. Key could be {@link OAuthProvider#FACEBOOK},
      * {@link OAuthProvider#GOOGLE}, {@link OAuthProvider#TWITTER} or other OAuth provider registered in Portal via OAuth SPI
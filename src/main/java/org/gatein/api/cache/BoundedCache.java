@@ -0,0 +1,289 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.cache;
+
+import org.gatein.api.common.Filter;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * A cache bounded by the total weight of its entries, evicting the least recently used or least frequently used entries
+ * first. Entries can expire a fixed time after they were added.
+ * <p>
+ * Entries are kept in buckets of equal access frequency, ordered by frequency, where each bucket is ordered from least to
+ * most recently used. With LRU eviction all entries stay in one bucket. Reading, adding and evicting an entry is O(1) for
+ * both policies.
+ * </p>
+ * <p>
+ * Every removal increments a generation, which is used to avoid caching a value loaded before it was invalidated: a caller
+ * reads {@link #generation()} before loading a value, and {@link #put(Object, Object, int, long)} ignores the value if the
+ * generation changed since.
+ * </p>
+ */
+class BoundedCache<K, V> {
+    static final Ticker SYSTEM_TICKER = new Ticker() {
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+    };
+
+    private final long maximumWeight;
+    private final boolean lfu;
+    private final long timeToLive;
+    private final Ticker ticker;
+    private final Map<K, Entry<K, V>> entries;
+
+    private Bucket<K, V> head;
+    private long weight;
+    private long generation;
+
+    /**
+     * @param maximumWeight the maximum total weight of the entries
+     * @param eviction the eviction policy
+     * @param timeToLive the time in nanoseconds after which entries expire, or 0 if entries do not expire
+     * @param ticker the time source
+     */
+    BoundedCache(long maximumWeight, CachingPortal.Eviction eviction, long timeToLive, Ticker ticker) {
+        this.maximumWeight = maximumWeight;
+        this.lfu = eviction == CachingPortal.Eviction.LFU;
+        this.timeToLive = timeToLive;
+        this.ticker = ticker;
+        this.entries = new HashMap<K, Entry<K, V>>();
+    }
+
+    synchronized V get(K key) {
+        Entry<K, V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+
+        if (timeToLive > 0 && ticker.nanoTime() - entry.expires >= 0) {
+            entries.remove(key);
+            discard(entry);
+            return null;
+        }
+
+        touch(entry);
+        return entry.value;
+    }
+
+    synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Adds an entry, unless the generation changed since the value was loaded or the weight exceeds the maximum weight.
+     *
+     * @return true if the entry was added
+     */
+    synchronized boolean put(K key, V value, int weight, long generation) {
+        if (generation != this.generation || weight > maximumWeight) {
+            return false;
+        }
+
+        Entry<K, V> entry = entries.remove(key);
+        if (entry != null) {
+            discard(entry);
+        }
+
+        // Evict before adding, otherwise with LFU eviction the new entry would be the least frequently used
+        while (this.weight + weight > maximumWeight) {
+            Entry<K, V> eldest = head.first;
+            entries.remove(eldest.key);
+            discard(eldest);
+        }
+
+        entry = new Entry<K, V>(key, value, weight, (timeToLive > 0) ? ticker.nanoTime() + timeToLive : 0);
+        entries.put(key, entry);
+        if (head == null || head.frequency != 1) {
+            insertAfter(null, 1);
+        }
+        append(head, entry);
+        this.weight += weight;
+        return true;
+    }
+
+    synchronized boolean remove(K key) {
+        generation++;
+
+        Entry<K, V> entry = entries.remove(key);
+        if (entry != null) {
+            discard(entry);
+        }
+        return entry != null;
+    }
+
+    synchronized int removeIf(Filter<? super K> filter) {
+        generation++;
+
+        int removed = 0;
+        for (Iterator<Entry<K, V>> iterator = entries.values().iterator(); iterator.hasNext();) {
+            Entry<K, V> entry = iterator.next();
+            if (filter.accept(entry.key)) {
+                iterator.remove();
+                discard(entry);
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    synchronized void clear() {
+        generation++;
+
+        entries.clear();
+        head = null;
+        weight = 0;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized long weight() {
+        return weight;
+    }
+
+    private void touch(Entry<K, V> entry) {
+        Bucket<K, V> bucket = entry.bucket;
+        if (!lfu) {
+            if (bucket.last != entry) {
+                unlink(entry);
+                append(bucket, entry);
+            }
+            return;
+        }
+
+        long frequency = bucket.frequency + 1;
+        Bucket<K, V> next = bucket.next;
+        if (next == null || next.frequency != frequency) {
+            if (bucket.first == entry && bucket.last == entry) {
+                bucket.frequency = frequency;
+                return;
+            }
+            next = insertAfter(bucket, frequency);
+        }
+
+        unlink(entry);
+        append(next, entry);
+    }
+
+    private void append(Bucket<K, V> bucket, Entry<K, V> entry) {
+        entry.bucket = bucket;
+        entry.prev = bucket.last;
+        entry.next = null;
+        if (bucket.last == null) {
+            bucket.first = entry;
+        } else {
+            bucket.last.next = entry;
+        }
+        bucket.last = entry;
+    }
+
+    private void discard(Entry<K, V> entry) {
+        unlink(entry);
+        weight -= entry.weight;
+    }
+
+    // Unlinks the entry from its bucket, removing the bucket if it's empty
+    private void unlink(Entry<K, V> entry) {
+        Bucket<K, V> bucket = entry.bucket;
+        if (entry.prev == null) {
+            bucket.first = entry.next;
+        } else {
+            entry.prev.next = entry.next;
+        }
+        if (entry.next == null) {
+            bucket.last = entry.prev;
+        } else {
+            entry.next.prev = entry.prev;
+        }
+        entry.prev = entry.next = null;
+        entry.bucket = null;
+
+        if (bucket.first == null) {
+            if (bucket.prev == null) {
+                head = bucket.next;
+            } else {
+                bucket.prev.next = bucket.next;
+            }
+            if (bucket.next != null) {
+                bucket.next.prev = bucket.prev;
+            }
+        }
+    }
+
+    private Bucket<K, V> insertAfter(Bucket<K, V> prev, long frequency) {
+        Bucket<K, V> bucket = new Bucket<K, V>(frequency);
+        bucket.prev = prev;
+        bucket.next = (prev == null) ? head : prev.next;
+        if (bucket.next != null) {
+            bucket.next.prev = bucket;
+        }
+        if (prev == null) {
+            head = bucket;
+        } else {
+            prev.next = bucket;
+        }
+        return bucket;
+    }
+
+    /**
+     * A source of time, which can be replaced for testing expiration
+     */
+    static interface Ticker {
+        long nanoTime();
+    }
+
+    private static class Entry<K, V> {
+        private final K key;
+        private final V value;
+        private final int weight;
+        private final long expires;
+        private Bucket<K, V> bucket;
+        private Entry<K, V> prev;
+        private Entry<K, V> next;
+
+        private Entry(K key, V value, int weight, long expires) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.expires = expires;
+        }
+    }
+
+    private static class Bucket<K, V> {
+        private long frequency;
+        private Bucket<K, V> prev;
+        private Bucket<K, V> next;
+        private Entry<K, V> first;
+        private Entry<K, V> last;
+
+        private Bucket(long frequency) {
+            this.frequency = frequency;
+        }
+    }
+}
@@ -0,0 +1,827 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.cache;
+
+import org.gatein.api.Portal;
+import org.gatein.api.application.ApplicationRegistry;
+import org.gatein.api.common.BatchResult;
+import org.gatein.api.common.Cursor;
+import org.gatein.api.common.Filter;
+import org.gatein.api.composition.PageBuilder;
+import org.gatein.api.internal.Parameters;
+import org.gatein.api.navigation.Navigation;
+import org.gatein.api.navigation.NavigationEvent;
+import org.gatein.api.navigation.NavigationListener;
+import org.gatein.api.oauth.OAuthProvider;
+import org.gatein.api.page.Page;
+import org.gatein.api.page.PageId;
+import org.gatein.api.page.PageQuery;
+import org.gatein.api.page.PageSummary;
+import org.gatein.api.security.Permission;
+import org.gatein.api.security.User;
+import org.gatein.api.site.Site;
+import org.gatein.api.site.SiteId;
+import org.gatein.api.site.SiteQuery;
+import org.gatein.api.site.SiteSummary;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link Portal} decorator caching the results of {@link #getSite(SiteId)}, {@link #getPage(PageId)},
+ * {@link #getNavigation(SiteId)}, {@link #findSites(SiteQuery)}, {@link #findPages(PageQuery)},
+ * {@link #hasPermission(User, Permission)} and {@link #hasPermissions(User, List)}, including results for sites and
+ * pages that do not exist. All other methods are delegated as is. This object is created by using the builder
+ * {@link CachingPortal.Builder}.
+ * <p>
+ * The cache is bounded by the total weight of its entries, as determined by a {@link Weigher}, evicting entries by the
+ * configured {@link Eviction} policy, and entries can expire after a time to live.
+ * </p>
+ * <p>
+ * Entries are invalidated precisely when changes are made through this portal: saving or removing a site invalidates the
+ * site, its navigation and the cached site queries, and saving or removing a page invalidates the page and the cached page
+ * queries that could include it. Navigations are invalidated when the portal notifies this cache of changes saved to
+ * them, along with the cached site queries since these exclude sites with an empty navigation by default. Changes made
+ * without going through this portal are only seen once the entries expire or are invalidated with
+ * {@link #invalidateAll()}, and changes to the memberships of users are not seen by cached permission decisions until they
+ * expire.
+ * </p>
+ * <p>
+ * By default sites and pages are cached as returned by the portal, and the same instances are returned to every caller, so
+ * they must not be changed. When configured with a {@link Copier}, sites and pages are cached as copies made by the copier,
+ * and every call returns a new copy that can be changed and saved without affecting the cache or other callers.
+ * Navigations are cached as returned by the portal, since they don't hold any nodes.
+ * </p>
+ */
+public class CachingPortal implements Portal {
+    private static final Object NULL = new Object();
+
+    private final Portal portal;
+    private final Weigher weigher;
+    private final Copier copier;
+    private final BoundedCache<Key, Object> cache;
+    private final NavigationListener listener;
+
+    private CachingPortal(Builder builder) {
+        this.portal = builder.portal;
+        this.weigher = builder.weigher;
+        this.copier = builder.copier;
+        this.cache = new BoundedCache<Key, Object>(builder.maximumWeight, builder.eviction, builder.timeToLive,
+                builder.ticker);
+        this.listener = new NavigationListener() {
+            @Override
+            public void onEvents(List<NavigationEvent> events) {
+                Set<SiteId> siteIds = new HashSet<SiteId>();
+                for (NavigationEvent event : events) {
+                    siteIds.add(event.getSiteId());
+                }
+                invalidateNavigations(siteIds);
+            }
+        };
+        portal.addNavigationListener(listener);
+    }
+
+    /**
+     * Removes all entries from the cache.
+     */
+    public void invalidateAll() {
+        cache.clear();
+    }
+
+    /**
+     * Stops listening for changes of navigations and removes all entries from the cache. This should be called once the
+     * caching portal is no longer used.
+     */
+    public void close() {
+        portal.removeNavigationListener(listener);
+        cache.clear();
+    }
+
+    @Override
+    public Site getSite(SiteId siteId) {
+        Key key = new Key(Kind.SITE, Parameters.requireNonNull(siteId, "siteId"));
+        Object cached = cache.get(key);
+        if (cached != null) {
+            return (Site) value(cached);
+        }
+
+        long generation = cache.generation();
+        Site site = portal.getSite(siteId);
+        put(key, site, generation);
+        return site;
+    }
+
+    @Override
+    public Map<SiteId, Site> getSites(Collection<SiteId> siteIds) {
+        Parameters.requireNonNull(siteIds, "siteIds");
+
+        Map<SiteId, Site> sites = new LinkedHashMap<SiteId, Site>();
+        List<SiteId> missing = new ArrayList<SiteId>();
+        for (SiteId siteId : siteIds) {
+            Object cached = cache.get(new Key(Kind.SITE, Parameters.requireNonNull(siteId, "siteId")));
+            if (cached == null) {
+                missing.add(siteId);
+            } else if (cached != NULL) {
+                sites.put(siteId, (Site) value(cached));
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            long generation = cache.generation();
+            Map<SiteId, Site> loaded = portal.getSites(missing);
+            for (SiteId siteId : missing) {
+                Site site = loaded.get(siteId);
+                put(new Key(Kind.SITE, siteId), site, generation);
+                if (site != null) {
+                    sites.put(siteId, site);
+                }
+            }
+        }
+        return sites;
+    }
+
+    @Override
+    public Site createSite(SiteId siteId) {
+        return portal.createSite(siteId);
+    }
+
+    @Override
+    public Site createSite(SiteId siteId, String templateName) {
+        return portal.createSite(siteId, templateName);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Site> findSites(SiteQuery query) {
+        Key key = new Key(Kind.SITES, Parameters.requireNonNull(query, "query"));
+        Object cached = cache.get(key);
+        if (cached != null) {
+            return (List<Site>) value(cached);
+        }
+
+        long generation = cache.generation();
+        List<Site> sites = portal.findSites(query);
+        put(key, sites, generation);
+        return sites;
+    }
+
+    @Override
+    public List<SiteSummary> findSiteSummaries(SiteQuery query, boolean includePermissions) {
+        return portal.findSiteSummaries(query, includePermissions);
+    }
+
+    @Override
+    public Cursor<Site> streamSites(SiteQuery query, int fetchSize) {
+        return portal.streamSites(query, fetchSize);
+    }
+
+    @Override
+    public int countSites(SiteQuery query) {
+        return portal.countSites(query);
+    }
+
+    @Override
+    public void saveSite(Site site) {
+        Parameters.requireNonNull(site, "site");
+
+        try {
+            portal.saveSite(site);
+        } finally {
+            invalidateSite(site.getId(), false);
+        }
+    }
+
+    @Override
+    public boolean removeSite(SiteId siteId) {
+        Parameters.requireNonNull(siteId, "siteId");
+
+        try {
+            return portal.removeSite(siteId);
+        } finally {
+            invalidateSite(siteId, true);
+        }
+    }
+
+    @Override
+    public BatchResult<SiteId> saveSites(Collection<Site> sites, int chunkSize) {
+        Parameters.requireNonNullElements(sites, "sites");
+
+        Set<SiteId> siteIds = new HashSet<SiteId>();
+        for (Site site : sites) {
+            siteIds.add(site.getId());
+        }
+        try {
+            return portal.saveSites(sites, chunkSize);
+        } finally {
+            invalidateSites(siteIds, false);
+        }
+    }
+
+    @Override
+    public BatchResult<SiteId> removeSites(Collection<SiteId> siteIds, int chunkSize) {
+        Parameters.requireNonNullElements(siteIds, "siteIds");
+
+        try {
+            return portal.removeSites(siteIds, chunkSize);
+        } finally {
+            invalidateSites(new HashSet<SiteId>(siteIds), true);
+        }
+    }
+
+    @Override
+    public Navigation getNavigation(SiteId siteId) {
+        Key key = new Key(Kind.NAVIGATION, Parameters.requireNonNull(siteId, "siteId"));
+        Object cached = cache.get(key);
+        if (cached != null) {
+            return (Navigation) value(cached);
+        }
+
+        long generation = cache.generation();
+        Navigation navigation = portal.getNavigation(siteId);
+        put(key, navigation, generation);
+        return navigation;
+    }
+
+    @Override
+    public void addNavigationListener(NavigationListener listener) {
+        portal.addNavigationListener(listener);
+    }
+
+    @Override
+    public boolean removeNavigationListener(NavigationListener listener) {
+        return portal.removeNavigationListener(listener);
+    }
+
+    @Override
+    public ApplicationRegistry getApplicationRegistry() {
+        return portal.getApplicationRegistry();
+    }
+
+    @Override
+    public Page getPage(PageId pageId) {
+        Key key = new Key(Kind.PAGE, Parameters.requireNonNull(pageId, "pageId"));
+        Object cached = cache.get(key);
+        if (cached != null) {
+            return (Page) value(cached);
+        }
+
+        long generation = cache.generation();
+        Page page = portal.getPage(pageId);
+        put(key, page, generation);
+        return page;
+    }
+
+    @Override
+    public Map<PageId, Page> getPages(Collection<PageId> pageIds) {
+        Parameters.requireNonNull(pageIds, "pageIds");
+
+        Map<PageId, Page> pages = new LinkedHashMap<PageId, Page>();
+        List<PageId> missing = new ArrayList<PageId>();
+        for (PageId pageId : pageIds) {
+            Object cached = cache.get(new Key(Kind.PAGE, Parameters.requireNonNull(pageId, "pageId")));
+            if (cached == null) {
+                missing.add(pageId);
+            } else if (cached != NULL) {
+                pages.put(pageId, (Page) value(cached));
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            long generation = cache.generation();
+            Map<PageId, Page> loaded = portal.getPages(missing);
+            for (PageId pageId : missing) {
+                Page page = loaded.get(pageId);
+                put(new Key(Kind.PAGE, pageId), page, generation);
+                if (page != null) {
+                    pages.put(pageId, page);
+                }
+            }
+        }
+        return pages;
+    }
+
+    @Override
+    public Page createPage(PageId pageId) {
+        return portal.createPage(pageId);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Page> findPages(PageQuery query) {
+        Key key = new Key(Kind.PAGES, Parameters.requireNonNull(query, "query"));
+        Object cached = cache.get(key);
+        if (cached != null) {
+            return (List<Page>) value(cached);
+        }
+
+        long generation = cache.generation();
+        List<Page> pages = portal.findPages(query);
+        put(key, pages, generation);
+        return pages;
+    }
+
+    @Override
+    public List<PageSummary> findPageSummaries(PageQuery query, boolean includePermissions) {
+        return portal.findPageSummaries(query, includePermissions);
+    }
+
+    @Override
+    public Cursor<Page> streamPages(PageQuery query, int fetchSize) {
+        return portal.streamPages(query, fetchSize);
+    }
+
+    @Override
+    public int countPages(PageQuery query) {
+        return portal.countPages(query);
+    }
+
+    @Override
+    public void savePage(Page page) {
+        Parameters.requireNonNull(page, "page");
+
+        try {
+            portal.savePage(page);
+        } finally {
+            invalidatePage(page.getId());
+        }
+    }
+
+    @Override
+    public boolean removePage(PageId pageId) {
+        Parameters.requireNonNull(pageId, "pageId");
+
+        try {
+            return portal.removePage(pageId);
+        } finally {
+            invalidatePage(pageId);
+        }
+    }
+
+    @Override
+    public BatchResult<PageId> savePages(Collection<Page> pages, int chunkSize) {
+        Parameters.requireNonNullElements(pages, "pages");
+
+        Set<PageId> pageIds = new HashSet<PageId>();
+        for (Page page : pages) {
+            pageIds.add(page.getId());
+        }
+        try {
+            return portal.savePages(pages, chunkSize);
+        } finally {
+            invalidatePages(pageIds);
+        }
+    }
+
+    @Override
+    public BatchResult<PageId> removePages(Collection<PageId> pageIds, int chunkSize) {
+        Parameters.requireNonNullElements(pageIds, "pageIds");
+
+        try {
+            return portal.removePages(pageIds, chunkSize);
+        } finally {
+            invalidatePages(new HashSet<PageId>(pageIds));
+        }
+    }
+
+    @Override
+    public boolean hasPermission(User user, Permission permission) {
+        Key key = new Key(Kind.PERMISSION, new PermissionKey(user, permission));
+        Object cached = cache.get(key);
+        if (cached != null) {
+            return (Boolean) cached;
+        }
+
+        long generation = cache.generation();
+        boolean result = portal.hasPermission(user, permission);
+        put(key, result, generation);
+        return result;
+    }
+
+    @Override
+    public BitSet hasPermissions(User user, List<Permission> permissions) {
+        Parameters.requireNonNull(user, "user");
+        Parameters.requireNonNullElements(permissions, "permissions");
+
+        BitSet result = new BitSet(permissions.size());
+        List<Permission> missing = new ArrayList<Permission>();
+        List<Key> keys = new ArrayList<Key>();
+        int[] indexes = new int[permissions.size()];
+        for (int i = 0; i < permissions.size(); i++) {
+            Key key = new Key(Kind.PERMISSION, new PermissionKey(user, permissions.get(i)));
+            Object cached = cache.get(key);
+            if (cached == null) {
+                indexes[missing.size()] = i;
+                missing.add(permissions.get(i));
+                keys.add(key);
+            } else if ((Boolean) cached) {
+                result.set(i);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        long generation = cache.generation();
+        BitSet loaded = portal.hasPermissions(user, missing);
+        for (int i = 0; i < missing.size(); i++) {
+            boolean permitted = loaded.get(i);
+            if (permitted) {
+                result.set(indexes[i]);
+            }
+            put(keys.get(i), permitted, generation);
+        }
+        return result;
+    }
+
+    @Override
+    public OAuthProvider getOAuthProvider(String oauthProviderKey) {
+        return portal.getOAuthProvider(oauthProviderKey);
+    }
+
+    @Override
+    public PageBuilder newPageBuilder() {
+        return portal.newPageBuilder();
+    }
+
+    private void invalidateSite(SiteId siteId, boolean removed) {
+        invalidateSites(Collections.singleton(siteId), removed);
+    }
+
+    private void invalidateSites(final Set<SiteId> siteIds, final boolean removed) {
+        cache.removeIf(new Filter<Key>() {
+            @Override
+            public boolean accept(Key key) {
+                switch (key.kind) {
+                    case SITE:
+                    case NAVIGATION:
+                        return siteIds.contains(key.id);
+                    case SITES:
+                        return true;
+                    case PAGE:
+                        return removed && siteIds.contains(((PageId) key.id).getSiteId());
+                    case PAGES:
+                        return removed && matches((PageQuery) key.id, siteIds);
+                    default:
+                        return false;
+                }
+            }
+        });
+    }
+
+    /**
+     * Site queries are invalidated along with the navigations, since they exclude sites with an empty navigation by default
+     */
+    private void invalidateNavigations(final Set<SiteId> siteIds) {
+        cache.removeIf(new Filter<Key>() {
+            @Override
+            public boolean accept(Key key) {
+                switch (key.kind) {
+                    case NAVIGATION:
+                        return siteIds.contains(key.id);
+                    case SITES:
+                        return true;
+                    default:
+                        return false;
+                }
+            }
+        });
+    }
+
+    private void invalidatePage(PageId pageId) {
+        invalidatePages(Collections.singleton(pageId));
+    }
+
+    private void invalidatePages(final Set<PageId> pageIds) {
+        final Set<SiteId> siteIds = new HashSet<SiteId>();
+        for (PageId pageId : pageIds) {
+            siteIds.add(pageId.getSiteId());
+        }
+
+        cache.removeIf(new Filter<Key>() {
+            @Override
+            public boolean accept(Key key) {
+                switch (key.kind) {
+                    case PAGE:
+                        return pageIds.contains(key.id);
+                    case PAGES:
+                        return matches((PageQuery) key.id, siteIds);
+                    default:
+                        return false;
+                }
+            }
+        });
+    }
+
+    private static boolean matches(PageQuery query, Set<SiteId> siteIds) {
+        for (SiteId siteId : siteIds) {
+            if ((query.getSiteType() == null || query.getSiteType() == siteId.getType())
+                    && (query.getSiteName() == null || query.getSiteName().equals(siteId.getName()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void put(Key key, Object value, long generation) {
+        Object cached = (value == null) ? NULL : copy(value);
+        cache.put(key, cached, (value == null) ? 1 : weigher.weigh(key.id, value), generation);
+    }
+
+    private Object value(Object cached) {
+        return (cached == NULL) ? null : copy(cached);
+    }
+
+    private Object copy(Object value) {
+        if (value instanceof Site) {
+            return copier.copy((Site) value);
+        } else if (value instanceof Page) {
+            return copier.copy((Page) value);
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            List<Object> copy = new ArrayList<Object>(list.size());
+            for (Object element : list) {
+                copy.add(copy(element));
+            }
+            return copy;
+        }
+        return value;
+    }
+
+    /**
+     * The eviction policy used once the maximum weight of the cache is reached
+     */
+    public static enum Eviction {
+        /**
+         * Evicts the least recently used entries first
+         */
+        LRU,
+
+        /**
+         * Evicts the least frequently used entries first, and of these the least recently used
+         */
+        LFU
+    }
+
+    /**
+     * Determines the weight of entries of the cache, which is bounded by a maximum total weight.
+     */
+    public static interface Weigher {
+        /**
+         * A weigher weighing each entry as 1, and lists of results as the number of elements, so the maximum weight is the
+         * number of sites, pages, navigations and permission decisions cached.
+         */
+        Weigher DEFAULT = new Weigher() {
+            @Override
+            public int weigh(Object key, Object value) {
+                return (value instanceof Collection) ? Math.max(1, ((Collection<?>) value).size()) : 1;
+            }
+        };
+
+        /**
+         * Returns the weight of an entry, which must not be negative
+         *
+         * @param key the id or query of the entry, or the user and permission of a permission decision
+         * @param value the value of the entry, which is a site, page, navigation, list of results or boolean
+         * @return the weight
+         */
+        int weigh(Object key, Object value);
+    }
+
+    /**
+     * Copies the sites and pages stored in the cache, and returned from it. The copies should be of the implementation of
+     * the decorated portal, so that they can be saved with it.
+     */
+    public static interface Copier {
+        /**
+         * A copier returning the sites and pages as is, so that they are shared by the cache and all callers
+         */
+        Copier NONE = new Copier() {
+            @Override
+            public Site copy(Site site) {
+                return site;
+            }
+
+            @Override
+            public Page copy(Page page) {
+                return page;
+            }
+        };
+
+        /**
+         * Returns a copy of the site that can be changed without affecting the site
+         *
+         * @param site the site
+         * @return the copy
+         */
+        Site copy(Site site);
+
+        /**
+         * Returns a copy of the page, including it's layout, that can be changed without affecting the page
+         *
+         * @param page the page
+         * @return the copy
+         */
+        Page copy(Page page);
+    }
+
+    /**
+     * The builder responsible for creating {@link CachingPortal} objects.
+     */
+    public static class Builder {
+        public static final long DEFAULT_MAXIMUM_WEIGHT = 10000;
+
+        private final Portal portal;
+        private long maximumWeight;
+        private Eviction eviction;
+        private long timeToLive;
+        private Weigher weigher;
+        private Copier copier;
+        private BoundedCache.Ticker ticker;
+
+        /**
+         * Creates a builder for a caching portal decorating the portal
+         *
+         * @param portal the portal
+         * @throws IllegalArgumentException if portal is null
+         */
+        public Builder(Portal portal) {
+            this.portal = Parameters.requireNonNull(portal, "portal");
+            this.maximumWeight = DEFAULT_MAXIMUM_WEIGHT;
+            this.eviction = Eviction.LRU;
+            this.weigher = Weigher.DEFAULT;
+            this.copier = Copier.NONE;
+            this.ticker = BoundedCache.SYSTEM_TICKER;
+        }
+
+        /**
+         * Sets the maximum total weight of the entries of the cache
+         *
+         * @param maximumWeight the maximum weight
+         * @return this builder
+         * @throws IllegalArgumentException if maximumWeight is less than 1
+         */
+        public Builder withMaximumWeight(long maximumWeight) {
+            if (maximumWeight < 1)
+                throw new IllegalArgumentException("maximumWeight must be at least 1");
+
+            this.maximumWeight = maximumWeight;
+            return this;
+        }
+
+        /**
+         * Sets the eviction policy, which is {@link Eviction#LRU} by default
+         *
+         * @param eviction the eviction policy
+         * @return this builder
+         * @throws IllegalArgumentException if eviction is null
+         */
+        public Builder withEviction(Eviction eviction) {
+            this.eviction = Parameters.requireNonNull(eviction, "eviction");
+            return this;
+        }
+
+        /**
+         * Sets the time after which entries expire. By default entries do not expire.
+         *
+         * @param duration the time to live, or 0 if entries do not expire
+         * @param unit the unit of duration
+         * @return this builder
+         * @throws IllegalArgumentException if duration is negative, or unit is null
+         */
+        public Builder withTimeToLive(long duration, TimeUnit unit) {
+            if (duration < 0)
+                throw new IllegalArgumentException("duration cannot be negative");
+
+            this.timeToLive = Parameters.requireNonNull(unit, "unit").toNanos(duration);
+            return this;
+        }
+
+        /**
+         * Sets the weigher of the entries, which is {@link Weigher#DEFAULT} by default
+         *
+         * @param weigher the weigher
+         * @return this builder
+         * @throws IllegalArgumentException if weigher is null
+         */
+        public Builder withWeigher(Weigher weigher) {
+            this.weigher = Parameters.requireNonNull(weigher, "weigher");
+            return this;
+        }
+
+        /**
+         * Sets the copier of the sites and pages. By default sites and pages are not copied, see {@link Copier#NONE}.
+         *
+         * @param copier the copier
+         * @return this builder
+         * @throws IllegalArgumentException if copier is null
+         */
+        public Builder withCopier(Copier copier) {
+            this.copier = Parameters.requireNonNull(copier, "copier");
+            return this;
+        }
+
+        Builder withTicker(BoundedCache.Ticker ticker) {
+            this.ticker = ticker;
+            return this;
+        }
+
+        /**
+         * Creates a new <code>CachingPortal</code> represented by the state of this builder, which starts listening for
+         * changes of navigations of the portal
+         *
+         * @return a new caching portal
+         */
+        public CachingPortal build() {
+            return new CachingPortal(this);
+        }
+    }
+
+    private static enum Kind {
+        SITE, PAGE, NAVIGATION, SITES, PAGES, PERMISSION
+    }
+
+    private static final class Key {
+        private final Kind kind;
+        private final Object id;
+
+        private Key(Kind kind, Object id) {
+            this.kind = kind;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Key))
+                return false;
+
+            Key key = (Key) o;
+
+            return kind == key.kind && id.equals(key.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * kind.hashCode() + id.hashCode();
+        }
+    }
+
+    private static final class PermissionKey {
+        private final User user;
+        private final Permission permission;
+
+        private PermissionKey(User user, Permission permission) {
+            this.user = user;
+            this.permission = permission;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof PermissionKey))
+                return false;
+
+            PermissionKey key = (PermissionKey) o;
+
+            return (user == null ? key.user == null : user.equals(key.user))
+                    && (permission == null ? key.permission == null : permission.equals(key.permission));
+        }
+
+        @Override
+        public int hashCode() {
+            int result = (user != null) ? user.hashCode() : 0;
+            result = 31 * result + ((permission != null) ? permission.hashCode() : 0);
+            return result;
+        }
+    }
+}
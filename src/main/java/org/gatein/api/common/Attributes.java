@@ -65,6 +65,8 @@ public class Attributes extends HashMap<String, String> implements Serializable
         VALUE_OF_CACHE = Collections.unmodifiableMap(m);
     }
 
+    private transient boolean modified;
+
     /**
      * Creates a new attributes instance with no attributes
      */
@@ -113,6 +115,58 @@ public class Attributes extends HashMap<String, String> implements Serializable
         }
     }
 
+    @Override
+    public String put(String key, String value) {
+        String oldValue = super.put(key, value);
+        if (oldValue == null || !oldValue.equals(value)) {
+            modified = true;
+        }
+        return oldValue;
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends String> m) {
+        if (!m.isEmpty()) {
+            modified = true;
+        }
+        super.putAll(m);
+    }
+
+    @Override
+    public String remove(Object key) {
+        String oldValue = super.remove(key);
+        if (oldValue != null) {
+            modified = true;
+        }
+        return oldValue;
+    }
+
+    @Override
+    public void clear() {
+        if (!isEmpty()) {
+            modified = true;
+        }
+        super.clear();
+    }
+
+    /**
+     * Returns true if attributes were added, changed or removed since these attributes were created or since
+     * {@link #resetModified()} was last invoked. Changes made through the {@link #keySet()}, {@link #values()} or
+     * {@link #entrySet()} views are not tracked.
+     *
+     * @return true if the attributes were modified
+     */
+    public boolean isModified() {
+        return modified;
+    }
+
+    /**
+     * Marks the attributes as not modified, typically once the changes have been saved.
+     */
+    public void resetModified() {
+        modified = false;
+    }
+
     /**
      * Converts the value into a String using the <code>toString</code> method
      *
@@ -0,0 +1,147 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.common;
+
+import org.gatein.api.ApiException;
+import org.gatein.api.internal.ObjectToStringBuilder;
+import org.gatein.api.internal.Parameters;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The outcome of a batch write, such as {@link org.gatein.api.Portal#saveSites(java.util.Collection, int)}, reporting which
+ * items were written and why the others failed. A failed item does not prevent the other items from being written.
+ *
+ * @param <K> the type of the ids of the items
+ */
+public final class BatchResult<K> implements Serializable {
+    /**
+     * A chunk size suitable for most batch writes
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+
+    private final List<K> succeeded;
+    private final Map<K, ApiException> failed;
+
+    private BatchResult(List<K> succeeded, Map<K, ApiException> failed) {
+        this.succeeded = Collections.unmodifiableList(succeeded);
+        this.failed = Collections.unmodifiableMap(failed);
+    }
+
+    /**
+     * The ids of the items written, in the order they were given
+     *
+     * @return an unmodifiable list of ids
+     */
+    public List<K> getSucceeded() {
+        return succeeded;
+    }
+
+    /**
+     * The ids of the items that failed, mapped to the cause of the failure, in the order they were given
+     *
+     * @return an unmodifiable map of ids to exceptions
+     */
+    public Map<K, ApiException> getFailed() {
+        return failed;
+    }
+
+    /**
+     * Returns true if all items were written
+     *
+     * @return true if no item failed
+     */
+    public boolean isSuccessful() {
+        return failed.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return ObjectToStringBuilder.toStringBuilder(getClass()).add("succeeded", succeeded.size())
+                .add("failed", failed.keySet()).toString();
+    }
+
+    /**
+     * Collects the outcome of each item of a batch write. This is intended to be used by implementations.
+     *
+     * @param <K> the type of the ids of the items
+     */
+    public static class Builder<K> {
+        private final List<K> succeeded;
+        private final Map<K, ApiException> failed;
+
+        public Builder() {
+            this.succeeded = new ArrayList<K>();
+            this.failed = new LinkedHashMap<K, ApiException>();
+        }
+
+        /**
+         * Records that the item was written
+         *
+         * @param id the id of the item
+         * @return this builder
+         * @throws IllegalArgumentException if id is null
+         */
+        public Builder<K> succeeded(K id) {
+            succeeded.add(Parameters.requireNonNull(id, "id"));
+            return this;
+        }
+
+        /**
+         * Records that the item failed
+         *
+         * @param id the id of the item
+         * @param cause the cause of the failure
+         * @return this builder
+         * @throws IllegalArgumentException if id or cause is null
+         */
+        public Builder<K> failed(K id, ApiException cause) {
+            failed.put(Parameters.requireNonNull(id, "id"), Parameters.requireNonNull(cause, "cause"));
+            return this;
+        }
+
+        /**
+         * Records the outcome of all items of another result, for example of a chunk of the batch
+         *
+         * @param result the result
+         * @return this builder
+         * @throws IllegalArgumentException if result is null
+         */
+        public Builder<K> addAll(BatchResult<K> result) {
+            Parameters.requireNonNull(result, "result");
+
+            succeeded.addAll(result.succeeded);
+            failed.putAll(result.failed);
+            return this;
+        }
+
+        public BatchResult<K> build() {
+            return new BatchResult<K>(new ArrayList<K>(succeeded), new LinkedHashMap<K, ApiException>(failed));
+        }
+    }
+}
@@ -0,0 +1,387 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.common;
+
+import org.gatein.api.internal.ObjectToStringBuilder;
+import org.gatein.api.internal.Parameters;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Declarative criteria for querying elements, built from conditions on {@link Field}'s combined with and, or and not. For
+ * example
+ *
+ * <pre>
+ * SiteField.TYPE.equalTo(SiteType.SITE).and(SiteField.NAME.startsWith(&quot;intranet&quot;).negate())
+ * </pre>
+ * <p>
+ * Unlike a {@link Filter}, criteria can be inspected with a {@link Visitor}, so implementations can evaluate them with index
+ * lookups or translate them to a query of the underlying storage, instead of loading every element. Criteria are also a
+ * <code>Filter</code>, evaluated in memory by {@link #accept(Object)}.
+ * </p>
+ *
+ * @param <T> the type of the elements
+ */
+public abstract class Criteria<T> implements Filter<T> {
+    /**
+     * Creates criteria matching elements that match all of the criteria
+     *
+     * @param criteria the criteria
+     * @return the criteria
+     * @throws IllegalArgumentException if criteria is null, empty or contains null
+     */
+    public static <T> Criteria<T> all(List<Criteria<T>> criteria) {
+        return new And<T>(copy(criteria));
+    }
+
+    /**
+     * Creates criteria matching elements that match any of the criteria
+     *
+     * @param criteria the criteria
+     * @return the criteria
+     * @throws IllegalArgumentException if criteria is null, empty or contains null
+     */
+    public static <T> Criteria<T> any(List<Criteria<T>> criteria) {
+        return new Or<T>(copy(criteria));
+    }
+
+    private static <T> List<Criteria<T>> copy(List<Criteria<T>> criteria) {
+        Parameters.requireNonEmpty(criteria, "criteria");
+        for (Criteria<T> c : criteria) {
+            Parameters.requireNonNull(c, "criteria");
+        }
+        return Collections.unmodifiableList(new ArrayList<Criteria<T>>(criteria));
+    }
+
+    Criteria() {
+    }
+
+    /**
+     * Creates criteria matching elements that match both this and the other criteria
+     *
+     * @param other the other criteria
+     * @return the criteria
+     * @throws IllegalArgumentException if other is null
+     */
+    public Criteria<T> and(Criteria<T> other) {
+        List<Criteria<T>> list = new ArrayList<Criteria<T>>(2);
+        list.add(this);
+        list.add(Parameters.requireNonNull(other, "other"));
+        return new And<T>(Collections.unmodifiableList(list));
+    }
+
+    /**
+     * Creates criteria matching elements that match either this or the other criteria
+     *
+     * @param other the other criteria
+     * @return the criteria
+     * @throws IllegalArgumentException if other is null
+     */
+    public Criteria<T> or(Criteria<T> other) {
+        List<Criteria<T>> list = new ArrayList<Criteria<T>>(2);
+        list.add(this);
+        list.add(Parameters.requireNonNull(other, "other"));
+        return new Or<T>(Collections.unmodifiableList(list));
+    }
+
+    /**
+     * Creates criteria matching elements that do not match this criteria
+     *
+     * @return the criteria
+     */
+    public Criteria<T> negate() {
+        return new Not<T>(this);
+    }
+
+    /**
+     * Visits this criteria
+     *
+     * @param visitor the visitor
+     * @return the result of the visitor
+     */
+    public abstract <R> R visit(Visitor<T, R> visitor);
+
+    /**
+     * A visitor of the structure of {@link Criteria}, used by implementations to evaluate or translate criteria.
+     *
+     * @param <T> the type of the elements
+     * @param <R> the type of the result
+     */
+    public static interface Visitor<T, R> {
+        /**
+         * Visits criteria matching all of the criteria
+         *
+         * @param criteria the criteria combined
+         * @return the result
+         */
+        R visitAnd(List<Criteria<T>> criteria);
+
+        /**
+         * Visits criteria matching any of the criteria
+         *
+         * @param criteria the criteria combined
+         * @return the result
+         */
+        R visitOr(List<Criteria<T>> criteria);
+
+        /**
+         * Visits criteria matching elements that do not match the criteria
+         *
+         * @param criteria the criteria negated
+         * @return the result
+         */
+        R visitNot(Criteria<T> criteria);
+
+        /**
+         * Visits a condition on a field
+         *
+         * @param condition the condition
+         * @return the result
+         */
+        R visitCondition(Condition<T, ?> condition);
+    }
+
+    /**
+     * The operator of a {@link Condition}
+     */
+    public static enum Operator {
+        /**
+         * The value of the field is equal to the operand
+         */
+        EQUAL,
+
+        /**
+         * The value of the field is equal to any of the values in the operand, which is a collection
+         */
+        IN,
+
+        /**
+         * The value of the field, which is a string, starts with the operand
+         */
+        STARTS_WITH,
+
+        /**
+         * The value of the field, which is a collection, contains the operand
+         */
+        CONTAINS
+    }
+
+    /**
+     * A condition on the value of a field, created from a {@link Field}
+     *
+     * @param <T> the type of the elements
+     * @param <V> the type of the value of the field
+     */
+    public static final class Condition<T, V> extends Criteria<T> {
+        private final Field<T, V> field;
+        private final Operator operator;
+        private final Object operand;
+
+        Condition(Field<T, V> field, Operator operator, Object operand) {
+            this.field = field;
+            this.operator = operator;
+            this.operand = operand;
+        }
+
+        public Field<T, V> getField() {
+            return field;
+        }
+
+        public Operator getOperator() {
+            return operator;
+        }
+
+        /**
+         * The operand of the condition. This is a collection of values for {@link Operator#IN}.
+         *
+         * @return the operand
+         */
+        public Object getOperand() {
+            return operand;
+        }
+
+        @Override
+        public boolean accept(T element) {
+            Object value = field.getValue(element);
+            switch (operator) {
+                case EQUAL:
+                    return (value == null) ? operand == null : value.equals(operand);
+                case IN:
+                    return ((Collection<?>) operand).contains(value);
+                case STARTS_WITH:
+                    return value != null && ((String) value).startsWith((String) operand);
+                case CONTAINS:
+                    return value != null && ((Collection<?>) value).contains(operand);
+                default:
+                    throw new AssertionError(operator);
+            }
+        }
+
+        @Override
+        public <R> R visit(Visitor<T, R> visitor) {
+            return visitor.visitCondition(this);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (o == null || getClass() != o.getClass())
+                return false;
+
+            Condition<?, ?> condition = (Condition<?, ?>) o;
+
+            return field.equals(condition.field) && operator == condition.operator
+                    && (operand == null ? condition.operand == null : operand.equals(condition.operand));
+        }
+
+        @Override
+        public int hashCode() {
+            int result = field.hashCode();
+            result = 31 * result + operator.hashCode();
+            result = 31 * result + (operand != null ? operand.hashCode() : 0);
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return ObjectToStringBuilder.toStringBuilder(getClass()).add("field", field).add("operator", operator)
+                    .add("operand", operand).toString();
+        }
+    }
+
+    private static final class And<T> extends Criteria<T> {
+        private final List<Criteria<T>> criteria;
+
+        And(List<Criteria<T>> criteria) {
+            this.criteria = criteria;
+        }
+
+        @Override
+        public boolean accept(T element) {
+            for (Criteria<T> c : criteria) {
+                if (!c.accept(element))
+                    return false;
+            }
+            return true;
+        }
+
+        @Override
+        public <R> R visit(Visitor<T, R> visitor) {
+            return visitor.visitAnd(criteria);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || (o != null && getClass() == o.getClass() && criteria.equals(((And<?>) o).criteria));
+        }
+
+        @Override
+        public int hashCode() {
+            return criteria.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return ObjectToStringBuilder.toStringBuilder(getClass()).add("and", criteria).toString();
+        }
+    }
+
+    private static final class Or<T> extends Criteria<T> {
+        private final List<Criteria<T>> criteria;
+
+        Or(List<Criteria<T>> criteria) {
+            this.criteria = criteria;
+        }
+
+        @Override
+        public boolean accept(T element) {
+            for (Criteria<T> c : criteria) {
+                if (c.accept(element))
+                    return true;
+            }
+            return false;
+        }
+
+        @Override
+        public <R> R visit(Visitor<T, R> visitor) {
+            return visitor.visitOr(criteria);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || (o != null && getClass() == o.getClass() && criteria.equals(((Or<?>) o).criteria));
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * criteria.hashCode() + 1;
+        }
+
+        @Override
+        public String toString() {
+            return ObjectToStringBuilder.toStringBuilder(getClass()).add("or", criteria).toString();
+        }
+    }
+
+    private static final class Not<T> extends Criteria<T> {
+        private final Criteria<T> criteria;
+
+        Not(Criteria<T> criteria) {
+            this.criteria = criteria;
+        }
+
+        @Override
+        public boolean accept(T element) {
+            return !criteria.accept(element);
+        }
+
+        @Override
+        public Criteria<T> negate() {
+            return criteria;
+        }
+
+        @Override
+        public <R> R visit(Visitor<T, R> visitor) {
+            return visitor.visitNot(criteria);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || (o != null && getClass() == o.getClass() && criteria.equals(((Not<?>) o).criteria));
+        }
+
+        @Override
+        public int hashCode() {
+            return ~criteria.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return ObjectToStringBuilder.toStringBuilder(getClass()).add("not", criteria).toString();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.common;
+
+import java.io.Closeable;
+import java.util.Iterator;
+
+/**
+ * An iterator over results which are fetched lazily, for example in batches from storage. A cursor should be closed once no
+ * longer used to release any resources held, even if it was not iterated to the end.
+ *
+ * @see org.gatein.api.Portal#streamSites(org.gatein.api.site.SiteQuery, int)
+ * @see org.gatein.api.Portal#streamPages(org.gatein.api.page.PageQuery, int)
+ */
+public interface Cursor<T> extends Iterator<T>, Closeable {
+    /**
+     * Releases any resources held by this cursor. Once closed {@link #hasNext()} returns false. Closing a cursor more than
+     * once has no effect.
+     */
+    @Override
+    void close();
+}
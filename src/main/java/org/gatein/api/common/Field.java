@@ -0,0 +1,150 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.common;
+
+import org.gatein.api.internal.Parameters;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * A field of an element that can be used to create {@link Criteria}. Fields are defined as constants, for example
+ * {@link org.gatein.api.site.SiteField#NAME}, so implementations can recognize them by name and look them up in an index.
+ *
+ * @param <T> the type of the element
+ * @param <V> the type of the value of the field
+ */
+public abstract class Field<T, V> implements Serializable {
+    private final String name;
+
+    protected Field(String name) {
+        this.name = Parameters.requireNonNull(name, "name");
+    }
+
+    /**
+     * The name of the field
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the value of the field of the element. This is used to evaluate criteria in memory.
+     *
+     * @param element the element
+     * @return the value, which can be null
+     */
+    public abstract V getValue(T element);
+
+    /**
+     * Creates criteria matching elements where the value of this field is equal to the value
+     *
+     * @param value the value, which can be null
+     * @return the criteria
+     */
+    public Criteria<T> equalTo(V value) {
+        return new Criteria.Condition<T, V>(this, Criteria.Operator.EQUAL, value);
+    }
+
+    /**
+     * Creates criteria matching elements where the value of this field is equal to any of the values
+     *
+     * @param values the values
+     * @return the criteria
+     * @throws IllegalArgumentException if values is null
+     */
+    public Criteria<T> in(Collection<? extends V> values) {
+        Parameters.requireNonNull(values, "values");
+        return new Criteria.Condition<T, V>(this, Criteria.Operator.IN,
+                Collections.unmodifiableList(new ArrayList<V>(values)));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+
+        return name.equals(((Field<?, ?>) o).name);
+    }
+
+    @Override
+    public int hashCode() {
+        return name.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    /**
+     * A field with a string value
+     *
+     * @param <T> the type of the element
+     */
+    public abstract static class StringField<T> extends Field<T, String> {
+        protected StringField(String name) {
+            super(name);
+        }
+
+        /**
+         * Creates criteria matching elements where the value of this field starts with the prefix
+         *
+         * @param prefix the prefix
+         * @return the criteria
+         * @throws IllegalArgumentException if prefix is null
+         */
+        public Criteria<T> startsWith(String prefix) {
+            return new Criteria.Condition<T, String>(this, Criteria.Operator.STARTS_WITH,
+                    Parameters.requireNonNull(prefix, "prefix"));
+        }
+    }
+
+    /**
+     * A field with a collection of values, for example the keys of {@link Attributes}
+     *
+     * @param <T> the type of the element
+     * @param <E> the type of the values in the collection
+     */
+    public abstract static class CollectionField<T, E> extends Field<T, Collection<E>> {
+        protected CollectionField(String name) {
+            super(name);
+        }
+
+        /**
+         * Creates criteria matching elements where the values of this field contain the value
+         *
+         * @param value the value
+         * @return the criteria
+         */
+        public Criteria<T> contains(E value) {
+            return new Criteria.Condition<T, Collection<E>>(this, Criteria.Operator.CONTAINS, value);
+        }
+    }
+}
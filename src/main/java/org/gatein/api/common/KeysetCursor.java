@@ -0,0 +1,128 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.common;
+
+import org.gatein.api.internal.Parameters;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A {@link Cursor} fetching results in batches using the key of the last result seen, instead of an offset. Each batch is
+ * fetched with {@link #fetch(Object, int)}, so iterating all results costs time proportional to the number of results and
+ * only one batch is held in memory at a time. This is intended to be used by implementations of the API.
+ * <p>
+ * Results must be fetched ordered by their key, and keys must be unique.
+ * </p>
+ *
+ * @param <T> the type of the results
+ * @param <K> the type of the key of the results
+ */
+public abstract class KeysetCursor<T, K> implements Cursor<T> {
+    private final int fetchSize;
+    private K last;
+    private Iterator<T> batch;
+    private boolean exhausted;
+    private boolean closed;
+
+    /**
+     * Creates a cursor starting with the first result
+     *
+     * @param fetchSize the number of results to fetch in one batch
+     * @throws IllegalArgumentException if fetchSize is less than 1
+     */
+    protected KeysetCursor(int fetchSize) {
+        this(null, fetchSize);
+    }
+
+    /**
+     * Creates a cursor starting with the first result after the key
+     *
+     * @param startAfter the key of the result to start after, or null to start with the first result
+     * @param fetchSize the number of results to fetch in one batch
+     * @throws IllegalArgumentException if fetchSize is less than 1
+     */
+    protected KeysetCursor(K startAfter, int fetchSize) {
+        if (fetchSize < 1)
+            throw new IllegalArgumentException("fetchSize must be greater than 0");
+
+        this.last = startAfter;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Fetches the next batch of results, ordered by key.
+     *
+     * @param after the key of the last result seen, or null to fetch the first results
+     * @param limit the maximum number of results to fetch
+     * @return the results with a key greater than after. Fewer results than limit means there are no more results.
+     */
+    protected abstract List<T> fetch(K after, int limit);
+
+    /**
+     * Returns the key of a result
+     *
+     * @param result the result
+     * @return the key
+     */
+    protected abstract K getKey(T result);
+
+    @Override
+    public boolean hasNext() {
+        if (closed)
+            return false;
+
+        if (batch != null && batch.hasNext())
+            return true;
+
+        if (exhausted)
+            return false;
+
+        List<T> results = Parameters.requireNonNull(fetch(last, fetchSize), "results");
+        exhausted = results.size() < fetchSize;
+        batch = results.iterator();
+        return batch.hasNext();
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+
+        T result = batch.next();
+        last = getKey(result);
+        return result;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Remove operation not supported");
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        batch = null;
+    }
+}
@@ -73,6 +73,37 @@ public class Pagination implements Serializable {
         return limit;
     }
 
+    /**
+     * The number of pages needed to show all results, with this pagination's limit per page. For example with the total
+     * returned by {@link org.gatein.api.Portal#countSites(org.gatein.api.site.SiteQuery)} to show "page X of Y".
+     *
+     * @param totalCount the total number of results
+     * @return the number of pages, which is at least 1
+     * @throws IllegalArgumentException if totalCount is negative
+     */
+    public int getPageCount(int totalCount) {
+        if (totalCount < 0)
+            throw new IllegalArgumentException("totalCount cannot be negative");
+        if (totalCount == 0 || limit < 0)
+            return 1;
+
+        return (int) ((totalCount + (long) limit - 1) / limit);
+    }
+
+    /**
+     * If there are more results after the page this pagination object represents
+     *
+     * @param totalCount the total number of results
+     * @return true if there is a next page, false otherwise
+     * @throws IllegalArgumentException if totalCount is negative
+     */
+    public boolean hasNext(int totalCount) {
+        if (totalCount < 0)
+            throw new IllegalArgumentException("totalCount cannot be negative");
+
+        return limit > 0 && (long) offset + limit < totalCount;
+    }
+
     /**
      * Creates a new pagination object representing the next page
      *
@@ -23,18 +23,41 @@
 package org.gatein.api.common;
 
 import org.gatein.api.internal.ObjectToStringBuilder;
+import org.gatein.api.internal.Parameters;
+import org.gatein.api.internal.TopK;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.List;
 
 /**
- * A sorting object defining order (ASC, DESC) or a custom comparator, but not both.
+ * A sorting object defining order (ASC, DESC), a custom comparator, or a list of sort keys, but only one of them.
+ * <p>
+ * Sort keys sort by the value of a {@link Field}, then by the value of the next field for elements with equal values, for
+ * example <code>Sorting.by(SiteField.DISPLAY_NAME, Order.ascending).thenBy(SiteField.NAME, Order.ascending)</code>. Unlike
+ * a comparator, implementations can recognize the fields of sort keys and sort where the elements are stored.
+ * </p>
  *
  * @author <a href="mailto:nscavell@redhat.com">Nick Scavelli</a>
  */
 public class Sorting<T> implements Serializable {
+    /**
+     * Creates a sorting object sorting by the value of the field
+     *
+     * @param field the field, which must have a <code>Comparable</code> value
+     * @param order the order to sort the values of the field
+     * @return the sorting object
+     * @throws IllegalArgumentException if field or order is null
+     */
+    public static <T> Sorting<T> by(Field<T, ? extends Comparable<?>> field, Order order) {
+        return new Sorting<T>(Collections.singletonList(new Key<T>(field, order)));
+    }
+
     private final Order order;
     private final Comparator<T> comparator;
+    private final List<Key<T>> keys;
 
     /**
      * A sorting object with an order, i.e. ascending or descending. T must be comparable.
@@ -42,7 +65,7 @@ public class Sorting<T> implements Serializable {
      * @param order the order to sort.
      */
     public Sorting(Order order) {
-        this(order, null);
+        this(order, null, Collections.<Key<T>> emptyList());
     }
 
     /**
@@ -52,12 +75,50 @@ public class Sorting<T> implements Serializable {
      * @see Comparator
      */
     public Sorting(Comparator<T> comparator) {
-        this(null, comparator);
+        this(null, comparator, Collections.<Key<T>> emptyList());
     }
 
-    private Sorting(Order order, Comparator<T> comparator) {
+    /**
+     * A sorting object which will sort by the keys, in order of the list.
+     *
+     * @param keys the sort keys
+     * @throws IllegalArgumentException if keys is null, empty or contains null
+     */
+    public Sorting(List<Key<T>> keys) {
+        this(null, null, copy(keys));
+    }
+
+    private Sorting(Order order, Comparator<T> comparator, List<Key<T>> keys) {
         this.order = order;
         this.comparator = comparator;
+        this.keys = keys;
+    }
+
+    private static <T> List<Key<T>> copy(List<Key<T>> keys) {
+        Parameters.requireNonEmpty(keys, "keys");
+        for (Key<T> key : keys) {
+            Parameters.requireNonNull(key, "key");
+        }
+        return Collections.unmodifiableList(new ArrayList<Key<T>>(keys));
+    }
+
+    /**
+     * Creates a new sorting object with the sort keys of this sorting object followed by the field, to sort elements with
+     * equal values for all previous keys.
+     *
+     * @param field the field, which must have a <code>Comparable</code> value
+     * @param order the order to sort the values of the field
+     * @return the sorting object
+     * @throws IllegalArgumentException if field or order is null
+     * @throws IllegalStateException if this sorting object does not sort by keys
+     */
+    public Sorting<T> thenBy(Field<T, ? extends Comparable<?>> field, Order order) {
+        if (keys.isEmpty())
+            throw new IllegalStateException("Sorting does not sort by keys");
+
+        List<Key<T>> list = new ArrayList<Key<T>>(keys);
+        list.add(new Key<T>(field, order));
+        return new Sorting<T>(null, null, Collections.unmodifiableList(list));
     }
 
     /**
@@ -78,12 +139,171 @@ public class Sorting<T> implements Serializable {
         return comparator;
     }
 
+    /**
+     * The keys to sort by, in order.
+     *
+     * @return the unmodifiable list of keys, which is empty if not sorting by keys.
+     */
+    public List<Key<T>> getKeys() {
+        return keys;
+    }
+
+    /**
+     * Returns a comparator implementing this sorting object, whether it's defined by an order, a comparator or keys. For an
+     * order T must be comparable.
+     *
+     * @return the comparator
+     */
+    public Comparator<T> asComparator() {
+        if (comparator != null)
+            return comparator;
+        if (!keys.isEmpty())
+            return new KeysComparator<T>(keys);
+
+        return new NaturalComparator<T>(order == Order.descending);
+    }
+
+    /**
+     * Sorts the elements, and returns the page of the sorted elements described by the pagination. If the pagination has a
+     * limit, only the elements up to the end of the page are kept in order using a bounded heap, so returning the first page
+     * of n elements does not cost a full sort. Elements that are equal keep their order.
+     *
+     * @param elements the elements
+     * @param pagination the pagination, or null to return all elements
+     * @return a new list with the sorted page of elements
+     * @throws IllegalArgumentException if elements is null
+     */
+    public List<T> sort(Iterable<? extends T> elements, Pagination pagination) {
+        Parameters.requireNonNull(elements, "elements");
+
+        int offset = (pagination == null) ? 0 : Math.max(0, pagination.getOffset());
+        int limit = (pagination == null || pagination.getLimit() < 0) ? Integer.MAX_VALUE : pagination.getLimit();
+        return TopK.select(elements, asComparator(), offset, limit);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+
+        Sorting<?> sorting = (Sorting<?>) o;
+
+        return order == sorting.order
+                && (comparator == null ? sorting.comparator == null : comparator.equals(sorting.comparator))
+                && keys.equals(sorting.keys);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = order != null ? order.hashCode() : 0;
+        result = 31 * result + (comparator != null ? comparator.hashCode() : 0);
+        result = 31 * result + keys.hashCode();
+        return result;
+    }
+
     @Override
     public String toString() {
-        return ObjectToStringBuilder.toStringBuilder().add("order", order).add("comparator", comparator).toString();
+        return ObjectToStringBuilder.toStringBuilder().add("order", order).add("comparator", comparator).add("keys", keys)
+                .toString();
     }
 
     public static enum Order {
         ascending, descending
     }
+
+    /**
+     * A sort key, sorting by the value of a field
+     */
+    public static final class Key<T> implements Serializable {
+        private final Field<T, ? extends Comparable<?>> field;
+        private final Order order;
+
+        /**
+         * Creates a sort key
+         *
+         * @param field the field, which must have a <code>Comparable</code> value
+         * @param order the order to sort the values of the field
+         * @throws IllegalArgumentException if field or order is null
+         */
+        public Key(Field<T, ? extends Comparable<?>> field, Order order) {
+            this.field = Parameters.requireNonNull(field, "field");
+            this.order = Parameters.requireNonNull(order, "order");
+        }
+
+        public Field<T, ? extends Comparable<?>> getField() {
+            return field;
+        }
+
+        public Order getOrder() {
+            return order;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (o == null || getClass() != o.getClass())
+                return false;
+
+            Key<?> key = (Key<?>) o;
+
+            return field.equals(key.field) && order == key.order;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * field.hashCode() + order.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return field.getName() + " " + order;
+        }
+    }
+
+    // Sorts by keys, null values first in ascending order
+    private static class KeysComparator<T> implements Comparator<T>, Serializable {
+        private final List<Key<T>> keys;
+
+        private KeysComparator(List<Key<T>> keys) {
+            this.keys = keys;
+        }
+
+        @Override
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        public int compare(T o1, T o2) {
+            for (Key<T> key : keys) {
+                Comparable v1 = key.field.getValue(o1);
+                Comparable v2 = key.field.getValue(o2);
+
+                int result;
+                if (v1 == null) {
+                    result = (v2 == null) ? 0 : -1;
+                } else {
+                    result = (v2 == null) ? 1 : v1.compareTo(v2);
+                }
+
+                if (result != 0)
+                    return (key.order == Order.descending) ? -result : result;
+            }
+            return 0;
+        }
+    }
+
+    private static class NaturalComparator<T> implements Comparator<T>, Serializable {
+        private final boolean descending;
+
+        private NaturalComparator(boolean descending) {
+            this.descending = descending;
+        }
+
+        @Override
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        public int compare(T o1, T o2) {
+            int result = ((Comparable) o1).compareTo(o2);
+            return descending ? -result : result;
+        }
+    }
 }
@@ -0,0 +1,126 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.common;
+
+import org.gatein.api.internal.ObjectToStringBuilder;
+import org.gatein.api.internal.Parameters;
+import org.gatein.api.security.Permission;
+
+import java.io.Serializable;
+
+/**
+ * The base of immutable summaries of sites and pages, with the id, display name, description and optionally the
+ * permissions of the summarized element. Summaries are only equal to summaries of the same class.
+ *
+ * @param <I> the type of the id
+ */
+public abstract class Summary<I> implements Serializable {
+    private final I id;
+    private final String displayName;
+    private final String description;
+    private final Permission accessPermission;
+    private final Permission editPermission;
+
+    /**
+     * Creates a summary
+     *
+     * @param id the id
+     * @param displayName the display name, or null
+     * @param description the description, or null
+     * @param accessPermission the access permission, or null if permissions are not included
+     * @param editPermission the edit permission, or null if permissions are not included
+     * @throws IllegalArgumentException if id is null
+     */
+    protected Summary(I id, String displayName, String description, Permission accessPermission, Permission editPermission) {
+        this.id = Parameters.requireNonNull(id, "id");
+        this.displayName = displayName;
+        this.description = description;
+        this.accessPermission = accessPermission;
+        this.editPermission = editPermission;
+    }
+
+    public I getId() {
+        return id;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * The permission that represents what users are allowed to access the summarized element
+     *
+     * @return the access permission, or null if permissions were not included
+     */
+    public Permission getAccessPermission() {
+        return accessPermission;
+    }
+
+    /**
+     * The permission that represents what users are allowed to modify the summarized element
+     *
+     * @return the edit permission, or null if permissions were not included
+     */
+    public Permission getEditPermission() {
+        return editPermission;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+
+        Summary<?> summary = (Summary<?>) o;
+
+        return id.equals(summary.id) && equals(displayName, summary.displayName)
+                && equals(description, summary.description) && equals(accessPermission, summary.accessPermission)
+                && equals(editPermission, summary.editPermission);
+    }
+
+    private static boolean equals(Object o1, Object o2) {
+        return (o1 == null) ? o2 == null : o1.equals(o2);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = id.hashCode();
+        result = 31 * result + (displayName != null ? displayName.hashCode() : 0);
+        result = 31 * result + (description != null ? description.hashCode() : 0);
+        result = 31 * result + (accessPermission != null ? accessPermission.hashCode() : 0);
+        result = 31 * result + (editPermission != null ? editPermission.hashCode() : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return ObjectToStringBuilder.toStringBuilder(getClass()).add("id", id).add("displayName", displayName)
+                .add("description", description).add("accessPermission", accessPermission)
+                .add("editPermission", editPermission).toString();
+    }
+}
@@ -42,6 +42,7 @@ import java.util.Map;
  */
 public abstract class Localized<T extends Serializable> implements Iterable<T>, Serializable {
     private final Map<Locale, Value<T>> values;
+    private transient boolean modified;
 
     protected Localized(Localized<T> localized) {
         this.values = new HashMap<Locale, Value<T>>(localized.values);
@@ -98,7 +99,10 @@ public abstract class Localized<T extends Serializable> implements Iterable<T>,
      * @return this
      */
     public Localized<T> setLocalizedValue(Locale locale, T value) {
-        values.put(locale, new Value<T>(locale, value));
+        Value<T> oldValue = values.put(locale, new Value<T>(locale, value));
+        if (oldValue == null || (value == null ? oldValue.getValue() != null : !value.equals(oldValue.getValue()))) {
+            modified = true;
+        }
 
         return this;
     }
@@ -109,7 +113,26 @@ public abstract class Localized<T extends Serializable> implements Iterable<T>,
      * @param locale the locale
      */
     public void removeLocalizedValue(Locale locale) {
-        values.remove(locale);
+        if (values.remove(locale) != null) {
+            modified = true;
+        }
+    }
+
+    /**
+     * Returns true if values were set or removed since this object was created or since {@link #resetModified()} was last
+     * invoked.
+     *
+     * @return true if the values were modified
+     */
+    public boolean isModified() {
+        return modified;
+    }
+
+    /**
+     * Marks the values as not modified, typically once the changes have been saved.
+     */
+    public void resetModified() {
+        modified = false;
     }
 
     /**
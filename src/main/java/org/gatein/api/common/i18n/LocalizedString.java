@@ -82,6 +82,10 @@ public class LocalizedString extends Localized<String> {
      * @return the localized string
      */
     public LocalizedString setValue(String value) {
+        if (!isLocalized() && getLocalizedValues().size() == 1 && value != null && value.equals(getValue())) {
+            return this;
+        }
+
         for (Value<String> v : getLocalizedValues()) {
             removeLocalizedValue(v.getLocale());
         }
@@ -0,0 +1,267 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.internal;
+
+import org.gatein.api.page.PageId;
+import org.gatein.api.site.SiteId;
+import org.gatein.api.site.SiteType;
+
+import java.io.IOException;
+import java.util.Formatter;
+
+/**
+ * Formats and parses the string forms of <code>SiteId</code> and <code>PageId</code> in a single pass, without regular
+ * expressions or <code>java.util.Formatter</code>.
+ */
+public class IdFormat {
+    private static final String SITE_ID = "Site.Id[";
+    private static final String PAGE_ID = "Page.Id[";
+    private static final String TYPE = "type=";
+    private static final String NAME = ", name=";
+    private static final String SITE_ID_FIELD = "siteId=[";
+    private static final String PAGE_NAME_FIELD = "], pageName=";
+
+    private static final SiteType[] SITE_TYPES = SiteType.values();
+
+    private IdFormat() {
+    }
+
+    /**
+     * @return the site id formatted as <code>Site.Id[type=site, name=classic]</code>
+     */
+    public static String toString(SiteId siteId) {
+        StringBuilder sb = new StringBuilder(SITE_ID.length() + formattedLength(siteId) + 1);
+        sb.append(SITE_ID);
+        appendFormatted(sb, siteId);
+        return sb.append(']').toString();
+    }
+
+    /**
+     * @return the site id formatted as <code>site.classic</code>, with <code>/</code> in the name replaced by <code>~</code>
+     */
+    public static String toAlternateString(SiteId siteId) {
+        StringBuilder sb = new StringBuilder(alternateLength(siteId));
+        appendAlternate(sb, siteId);
+        return sb.toString();
+    }
+
+    /**
+     * @return the page id formatted as <code>Page.Id[siteId=[type=site, name=classic], pageName=home]</code>
+     */
+    public static String toString(PageId pageId) {
+        SiteId siteId = pageId.getSiteId();
+        String pageName = pageId.getPageName();
+
+        StringBuilder sb = new StringBuilder(PAGE_ID.length() + SITE_ID_FIELD.length() + formattedLength(siteId)
+                + PAGE_NAME_FIELD.length() + pageName.length() + 1);
+        sb.append(PAGE_ID).append(SITE_ID_FIELD);
+        appendFormatted(sb, siteId);
+        return sb.append(PAGE_NAME_FIELD).append(pageName).append(']').toString();
+    }
+
+    /**
+     * @return the page id formatted as <code>site.classic.home</code>
+     */
+    public static String toAlternateString(PageId pageId) {
+        SiteId siteId = pageId.getSiteId();
+        String pageName = pageId.getPageName();
+
+        StringBuilder sb = new StringBuilder(alternateLength(siteId) + 1 + pageName.length());
+        appendAlternate(sb, siteId);
+        return sb.append('.').append(pageName).toString();
+    }
+
+    /**
+     * Writes the parts to the destination of the formatter, without parsing a format string. As with
+     * <code>Formatter</code>, an <code>IOException</code> of the destination is not thrown but made available by
+     * {@link Formatter#ioException()}, by handing the parts not written to the formatter.
+     *
+     * @param formatter the formatter
+     * @param parts the parts to write
+     */
+    public static void formatTo(Formatter formatter, String... parts) {
+        Appendable out = formatter.out();
+        for (int i = 0; i < parts.length; i++) {
+            try {
+                out.append(parts[i]);
+            } catch (IOException e) {
+                for (; i < parts.length; i++) {
+                    formatter.format("%s", parts[i]);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Parses a site id from any of the forms produced by {@link #toString(SiteId)}, {@link #toAlternateString(SiteId)} or
+     * the <code>%s</code> format of <code>SiteId</code>.
+     *
+     * @throws IllegalArgumentException if the string is not a site id
+     */
+    public static SiteId parseSiteId(String string) {
+        Parameters.requireNonNull(string, "idAsString");
+
+        SiteId siteId = parseSiteId(string, 0, string.length());
+        if (siteId == null)
+            throw new IllegalArgumentException("Unknown syntax for id string " + string);
+
+        return siteId;
+    }
+
+    /**
+     * Parses a page id from any of the forms produced by {@link #toString(PageId)}, {@link #toAlternateString(PageId)} or
+     * the <code>%s</code> format of <code>PageId</code>.
+     *
+     * @throws IllegalArgumentException if the string is not a page id
+     */
+    public static PageId parsePageId(String string) {
+        Parameters.requireNonNull(string, "idAsString");
+
+        int begin = 0;
+        int end = string.length();
+        if (string.startsWith(PAGE_ID)) {
+            if (string.charAt(end - 1) != ']')
+                return unknown(string);
+
+            begin = PAGE_ID.length();
+            end--;
+        }
+
+        SiteId siteId;
+        String pageName;
+        if (string.startsWith(SITE_ID_FIELD, begin)) {
+            int index = string.lastIndexOf(PAGE_NAME_FIELD, end - PAGE_NAME_FIELD.length());
+            if (index < begin + SITE_ID_FIELD.length())
+                return unknown(string);
+
+            siteId = parseSiteId(string, begin + SITE_ID_FIELD.length(), index);
+            pageName = string.substring(index + PAGE_NAME_FIELD.length(), end);
+        } else {
+            int index = string.lastIndexOf('.', end - 1);
+            if (index < begin)
+                return unknown(string);
+
+            siteId = parseSiteId(string, begin, index);
+            pageName = string.substring(index + 1, end);
+        }
+
+        if (siteId == null)
+            return unknown(string);
+
+        return new PageId(siteId, pageName);
+    }
+
+    private static PageId unknown(String string) {
+        throw new IllegalArgumentException("Unknown syntax for id string " + string);
+    }
+
+    private static SiteId parseSiteId(String string, int begin, int end) {
+        if (string.startsWith(SITE_ID, begin)) {
+            // The toString() form, the name is taken as is
+            if (end - begin <= SITE_ID.length() || string.charAt(end - 1) != ']')
+                return null;
+
+            return parseFormatted(string, begin + SITE_ID.length(), end - 1, false);
+        } else if (string.startsWith(TYPE, begin)) {
+            return parseFormatted(string, begin, end, true);
+        } else {
+            int index = string.indexOf('.', begin);
+            if (index < 0 || index >= end)
+                return null;
+
+            SiteType type = parseType(string, begin, index);
+            String name = parseName(string, index + 1, end);
+            return (type == null || name == null) ? null : new SiteId(type, name);
+        }
+    }
+
+    private static SiteId parseFormatted(String string, int begin, int end, boolean validate) {
+        if (!string.startsWith(TYPE, begin))
+            return null;
+
+        int index = string.indexOf(NAME, begin + TYPE.length());
+        if (index < 0 || index + NAME.length() > end)
+            return null;
+
+        SiteType type = parseType(string, begin + TYPE.length(), index);
+        String name = validate ? parseName(string, index + NAME.length(), end) : string.substring(index + NAME.length(), end);
+        return (type == null || name == null) ? null : new SiteId(type, name);
+    }
+
+    private static SiteType parseType(String string, int begin, int end) {
+        int length = end - begin;
+        for (SiteType type : SITE_TYPES) {
+            String name = type.getName();
+            if (name.length() == length && string.startsWith(name, begin)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the name with <code>~</code> replaced by <code>/</code>, or null if it contains characters that are not
+     * allowed
+     */
+    private static String parseName(String string, int begin, int end) {
+        boolean escaped = false;
+        for (int i = begin; i < end; i++) {
+            char c = string.charAt(i);
+            if (c == '~') {
+                escaped = true;
+            } else if (!isNameChar(c)) {
+                return null;
+            }
+        }
+
+        String name = string.substring(begin, end);
+        return escaped ? name.replace('~', '/') : name;
+    }
+
+    private static boolean isNameChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-' || c == '_'
+                || c == '/';
+    }
+
+    private static int formattedLength(SiteId siteId) {
+        return TYPE.length() + siteId.getType().getName().length() + NAME.length() + siteId.getName().length();
+    }
+
+    private static void appendFormatted(StringBuilder sb, SiteId siteId) {
+        sb.append(TYPE).append(siteId.getType().getName()).append(NAME).append(siteId.getName());
+    }
+
+    private static int alternateLength(SiteId siteId) {
+        return siteId.getType().getName().length() + 1 + siteId.getName().length();
+    }
+
+    private static void appendAlternate(StringBuilder sb, SiteId siteId) {
+        sb.append(siteId.getType().getName()).append('.');
+        String name = siteId.getName();
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            sb.append(c == '/' ? '~' : c);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.internal;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Returns a canonical instance for values that are equal, similar to {@link String#intern()}. Canonical instances are only
+ * weakly referenced, so they are garbage collected once no longer in use elsewhere. Values are spread over a number of
+ * independently locked stripes to reduce contention.
+ */
+public class Interner<T> {
+    /**
+     * Whether ids and memberships parsed from strings are interned, enabled with the <code>org.gatein.api.intern</code>
+     * system property
+     */
+    public static final boolean INTERN_PARSED = Boolean.getBoolean("org.gatein.api.intern");
+
+    private static final int DEFAULT_CONCURRENCY = 16;
+
+    private final Map<T, WeakReference<T>>[] stripes;
+    private final int mask;
+
+    public Interner() {
+        this(DEFAULT_CONCURRENCY);
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public Interner(int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("concurrency must be greater than 0");
+        }
+
+        int size = 1;
+        while (size < concurrency) {
+            size <<= 1;
+        }
+
+        stripes = new Map[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new WeakHashMap<T, WeakReference<T>>();
+        }
+        mask = size - 1;
+    }
+
+    public T intern(T value) {
+        if (value == null) {
+            return null;
+        }
+
+        Map<T, WeakReference<T>> stripe = stripes[spread(value.hashCode()) & mask];
+        synchronized (stripe) {
+            WeakReference<T> ref = stripe.get(value);
+            T canonical = (ref == null) ? null : ref.get();
+            if (canonical == null) {
+                stripe.put(value, new WeakReference<T>(value));
+                canonical = value;
+            }
+            return canonical;
+        }
+    }
+
+    private static int spread(int h) {
+        h ^= (h >>> 20) ^ (h >>> 12);
+        return h ^ (h >>> 7) ^ (h >>> 4);
+    }
+}
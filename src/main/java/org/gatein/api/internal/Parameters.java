@@ -47,6 +47,26 @@ public class Parameters {
         return value;
     }
 
+    public static <S, T extends Collection<S>> T requireNonNullElements(T value, String paramName) {
+        value = requireNonNull(value, paramName);
+
+        for (S element : value) {
+            if (element == null) {
+                throw new IllegalArgumentException(paramName + " cannot contain null");
+            }
+        }
+
+        return value;
+    }
+
+    public static int requirePositive(int value, String paramName) {
+        if (value < 1) {
+            throw new IllegalArgumentException(paramName + " must be greater than 0");
+        }
+
+        return value;
+    }
+
     public static <T> T requireNonNull(T value, String paramName) {
         if (value == null) {
             throw new IllegalArgumentException(paramName + " cannot be null");
@@ -25,7 +25,11 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class StringSplitter {
+    private static final String[] EMPTY = new String[0];
+    private static final String REGEX_META_CHARACTERS = ".$|()[{^?*+\\";
+
     private final String regex;
+    private final int separator;
     private final boolean trim;
     private final boolean ignoreEmptyStrings;
     private final int limit;
@@ -36,6 +40,7 @@ public class StringSplitter {
 
     private StringSplitter(String regex, boolean trim, boolean ignoreEmptyStrings, int limit) {
         this.regex = regex;
+        this.separator = separator(regex);
         this.trim = trim;
         this.ignoreEmptyStrings = ignoreEmptyStrings;
         this.limit = limit;
@@ -57,6 +62,10 @@ public class StringSplitter {
         if (string == null)
             return null;
 
+        return (separator < 0) ? splitRegex(string) : split(string, (char) separator);
+    }
+
+    private String[] splitRegex(String string) {
         String[] split = string.split(regex, limit);
         List<String> list = new ArrayList<String>(split.length);
         for (String s : split) {
@@ -71,11 +80,94 @@ public class StringSplitter {
         return list.toArray(new String[list.size()]);
     }
 
+    /**
+     * Splits on a single character with the same results as {@link String#split(String, int)}, scanning the string twice:
+     * once to count the parts and once to create them, so only the result array and the parts themselves are allocated.
+     */
+    private String[] split(String string, char separator) {
+        int length = string.length();
+
+        // Like String.split, trailing empty strings are removed when limit is 0
+        int end = length;
+        if (limit == 0) {
+            while (end > 0 && string.charAt(end - 1) == separator) {
+                end--;
+            }
+            if (end == 0 && length > 0)
+                return EMPTY;
+        }
+
+        int count = scan(string, separator, end, null);
+        if (count == 0)
+            return EMPTY;
+
+        String[] parts = new String[count];
+        scan(string, separator, end, parts);
+        return parts;
+    }
+
+    private int scan(String string, char separator, int end, String[] parts) {
+        int max = (limit > 0) ? limit : Integer.MAX_VALUE;
+        int count = 0;
+        int found = 0;
+        int start = 0;
+        while (true) {
+            int index = (found + 1 < max) ? string.indexOf(separator, start) : -1;
+            if (index < 0 || index > end)
+                index = end;
+
+            int from = start;
+            int to = index;
+            if (trim) {
+                while (from < to && string.charAt(from) <= ' ') {
+                    from++;
+                }
+                while (from < to && string.charAt(to - 1) <= ' ') {
+                    to--;
+                }
+            }
+
+            if (!ignoreEmptyStrings || from < to) {
+                if (parts != null) {
+                    parts[count] = string.substring(from, to);
+                }
+                count++;
+            }
+
+            found++;
+            if (index == end)
+                return count;
+
+            start = index + 1;
+        }
+    }
+
     private String trim(String string) {
         return (string == null) ? null : string.trim();
     }
 
+    /**
+     * Returns the character to split on if the regex matches a single literal character, or -1.
+     */
+    private static int separator(String regex) {
+        if (regex == null)
+            return -1;
+
+        if (regex.length() == 1) {
+            char c = regex.charAt(0);
+            return (REGEX_META_CHARACTERS.indexOf(c) < 0) ? c : -1;
+        }
+
+        if (regex.length() == 2 && regex.charAt(0) == '\\') {
+            char c = regex.charAt(1);
+            boolean literal = !Character.isLetterOrDigit(c) && !Character.isHighSurrogate(c);
+            return literal ? c : -1;
+        }
+
+        return -1;
+    }
+
     public static StringSplitter splitter(String regex) {
         return new StringSplitter(regex);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,113 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Selects a page of the smallest elements using a bounded heap, instead of sorting all elements. Selecting the first k of n
+ * elements costs O(n log k) time and O(k) memory. Elements that compare equal keep the order they were encountered in, the
+ * same as a stable sort.
+ */
+public class TopK {
+    private TopK() {
+    }
+
+    public static <T> List<T> select(Iterable<? extends T> elements, final Comparator<? super T> comparator, int offset,
+            int limit) {
+        if (offset < 0)
+            throw new IllegalArgumentException("offset cannot be negative");
+        if (limit < 0)
+            throw new IllegalArgumentException("limit cannot be negative");
+
+        long k = (long) offset + limit;
+        if (k > Integer.MAX_VALUE)
+            return sort(elements, comparator, offset, limit);
+        if (limit == 0)
+            return Collections.emptyList();
+
+        // Max-heap of the k smallest elements, where the most recently encountered of equal elements is the largest
+        PriorityQueue<Entry<T>> heap = new PriorityQueue<Entry<T>>((int) Math.min(k, 1024), new Comparator<Entry<T>>() {
+            @Override
+            public int compare(Entry<T> e1, Entry<T> e2) {
+                int result = comparator.compare(e2.element, e1.element);
+                return (result != 0) ? result : (e1.sequence < e2.sequence ? 1 : (e1.sequence == e2.sequence ? 0 : -1));
+            }
+        });
+
+        long sequence = 0;
+        for (T element : elements) {
+            if (heap.size() < k) {
+                heap.add(new Entry<T>(element, sequence));
+            } else if (comparator.compare(element, heap.peek().element) < 0) {
+                heap.poll();
+                heap.add(new Entry<T>(element, sequence));
+            }
+            sequence++;
+        }
+
+        int size = heap.size() - offset;
+        if (size <= 0)
+            return Collections.emptyList();
+
+        // Polling the max-heap returns the largest first, so fill the page from the end
+        Object[] page = new Object[size];
+        for (int i = size - 1; i >= 0; i--) {
+            page[i] = heap.poll().element;
+        }
+
+        List<T> result = new ArrayList<T>(size);
+        for (Object element : page) {
+            @SuppressWarnings("unchecked")
+            T t = (T) element;
+            result.add(t);
+        }
+        return result;
+    }
+
+    private static <T> List<T> sort(Iterable<? extends T> elements, Comparator<? super T> comparator, int offset, int limit) {
+        List<T> list = new ArrayList<T>();
+        for (T element : elements) {
+            list.add(element);
+        }
+        Collections.sort(list, comparator);
+
+        int from = Math.min(offset, list.size());
+        int to = (int) Math.min((long) offset + limit, list.size());
+        return new ArrayList<T>(list.subList(from, to));
+    }
+
+    private static class Entry<T> {
+        private final T element;
+        private final long sequence;
+
+        private Entry(T element, long sequence) {
+            this.element = element;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.memory;
+
+import org.gatein.api.common.Criteria;
+import org.gatein.api.common.Field;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Determines the values a field can have for elements to match criteria, so that only the elements stored under those
+ * values need to be considered instead of scanning all elements. Criteria are still evaluated on the remaining elements.
+ *
+ * @param <T> the type of the elements
+ */
+final class CriteriaIndex<T> implements Criteria.Visitor<T, Set<Object>> {
+    private final Field<T, ?> field;
+
+    private CriteriaIndex(Field<T, ?> field) {
+        this.field = field;
+    }
+
+    /**
+     * Returns the values the field can have for elements to match the criteria
+     *
+     * @param criteria the criteria, or null
+     * @param field the field
+     * @return the values, or null if the criteria don't restrict the values of the field
+     */
+    @SuppressWarnings("unchecked")
+    static <T, V> Set<V> values(Criteria<T> criteria, Field<T, V> field) {
+        return (criteria == null) ? null : (Set<V>) criteria.visit(new CriteriaIndex<T>(field));
+    }
+
+    /**
+     * Returns true if the criteria only restrict the values of the fields to the values returned by
+     * {@link #values(Criteria, Field)}, so that all elements stored under those values match the criteria without being
+     * evaluated
+     *
+     * @param criteria the criteria, or null
+     * @param fields the indexed fields
+     * @return true if the indexed fields cover the criteria
+     */
+    static <T> boolean covers(Criteria<T> criteria, Field<?, ?>... fields) {
+        return criteria == null || criteria.visit(new Coverage<T>(Arrays.asList(fields)));
+    }
+
+    @Override
+    public Set<Object> visitAnd(List<Criteria<T>> criteria) {
+        Set<Object> values = null;
+        for (Criteria<T> c : criteria) {
+            Set<Object> restricted = c.visit(this);
+            if (restricted != null) {
+                if (values == null) {
+                    values = new HashSet<Object>(restricted);
+                } else {
+                    values.retainAll(restricted);
+                }
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public Set<Object> visitOr(List<Criteria<T>> criteria) {
+        Set<Object> values = new HashSet<Object>();
+        for (Criteria<T> c : criteria) {
+            Set<Object> restricted = c.visit(this);
+            if (restricted == null) {
+                return null;
+            }
+            values.addAll(restricted);
+        }
+        return values;
+    }
+
+    @Override
+    public Set<Object> visitNot(Criteria<T> criteria) {
+        return null;
+    }
+
+    @Override
+    public Set<Object> visitCondition(Criteria.Condition<T, ?> condition) {
+        if (!field.equals(condition.getField())) {
+            return null;
+        }
+
+        switch (condition.getOperator()) {
+            case EQUAL:
+                return Collections.singleton(condition.getOperand());
+            case IN:
+                return new HashSet<Object>((Collection<?>) condition.getOperand());
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Determines whether criteria are a conjunction of equality and membership conditions on the indexed fields
+     */
+    private static final class Coverage<T> implements Criteria.Visitor<T, Boolean> {
+        private final List<Field<?, ?>> fields;
+
+        private Coverage(List<Field<?, ?>> fields) {
+            this.fields = fields;
+        }
+
+        @Override
+        public Boolean visitAnd(List<Criteria<T>> criteria) {
+            for (Criteria<T> c : criteria) {
+                if (!c.visit(this)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Boolean visitOr(List<Criteria<T>> criteria) {
+            return false;
+        }
+
+        @Override
+        public Boolean visitNot(Criteria<T> criteria) {
+            return false;
+        }
+
+        @Override
+        public Boolean visitCondition(Criteria.Condition<T, ?> condition) {
+            Criteria.Operator operator = condition.getOperator();
+            return fields.contains(condition.getField())
+                    && (operator == Criteria.Operator.EQUAL || operator == Criteria.Operator.IN);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.memory;
+
+import org.gatein.api.application.Application;
+import org.gatein.api.application.ApplicationType;
+import org.gatein.api.internal.ObjectToStringBuilder;
+import org.gatein.api.internal.Parameters;
+import org.gatein.api.security.Permission;
+
+import java.io.Serializable;
+
+/**
+ * An immutable application, which can be added to the {@link InMemoryApplicationRegistry} and to the layout of pages.
+ */
+public final class InMemoryApplication implements Application, Serializable {
+    private final String id;
+    private final ApplicationType type;
+    private final String applicationName;
+    private final String categoryName;
+    private final String displayName;
+    private final String description;
+    private final String iconURL;
+    private final Permission accessPermission;
+
+    /**
+     * Creates an application accessible to everyone, with the application name as display name
+     *
+     * @param id the id of the application
+     * @param type the type of the application
+     * @param applicationName the name of the application
+     * @param categoryName the name of the category of the application
+     * @throws IllegalArgumentException if id, type or applicationName is null
+     */
+    public InMemoryApplication(String id, ApplicationType type, String applicationName, String categoryName) {
+        this(id, type, applicationName, categoryName, applicationName, null, null, Permission.everyone());
+    }
+
+    /**
+     * Creates an application
+     *
+     * @param id the id of the application
+     * @param type the type of the application
+     * @param applicationName the name of the application
+     * @param categoryName the name of the category of the application
+     * @param displayName the display name
+     * @param description the description
+     * @param iconURL the URL of the icon
+     * @param accessPermission the permission of users allowed to access the application
+     * @throws IllegalArgumentException if id, type, applicationName or accessPermission is null
+     */
+    public InMemoryApplication(String id, ApplicationType type, String applicationName, String categoryName,
+            String displayName, String description, String iconURL, Permission accessPermission) {
+        this.id = Parameters.requireNonNull(id, "id");
+        this.type = Parameters.requireNonNull(type, "type");
+        this.applicationName = Parameters.requireNonNull(applicationName, "applicationName");
+        this.categoryName = categoryName;
+        this.displayName = displayName;
+        this.description = description;
+        this.iconURL = iconURL;
+        this.accessPermission = Parameters.requireNonNull(accessPermission, "accessPermission");
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public String getApplicationName() {
+        return applicationName;
+    }
+
+    @Override
+    public String getCategoryName() {
+        return categoryName;
+    }
+
+    @Override
+    public ApplicationType getType() {
+        return type;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public String getIconURL() {
+        return iconURL;
+    }
+
+    @Override
+    public Permission getAccessPermission() {
+        return accessPermission;
+    }
+
+    @Override
+    public String toString() {
+        return ObjectToStringBuilder.toStringBuilder(Application.class).add("id", id).add("type", type)
+                .add("applicationName", applicationName).add("categoryName", categoryName).toString();
+    }
+}
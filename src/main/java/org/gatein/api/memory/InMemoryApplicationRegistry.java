@@ -0,0 +1,84 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.memory;
+
+import org.gatein.api.application.Application;
+import org.gatein.api.application.ApplicationRegistry;
+import org.gatein.api.internal.Parameters;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * A thread safe application registry of the {@link InMemoryPortal}. Applications are added with
+ * {@link #addApplication(Application)}, and returned ordered by id.
+ */
+public class InMemoryApplicationRegistry implements ApplicationRegistry {
+    private final ConcurrentMap<String, Application> applications;
+
+    InMemoryApplicationRegistry() {
+        this.applications = new ConcurrentSkipListMap<String, Application>();
+    }
+
+    /**
+     * Adds an application to the registry, replacing any application with the same id.
+     *
+     * @param application the application, for example an {@link InMemoryApplication}
+     * @throws IllegalArgumentException if application is null
+     */
+    public void addApplication(Application application) {
+        Parameters.requireNonNull(application, "application");
+
+        applications.put(application.getId(), application);
+    }
+
+    /**
+     * Removes an application from the registry
+     *
+     * @param id the id of the application
+     * @return true if the application was removed, false if it was not found
+     * @throws IllegalArgumentException if id is null
+     */
+    public boolean removeApplication(String id) {
+        return applications.remove(Parameters.requireNonNull(id, "id")) != null;
+    }
+
+    @Override
+    public List<Application> getApplications() {
+        return new ArrayList<Application>(applications.values());
+    }
+
+    @Override
+    public Application getApplication(String id) {
+        return applications.get(Parameters.requireNonNull(id, "id"));
+    }
+
+    /**
+     * Does nothing, since applications are added with {@link #addApplication(Application)}.
+     */
+    @Override
+    public void importApplications() {
+    }
+}
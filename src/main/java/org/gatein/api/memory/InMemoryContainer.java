@@ -0,0 +1,133 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.memory;
+
+import org.gatein.api.composition.Container;
+import org.gatein.api.composition.ContainerItem;
+import org.gatein.api.internal.ObjectToStringBuilder;
+import org.gatein.api.internal.Parameters;
+import org.gatein.api.security.Permission;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A container of the layout of an {@link InMemoryPage}.
+ */
+class InMemoryContainer implements Container, Serializable {
+    static final String COLUMNS_TEMPLATE = "system:/groovy/portal/webui/container/UITableColumnContainer.gtmpl";
+    static final String ROWS_TEMPLATE = "system:/groovy/portal/webui/container/UIContainer.gtmpl";
+
+    private String template;
+    private Permission accessPermission;
+    private Permission moveAppsPermission;
+    private Permission moveContainersPermission;
+    private List<ContainerItem> children;
+
+    InMemoryContainer(String template) {
+        this.template = template;
+        this.accessPermission = DEFAULT_ACCESS_PERMISSION;
+        this.moveAppsPermission = DEFAULT_MOVE_APPS_PERMISSION;
+        this.moveContainersPermission = DEFAULT_MOVE_CONTAINERS_PERMISSION;
+        this.children = new ArrayList<ContainerItem>();
+    }
+
+    InMemoryContainer(Container container) {
+        this.template = container.getTemplate();
+        this.accessPermission = container.getAccessPermission();
+        this.moveAppsPermission = container.getMoveAppsPermission();
+        this.moveContainersPermission = container.getMoveContainersPermission();
+        this.children = copy(container.getChildren());
+    }
+
+    /**
+     * Copies the items, deep copying containers so that the layout of a copied page can be changed independently.
+     * Applications are immutable, and are shared.
+     */
+    static List<ContainerItem> copy(List<ContainerItem> items) {
+        List<ContainerItem> copy = new ArrayList<ContainerItem>((items == null) ? 0 : items.size());
+        if (items != null) {
+            for (ContainerItem item : items) {
+                copy.add((item instanceof Container) ? new InMemoryContainer((Container) item) : item);
+            }
+        }
+        return copy;
+    }
+
+    @Override
+    public String getTemplate() {
+        return template;
+    }
+
+    @Override
+    public void setTemplate(String template) {
+        this.template = template;
+    }
+
+    @Override
+    public List<ContainerItem> getChildren() {
+        return children;
+    }
+
+    @Override
+    public void setChildren(List<ContainerItem> children) {
+        this.children = (children == null) ? new ArrayList<ContainerItem>() : new ArrayList<ContainerItem>(children);
+    }
+
+    @Override
+    public Permission getAccessPermission() {
+        return accessPermission;
+    }
+
+    @Override
+    public void setAccessPermission(Permission permission) {
+        this.accessPermission = Parameters.requireNonNull(permission, "permission");
+    }
+
+    @Override
+    public Permission getMoveAppsPermission() {
+        return moveAppsPermission;
+    }
+
+    @Override
+    public void setMoveAppsPermission(Permission moveAppsPermission) {
+        this.moveAppsPermission = Parameters.requireNonNull(moveAppsPermission, "moveAppsPermission");
+    }
+
+    @Override
+    public Permission getMoveContainersPermission() {
+        return moveContainersPermission;
+    }
+
+    @Override
+    public void setMoveContainersPermission(Permission moveContainersPermission) {
+        this.moveContainersPermission = Parameters.requireNonNull(moveContainersPermission, "moveContainersPermission");
+    }
+
+    @Override
+    public String toString() {
+        return ObjectToStringBuilder.toStringBuilder(Container.class).add("template", template).add("children", children)
+                .toString();
+    }
+}
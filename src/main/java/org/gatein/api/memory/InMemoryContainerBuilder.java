@@ -0,0 +1,163 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.memory;
+
+import org.gatein.api.composition.Container;
+import org.gatein.api.composition.ContainerBuilder;
+import org.gatein.api.composition.ContainerItem;
+import org.gatein.api.composition.LayoutBuilder;
+import org.gatein.api.internal.Parameters;
+import org.gatein.api.security.Permission;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the containers of a layout, started from the top level {@link LayoutBuilder} or from a parent container builder.
+ *
+ * @param <T> the type of the top level builder
+ */
+class InMemoryContainerBuilder<T extends LayoutBuilder<T>> implements ContainerBuilder<T> {
+    private final T top;
+    private final InMemoryContainerBuilder<T> parent;
+    private final Container base;
+    private final List<ContainerItem> children;
+    private Permission accessPermission;
+    private Permission moveAppsPermission;
+    private Permission moveContainersPermission;
+    private boolean built;
+
+    InMemoryContainerBuilder(T top, InMemoryContainerBuilder<T> parent, Container base) {
+        this.top = top;
+        this.parent = parent;
+        this.base = base;
+        this.children = new ArrayList<ContainerItem>();
+    }
+
+    @Override
+    public ContainerBuilder<T> child(ContainerItem containerItem) {
+        children.add(Parameters.requireNonNull(containerItem, "containerItem"));
+        return this;
+    }
+
+    @Override
+    public ContainerBuilder<T> children(List<ContainerItem> children) {
+        if (children == null) {
+            this.children.clear();
+        } else {
+            for (ContainerItem child : children) {
+                child(child);
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public ContainerBuilder<T> buildToParentBuilder() {
+        if (parent == null)
+            throw new IllegalStateException("Container builder has no parent container builder");
+
+        parent.child(buildOnce());
+        return parent;
+    }
+
+    @Override
+    public T buildToTopBuilder() {
+        Container container = buildOnce();
+        if (parent == null) {
+            return top.child(container);
+        }
+
+        parent.child(container);
+        return parent.buildToTopBuilder();
+    }
+
+    private Container buildOnce() {
+        if (built)
+            throw new IllegalStateException("Container was already built to the parent or top builder");
+
+        built = true;
+        return build();
+    }
+
+    @Override
+    public Container build() {
+        InMemoryContainer container = new InMemoryContainer(base);
+        List<ContainerItem> items = new ArrayList<ContainerItem>(container.getChildren());
+        items.addAll(InMemoryContainer.copy(children));
+        container.setChildren(items);
+
+        if (accessPermission != null) {
+            container.setAccessPermission(accessPermission);
+        }
+        if (moveAppsPermission != null) {
+            container.setMoveAppsPermission(moveAppsPermission);
+        }
+        if (moveContainersPermission != null) {
+            container.setMoveContainersPermission(moveContainersPermission);
+        }
+        return container;
+    }
+
+    @Override
+    public ContainerBuilder<T> newColumnsBuilder() {
+        return newCustomContainerBuilder(InMemoryContainer.COLUMNS_TEMPLATE);
+    }
+
+    @Override
+    public ContainerBuilder<T> newRowsBuilder() {
+        return newCustomContainerBuilder(InMemoryContainer.ROWS_TEMPLATE);
+    }
+
+    @Override
+    public ContainerBuilder<T> newCustomContainerBuilder(Container container) {
+        Parameters.requireNonNull(container, "container");
+
+        return new InMemoryContainerBuilder<T>(top, this, container);
+    }
+
+    @Override
+    public ContainerBuilder<T> newCustomContainerBuilder(String template) {
+        Parameters.requireNonNull(template, "template");
+
+        return new InMemoryContainerBuilder<T>(top, this, new InMemoryContainer(template));
+    }
+
+    @Override
+    public ContainerBuilder<T> accessPermission(Permission accessPermission) {
+        this.accessPermission = Parameters.requireNonNull(accessPermission, "accessPermission");
+        return this;
+    }
+
+    @Override
+    public ContainerBuilder<T> moveAppsPermission(Permission moveAppsPermission) {
+        this.moveAppsPermission = Parameters.requireNonNull(moveAppsPermission, "moveAppsPermission");
+        return this;
+    }
+
+    @Override
+    public ContainerBuilder<T> moveContainersPermission(Permission moveContainersPermission) {
+        this.moveContainersPermission = Parameters.requireNonNull(moveContainersPermission, "moveContainersPermission");
+        return this;
+    }
+}
@@ -0,0 +1,652 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.memory;
+
+import org.gatein.api.ApiException;
+import org.gatein.api.EntityNotFoundException;
+import org.gatein.api.common.Attributes;
+import org.gatein.api.common.i18n.LocalizedString;
+import org.gatein.api.internal.Parameters;
+import org.gatein.api.navigation.Navigation;
+import org.gatein.api.navigation.NavigationEvent;
+import org.gatein.api.navigation.NavigationEventDispatcher;
+import org.gatein.api.navigation.Node;
+import org.gatein.api.navigation.NodeChange;
+import org.gatein.api.navigation.NodeChangeJournal;
+import org.gatein.api.navigation.NodePath;
+import org.gatein.api.navigation.NodeVisitor;
+import org.gatein.api.navigation.Nodes;
+import org.gatein.api.navigation.Visibility;
+import org.gatein.api.page.PageId;
+import org.gatein.api.site.SiteId;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The navigation of a site of the {@link InMemoryPortal}. Each navigation guards it's own tree with a read write lock, so
+ * navigations of different sites never contend, and any number of threads load nodes of the same navigation concurrently.
+ * <p>
+ * Nodes are loaded as detached copies of the stored tree. Saving a node applies only the changes recorded by the
+ * {@link NodeChangeJournal} of the loaded tree, matching stored nodes by id, and either all changes are applied or none.
+ * </p>
+ */
+class InMemoryNavigation implements Navigation {
+    private static final int CURRENT_VERSION = 1;
+    private static final int CURRENT_SUBTREE = 2;
+
+    private final SiteId siteId;
+    private final NavigationEventDispatcher dispatcher;
+    private final ReadWriteLock lock;
+    private final Map<Long, Entry> entries;
+    private final Entry root;
+    private volatile int priority;
+    private long sequence;
+    private long version;
+
+    InMemoryNavigation(SiteId siteId, NavigationEventDispatcher dispatcher) {
+        this.siteId = siteId;
+        this.dispatcher = dispatcher;
+        this.lock = new ReentrantReadWriteLock();
+        this.entries = new HashMap<Long, Entry>();
+        this.root = new Entry(++sequence, null, null);
+        this.entries.put(root.id, root);
+        this.priority = 1;
+        touch(root);
+    }
+
+    @Override
+    public SiteId getSiteId() {
+        return siteId;
+    }
+
+    @Override
+    public int getPriority() {
+        return priority;
+    }
+
+    @Override
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
+    @Override
+    public Node getNode(String... nodePath) {
+        return getNode(NodePath.path(nodePath));
+    }
+
+    @Override
+    public Node getNode(NodePath nodePath) {
+        return getNode(nodePath, Nodes.visitNone());
+    }
+
+    @Override
+    public Node getNode(NodePath nodePath, NodeVisitor visitor) {
+        Parameters.requireNonNull(nodePath, "nodePath");
+        Parameters.requireNonNull(visitor, "visitor");
+
+        return find(getRootNode(Nodes.visitNodes(nodePath, visitor)), nodePath);
+    }
+
+    @Override
+    public Map<NodePath, Node> getNodes(Map<NodePath, NodeVisitor> visitors) {
+        InMemoryNode rootNode = getRootNode(Nodes.visitNodes(visitors));
+
+        Map<NodePath, Node> nodes = new LinkedHashMap<NodePath, Node>();
+        for (NodePath nodePath : visitors.keySet()) {
+            Node node = find(rootNode, nodePath);
+            if (node != null) {
+                nodes.put(nodePath, node);
+            }
+        }
+        return nodes;
+    }
+
+    @Override
+    public InMemoryNode getRootNode(NodeVisitor visitor) {
+        Parameters.requireNonNull(visitor, "visitor");
+
+        NodeChangeJournal journal = new NodeChangeJournal();
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            return load(root, null, journal, visitor, 0);
+        } finally {
+            read.unlock();
+        }
+    }
+
+    /**
+     * Refreshes the tree of the node, which must not have unsaved changes since changes are not merged.
+     */
+    @Override
+    public void refreshNode(Node node) {
+        refreshNode(node, Nodes.visitNone());
+    }
+
+    /**
+     * Refreshes the tree of the node, which must not have unsaved changes since changes are not merged.
+     */
+    @Override
+    public void refreshNode(Node node, NodeVisitor visitor) {
+        refresh(node, visitor, false);
+    }
+
+    @Override
+    public boolean refreshNodeIfModified(Node node, NodeVisitor visitor) {
+        return refresh(node, visitor, true);
+    }
+
+    @Override
+    public boolean removeNode(NodePath nodePath) {
+        Parameters.requireNonNull(nodePath, "nodePath");
+
+        Lock write = lock.writeLock();
+        write.lock();
+        try {
+            Entry entry = find(nodePath);
+            if (entry == null)
+                throw new EntityNotFoundException("Node " + nodePath + " does not exist in navigation of site " + siteId);
+            if (entry == root) {
+                return false;
+            }
+
+            detach(entry);
+        } finally {
+            write.unlock();
+        }
+
+        dispatcher.publish(new NavigationEvent(NavigationEvent.Type.NODE_REMOVED, siteId, nodePath, null));
+        return true;
+    }
+
+    @Override
+    public void saveNode(Node node) {
+        NodeChangeJournal journal = toInMemoryNode(node).journal;
+        List<NodeChange> changes = journal.getChanges();
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        List<Runnable> undo = new ArrayList<Runnable>();
+        Lock write = lock.writeLock();
+        write.lock();
+        try {
+            Map<InMemoryNode, Integer> current = currentVersions(changes);
+            // Applied in journal order, a rename is applied before an insertion or move that reuses the freed name
+            for (NodeChange change : changes) {
+                apply(change, undo);
+            }
+            syncVersions(current);
+        } catch (RuntimeException e) {
+            for (int i = undo.size() - 1; i >= 0; i--) {
+                undo.get(i).run();
+            }
+            throw e;
+        } finally {
+            write.unlock();
+        }
+
+        journal.clear();
+        dispatcher.publish(siteId, changes);
+    }
+
+    /**
+     * Returns true if the root node of the navigation has children
+     */
+    boolean hasNodes() {
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            return !root.children.isEmpty();
+        } finally {
+            read.unlock();
+        }
+    }
+
+    // ----------------- Loading and refreshing
+
+    private InMemoryNode load(Entry entry, InMemoryNode parent, NodeChangeJournal journal, NodeVisitor visitor, int depth) {
+        InMemoryNode node = new InMemoryNode(siteId, journal, parent, entry.id, entry.name);
+        copy(entry, node);
+        if (visit(entry, visitor, depth)) {
+            node.children = new ArrayList<InMemoryNode>(entry.children.size());
+            for (Entry child : entry.children) {
+                node.children.add(load(child, node, journal, visitor, depth + 1));
+            }
+        }
+        return node;
+    }
+
+    private boolean refresh(Node node, NodeVisitor visitor, boolean ifModified) {
+        InMemoryNode top = toInMemoryNode(node);
+        Parameters.requireNonNull(visitor, "visitor");
+        while (top.parent != null) {
+            top = top.parent;
+        }
+        if (!top.journal.isEmpty())
+            throw new ApiException("Node " + node.getNodePath() + " has unsaved changes, save it before refreshing");
+
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            if (ifModified && top.subtreeVersion == root.subtreeVersion) {
+                return false;
+            }
+            sync(top, root, visitor, 0, ifModified);
+        } finally {
+            read.unlock();
+        }
+
+        top.journal.clear();
+        return true;
+    }
+
+    private void sync(InMemoryNode node, Entry entry, NodeVisitor visitor, int depth, boolean ifModified) {
+        if (ifModified && node.subtreeVersion == entry.subtreeVersion) {
+            return;
+        }
+
+        node.name = entry.name;
+        copy(entry, node);
+        if (node.children == null && !visit(entry, visitor, depth)) {
+            return;
+        }
+
+        Map<Long, InMemoryNode> loaded = new HashMap<Long, InMemoryNode>();
+        if (node.children != null) {
+            for (InMemoryNode child : node.children) {
+                loaded.put(child.id, child);
+            }
+        }
+
+        List<InMemoryNode> children = new ArrayList<InMemoryNode>(entry.children.size());
+        for (Entry childEntry : entry.children) {
+            InMemoryNode child = loaded.get(childEntry.id);
+            if (child == null) {
+                child = load(childEntry, node, node.journal, visitor, depth + 1);
+            } else {
+                sync(child, childEntry, visitor, depth + 1, ifModified);
+            }
+            children.add(child);
+        }
+        node.children = children;
+    }
+
+    private static boolean visit(Entry entry, NodeVisitor visitor, int depth) {
+        return (depth == 0) ? visitor.visit(0, null, null) : visitor.visit(depth, entry.name, entry);
+    }
+
+    private static void copy(Entry entry, InMemoryNode node) {
+        node.displayNames = (entry.displayNames == null) ? null : new LocalizedString(entry.displayNames);
+        node.visibility = entry.visibility;
+        node.iconName = entry.iconName;
+        node.pageId = entry.pageId;
+        node.attributes = new Attributes(entry.attributes);
+        node.version = entry.version;
+        node.subtreeVersion = entry.subtreeVersion;
+    }
+
+    private static InMemoryNode find(InMemoryNode node, NodePath nodePath) {
+        for (String segment : nodePath) {
+            if (node.children == null) {
+                return null;
+            }
+
+            InMemoryNode next = null;
+            for (InMemoryNode child : node.children) {
+                if (child.name.equals(segment)) {
+                    next = child;
+                    break;
+                }
+            }
+            if (next == null) {
+                return null;
+            }
+            node = next;
+        }
+        return node;
+    }
+
+    private InMemoryNode toInMemoryNode(Node node) {
+        Parameters.requireNonNull(node, "node");
+        if (node instanceof InMemoryFilteredNode) {
+            node = ((InMemoryFilteredNode) node).unwrap();
+        }
+        if (!(node instanceof InMemoryNode) || !((InMemoryNode) node).siteId.equals(siteId))
+            throw new IllegalArgumentException("Node " + node.getNodePath() + " was not loaded from navigation of site " + siteId);
+
+        return (InMemoryNode) node;
+    }
+
+    // ----------------- Saving, guarded by the write lock
+
+    private void apply(NodeChange change, List<Runnable> undo) {
+        final InMemoryNode node = (InMemoryNode) change.getNode();
+        switch (change.getType()) {
+            case REMOVED: {
+                final Entry entry = entries.get(node.id);
+                if (entry != null) {
+                    final Entry parent = entry.parent;
+                    final int index = parent.children.indexOf(entry);
+                    detach(entry);
+                    undo.add(new Runnable() {
+                        @Override
+                        public void run() {
+                            attach(entry, parent, index);
+                        }
+                    });
+                }
+                break;
+            }
+            case INSERTED: {
+                Entry parent = parentOf(change);
+                final Entry entry = new Entry(++sequence, parent, node.name);
+                copy(node, entry);
+                attach(entry, parent, insertIndex(node, parent));
+                node.id = entry.id;
+                undo.add(new Runnable() {
+                    @Override
+                    public void run() {
+                        detach(entry);
+                        node.id = 0;
+                    }
+                });
+                break;
+            }
+            case MOVED: {
+                final Entry entry = existing(change);
+                Entry parent = parentOf(change);
+                for (Entry ancestor = parent; ancestor != null; ancestor = ancestor.parent) {
+                    if (ancestor == entry)
+                        throw new ApiException("Node " + change.getNodePath() + " cannot be moved to one of it's descendants");
+                }
+
+                final Entry previousParent = entry.parent;
+                final int previousIndex = previousParent.children.indexOf(entry);
+                detach(entry);
+                attach(entry, parent, insertIndex(node, parent));
+                undo.add(new Runnable() {
+                    @Override
+                    public void run() {
+                        detach(entry);
+                        attach(entry, previousParent, previousIndex);
+                    }
+                });
+                break;
+            }
+            default: {
+                final Entry entry = existing(change);
+                final Entry previous = new Entry(entry.id, entry.parent, entry.name);
+                copy(entry, previous);
+                // A node renamed more than once is renamed once per change, to the name given by the change
+                Set<NodeChange.Property> properties = change.getProperties();
+                String name = change.getNodePath().getLastSegment();
+                if (properties.contains(NodeChange.Property.NAME) && !entry.name.equals(name)) {
+                    rename(entry, name);
+                }
+                update(node, entry, properties);
+                touch(entry);
+                undo.add(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (!entry.name.equals(previous.name)) {
+                            rename(entry, previous.name);
+                        }
+                        copy(previous, entry);
+                    }
+                });
+            }
+        }
+    }
+
+    private Entry existing(NodeChange change) {
+        Entry entry = entries.get(((InMemoryNode) change.getNode()).id);
+        if (entry == null)
+            throw new ApiException("Node " + change.getPreviousNodePath() + " was removed from navigation of site " + siteId);
+
+        return entry;
+    }
+
+    private Entry parentOf(NodeChange change) {
+        Entry parent = entries.get(((InMemoryNode) change.getNode()).parent.id);
+        if (parent == null)
+            throw new ApiException("Parent of node " + change.getNodePath() + " was removed from navigation of site " + siteId);
+
+        return parent;
+    }
+
+    /**
+     * Inserts after the closest preceding sibling of the loaded tree that is stored under the same parent
+     */
+    private int insertIndex(InMemoryNode node, Entry parent) {
+        List<InMemoryNode> siblings = node.parent.children;
+        for (int i = siblings.indexOf(node) - 1; i >= 0; i--) {
+            Entry sibling = entries.get(siblings.get(i).id);
+            if (sibling != null && sibling.parent == parent) {
+                return parent.children.indexOf(sibling) + 1;
+            }
+        }
+        return 0;
+    }
+
+    private void attach(Entry entry, Entry parent, int index) {
+        if (parent.byName.containsKey(entry.name))
+            throw new ApiException("Node " + entry.name + " already exists at " + parent.getNodePath() + " in navigation of site "
+                    + siteId);
+
+        entry.parent = parent;
+        parent.children.add(index, entry);
+        parent.byName.put(entry.name, entry);
+        register(entry);
+        touch(entry);
+    }
+
+    private void detach(Entry entry) {
+        Entry parent = entry.parent;
+        parent.children.remove(entry);
+        parent.byName.remove(entry.name);
+        unregister(entry);
+        touch(parent);
+    }
+
+    private void rename(Entry entry, String name) {
+        if (entry.parent.byName.containsKey(name))
+            throw new ApiException("Node " + name + " already exists at " + entry.parent.getNodePath() + " in navigation of site "
+                    + siteId);
+
+        entry.parent.byName.remove(entry.name);
+        entry.name = name;
+        entry.parent.byName.put(name, entry);
+    }
+
+    private void register(Entry entry) {
+        entries.put(entry.id, entry);
+        for (Entry child : entry.children) {
+            register(child);
+        }
+    }
+
+    private void unregister(Entry entry) {
+        entries.remove(entry.id);
+        for (Entry child : entry.children) {
+            unregister(child);
+        }
+    }
+
+    private Entry find(NodePath nodePath) {
+        Entry entry = root;
+        for (String segment : nodePath) {
+            entry = entry.byName.get(segment);
+            if (entry == null) {
+                return null;
+            }
+        }
+        return entry;
+    }
+
+    private void touch(Entry entry) {
+        long v = ++version;
+        entry.version = v;
+        for (Entry e = entry; e != null; e = e.parent) {
+            e.subtreeVersion = v;
+        }
+    }
+
+    /**
+     * Returns the written nodes and their ancestors, with flags telling whether their version and subtree version match the
+     * stored ones. Nodes which are not stored yet are current.
+     */
+    private Map<InMemoryNode, Integer> currentVersions(List<NodeChange> changes) {
+        Map<InMemoryNode, Integer> current = new IdentityHashMap<InMemoryNode, Integer>();
+        for (NodeChange change : changes) {
+            InMemoryNode node = (InMemoryNode) change.getNode();
+            if (change.getType() == NodeChange.Type.REMOVED) {
+                node = node.parent;
+            }
+            for (; node != null && !current.containsKey(node); node = node.parent) {
+                Entry entry = entries.get(node.id);
+                int flags = CURRENT_VERSION | CURRENT_SUBTREE;
+                if (entry != null) {
+                    flags = ((node.version == entry.version) ? CURRENT_VERSION : 0)
+                            | ((node.subtreeVersion == entry.subtreeVersion) ? CURRENT_SUBTREE : 0);
+                }
+                current.put(node, flags);
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Stamps the versions written by a save on the nodes that were current before it, so that changes saved by others are
+     * still loaded by the next refresh.
+     */
+    private void syncVersions(Map<InMemoryNode, Integer> current) {
+        for (Map.Entry<InMemoryNode, Integer> e : current.entrySet()) {
+            InMemoryNode node = e.getKey();
+            Entry entry = entries.get(node.id);
+            if (entry == null) {
+                continue;
+            }
+            if ((e.getValue() & CURRENT_VERSION) != 0) {
+                node.version = entry.version;
+            }
+            if ((e.getValue() & CURRENT_SUBTREE) != 0) {
+                node.subtreeVersion = entry.subtreeVersion;
+            }
+        }
+    }
+
+    private static void copy(InMemoryNode node, Entry entry) {
+        entry.displayNames = (node.displayNames == null) ? null : new LocalizedString(node.displayNames);
+        entry.visibility = node.visibility;
+        entry.iconName = node.iconName;
+        entry.pageId = node.pageId;
+        entry.attributes = new Attributes(node.attributes);
+    }
+
+    /**
+     * Copies only the properties that were changed, so that concurrent changes to other properties are kept
+     */
+    private static void update(InMemoryNode node, Entry entry, Set<NodeChange.Property> properties) {
+        if (properties.contains(NodeChange.Property.DISPLAY_NAMES)) {
+            entry.displayNames = (node.displayNames == null) ? null : new LocalizedString(node.displayNames);
+        }
+        if (properties.contains(NodeChange.Property.VISIBILITY)) {
+            entry.visibility = node.visibility;
+        }
+        if (properties.contains(NodeChange.Property.ICON_NAME)) {
+            entry.iconName = node.iconName;
+        }
+        if (properties.contains(NodeChange.Property.PAGE_ID)) {
+            entry.pageId = node.pageId;
+        }
+        if (properties.contains(NodeChange.Property.ATTRIBUTES)) {
+            entry.attributes = new Attributes(node.attributes);
+        }
+    }
+
+    private static void copy(Entry from, Entry to) {
+        to.displayNames = from.displayNames;
+        to.visibility = from.visibility;
+        to.iconName = from.iconName;
+        to.pageId = from.pageId;
+        to.attributes = from.attributes;
+    }
+
+    /**
+     * A stored node. Property values are never changed in place once stored, they are replaced by copies when saved.
+     */
+    private static class Entry implements NodeVisitor.NodeDetails {
+        private final long id;
+        private final List<Entry> children;
+        private final Map<String, Entry> byName;
+        private Entry parent;
+        private String name;
+        private LocalizedString displayNames;
+        private Visibility visibility;
+        private String iconName;
+        private PageId pageId;
+        private Attributes attributes;
+        private long version;
+        private long subtreeVersion;
+
+        private Entry(long id, Entry parent, String name) {
+            this.id = id;
+            this.parent = parent;
+            this.name = name;
+            this.children = new ArrayList<Entry>();
+            this.byName = new HashMap<String, Entry>();
+            this.visibility = new Visibility();
+            this.attributes = new Attributes();
+        }
+
+        @Override
+        public Visibility getVisibility() {
+            return visibility;
+        }
+
+        @Override
+        public String getIconName() {
+            return iconName;
+        }
+
+        @Override
+        public PageId getPageId() {
+            return pageId;
+        }
+
+        @Override
+        public NodePath getNodePath() {
+            return (parent == null) ? NodePath.root() : parent.getNodePath().append(name);
+        }
+    }
+}
@@ -0,0 +1,430 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.memory;
+
+import org.gatein.api.EntityAlreadyExistsException;
+import org.gatein.api.PortalRequest;
+import org.gatein.api.common.Attributes;
+import org.gatein.api.common.i18n.LocalizedString;
+import org.gatein.api.internal.ObjectToStringBuilder;
+import org.gatein.api.internal.Parameters;
+import org.gatein.api.navigation.FilteredNode;
+import org.gatein.api.navigation.Node;
+import org.gatein.api.navigation.NodeChange.Property;
+import org.gatein.api.navigation.NodeChangeJournal;
+import org.gatein.api.navigation.NodePath;
+import org.gatein.api.navigation.PublicationDate;
+import org.gatein.api.navigation.Visibility;
+import org.gatein.api.page.PageId;
+import org.gatein.api.site.SiteId;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A node loaded from an {@link InMemoryNavigation}. Nodes are detached copies of the stored tree, changes are recorded in
+ * the {@link NodeChangeJournal} shared by all nodes of the tree and written by {@link InMemoryNavigation#saveNode(Node)}.
+ * <p>
+ * Just like the journal, nodes are not thread safe.
+ * </p>
+ */
+class InMemoryNode implements Node {
+    final SiteId siteId;
+    final NodeChangeJournal journal;
+    InMemoryNode parent;
+    long id;
+    String name;
+    LocalizedString displayNames;
+    Visibility visibility;
+    String iconName;
+    PageId pageId;
+    Attributes attributes;
+    long version;
+    long subtreeVersion;
+    List<InMemoryNode> children;
+
+    InMemoryNode(SiteId siteId, NodeChangeJournal journal, InMemoryNode parent, long id, String name) {
+        this.siteId = siteId;
+        this.journal = journal;
+        this.parent = parent;
+        this.id = id;
+        this.name = name;
+        this.visibility = new Visibility();
+        this.attributes = new Attributes();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void setName(String name) {
+        Parameters.requireNonNull(name, "name");
+        if (parent == null)
+            throw new IllegalStateException("Cannot rename the root node");
+
+        if (!name.equals(this.name)) {
+            if (parent.hasChild(name))
+                throw new EntityAlreadyExistsException("Node " + name + " already exists at " + parent.getNodePath());
+
+            journal.updated(this, Property.NAME);
+            this.name = name;
+        }
+    }
+
+    @Override
+    public Node getParent() {
+        return parent;
+    }
+
+    @Override
+    public NodePath getNodePath() {
+        return (parent == null) ? NodePath.root() : parent.getNodePath().append(name);
+    }
+
+    @Override
+    public String getURI() {
+        String uri = PortalRequest.getInstance().getURIResolver().resolveURI(siteId);
+        if (isRoot()) {
+            return uri;
+        }
+
+        return (uri.endsWith("/") ? uri.substring(0, uri.length() - 1) : uri) + getNodePath();
+    }
+
+    @Override
+    public boolean isVisible() {
+        return visibility.isVisible();
+    }
+
+    @Override
+    public Visibility getVisibility() {
+        return visibility;
+    }
+
+    @Override
+    public void setVisibility(Visibility visibility) {
+        Parameters.requireNonNull(visibility, "visibility");
+
+        journal.updated(this, Property.VISIBILITY);
+        this.visibility = visibility;
+    }
+
+    @Override
+    public void setVisibility(boolean visible) {
+        setVisibility(new Visibility(visible ? Visibility.Status.VISIBLE : Visibility.Status.HIDDEN));
+    }
+
+    @Override
+    public void setVisibility(PublicationDate publicationDate) {
+        setVisibility(new Visibility(publicationDate));
+    }
+
+    @Override
+    public String getIconName() {
+        return iconName;
+    }
+
+    @Override
+    public void setIconName(String iconName) {
+        journal.updated(this, Property.ICON_NAME);
+        this.iconName = iconName;
+    }
+
+    @Override
+    public PageId getPageId() {
+        return pageId;
+    }
+
+    @Override
+    public void setPageId(PageId pageId) {
+        journal.updated(this, Property.PAGE_ID);
+        this.pageId = pageId;
+    }
+
+    @Override
+    public Attributes getAttributes() {
+        journal.touched(this);
+        return attributes;
+    }
+
+    @Override
+    public LocalizedString getDisplayNames() {
+        journal.touched(this);
+        return displayNames;
+    }
+
+    @Override
+    public void setDisplayNames(LocalizedString displayNames) {
+        journal.updated(this, Property.DISPLAY_NAMES);
+        this.displayNames = displayNames;
+    }
+
+    /**
+     * Returns the display name for the locale of the current {@link PortalRequest} if the display name is localized, or the
+     * non localized display name otherwise.
+     */
+    @Override
+    public String getDisplayName() {
+        if (displayNames == null) {
+            return null;
+        } else if (!displayNames.isLocalized()) {
+            return displayNames.getValue();
+        }
+
+        PortalRequest request = PortalRequest.getInstance();
+        Locale locale = (request == null) ? null : request.getLocale();
+        if (locale == null) {
+            return null;
+        }
+
+        String value = displayNames.getValue(locale);
+        if (value == null && locale.getCountry().length() > 0) {
+            value = displayNames.getValue(new Locale(locale.getLanguage()));
+        }
+        return value;
+    }
+
+    @Override
+    public void setDisplayName(String displayName) {
+        setDisplayNames((displayName == null) ? null : new LocalizedString(displayName));
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public long getSubtreeVersion() {
+        return subtreeVersion;
+    }
+
+    @Override
+    public boolean isRoot() {
+        return parent == null;
+    }
+
+    @Override
+    public Node addChild(String childName) {
+        return addChild(loadedChildren().size(), childName);
+    }
+
+    @Override
+    public Node addChild(int index, String childName) {
+        Parameters.requireNonNull(childName, "childName");
+        List<InMemoryNode> children = loadedChildren();
+        if (index < 0 || index > children.size())
+            throw new IndexOutOfBoundsException("Index " + index + " is out of range");
+        if (hasChild(childName))
+            throw new EntityAlreadyExistsException("Node " + childName + " already exists at " + getNodePath());
+
+        InMemoryNode child = new InMemoryNode(siteId, journal, this, 0, childName);
+        child.children = new ArrayList<InMemoryNode>();
+        children.add(index, child);
+        journal.inserted(child);
+        return child;
+    }
+
+    @Override
+    public Node getChild(String childName) {
+        int i = indexOf(childName);
+        return (i < 0) ? null : children.get(i);
+    }
+
+    @Override
+    public Node getChild(int index) {
+        return loadedChildren().get(index);
+    }
+
+    @Override
+    public int getChildCount() throws IllegalStateException {
+        return loadedChildren().size();
+    }
+
+    @Override
+    public boolean hasChild(String childName) {
+        return indexOf(childName) >= 0;
+    }
+
+    @Override
+    public boolean isChildrenLoaded() {
+        return children != null;
+    }
+
+    @Override
+    public Node getNode(String... nodePath) {
+        return getNode(NodePath.path(nodePath));
+    }
+
+    @Override
+    public Node getNode(NodePath nodePath) {
+        Parameters.requireNonNull(nodePath, "nodePath");
+
+        Node node = this;
+        for (String segment : nodePath) {
+            node = node.getChild(segment);
+            if (node == null) {
+                return null;
+            }
+        }
+        return node;
+    }
+
+    @Override
+    public int indexOf(String childName) {
+        Parameters.requireNonNull(childName, "childName");
+        List<InMemoryNode> children = loadedChildren();
+
+        for (int i = 0; i < children.size(); i++) {
+            if (children.get(i).name.equals(childName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean removeChild(String childName) {
+        int i = indexOf(childName);
+        if (i < 0) {
+            return false;
+        }
+
+        journal.removed(children.get(i));
+        children.remove(i);
+        return true;
+    }
+
+    @Override
+    public FilteredNode filter() {
+        return new InMemoryFilteredNode(this);
+    }
+
+    @Override
+    public void sort(Comparator<Node> comparator) {
+        Parameters.requireNonNull(comparator, "comparator");
+        List<InMemoryNode> children = loadedChildren();
+
+        // Children that end up at the same index are dropped by the journal
+        for (InMemoryNode child : children) {
+            journal.moved(child);
+        }
+        Collections.sort(children, comparator);
+    }
+
+    @Override
+    public void moveTo(int index) {
+        if (parent == null)
+            throw new IllegalStateException("Cannot move the root node");
+
+        moveTo(index, parent);
+    }
+
+    @Override
+    public void moveTo(Node parent) {
+        Parameters.requireNonNull(parent, "parent");
+
+        parent = unwrap(parent);
+        int index = parent.getChildCount();
+        moveTo((parent == this.parent) ? index - 1 : index, parent);
+    }
+
+    @Override
+    public void moveTo(int index, Node parent) {
+        Parameters.requireNonNull(parent, "parent");
+        parent = unwrap(parent);
+        if (this.parent == null)
+            throw new IllegalStateException("Cannot move the root node");
+        if (!(parent instanceof InMemoryNode) || ((InMemoryNode) parent).journal != journal)
+            throw new IllegalArgumentException("Parent " + parent.getNodePath() + " is on a different branch");
+        for (InMemoryNode ancestor = (InMemoryNode) parent; ancestor != null; ancestor = ancestor.parent) {
+            if (ancestor == this)
+                throw new IllegalArgumentException("Cannot move node " + getNodePath() + " to one of it's descendants");
+        }
+
+        InMemoryNode target = (InMemoryNode) parent;
+        List<InMemoryNode> siblings = target.loadedChildren();
+        int size = (target == this.parent) ? siblings.size() - 1 : siblings.size();
+        if (index < 0 || index > size)
+            throw new IndexOutOfBoundsException("Index " + index + " is out of range");
+        if (target != this.parent && target.hasChild(name))
+            throw new EntityAlreadyExistsException("Node " + name + " already exists at " + target.getNodePath());
+
+        journal.moved(this);
+        this.parent.children.remove(this);
+        siblings.add(index, this);
+        this.parent = target;
+    }
+
+    @Override
+    public Iterator<Node> iterator() {
+        final Iterator<InMemoryNode> iterator = loadedChildren().iterator();
+        return new Iterator<Node>() {
+            private InMemoryNode current;
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Node next() {
+                current = iterator.next();
+                return current;
+            }
+
+            @Override
+            public void remove() {
+                if (current == null)
+                    throw new IllegalStateException();
+
+                journal.removed(current);
+                iterator.remove();
+                current = null;
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return ObjectToStringBuilder.toStringBuilder(Node.class).add("siteId", siteId).add("nodePath", getNodePath())
+                .add("pageId", pageId).add("visibility", visibility).toString();
+    }
+
+    private static Node unwrap(Node node) {
+        return (node instanceof InMemoryFilteredNode) ? ((InMemoryFilteredNode) node).unwrap() : node;
+    }
+
+    List<InMemoryNode> loadedChildren() {
+        if (children == null) {
+            throw new IllegalStateException("Children of node " + getNodePath() + " are not loaded");
+        }
+        return children;
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.memory;
+
+import org.gatein.api.composition.ContainerItem;
+import org.gatein.api.internal.ObjectToStringBuilder;
+import org.gatein.api.internal.Parameters;
+import org.gatein.api.page.Page;
+import org.gatein.api.page.PageId;
+import org.gatein.api.security.Permission;
+import org.gatein.api.site.SiteId;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A page of the {@link InMemoryPortal}. Pages stored by the portal are never modified, pages returned are copies.
+ */
+class InMemoryPage implements Page {
+    private final PageId id;
+    private String displayName;
+    private String description;
+    private String title;
+    private Permission accessPermission;
+    private Permission editPermission;
+    private Permission moveAppsPermission;
+    private Permission moveContainersPermission;
+    private List<ContainerItem> children;
+    private boolean showMaxWindow;
+
+    InMemoryPage(PageId id) {
+        this.id = id;
+        this.accessPermission = DEFAULT_ACCESS_PERMISSION;
+        this.editPermission = DEFAULT_EDIT_PERMISSION;
+        this.moveAppsPermission = DEFAULT_MOVE_APPS_PERMISSION;
+        this.moveContainersPermission = DEFAULT_MOVE_CONTAINERS_PERMISSION;
+        this.children = new ArrayList<ContainerItem>();
+    }
+
+    InMemoryPage(Page page) {
+        this.id = page.getId();
+        this.displayName = page.getDisplayName();
+        this.description = page.getDescription();
+        this.title = page.getTitle();
+        this.accessPermission = page.getAccessPermission();
+        this.editPermission = page.getEditPermission();
+        this.moveAppsPermission = page.getMoveAppsPermission();
+        this.moveContainersPermission = page.getMoveContainersPermission();
+        this.children = InMemoryContainer.copy(page.getChildren());
+        this.showMaxWindow = (page instanceof InMemoryPage) && ((InMemoryPage) page).showMaxWindow;
+    }
+
+    boolean isShowMaxWindow() {
+        return showMaxWindow;
+    }
+
+    void setShowMaxWindow(boolean showMaxWindow) {
+        this.showMaxWindow = showMaxWindow;
+    }
+
+    @Override
+    public PageId getId() {
+        return id;
+    }
+
+    @Override
+    public SiteId getSiteId() {
+        return id.getSiteId();
+    }
+
+    @Override
+    public String getName() {
+        return id.getPageName();
+    }
+
+    @Override
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    @Override
+    public void setDisplayName(String displayName) {
+        this.displayName = displayName;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    @Override
+    public String getTitle() {
+        return title;
+    }
+
+    @Override
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    @Override
+    public List<ContainerItem> getChildren() {
+        return children;
+    }
+
+    @Override
+    public void setChildren(List<ContainerItem> children) {
+        this.children = (children == null) ? new ArrayList<ContainerItem>() : new ArrayList<ContainerItem>(children);
+    }
+
+    @Override
+    public Permission getAccessPermission() {
+        return accessPermission;
+    }
+
+    @Override
+    public void setAccessPermission(Permission permission) {
+        this.accessPermission = Parameters.requireNonNull(permission, "permission");
+    }
+
+    @Override
+    public Permission getEditPermission() {
+        return editPermission;
+    }
+
+    @Override
+    public void setEditPermission(Permission permission) {
+        this.editPermission = Parameters.requireNonNull(permission, "permission");
+    }
+
+    @Override
+    public Permission getMoveAppsPermission() {
+        return moveAppsPermission;
+    }
+
+    @Override
+    public void setMoveAppsPermission(Permission moveAppsPermission) {
+        this.moveAppsPermission = Parameters.requireNonNull(moveAppsPermission, "moveAppsPermission");
+    }
+
+    @Override
+    public Permission getMoveContainersPermission() {
+        return moveContainersPermission;
+    }
+
+    @Override
+    public void setMoveContainersPermission(Permission moveContainersPermission) {
+        this.moveContainersPermission = Parameters.requireNonNull(moveContainersPermission, "moveContainersPermission");
+    }
+
+    @Override
+    public int compareTo(Page other) {
+        return id.compareTo(other.getId());
+    }
+
+    @Override
+    public String toString() {
+        return ObjectToStringBuilder.toStringBuilder(Page.class).add("id", id).add("displayName", displayName)
+                .add("description", description).add("title", title).add("accessPermission", accessPermission)
+                .add("editPermission", editPermission).toString();
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.memory;
+
+import org.gatein.api.composition.Container;
+import org.gatein.api.composition.ContainerBuilder;
+import org.gatein.api.composition.ContainerItem;
+import org.gatein.api.composition.PageBuilder;
+import org.gatein.api.internal.Parameters;
+import org.gatein.api.page.Page;
+import org.gatein.api.page.PageId;
+import org.gatein.api.security.Permission;
+import org.gatein.api.site.SiteId;
+import org.gatein.api.site.SiteType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds pages of the {@link InMemoryPortal}.
+ */
+class InMemoryPageBuilder implements PageBuilder {
+    private final List<ContainerItem> children;
+    private String name;
+    private String siteName;
+    private SiteType siteType;
+    private String displayName;
+    private String description;
+    private boolean showMaxWindow;
+    private Permission accessPermission;
+    private Permission editPermission;
+    private Permission moveAppsPermission;
+    private Permission moveContainersPermission;
+
+    InMemoryPageBuilder() {
+        this.children = new ArrayList<ContainerItem>();
+    }
+
+    @Override
+    public ContainerBuilder<PageBuilder> newColumnsBuilder() {
+        return newCustomContainerBuilder(InMemoryContainer.COLUMNS_TEMPLATE);
+    }
+
+    @Override
+    public ContainerBuilder<PageBuilder> newRowsBuilder() {
+        return newCustomContainerBuilder(InMemoryContainer.ROWS_TEMPLATE);
+    }
+
+    @Override
+    public ContainerBuilder<PageBuilder> newCustomContainerBuilder(Container container) {
+        Parameters.requireNonNull(container, "container");
+
+        return new InMemoryContainerBuilder<PageBuilder>(this, null, container);
+    }
+
+    @Override
+    public ContainerBuilder<PageBuilder> newCustomContainerBuilder(String template) {
+        Parameters.requireNonNull(template, "template");
+
+        return new InMemoryContainerBuilder<PageBuilder>(this, null, new InMemoryContainer(template));
+    }
+
+    @Override
+    public PageBuilder child(ContainerItem containerItem) {
+        children.add(Parameters.requireNonNull(containerItem, "containerItem"));
+        return this;
+    }
+
+    @Override
+    public PageBuilder children(List<ContainerItem> children) {
+        if (children == null) {
+            this.children.clear();
+        } else {
+            for (ContainerItem child : children) {
+                child(child);
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public PageBuilder description(String description) {
+        this.description = description;
+        return this;
+    }
+
+    @Override
+    public PageBuilder siteName(String siteName) {
+        this.siteName = siteName;
+        return this;
+    }
+
+    @Override
+    public PageBuilder displayName(String displayName) {
+        this.displayName = displayName;
+        return this;
+    }
+
+    @Override
+    public PageBuilder showMaxWindow(boolean showMaxWindow) {
+        this.showMaxWindow = showMaxWindow;
+        return this;
+    }
+
+    @Override
+    public PageBuilder accessPermission(Permission accessPermission) {
+        this.accessPermission = accessPermission;
+        return this;
+    }
+
+    @Override
+    public PageBuilder editPermission(Permission editPermission) {
+        this.editPermission = editPermission;
+        return this;
+    }
+
+    @Override
+    public PageBuilder moveAppsPermission(Permission moveAppsPermission) {
+        this.moveAppsPermission = moveAppsPermission;
+        return this;
+    }
+
+    @Override
+    public PageBuilder moveContainersPermission(Permission moveContainersPermission) {
+        this.moveContainersPermission = moveContainersPermission;
+        return this;
+    }
+
+    @Override
+    public PageBuilder siteType(String siteType) {
+        Parameters.requireNonNull(siteType, "siteType");
+
+        if (siteType.equals("portal") || siteType.equals("site")) {
+            this.siteType = SiteType.SITE;
+        } else if (siteType.equals("group") || siteType.equals("space")) {
+            this.siteType = SiteType.SPACE;
+        } else if (siteType.equals("user") || siteType.equals("dashboard")) {
+            this.siteType = SiteType.DASHBOARD;
+        } else {
+            throw new IllegalArgumentException("Unknown site type " + siteType);
+        }
+        return this;
+    }
+
+    @Override
+    public PageBuilder name(String name) {
+        this.name = name;
+        return this;
+    }
+
+    @Override
+    public Page build() {
+        if (name == null)
+            throw new IllegalStateException("Page name is required");
+        if (siteName == null)
+            throw new IllegalStateException("Site name is required");
+        if (siteType == null)
+            throw new IllegalStateException("Site type is required");
+
+        InMemoryPage page = new InMemoryPage(new PageId(new SiteId(siteType, siteName), name));
+        page.setDisplayName(displayName);
+        page.setDescription(description);
+        page.setShowMaxWindow(showMaxWindow);
+        page.setChildren(InMemoryContainer.copy(children));
+        if (accessPermission != null) {
+            page.setAccessPermission(accessPermission);
+        }
+        if (editPermission != null) {
+            page.setEditPermission(editPermission);
+        }
+        if (moveAppsPermission != null) {
+            page.setMoveAppsPermission(moveAppsPermission);
+        }
+        if (moveContainersPermission != null) {
+            page.setMoveContainersPermission(moveContainersPermission);
+        }
+        return page;
+    }
+}
@@ -0,0 +1,800 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.memory;
+
+import org.gatein.api.ApiException;
+import org.gatein.api.EntityAlreadyExistsException;
+import org.gatein.api.EntityNotFoundException;
+import org.gatein.api.Portal;
+import org.gatein.api.common.BatchResult;
+import org.gatein.api.common.Criteria;
+import org.gatein.api.common.Cursor;
+import org.gatein.api.common.Filter;
+import org.gatein.api.common.KeysetCursor;
+import org.gatein.api.common.Pagination;
+import org.gatein.api.common.Sorting;
+import org.gatein.api.composition.PageBuilder;
+import org.gatein.api.internal.Parameters;
+import org.gatein.api.navigation.Navigation;
+import org.gatein.api.navigation.NavigationEventDispatcher;
+import org.gatein.api.navigation.NavigationListener;
+import org.gatein.api.oauth.OAuthProvider;
+import org.gatein.api.page.Page;
+import org.gatein.api.page.PageField;
+import org.gatein.api.page.PageId;
+import org.gatein.api.page.PageQuery;
+import org.gatein.api.page.PageSummary;
+import org.gatein.api.security.Identity;
+import org.gatein.api.security.Membership;
+import org.gatein.api.security.Permission;
+import org.gatein.api.security.PermissionEvaluator;
+import org.gatein.api.security.User;
+import org.gatein.api.site.Site;
+import org.gatein.api.site.SiteField;
+import org.gatein.api.site.SiteId;
+import org.gatein.api.site.SiteQuery;
+import org.gatein.api.site.SiteSummary;
+import org.gatein.api.site.SiteType;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executor;
+
+/**
+ * A thread safe implementation of {@link Portal} keeping sites, pages and navigations in memory, for example for tests and
+ * for applications embedding the API without a portal container.
+ * <p>
+ * Sites and pages are kept in concurrent maps ordered by id, so reads never block and queries, counts and cursors walk the
+ * ids in order. Criteria on the type and name of sites, and on the site and name of pages, are used to look up the matching
+ * entries directly instead of scanning them. Stored sites and pages are never modified: reads return copies and saves store
+ * copies, so only the results returned by a query are copied. Each navigation has it's own read write lock, see
+ * {@link InMemoryNavigation}.
+ * </p>
+ * <p>
+ * Memberships of users, used by {@link #hasPermission(User, Permission)}, are added with
+ * {@link #addMembership(User, Membership)}, and applications with {@link InMemoryApplicationRegistry#addApplication}. The
+ * display name of a {@link PageQuery} matches pages with a display name containing it, ignoring case. Templates of sites and
+ * OAuth providers are not supported.
+ * </p>
+ */
+public class InMemoryPortal implements Portal {
+    private static final Executor DIRECT_EXECUTOR = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private final Map<SiteType, ConcurrentSkipListMap<String, InMemorySite>> sites;
+    private final ConcurrentSkipListMap<SiteId, ConcurrentSkipListMap<String, InMemoryPage>> pages;
+    private final ConcurrentMap<SiteId, InMemoryNavigation> navigations;
+    private final ConcurrentMap<String, Identity> identities;
+    private final PermissionEvaluator evaluator;
+    private final InMemoryApplicationRegistry applicationRegistry;
+    private final NavigationEventDispatcher dispatcher;
+
+    /**
+     * Creates an empty portal, which delivers navigation events in the thread saving the changes.
+     */
+    public InMemoryPortal() {
+        this(DIRECT_EXECUTOR);
+    }
+
+    /**
+     * Creates an empty portal
+     *
+     * @param executor the executor used to deliver navigation events to listeners
+     * @throws IllegalArgumentException if executor is null
+     */
+    public InMemoryPortal(Executor executor) {
+        Parameters.requireNonNull(executor, "executor");
+
+        this.sites = new EnumMap<SiteType, ConcurrentSkipListMap<String, InMemorySite>>(SiteType.class);
+        for (SiteType type : SiteType.values()) {
+            sites.put(type, new ConcurrentSkipListMap<String, InMemorySite>());
+        }
+        this.pages = new ConcurrentSkipListMap<SiteId, ConcurrentSkipListMap<String, InMemoryPage>>();
+        this.navigations = new ConcurrentHashMap<SiteId, InMemoryNavigation>();
+        this.identities = new ConcurrentHashMap<String, Identity>();
+        this.evaluator = new PermissionEvaluator();
+        this.applicationRegistry = new InMemoryApplicationRegistry();
+        this.dispatcher = new NavigationEventDispatcher(executor);
+    }
+
+    /**
+     * Adds a membership of a group to a user
+     *
+     * @param user the user
+     * @param membership the membership, which must have a group
+     * @throws IllegalArgumentException if user or membership is null, or the membership has no group
+     */
+    public void addMembership(User user, Membership membership) {
+        Parameters.requireNonNull(user, "user");
+        Parameters.requireNonNull(membership, "membership");
+        Parameters.requireNonNull(membership.getGroup(), "membership.group");
+
+        synchronized (identities) {
+            Set<Membership> memberships = new HashSet<Membership>(getIdentity(user).getMemberships());
+            memberships.add(membership);
+            identities.put(user.getId(), new Identity(user, memberships));
+        }
+    }
+
+    /**
+     * Removes a membership of a group from a user
+     *
+     * @param user the user
+     * @param membership the membership
+     * @return true if the membership was removed, false if the user did not have it
+     * @throws IllegalArgumentException if user or membership is null
+     */
+    public boolean removeMembership(User user, Membership membership) {
+        Parameters.requireNonNull(user, "user");
+        Parameters.requireNonNull(membership, "membership");
+
+        synchronized (identities) {
+            Set<Membership> memberships = new HashSet<Membership>(getIdentity(user).getMemberships());
+            if (!memberships.remove(membership)) {
+                return false;
+            }
+
+            identities.put(user.getId(), new Identity(user, memberships));
+            return true;
+        }
+    }
+
+    /**
+     * Returns a snapshot of the memberships of a user
+     *
+     * @param user the user
+     * @return the identity of the user
+     * @throws IllegalArgumentException if user is null
+     */
+    public Identity getIdentity(User user) {
+        Parameters.requireNonNull(user, "user");
+
+        Identity identity = identities.get(user.getId());
+        return (identity == null) ? new Identity(user) : identity;
+    }
+
+    /**
+     * Returns a copy of a site of any implementation, made through the methods of <code>Site</code>. The copy can be
+     * changed without affecting the site, and saved to an <code>InMemoryPortal</code>.
+     *
+     * @param site the site
+     * @return the copy
+     * @throws IllegalArgumentException if site is null
+     */
+    public static Site copyOf(Site site) {
+        return new InMemorySite(Parameters.requireNonNull(site, "site"));
+    }
+
+    /**
+     * Returns a copy of a page of any implementation, made through the methods of <code>Page</code>. Containers of the
+     * layout are copied, so the layout of the copy can be changed without affecting the page.
+     *
+     * @param page the page
+     * @return the copy
+     * @throws IllegalArgumentException if page is null
+     */
+    public static Page copyOf(Page page) {
+        return new InMemoryPage(Parameters.requireNonNull(page, "page"));
+    }
+
+    // ----------------- Sites
+
+    @Override
+    public Site getSite(SiteId siteId) {
+        InMemorySite site = storedSite(Parameters.requireNonNull(siteId, "siteId"));
+        return (site == null) ? null : new InMemorySite(site);
+    }
+
+    @Override
+    public Map<SiteId, Site> getSites(Collection<SiteId> siteIds) {
+        Parameters.requireNonNull(siteIds, "siteIds");
+
+        Map<SiteId, Site> result = new LinkedHashMap<SiteId, Site>();
+        for (SiteId siteId : siteIds) {
+            Site site = getSite(siteId);
+            if (site != null) {
+                result.put(siteId, site);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Site createSite(SiteId siteId) {
+        if (storedSite(Parameters.requireNonNull(siteId, "siteId")) != null)
+            throw new EntityAlreadyExistsException("Site " + siteId + " already exists");
+
+        return new InMemorySite(siteId);
+    }
+
+    /**
+     * Creates a site, templates are not supported so this is the same as {@link #createSite(SiteId)}.
+     */
+    @Override
+    public Site createSite(SiteId siteId, String templateName) {
+        return createSite(siteId);
+    }
+
+    @Override
+    public List<Site> findSites(SiteQuery query) {
+        List<Site> sites = new ArrayList<Site>();
+        for (InMemorySite site : findStoredSites(query)) {
+            sites.add(new InMemorySite(site));
+        }
+        return sites;
+    }
+
+    @Override
+    public List<SiteSummary> findSiteSummaries(SiteQuery query, boolean includePermissions) {
+        List<SiteSummary> summaries = new ArrayList<SiteSummary>();
+        for (InMemorySite site : findStoredSites(query)) {
+            summaries.add(new SiteSummary(site, includePermissions));
+        }
+        return summaries;
+    }
+
+    @Override
+    public Cursor<Site> streamSites(final SiteQuery query, int fetchSize) {
+        Parameters.requireNonNull(query, "query");
+
+        return new KeysetCursor<Site, SiteId>(query.getStartAfter(), fetchSize) {
+            @Override
+            protected List<Site> fetch(SiteId after, int limit) {
+                List<Site> sites = new ArrayList<Site>(limit);
+                for (InMemorySite site : matchSites(query, after, limit)) {
+                    sites.add(new InMemorySite(site));
+                }
+                return sites;
+            }
+
+            @Override
+            protected SiteId getKey(Site site) {
+                return site.getId();
+            }
+        };
+    }
+
+    @Override
+    public int countSites(SiteQuery query) {
+        Parameters.requireNonNull(query, "query");
+
+        return matchSites(query, query.getStartAfter(), Integer.MAX_VALUE, null);
+    }
+
+    @Override
+    public void saveSite(Site site) {
+        Parameters.requireNonNull(site, "site");
+
+        SiteId siteId = site.getId();
+        sites.get(siteId.getType()).put(siteId.getName(), new InMemorySite(site));
+        navigations.putIfAbsent(siteId, new InMemoryNavigation(siteId, dispatcher));
+    }
+
+    @Override
+    public boolean removeSite(SiteId siteId) {
+        Parameters.requireNonNull(siteId, "siteId");
+
+        boolean removed = sites.get(siteId.getType()).remove(siteId.getName()) != null;
+        pages.remove(siteId);
+        navigations.remove(siteId);
+        return removed;
+    }
+
+    /**
+     * Saves the sites one at a time, since writes are not transactional in memory the chunk size has no effect
+     */
+    @Override
+    public BatchResult<SiteId> saveSites(Collection<Site> sites, int chunkSize) {
+        Parameters.requireNonNullElements(sites, "sites");
+        Parameters.requirePositive(chunkSize, "chunkSize");
+
+        BatchResult.Builder<SiteId> result = new BatchResult.Builder<SiteId>();
+        for (Site site : sites) {
+            try {
+                saveSite(site);
+                result.succeeded(site.getId());
+            } catch (ApiException e) {
+                result.failed(site.getId(), e);
+            }
+        }
+        return result.build();
+    }
+
+    /**
+     * Removes the sites one at a time, since writes are not transactional in memory the chunk size has no effect
+     */
+    @Override
+    public BatchResult<SiteId> removeSites(Collection<SiteId> siteIds, int chunkSize) {
+        Parameters.requireNonNullElements(siteIds, "siteIds");
+        Parameters.requirePositive(chunkSize, "chunkSize");
+
+        BatchResult.Builder<SiteId> result = new BatchResult.Builder<SiteId>();
+        for (SiteId siteId : siteIds) {
+            if (removeSite(siteId)) {
+                result.succeeded(siteId);
+            } else {
+                result.failed(siteId, new EntityNotFoundException("Site " + siteId + " does not exist"));
+            }
+        }
+        return result.build();
+    }
+
+    private InMemorySite storedSite(SiteId siteId) {
+        return sites.get(siteId.getType()).get(siteId.getName());
+    }
+
+    private List<InMemorySite> findStoredSites(SiteQuery query) {
+        Parameters.requireNonNull(query, "query");
+
+        Sorting<Site> sorting = query.getSorting();
+        Pagination pagination = query.getPagination();
+        if (sorting != null) {
+            List<InMemorySite> sites = new ArrayList<InMemorySite>();
+            for (Site site : sorting.sort(matchSites(query, query.getStartAfter(), Integer.MAX_VALUE), pagination)) {
+                sites.add((InMemorySite) site);
+            }
+            return sites;
+        }
+
+        return page(matchSites(query, query.getStartAfter(), end(pagination)), pagination);
+    }
+
+    /**
+     * Returns the stored sites matching the query in order of their id, stopping once max sites matched
+     */
+    private List<InMemorySite> matchSites(SiteQuery query, SiteId after, int max) {
+        List<InMemorySite> matched = new ArrayList<InMemorySite>();
+        matchSites(query, after, max, matched);
+        return matched;
+    }
+
+    /**
+     * Counts the stored sites matching the query in order of their id, stopping once max sites matched, and adds them to
+     * matched unless it's null. When only counting a query restricted by indexed keys alone, the sites stored under these
+     * keys are counted without being evaluated.
+     */
+    private int matchSites(SiteQuery query, SiteId after, int max, List<InMemorySite> matched) {
+        Criteria<Site> criteria = query.getCriteria();
+        Set<SiteType> types = (query.getSiteTypes() == null) ? EnumSet.allOf(SiteType.class) : EnumSet.copyOf(query
+                .getSiteTypes());
+        Set<SiteType> restricted = CriteriaIndex.values(criteria, SiteField.TYPE);
+        if (restricted != null) {
+            types.retainAll(restricted);
+        }
+        Set<String> names = CriteriaIndex.values(criteria, SiteField.NAME);
+        boolean indexed = matched == null && query.isIncludeEmptySites() && query.getFilter() == null
+                && CriteriaIndex.covers(criteria, SiteField.TYPE, SiteField.NAME);
+
+        int count = 0;
+        for (SiteType type : types) {
+            if (after != null && type.compareTo(after.getType()) < 0) {
+                continue;
+            }
+
+            NavigableMap<String, InMemorySite> candidates = sites.get(type);
+            if (after != null && type == after.getType()) {
+                candidates = candidates.tailMap(after.getName(), false);
+            }
+            if (indexed && names == null) {
+                count = (int) Math.min(max, (long) count + candidates.size());
+                continue;
+            }
+            for (InMemorySite site : lookup(candidates, names)) {
+                if (indexed || matches(query, site)) {
+                    if (matched != null) {
+                        matched.add(site);
+                    }
+                    if (++count >= max) {
+                        return count;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    private boolean matches(SiteQuery query, InMemorySite site) {
+        if (!query.isIncludeEmptySites()) {
+            InMemoryNavigation navigation = navigations.get(site.getId());
+            if (navigation == null || !navigation.hasNodes()) {
+                return false;
+            }
+        }
+
+        return accept(query.getCriteria(), query.getFilter(), site, (query.getFilter() == null) ? null : new InMemorySite(site));
+    }
+
+    // ----------------- Navigations
+
+    @Override
+    public Navigation getNavigation(SiteId siteId) {
+        return navigations.get(Parameters.requireNonNull(siteId, "siteId"));
+    }
+
+    @Override
+    public void addNavigationListener(NavigationListener listener) {
+        dispatcher.addListener(listener);
+    }
+
+    @Override
+    public boolean removeNavigationListener(NavigationListener listener) {
+        return dispatcher.removeListener(listener);
+    }
+
+    /**
+     * Returns the application registry, to which applications can be added.
+     */
+    @Override
+    public InMemoryApplicationRegistry getApplicationRegistry() {
+        return applicationRegistry;
+    }
+
+    // ----------------- Pages
+
+    @Override
+    public Page getPage(PageId pageId) {
+        InMemoryPage page = storedPage(Parameters.requireNonNull(pageId, "pageId"));
+        return (page == null) ? null : new InMemoryPage(page);
+    }
+
+    @Override
+    public Map<PageId, Page> getPages(Collection<PageId> pageIds) {
+        Parameters.requireNonNull(pageIds, "pageIds");
+
+        Map<PageId, Page> result = new LinkedHashMap<PageId, Page>();
+        for (PageId pageId : pageIds) {
+            Page page = getPage(pageId);
+            if (page != null) {
+                result.put(pageId, page);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Page createPage(PageId pageId) {
+        Parameters.requireNonNull(pageId, "pageId");
+        if (storedSite(pageId.getSiteId()) == null)
+            throw new EntityNotFoundException("Site " + pageId.getSiteId() + " does not exist");
+        if (storedPage(pageId) != null)
+            throw new EntityAlreadyExistsException("Page " + pageId + " already exists");
+
+        return new InMemoryPage(pageId);
+    }
+
+    @Override
+    public List<Page> findPages(PageQuery query) {
+        List<Page> pages = new ArrayList<Page>();
+        for (InMemoryPage page : findStoredPages(query)) {
+            pages.add(new InMemoryPage(page));
+        }
+        return pages;
+    }
+
+    @Override
+    public List<PageSummary> findPageSummaries(PageQuery query, boolean includePermissions) {
+        List<PageSummary> summaries = new ArrayList<PageSummary>();
+        for (InMemoryPage page : findStoredPages(query)) {
+            summaries.add(new PageSummary(page, includePermissions));
+        }
+        return summaries;
+    }
+
+    @Override
+    public Cursor<Page> streamPages(final PageQuery query, int fetchSize) {
+        Parameters.requireNonNull(query, "query");
+
+        return new KeysetCursor<Page, PageId>(query.getStartAfter(), fetchSize) {
+            @Override
+            protected List<Page> fetch(PageId after, int limit) {
+                List<Page> pages = new ArrayList<Page>(limit);
+                for (InMemoryPage page : matchPages(query, after, limit)) {
+                    pages.add(new InMemoryPage(page));
+                }
+                return pages;
+            }
+
+            @Override
+            protected PageId getKey(Page page) {
+                return page.getId();
+            }
+        };
+    }
+
+    @Override
+    public int countPages(PageQuery query) {
+        Parameters.requireNonNull(query, "query");
+
+        return matchPages(query, query.getStartAfter(), Integer.MAX_VALUE, null);
+    }
+
+    /**
+     * Saves a page
+     *
+     * @throws EntityNotFoundException if the site of the page does not exist
+     */
+    @Override
+    public void savePage(Page page) {
+        Parameters.requireNonNull(page, "page");
+
+        PageId pageId = page.getId();
+        SiteId siteId = pageId.getSiteId();
+        if (storedSite(siteId) == null)
+            throw new EntityNotFoundException("Site " + siteId + " does not exist");
+
+        ConcurrentSkipListMap<String, InMemoryPage> sitePages = pages.get(siteId);
+        if (sitePages == null) {
+            ConcurrentSkipListMap<String, InMemoryPage> created = new ConcurrentSkipListMap<String, InMemoryPage>();
+            sitePages = pages.putIfAbsent(siteId, created);
+            if (sitePages == null) {
+                sitePages = created;
+            }
+        }
+        sitePages.put(pageId.getPageName(), new InMemoryPage(page));
+
+        // The site could have been removed concurrently, along with it's pages
+        if (storedSite(siteId) == null) {
+            pages.remove(siteId, sitePages);
+            throw new EntityNotFoundException("Site " + siteId + " does not exist");
+        }
+    }
+
+    @Override
+    public boolean removePage(PageId pageId) {
+        Parameters.requireNonNull(pageId, "pageId");
+
+        ConcurrentSkipListMap<String, InMemoryPage> sitePages = pages.get(pageId.getSiteId());
+        return sitePages != null && sitePages.remove(pageId.getPageName()) != null;
+    }
+
+    /**
+     * Saves the pages one at a time, since writes are not transactional in memory the chunk size has no effect
+     */
+    @Override
+    public BatchResult<PageId> savePages(Collection<Page> pages, int chunkSize) {
+        Parameters.requireNonNullElements(pages, "pages");
+        Parameters.requirePositive(chunkSize, "chunkSize");
+
+        BatchResult.Builder<PageId> result = new BatchResult.Builder<PageId>();
+        for (Page page : pages) {
+            try {
+                savePage(page);
+                result.succeeded(page.getId());
+            } catch (ApiException e) {
+                result.failed(page.getId(), e);
+            }
+        }
+        return result.build();
+    }
+
+    /**
+     * Removes the pages one at a time, since writes are not transactional in memory the chunk size has no effect
+     */
+    @Override
+    public BatchResult<PageId> removePages(Collection<PageId> pageIds, int chunkSize) {
+        Parameters.requireNonNullElements(pageIds, "pageIds");
+        Parameters.requirePositive(chunkSize, "chunkSize");
+
+        BatchResult.Builder<PageId> result = new BatchResult.Builder<PageId>();
+        for (PageId pageId : pageIds) {
+            if (removePage(pageId)) {
+                result.succeeded(pageId);
+            } else {
+                result.failed(pageId, new EntityNotFoundException("Page " + pageId + " does not exist"));
+            }
+        }
+        return result.build();
+    }
+
+    private InMemoryPage storedPage(PageId pageId) {
+        ConcurrentSkipListMap<String, InMemoryPage> sitePages = pages.get(pageId.getSiteId());
+        return (sitePages == null) ? null : sitePages.get(pageId.getPageName());
+    }
+
+    private List<InMemoryPage> findStoredPages(PageQuery query) {
+        Parameters.requireNonNull(query, "query");
+
+        Sorting<Page> sorting = query.getSorting();
+        Pagination pagination = query.getPagination();
+        if (sorting != null) {
+            List<InMemoryPage> pages = new ArrayList<InMemoryPage>();
+            for (Page page : sorting.sort(matchPages(query, query.getStartAfter(), Integer.MAX_VALUE), pagination)) {
+                pages.add((InMemoryPage) page);
+            }
+            return pages;
+        }
+
+        return page(matchPages(query, query.getStartAfter(), end(pagination)), pagination);
+    }
+
+    /**
+     * Returns the stored pages matching the query in order of their id, stopping once max pages matched
+     */
+    private List<InMemoryPage> matchPages(PageQuery query, PageId after, int max) {
+        List<InMemoryPage> matched = new ArrayList<InMemoryPage>();
+        matchPages(query, after, max, matched);
+        return matched;
+    }
+
+    /**
+     * Counts the stored pages matching the query in order of their id, stopping once max pages matched, and adds them to
+     * matched unless it's null. When only counting a query restricted by indexed keys alone, the pages stored under these
+     * keys are counted without being evaluated.
+     */
+    private int matchPages(PageQuery query, PageId after, int max, List<InMemoryPage> matched) {
+        Criteria<Page> criteria = query.getCriteria();
+        Set<SiteType> types = CriteriaIndex.values(criteria, PageField.SITE_TYPE);
+        Set<String> siteNames = CriteriaIndex.values(criteria, PageField.SITE_NAME);
+        Set<String> names = CriteriaIndex.values(criteria, PageField.NAME);
+        boolean indexed = matched == null && query.getDisplayName() == null && query.getFilter() == null
+                && CriteriaIndex.covers(criteria, PageField.SITE_TYPE, PageField.SITE_NAME, PageField.NAME);
+
+        NavigableMap<SiteId, ConcurrentSkipListMap<String, InMemoryPage>> bySite = pages;
+        if (after != null) {
+            bySite = bySite.tailMap(after.getSiteId(), true);
+        }
+
+        int count = 0;
+        for (Map.Entry<SiteId, ConcurrentSkipListMap<String, InMemoryPage>> entry : bySite.entrySet()) {
+            SiteId siteId = entry.getKey();
+            if ((query.getSiteType() != null && query.getSiteType() != siteId.getType())
+                    || (query.getSiteName() != null && !query.getSiteName().equals(siteId.getName()))
+                    || (types != null && !types.contains(siteId.getType()))
+                    || (siteNames != null && !siteNames.contains(siteId.getName()))) {
+                continue;
+            }
+
+            NavigableMap<String, InMemoryPage> candidates = entry.getValue();
+            if (after != null && siteId.equals(after.getSiteId())) {
+                candidates = candidates.tailMap(after.getPageName(), false);
+            }
+            if (indexed && names == null) {
+                count = (int) Math.min(max, (long) count + candidates.size());
+                continue;
+            }
+            for (InMemoryPage page : lookup(candidates, names)) {
+                if (indexed || matches(query, page)) {
+                    if (matched != null) {
+                        matched.add(page);
+                    }
+                    if (++count >= max) {
+                        return count;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    private static boolean matches(PageQuery query, InMemoryPage page) {
+        String displayName = query.getDisplayName();
+        if (displayName != null
+                && (page.getDisplayName() == null || !page.getDisplayName().toLowerCase(Locale.ENGLISH)
+                        .contains(displayName.toLowerCase(Locale.ENGLISH)))) {
+            return false;
+        }
+
+        return accept(query.getCriteria(), query.getFilter(), page, (query.getFilter() == null) ? null : new InMemoryPage(page));
+    }
+
+    // ----------------- Security
+
+    @Override
+    public boolean hasPermission(User user, Permission permission) {
+        Parameters.requireNonNull(user, "user");
+        Parameters.requireNonNull(permission, "permission");
+
+        return evaluator.hasPermission(getIdentity(user), permission);
+    }
+
+    @Override
+    public BitSet hasPermissions(User user, List<Permission> permissions) {
+        Parameters.requireNonNull(user, "user");
+        Parameters.requireNonNullElements(permissions, "permissions");
+
+        Identity identity = getIdentity(user);
+        BitSet result = new BitSet(permissions.size());
+        for (int i = 0; i < permissions.size(); i++) {
+            if (evaluator.hasPermission(identity, permissions.get(i))) {
+                result.set(i);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns null, OAuth providers are not supported.
+     */
+    @Override
+    public OAuthProvider getOAuthProvider(String oauthProviderKey) {
+        return null;
+    }
+
+    @Override
+    public PageBuilder newPageBuilder() {
+        return new InMemoryPageBuilder();
+    }
+
+    // ----------------- Query helpers
+
+    /**
+     * Returns the values of the map in order, or only the values with the keys when keys are given
+     */
+    private static <V> Collection<V> lookup(NavigableMap<String, V> map, Set<String> keys) {
+        if (keys == null) {
+            return map.values();
+        }
+
+        List<V> values = new ArrayList<V>(keys.size());
+        for (String key : new TreeSet<String>(keys)) {
+            V value = (key == null) ? null : map.get(key);
+            if (value != null) {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Evaluates the criteria on the stored element, and the filter on a copy, since filters are not trusted with stored
+     * elements
+     */
+    private static <T> boolean accept(Criteria<T> criteria, Filter<T> filter, T stored, T copy) {
+        return (criteria == null || criteria.accept(stored)) && (filter == null || filter.accept(copy));
+    }
+
+    private static int end(Pagination pagination) {
+        if (pagination == null || pagination.getLimit() < 0) {
+            return Integer.MAX_VALUE;
+        }
+
+        long end = (long) Math.max(0, pagination.getOffset()) + pagination.getLimit();
+        return (int) Math.min(end, Integer.MAX_VALUE);
+    }
+
+    private static <T> List<T> page(List<T> matched, Pagination pagination) {
+        int offset = (pagination == null) ? 0 : Math.max(0, pagination.getOffset());
+        if (offset >= matched.size()) {
+            return new ArrayList<T>();
+        }
+        return new ArrayList<T>(matched.subList(offset, Math.min(matched.size(), end(pagination))));
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.memory;
+
+import org.gatein.api.common.Attributes;
+import org.gatein.api.internal.ObjectToStringBuilder;
+import org.gatein.api.internal.Parameters;
+import org.gatein.api.security.Permission;
+import org.gatein.api.site.Site;
+import org.gatein.api.site.SiteId;
+import org.gatein.api.site.SiteType;
+
+import java.util.Locale;
+
+/**
+ * A site of the {@link InMemoryPortal}. Sites stored by the portal are never modified, sites returned are copies.
+ */
+class InMemorySite implements Site {
+    static final Permission DEFAULT_EDIT_PERMISSION = Permission.any("platform", "administrators");
+
+    private final SiteId id;
+    private String displayName;
+    private String description;
+    private Locale locale;
+    private String skin;
+    private final Attributes attributes;
+    private Permission accessPermission;
+    private Permission editPermission;
+
+    InMemorySite(SiteId id) {
+        this.id = id;
+        this.attributes = new Attributes();
+        this.accessPermission = Permission.everyone();
+        this.editPermission = DEFAULT_EDIT_PERMISSION;
+    }
+
+    InMemorySite(Site site) {
+        this.id = site.getId();
+        this.displayName = site.getDisplayName();
+        this.description = site.getDescription();
+        this.locale = site.getLocale();
+        this.skin = site.getSkin();
+        this.attributes = new Attributes(site.getAttributes());
+        this.accessPermission = site.getAccessPermission();
+        this.editPermission = site.getEditPermission();
+    }
+
+    @Override
+    public SiteId getId() {
+        return id;
+    }
+
+    @Override
+    public SiteType getType() {
+        return id.getType();
+    }
+
+    @Override
+    public String getName() {
+        return id.getName();
+    }
+
+    @Override
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    @Override
+    public void setDisplayName(String displayName) {
+        this.displayName = displayName;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    @Override
+    public Locale getLocale() {
+        return locale;
+    }
+
+    @Override
+    public void setLocale(Locale locale) {
+        this.locale = locale;
+    }
+
+    @Override
+    public String getSkin() {
+        return skin;
+    }
+
+    @Override
+    public void setSkin(String skin) {
+        this.skin = skin;
+    }
+
+    @Override
+    public Attributes getAttributes() {
+        return attributes;
+    }
+
+    @Override
+    public Permission getAccessPermission() {
+        return accessPermission;
+    }
+
+    @Override
+    public void setAccessPermission(Permission permission) {
+        this.accessPermission = Parameters.requireNonNull(permission, "permission");
+    }
+
+    @Override
+    public Permission getEditPermission() {
+        return editPermission;
+    }
+
+    @Override
+    public void setEditPermission(Permission permission) {
+        this.editPermission = Parameters.requireNonNull(permission, "permission");
+    }
+
+    @Override
+    public int compareTo(Site other) {
+        return id.compareTo(other.getId());
+    }
+
+    @Override
+    public String toString() {
+        return ObjectToStringBuilder.toStringBuilder(Site.class).add("id", id).add("displayName", displayName)
+                .add("description", description).add("locale", locale).add("skin", skin)
+                .add("accessPermission", accessPermission).add("editPermission", editPermission).toString();
+    }
+}
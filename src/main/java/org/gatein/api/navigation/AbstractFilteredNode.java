@@ -0,0 +1,427 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.navigation;
+
+import org.gatein.api.PortalRequest;
+import org.gatein.api.common.Attributes;
+import org.gatein.api.common.Filter;
+import org.gatein.api.common.i18n.LocalizedString;
+import org.gatein.api.internal.Parameters;
+import org.gatein.api.page.PageId;
+import org.gatein.api.security.User;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * The base of filtered views of nodes, which filters the children of the node it views. Children returned are filtered
+ * views using the filters of their parent at the time they were returned. All other operations, including changes, are
+ * delegated to the node it views, so a view of a node that can't be changed can't be changed either. This is intended to
+ * be used by implementations of the API.
+ */
+public abstract class AbstractFilteredNode implements FilteredNode {
+    private final Node node;
+    private final List<Filter<Node>> filters;
+
+    /**
+     * Creates a view of the node showing all children
+     *
+     * @param node the node
+     */
+    protected AbstractFilteredNode(Node node) {
+        this(node, new ArrayList<Filter<Node>>());
+    }
+
+    /**
+     * Creates a view of the node using the filters
+     *
+     * @param node the node
+     * @param filters the filters, which are owned by the view
+     */
+    protected AbstractFilteredNode(Node node, List<Filter<Node>> filters) {
+        this.node = node;
+        this.filters = filters;
+    }
+
+    /**
+     * Creates a view of a node of the same implementation, which is a child of the node viewed or the node itself
+     *
+     * @param node the node
+     * @param filters the filters, which are owned by the view
+     * @return the view
+     */
+    protected abstract AbstractFilteredNode newFilteredNode(Node node, List<Filter<Node>> filters);
+
+    /**
+     * @return the node viewed
+     */
+    protected Node unwrap() {
+        return node;
+    }
+
+    @Override
+    public FilteredNode showAll() {
+        filters.clear();
+        return this;
+    }
+
+    @Override
+    public FilteredNode showDefault() {
+        return showVisible().showHasAccess(PortalRequest.getInstance().getUser());
+    }
+
+    @Override
+    public FilteredNode showVisible() {
+        return show(new Filter<Node>() {
+            @Override
+            public boolean accept(Node element) {
+                return element.isVisible();
+            }
+        });
+    }
+
+    @Override
+    public FilteredNode showHasAccess(User user) {
+        Parameters.requireNonNull(user, "user");
+
+        return show(PagePermissionFilter.hasAccess(PortalRequest.getInstance().getPortal(), user));
+    }
+
+    @Override
+    public FilteredNode showHasEdit(User user) {
+        Parameters.requireNonNull(user, "user");
+
+        return show(PagePermissionFilter.hasEdit(PortalRequest.getInstance().getPortal(), user));
+    }
+
+    @Override
+    public FilteredNode show(Filter<Node> filter) {
+        filters.add(Parameters.requireNonNull(filter, "filter"));
+        return this;
+    }
+
+    // ----------------- Filtered child operations
+
+    @Override
+    public Node getChild(String childName) {
+        Node child = node.getChild(childName);
+        return (child == null || !accept(child)) ? null : wrap(child);
+    }
+
+    @Override
+    public Node getChild(int index) {
+        return wrap(children().get(index));
+    }
+
+    @Override
+    public int getChildCount() throws IllegalStateException {
+        return children().size();
+    }
+
+    @Override
+    public boolean hasChild(String childName) {
+        Node child = node.getChild(childName);
+        return child != null && accept(child);
+    }
+
+    @Override
+    public Node getNode(String... nodePath) {
+        return getNode(NodePath.path(nodePath));
+    }
+
+    @Override
+    public Node getNode(NodePath nodePath) {
+        Parameters.requireNonNull(nodePath, "nodePath");
+
+        Node current = this;
+        for (String segment : nodePath) {
+            current = current.getChild(segment);
+            if (current == null) {
+                return null;
+            }
+        }
+        return current;
+    }
+
+    @Override
+    public int indexOf(String childName) {
+        Parameters.requireNonNull(childName, "childName");
+
+        List<Node> children = children();
+        for (int i = 0; i < children.size(); i++) {
+            if (children.get(i).getName().equals(childName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public Iterator<Node> iterator() {
+        final Iterator<Node> iterator = children().iterator();
+        return new Iterator<Node>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            private Node current;
+
+            @Override
+            public Node next() {
+                current = iterator.next();
+                return wrap(current);
+            }
+
+            @Override
+            public void remove() {
+                if (current == null)
+                    throw new IllegalStateException();
+
+                node.removeChild(current.getName());
+                current = null;
+            }
+        };
+    }
+
+    @Override
+    public FilteredNode filter() {
+        return newFilteredNode(node, new ArrayList<Filter<Node>>(filters));
+    }
+
+    /**
+     * Filters the children of the node. Filters that don't look up pages are evaluated first, so that only the pages of
+     * the children they accept are checked by the {@link PagePermissionFilter}s, in one batch per filter.
+     */
+    private List<Node> children() {
+        List<Node> children = new ArrayList<Node>(node.getChildCount());
+        for (Node child : node) {
+            if (acceptWithoutPages(child)) {
+                children.add(child);
+            }
+        }
+
+        for (Filter<Node> filter : filters) {
+            if (filter instanceof PagePermissionFilter) {
+                ((PagePermissionFilter) filter).prepare(children);
+                List<Node> accepted = new ArrayList<Node>(children.size());
+                for (Node child : children) {
+                    if (filter.accept(child)) {
+                        accepted.add(child);
+                    }
+                }
+                children = accepted;
+            }
+        }
+        return children;
+    }
+
+    /**
+     * Filters a single child. If its pages have to be checked, the pages of its siblings are checked with it, as they are
+     * likely to be filtered next.
+     */
+    private boolean accept(Node child) {
+        if (!acceptWithoutPages(child)) {
+            return false;
+        }
+
+        for (Filter<Node> filter : filters) {
+            if (filter instanceof PagePermissionFilter) {
+                return children().contains(child);
+            }
+        }
+        return true;
+    }
+
+    private boolean acceptWithoutPages(Node child) {
+        for (Filter<Node> filter : filters) {
+            if (!(filter instanceof PagePermissionFilter) && !filter.accept(child)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Node wrap(Node child) {
+        return newFilteredNode(child, new ArrayList<Filter<Node>>(filters));
+    }
+
+    // ----------------- Delegating operations
+
+    @Override
+    public String getName() {
+        return node.getName();
+    }
+
+    @Override
+    public void setName(String name) {
+        node.setName(name);
+    }
+
+    @Override
+    public Node getParent() {
+        return node.getParent();
+    }
+
+    @Override
+    public NodePath getNodePath() {
+        return node.getNodePath();
+    }
+
+    @Override
+    public String getURI() {
+        return node.getURI();
+    }
+
+    @Override
+    public boolean isVisible() {
+        return node.isVisible();
+    }
+
+    @Override
+    public Visibility getVisibility() {
+        return node.getVisibility();
+    }
+
+    @Override
+    public void setVisibility(Visibility visibility) {
+        node.setVisibility(visibility);
+    }
+
+    @Override
+    public void setVisibility(boolean visible) {
+        node.setVisibility(visible);
+    }
+
+    @Override
+    public void setVisibility(PublicationDate publicationDate) {
+        node.setVisibility(publicationDate);
+    }
+
+    @Override
+    public String getIconName() {
+        return node.getIconName();
+    }
+
+    @Override
+    public void setIconName(String iconName) {
+        node.setIconName(iconName);
+    }
+
+    @Override
+    public PageId getPageId() {
+        return node.getPageId();
+    }
+
+    @Override
+    public void setPageId(PageId pageId) {
+        node.setPageId(pageId);
+    }
+
+    @Override
+    public Attributes getAttributes() {
+        return node.getAttributes();
+    }
+
+    @Override
+    public LocalizedString getDisplayNames() {
+        return node.getDisplayNames();
+    }
+
+    @Override
+    public void setDisplayNames(LocalizedString displayName) {
+        node.setDisplayNames(displayName);
+    }
+
+    @Override
+    public String getDisplayName() {
+        return node.getDisplayName();
+    }
+
+    @Override
+    public void setDisplayName(String displayName) {
+        node.setDisplayName(displayName);
+    }
+
+    @Override
+    public long getVersion() {
+        return node.getVersion();
+    }
+
+    @Override
+    public long getSubtreeVersion() {
+        return node.getSubtreeVersion();
+    }
+
+    @Override
+    public boolean isRoot() {
+        return node.isRoot();
+    }
+
+    @Override
+    public Node addChild(String childName) {
+        return node.addChild(childName);
+    }
+
+    @Override
+    public Node addChild(int index, String childName) {
+        return node.addChild(index, childName);
+    }
+
+    @Override
+    public boolean isChildrenLoaded() {
+        return node.isChildrenLoaded();
+    }
+
+    @Override
+    public boolean removeChild(String childName) {
+        return node.removeChild(childName);
+    }
+
+    @Override
+    public void sort(Comparator<Node> comparator) {
+        node.sort(comparator);
+    }
+
+    @Override
+    public void moveTo(int index) {
+        node.moveTo(index);
+    }
+
+    @Override
+    public void moveTo(Node parent) {
+        node.moveTo(parent);
+    }
+
+    @Override
+    public void moveTo(int index, Node parent) {
+        node.moveTo(index, parent);
+    }
+
+    @Override
+    public String toString() {
+        return node.toString();
+    }
+}
@@ -26,6 +26,8 @@ import org.gatein.api.ApiException;
 import org.gatein.api.EntityNotFoundException;
 import org.gatein.api.site.SiteId;
 
+import java.util.Map;
+
 /**
  * Navigation for a site responsible for the retrieval, saving, and removal of navigation nodes.
  * 
@@ -93,6 +95,25 @@ public interface Navigation {
      */
     Node getNode(NodePath nodePath, NodeVisitor visitor);
 
+    /**
+     * Returns the nodes represented by the node paths, loaded in a single traversal of the navigation tree. Each node path is
+     * mapped to the visitor used to determine further loading of nodes, relative to the node represented by that node path,
+     * in the same way as {@link #getNode(NodePath, NodeVisitor)}. Branches shared by more than one node path are only loaded
+     * once.
+     * <p>
+     * For example to retrieve the children of the top level menu along with the current node and it's children you can pass in
+     * a map containing <code>NodePath.root()</code> and the current node path, both mapped to
+     * <code>Nodes.visitChildren()</code>.
+     * </p>
+     *
+     * @param visitors the node paths mapped to the visitor used to determine further loading of nodes
+     * @return the nodes mapped by their node path. Node paths of nodes that were not found are not contained in the map.
+     * @throws IllegalArgumentException if visitors is null, or contains a null node path or visitor
+     * @throws ApiException if something prevented this operation to succeed
+     * @see Nodes#visitNodes(Map)
+     */
+    Map<NodePath, Node> getNodes(Map<NodePath, NodeVisitor> visitors);
+
     /**
      * Returns the root node of the navigation with nodes loaded dependent on the <code>NodeVisitor</code>
      *
@@ -126,6 +147,20 @@ public interface Navigation {
      */
     void refreshNode(Node node, NodeVisitor visitor);
 
+    /**
+     * Will refresh the node with latest from storage, but only if the node or any of it's descendants was modified since it
+     * was loaded or last refreshed, as determined by {@link Node#getSubtreeVersion()}. An unchanged node costs a single
+     * version check, and only the branches of the tree that were modified are read again. Otherwise this is the same as
+     * {@link #refreshNode(Node, NodeVisitor)}.
+     *
+     * @param node the node to refresh
+     * @param visitor the visitor which can load more nodes.
+     * @return true if the node was refreshed, false if it was not modified
+     * @throws IllegalArgumentException if node or visitor is null
+     * @throws ApiException if something prevented this operation to succeed
+     */
+    boolean refreshNodeIfModified(Node node, NodeVisitor visitor);
+
     /**
      * Removes a node, represented by the node path
      *
@@ -138,7 +173,8 @@ public interface Navigation {
     boolean removeNode(NodePath nodePath);
 
     /**
-     * Saves a node. All changes to the entire tree will be saved even if the node is not the root of the tree.
+     * Saves a node. All changes to the entire tree will be saved even if the node is not the root of the tree. Only the
+     * nodes that changed since they were loaded or last saved are written, as recorded by a {@link NodeChangeJournal}.
      *
      * @param node the node to save
      * @throws IllegalArgumentException if node is null
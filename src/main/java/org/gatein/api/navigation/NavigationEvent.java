@@ -0,0 +1,144 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.navigation;
+
+import org.gatein.api.internal.ObjectToStringBuilder;
+import org.gatein.api.internal.Parameters;
+import org.gatein.api.site.SiteId;
+
+import java.io.Serializable;
+
+/**
+ * An event describing a change made to a node of a navigation, delivered to {@link NavigationListener}'s once the change was
+ * saved.
+ *
+ * @see org.gatein.api.Portal#addNavigationListener(NavigationListener)
+ */
+public final class NavigationEvent implements Serializable {
+    private final Type type;
+    private final SiteId siteId;
+    private final NodePath nodePath;
+    private final NodePath previousNodePath;
+
+    /**
+     * Creates a new navigation event
+     *
+     * @param type the type of the event
+     * @param siteId the site id of the navigation
+     * @param nodePath the path of the node after the change, or the path of the removed node
+     * @param previousNodePath the path of the node before the change, or null if the path did not change
+     * @throws IllegalArgumentException if type, siteId or nodePath is null
+     */
+    public NavigationEvent(Type type, SiteId siteId, NodePath nodePath, NodePath previousNodePath) {
+        this.type = Parameters.requireNonNull(type, "type");
+        this.siteId = Parameters.requireNonNull(siteId, "siteId");
+        this.nodePath = Parameters.requireNonNull(nodePath, "nodePath");
+        this.previousNodePath = (nodePath.equals(previousNodePath)) ? null : previousNodePath;
+    }
+
+    /**
+     * The type of the event
+     *
+     * @return the type
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * The <code>SiteId</code> of the navigation that changed
+     *
+     * @return the site id
+     */
+    public SiteId getSiteId() {
+        return siteId;
+    }
+
+    /**
+     * The path of the node after the change. For {@link Type#NODE_REMOVED} events this is the path of the node that was
+     * removed.
+     *
+     * @return the node path
+     */
+    public NodePath getNodePath() {
+        return nodePath;
+    }
+
+    /**
+     * The path of the node before the change, if the node was moved or renamed.
+     *
+     * @return the previous node path, or null if the path of the node did not change
+     */
+    public NodePath getPreviousNodePath() {
+        return previousNodePath;
+    }
+
+    @Override
+    public String toString() {
+        return ObjectToStringBuilder.toStringBuilder(getClass()).add("type", type).add("siteId", siteId)
+                .add("nodePath", nodePath).add("previousNodePath", previousNodePath).toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof NavigationEvent))
+            return false;
+
+        NavigationEvent that = (NavigationEvent) o;
+        return type == that.type && siteId.equals(that.siteId) && nodePath.equals(that.nodePath)
+                && (previousNodePath == null ? that.previousNodePath == null : previousNodePath.equals(that.previousNodePath));
+    }
+
+    @Override
+    public int hashCode() {
+        int result = type.hashCode();
+        result = 31 * result + siteId.hashCode();
+        result = 31 * result + nodePath.hashCode();
+        result = 31 * result + (previousNodePath != null ? previousNodePath.hashCode() : 0);
+        return result;
+    }
+
+    public static enum Type {
+        /**
+         * A node, and any of it's children, was added.
+         */
+        NODE_ADDED,
+
+        /**
+         * A node, and all of it's descendants, was removed.
+         */
+        NODE_REMOVED,
+
+        /**
+         * A node was moved to another index or parent. The paths of it's descendants changed as well.
+         */
+        NODE_MOVED,
+
+        /**
+         * A node was updated. If it was renamed the paths of it's descendants changed as well.
+         */
+        NODE_UPDATED
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.navigation;
+
+import org.gatein.api.internal.Parameters;
+import org.gatein.api.site.SiteId;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Delivers {@link NavigationEvent}'s to {@link NavigationListener}'s asynchronously and in batches. This is intended to be
+ * used by implementations of {@link Navigation} to publish events once changes are saved.
+ * <p>
+ * Publishing an event never blocks. Events published while a batch is being delivered are queued and delivered together as
+ * the next batch, and at most one batch is delivered at a time, so listeners see events in the order they were published.
+ * </p>
+ */
+public class NavigationEventDispatcher {
+    private static final Logger log = Logger.getLogger(NavigationEventDispatcher.class.getName());
+
+    /**
+     * The default maximum number of events delivered in one batch.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private final Executor executor;
+    private final int batchSize;
+    private final List<NavigationListener> listeners;
+    private final Queue<NavigationEvent> queue;
+    private final AtomicBoolean scheduled;
+    private final Runnable deliver;
+
+    /**
+     * Creates a dispatcher delivering events using the executor, with a batch size of {@link #DEFAULT_BATCH_SIZE}
+     *
+     * @param executor the executor used to deliver events
+     * @throws IllegalArgumentException if executor is null
+     */
+    public NavigationEventDispatcher(Executor executor) {
+        this(executor, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Creates a dispatcher delivering events using the executor
+     *
+     * @param executor the executor used to deliver events
+     * @param batchSize the maximum number of events delivered in one batch
+     * @throws IllegalArgumentException if executor is null, or batchSize is less than 1
+     */
+    public NavigationEventDispatcher(Executor executor, int batchSize) {
+        if (batchSize < 1)
+            throw new IllegalArgumentException("batchSize must be greater than 0");
+
+        this.executor = Parameters.requireNonNull(executor, "executor");
+        this.batchSize = batchSize;
+        this.listeners = new CopyOnWriteArrayList<NavigationListener>();
+        this.queue = new ConcurrentLinkedQueue<NavigationEvent>();
+        this.scheduled = new AtomicBoolean();
+        this.deliver = new Runnable() {
+            @Override
+            public void run() {
+                deliver();
+            }
+        };
+    }
+
+    /**
+     * Adds a listener
+     *
+     * @param listener the listener
+     * @throws IllegalArgumentException if listener is null
+     */
+    public void addListener(NavigationListener listener) {
+        listeners.add(Parameters.requireNonNull(listener, "listener"));
+    }
+
+    /**
+     * Removes a listener
+     *
+     * @param listener the listener
+     * @return true if the listener was removed, false if it was not added
+     * @throws IllegalArgumentException if listener is null
+     */
+    public boolean removeListener(NavigationListener listener) {
+        return listeners.remove(Parameters.requireNonNull(listener, "listener"));
+    }
+
+    /**
+     * Publishes an event
+     *
+     * @param event the event
+     * @throws IllegalArgumentException if event is null
+     * @throws java.util.concurrent.RejectedExecutionException if the executor rejects the delivery, the events are then
+     *         delivered along with the next events published
+     */
+    public void publish(NavigationEvent event) {
+        queue.add(Parameters.requireNonNull(event, "event"));
+        schedule();
+    }
+
+    /**
+     * Publishes the events for the changes that were saved to the navigation of a site.
+     *
+     * @param siteId the site id of the navigation
+     * @param changes the changes saved, as returned by {@link NodeChangeJournal#getChanges()}
+     * @throws IllegalArgumentException if siteId or changes is null
+     * @throws java.util.concurrent.RejectedExecutionException if the executor rejects the delivery, the events are then
+     *         delivered along with the next events published
+     */
+    public void publish(SiteId siteId, List<NodeChange> changes) {
+        Parameters.requireNonNull(siteId, "siteId");
+        Parameters.requireNonNull(changes, "changes");
+
+        for (NodeChange change : changes) {
+            queue.add(toEvent(siteId, change));
+        }
+        if (!changes.isEmpty()) {
+            schedule();
+        }
+    }
+
+    private static NavigationEvent toEvent(SiteId siteId, NodeChange change) {
+        switch (change.getType()) {
+            case INSERTED:
+                return new NavigationEvent(NavigationEvent.Type.NODE_ADDED, siteId, change.getNodePath(), null);
+            case REMOVED:
+                return new NavigationEvent(NavigationEvent.Type.NODE_REMOVED, siteId, change.getPreviousNodePath(), null);
+            case MOVED:
+                return new NavigationEvent(NavigationEvent.Type.NODE_MOVED, siteId, change.getNodePath(),
+                        change.getPreviousNodePath());
+            default:
+                return new NavigationEvent(NavigationEvent.Type.NODE_UPDATED, siteId, change.getNodePath(),
+                        change.getPreviousNodePath());
+        }
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(deliver);
+            } catch (RuntimeException e) {
+                // The events stay queued, and are delivered once an event is published to an executor accepting it
+                scheduled.set(false);
+                throw e;
+            }
+        }
+    }
+
+    private void deliver() {
+        try {
+            NavigationEvent event;
+            List<NavigationEvent> batch = new ArrayList<NavigationEvent>();
+            while ((event = queue.poll()) != null) {
+                batch.add(event);
+                if (batch.size() == batchSize) {
+                    deliver(batch);
+                    batch = new ArrayList<NavigationEvent>();
+                }
+            }
+            if (!batch.isEmpty()) {
+                deliver(batch);
+            }
+        } finally {
+            scheduled.set(false);
+        }
+
+        // Events published after the queue was drained, but before scheduled was reset, still need to be delivered.
+        if (!queue.isEmpty()) {
+            schedule();
+        }
+    }
+
+    private void deliver(List<NavigationEvent> batch) {
+        List<NavigationEvent> events = Collections.unmodifiableList(batch);
+        for (NavigationListener listener : listeners) {
+            try {
+                listener.onEvents(events);
+            } catch (RuntimeException e) {
+                log.log(Level.WARNING, "Navigation listener " + listener + " failed to handle events", e);
+            }
+        }
+    }
+}
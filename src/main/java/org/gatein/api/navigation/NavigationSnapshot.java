@@ -0,0 +1,156 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.navigation;
+
+import org.gatein.api.ApiException;
+import org.gatein.api.internal.ObjectToStringBuilder;
+import org.gatein.api.internal.Parameters;
+import org.gatein.api.site.SiteId;
+
+import java.io.Serializable;
+
+/**
+ * An immutable snapshot of the nodes of a {@link Navigation}. Since neither the snapshot nor any of it's nodes can be
+ * modified, a snapshot can be shared by any number of threads, for example by caching it per <code>SiteId</code> using a
+ * {@link NavigationSnapshotCache}.
+ * <p>
+ * Nodes of a snapshot throw an <code>UnsupportedOperationException</code> from any method that would modify them, and
+ * return copies of any mutable value such as {@link Node#getAttributes()} or {@link Node#getDisplayNames()}. Changes to a
+ * navigation are made to the nodes of the navigation itself, after which a new snapshot is created.
+ * </p>
+ *
+ * @see NavigationSnapshotCache
+ */
+public final class NavigationSnapshot implements Serializable {
+    /**
+     * Creates a snapshot of the nodes of the navigation, loaded as determined by the <code>NodeVisitor</code>
+     *
+     * @param navigation the navigation
+     * @param visitor the visitor to determine which nodes are part of the snapshot
+     * @return the snapshot
+     * @throws IllegalArgumentException if navigation or visitor is null
+     * @throws ApiException if something prevented this operation to succeed
+     */
+    public static NavigationSnapshot create(Navigation navigation, NodeVisitor visitor) {
+        Parameters.requireNonNull(navigation, "navigation");
+        Parameters.requireNonNull(visitor, "visitor");
+
+        return create(navigation, navigation.getRootNode(visitor));
+    }
+
+    /**
+     * Creates a snapshot of the currently loaded nodes of the tree the root node belongs to.
+     *
+     * @param navigation the navigation the node belongs to
+     * @param root the root node of the navigation
+     * @return the snapshot
+     * @throws IllegalArgumentException if navigation or root is null, or if root is not the root node
+     */
+    public static NavigationSnapshot create(Navigation navigation, Node root) {
+        Parameters.requireNonNull(navigation, "navigation");
+        Parameters.requireNonNull(root, "root");
+        if (!root.isRoot()) {
+            throw new IllegalArgumentException("Node " + root.getNodePath() + " is not the root node");
+        }
+
+        SiteId siteId = navigation.getSiteId();
+        return new NavigationSnapshot(siteId, navigation.getPriority(), new SnapshotNode(siteId, null, root));
+    }
+
+    private final SiteId siteId;
+    private final int priority;
+    private final SnapshotNode root;
+
+    private NavigationSnapshot(SiteId siteId, int priority, SnapshotNode root) {
+        this.siteId = siteId;
+        this.priority = priority;
+        this.root = root;
+    }
+
+    /**
+     * The <code>SiteId</code> of the navigation
+     *
+     * @return the site id
+     */
+    public SiteId getSiteId() {
+        return siteId;
+    }
+
+    /**
+     * The priority of the navigation at the time the snapshot was created.
+     *
+     * @return the priority
+     */
+    public int getPriority() {
+        return priority;
+    }
+
+    /**
+     * Returns the root node of the snapshot
+     *
+     * @return the root node
+     */
+    public Node getRootNode() {
+        return root;
+    }
+
+    /**
+     * Returns a node represented by the node path or null if the node is not part of the snapshot.
+     *
+     * @param nodePath the path to the node
+     * @return the node or null if the node was not found
+     * @throws IllegalArgumentException if nodePath is null or empty
+     */
+    public Node getNode(String... nodePath) {
+        return getNode(NodePath.path(nodePath));
+    }
+
+    /**
+     * Returns a node represented by the node path or null if the node is not part of the snapshot.
+     *
+     * @param nodePath the path to the node
+     * @return the node or null if the node was not found
+     * @throws IllegalArgumentException if nodePath is null
+     */
+    public Node getNode(NodePath nodePath) {
+        Parameters.requireNonNull(nodePath, "nodePath");
+
+        Node node = root;
+        for (String segment : nodePath) {
+            if (!node.isChildrenLoaded()) {
+                return null;
+            }
+
+            node = node.getChild(segment);
+            if (node == null) {
+                return null;
+            }
+        }
+        return node;
+    }
+
+    @Override
+    public String toString() {
+        return ObjectToStringBuilder.toStringBuilder(getClass()).add("siteId", siteId).add("priority", priority).toString();
+    }
+}
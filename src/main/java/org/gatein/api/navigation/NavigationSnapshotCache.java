@@ -0,0 +1,222 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.navigation;
+
+import org.gatein.api.ApiException;
+import org.gatein.api.EntityNotFoundException;
+import org.gatein.api.Portal;
+import org.gatein.api.internal.Parameters;
+import org.gatein.api.site.SiteId;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A thread safe cache of {@link NavigationSnapshot}'s per <code>SiteId</code>. Reading a snapshot never blocks, and once a
+ * snapshot is cached no nodes are loaded until it's updated, refreshed or invalidated.
+ * <p>
+ * Changes are made copy-on-write by {@link #update(SiteId, Update)}: the nodes of the navigation are loaded, changed and
+ * saved, then a new snapshot is created and published atomically. Threads that obtained the previous snapshot keep using
+ * it unaffected.
+ * </p>
+ * <p>
+ * To invalidate snapshots when navigations are changed by others, register the cache as a listener with
+ * {@link Portal#addNavigationListener(NavigationListener)}.
+ * </p>
+ */
+public class NavigationSnapshotCache implements NavigationListener {
+    private final Portal portal;
+    private final NodeVisitor visitor;
+    private final ConcurrentMap<SiteId, NavigationSnapshot> snapshots;
+
+    /**
+     * Creates a new cache of snapshots for navigations of the portal.
+     *
+     * @param portal the portal
+     * @param visitor the visitor used to determine which nodes are part of the snapshots, for example
+     *        <code>Nodes.visitAll()</code>
+     * @throws IllegalArgumentException if portal or visitor is null
+     */
+    public NavigationSnapshotCache(Portal portal, NodeVisitor visitor) {
+        this.portal = Parameters.requireNonNull(portal, "portal");
+        this.visitor = Parameters.requireNonNull(visitor, "visitor");
+        this.snapshots = new ConcurrentHashMap<SiteId, NavigationSnapshot>();
+    }
+
+    /**
+     * Returns the snapshot of the navigation for the site, creating it if it's not cached.
+     *
+     * @param siteId the site id
+     * @return the snapshot, or null if the navigation does not exist
+     * @throws IllegalArgumentException if siteId is null
+     * @throws ApiException if something prevented this operation to succeed
+     */
+    public NavigationSnapshot get(SiteId siteId) {
+        Parameters.requireNonNull(siteId, "siteId");
+
+        NavigationSnapshot snapshot = snapshots.get(siteId);
+        if (snapshot == null) {
+            Navigation navigation = portal.getNavigation(siteId);
+            if (navigation == null) {
+                return null;
+            }
+
+            snapshot = NavigationSnapshot.create(navigation, visitor);
+            NavigationSnapshot existing = snapshots.putIfAbsent(siteId, snapshot);
+            if (existing != null) {
+                return existing;
+            }
+
+            // The events of a save made while the snapshot was created may have been handled before it was cached, in
+            // which case it's returned but not kept
+            if (isModified(navigation, snapshot)) {
+                snapshots.remove(siteId, snapshot);
+            }
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * Applies changes to the nodes of the navigation for the site and saves them, then publishes a new snapshot. Updates of
+     * the same cache are applied one at a time.
+     *
+     * @param siteId the site id
+     * @param update the changes to apply to the nodes
+     * @return the new snapshot
+     * @throws IllegalArgumentException if siteId or update is null
+     * @throws EntityNotFoundException if the navigation does not exist
+     * @throws ApiException if something prevented this operation to succeed
+     */
+    public synchronized NavigationSnapshot update(SiteId siteId, Update update) {
+        Parameters.requireNonNull(siteId, "siteId");
+        Parameters.requireNonNull(update, "update");
+
+        Navigation navigation = getNavigation(siteId);
+        Node root = navigation.getRootNode(visitor);
+        update.apply(root);
+        navigation.saveNode(root);
+
+        NavigationSnapshot snapshot = NavigationSnapshot.create(navigation, root);
+        snapshots.put(siteId, snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Creates a new snapshot of the navigation for the site with the latest from storage, and publishes it. This can be used
+     * when the navigation was changed without going through this cache. If the navigation was not modified since the cached
+     * snapshot was created, as determined by {@link Node#getSubtreeVersion()} of the root node, the cached snapshot is kept
+     * and only the root node is loaded.
+     *
+     * @param siteId the site id
+     * @return the new snapshot, or the cached snapshot if the navigation was not modified
+     * @throws IllegalArgumentException if siteId is null
+     * @throws EntityNotFoundException if the navigation does not exist
+     * @throws ApiException if something prevented this operation to succeed
+     */
+    public synchronized NavigationSnapshot refresh(SiteId siteId) {
+        Parameters.requireNonNull(siteId, "siteId");
+
+        Navigation navigation = getNavigation(siteId);
+        NavigationSnapshot cached = snapshots.get(siteId);
+        if (cached != null && !isModified(navigation, cached)) {
+            return cached;
+        }
+
+        NavigationSnapshot snapshot = NavigationSnapshot.create(navigation, visitor);
+        snapshots.put(siteId, snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Removes the snapshot of the navigation for the site from the cache. The next call to {@link #get(SiteId)} will create a
+     * new snapshot.
+     *
+     * @param siteId the site id
+     * @throws IllegalArgumentException if siteId is null
+     */
+    public void invalidate(SiteId siteId) {
+        snapshots.remove(Parameters.requireNonNull(siteId, "siteId"));
+    }
+
+    /**
+     * Removes all snapshots from the cache.
+     */
+    public void invalidateAll() {
+        snapshots.clear();
+    }
+
+    /**
+     * Invalidates the snapshots of the navigations changed, unless they were created after the changes were saved, as
+     * determined by {@link Node#getSubtreeVersion()} of the root node. Snapshots published by
+     * {@link #update(SiteId, Update)} are therefore kept when the events of the update are delivered asynchronously. Only
+     * the root node of each navigation changed is loaded.
+     *
+     * @param events the events
+     */
+    @Override
+    public void onEvents(List<NavigationEvent> events) {
+        Set<SiteId> siteIds = new HashSet<SiteId>();
+        for (NavigationEvent event : events) {
+            siteIds.add(event.getSiteId());
+        }
+
+        for (SiteId siteId : siteIds) {
+            NavigationSnapshot cached = snapshots.get(siteId);
+            if (cached != null) {
+                Navigation navigation = portal.getNavigation(siteId);
+                if (navigation == null || isModified(navigation, cached)) {
+                    snapshots.remove(siteId, cached);
+                }
+            }
+        }
+    }
+
+    private static boolean isModified(Navigation navigation, NavigationSnapshot snapshot) {
+        Node root = navigation.getRootNode(Nodes.visitNone());
+        return root.getSubtreeVersion() != snapshot.getRootNode().getSubtreeVersion();
+    }
+
+    private Navigation getNavigation(SiteId siteId) {
+        Navigation navigation = portal.getNavigation(siteId);
+        if (navigation == null) {
+            throw new EntityNotFoundException("Navigation does not exist for site " + siteId);
+        }
+        return navigation;
+    }
+
+    /**
+     * Changes applied to the nodes of a navigation by {@link NavigationSnapshotCache#update(SiteId, Update)}
+     */
+    public static interface Update {
+        /**
+         * Applies changes to the nodes of the navigation. The changes are saved once this method returns.
+         *
+         * @param root the root node of the navigation, with nodes loaded as determined by the visitor of the cache
+         */
+        void apply(Node root);
+    }
+}
@@ -152,6 +152,23 @@ public interface Node extends LocalizedDisplayable, Iterable<Node>, Serializable
      */
     Attributes getAttributes();
 
+    /**
+     * Returns the version of this node as it was loaded from storage. The version changes each time the node itself is saved
+     * with a change, for example to it's name, visibility or attributes, or to the order of it's children.
+     *
+     * @return the version of this node
+     */
+    long getVersion();
+
+    /**
+     * Returns the version of the subtree of this node as it was loaded from storage. The version changes each time this node
+     * or any of it's descendants is saved with a change, so an unchanged subtree can be detected by comparing a single value.
+     *
+     * @return the version of the subtree of this node
+     * @see Navigation#refreshNodeIfModified(Node, NodeVisitor)
+     */
+    long getSubtreeVersion();
+
 
     /**
      * If this node is the root node of the navigation.
@@ -0,0 +1,132 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.navigation;
+
+import org.gatein.api.internal.ObjectToStringBuilder;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * A change made to a {@link Node} which has not been saved yet. Changes are recorded and compacted into the minimal set of
+ * changes by a {@link NodeChangeJournal}.
+ *
+ * @see NodeChangeJournal
+ */
+public final class NodeChange implements Serializable {
+    private final Type type;
+    private final Node node;
+    private final NodePath nodePath;
+    private final NodePath previousNodePath;
+    private final Set<Property> properties;
+
+    NodeChange(Type type, Node node, NodePath nodePath, NodePath previousNodePath, Set<Property> properties) {
+        this.type = type;
+        this.node = node;
+        this.nodePath = nodePath;
+        this.previousNodePath = previousNodePath;
+        this.properties = (properties.isEmpty()) ? Collections.<Property> emptySet() : Collections
+                .unmodifiableSet(EnumSet.copyOf(properties));
+    }
+
+    /**
+     * The type of the change
+     *
+     * @return the type
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * The node which was changed. For changes of type {@link Type#REMOVED} this is the node as it was when it was removed.
+     *
+     * @return the node
+     */
+    public Node getNode() {
+        return node;
+    }
+
+    /**
+     * The path of the node once all changes are applied, or null if the node was removed. For a node renamed more than once,
+     * all renames but the last have the path with the name given by that rename.
+     *
+     * @return the node path or null
+     */
+    public NodePath getNodePath() {
+        return nodePath;
+    }
+
+    /**
+     * The path of the node before any changes were made, or null if the node was inserted. For a node renamed more than once,
+     * all renames but the first have the path with the name it had before that rename.
+     *
+     * @return the previous node path or null
+     */
+    public NodePath getPreviousNodePath() {
+        return previousNodePath;
+    }
+
+    /**
+     * The properties of the node that were updated. This is empty unless the type is {@link Type#UPDATED}.
+     *
+     * @return an unmodifiable set of properties
+     */
+    public Set<Property> getProperties() {
+        return properties;
+    }
+
+    @Override
+    public String toString() {
+        return ObjectToStringBuilder.toStringBuilder(getClass()).add("type", type).add("nodePath", nodePath)
+                .add("previousNodePath", previousNodePath).add("properties", properties).toString();
+    }
+
+    public static enum Type {
+        /**
+         * The node was added, all it's properties are to be saved.
+         */
+        INSERTED,
+
+        /**
+         * The node, and all it's descendants, were removed.
+         */
+        REMOVED,
+
+        /**
+         * The node was moved to another index or parent.
+         */
+        MOVED,
+
+        /**
+         * One or more properties of the node were changed.
+         */
+        UPDATED
+    }
+
+    public static enum Property {
+        NAME, DISPLAY_NAMES, VISIBILITY, ICON_NAME, PAGE_ID, ATTRIBUTES
+    }
+}
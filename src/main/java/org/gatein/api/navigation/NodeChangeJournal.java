@@ -0,0 +1,382 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.navigation;
+
+import org.gatein.api.common.Attributes;
+import org.gatein.api.common.i18n.LocalizedString;
+import org.gatein.api.internal.Parameters;
+import org.gatein.api.navigation.NodeChange.Property;
+import org.gatein.api.navigation.NodeChange.Type;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Records the changes made to the nodes of a navigation so that {@link Navigation#saveNode(Node)} only has to save what
+ * changed, instead of the entire tree. Node implementations record each change as it's made, and
+ * {@link #getChanges()} compacts the changes into the minimal set of changes to save. For example a node that is inserted and
+ * then updated results in a single {@link NodeChange.Type#INSERTED} change, and any changes made to a node which is later
+ * removed are dropped.
+ * <p>
+ * Nodes are tracked by identity. Changes made to the {@link Attributes} and {@link LocalizedString} display names of a node
+ * in place are detected using {@link Attributes#isModified()} and {@link LocalizedString#isModified()} for nodes passed to
+ * {@link #touched(Node)}.
+ * </p>
+ * <p>
+ * This class is not thread safe, just like the nodes it records changes for.
+ * </p>
+ */
+public class NodeChangeJournal implements Serializable {
+    private final Map<Node, Entry> entries;
+    private final List<Entry> order;
+    private final Map<Node, NodePath> touched;
+    private int sequence;
+
+    public NodeChangeJournal() {
+        entries = new IdentityHashMap<Node, Entry>();
+        order = new ArrayList<Entry>();
+        touched = new IdentityHashMap<Node, NodePath>();
+    }
+
+    /**
+     * Records that the node was inserted. This must be invoked after the node was added to it's parent.
+     *
+     * @param node the node
+     * @throws IllegalArgumentException if node is null
+     */
+    public void inserted(Node node) {
+        Parameters.requireNonNull(node, "node");
+
+        Entry entry = entry(node, null);
+        entry.inserted = true;
+        entry.structural = ++sequence;
+    }
+
+    /**
+     * Records that the node, and all of it's descendants, were removed. This must be invoked before the node is removed from
+     * it's parent.
+     *
+     * @param node the node
+     * @throws IllegalArgumentException if node is null
+     */
+    public void removed(Node node) {
+        Parameters.requireNonNull(node, "node");
+
+        Entry entry = entry(node, node.getNodePath());
+        entry.removed = true;
+        entry.structural = ++sequence;
+    }
+
+    /**
+     * Records that the node was moved to another index or parent. This must be invoked before the node is moved.
+     *
+     * @param node the node
+     * @throws IllegalArgumentException if node is null
+     */
+    public void moved(Node node) {
+        Parameters.requireNonNull(node, "node");
+
+        Entry entry = entry(node, node.getNodePath());
+        if (!entry.moved && !entry.inserted) {
+            entry.moved = true;
+            entry.parent = node.getParent();
+            entry.index = (entry.parent == null) ? -1 : entry.parent.indexOf(node.getName());
+        }
+        entry.structural = ++sequence;
+    }
+
+    /**
+     * Records that a property of the node was updated. This must be invoked before the property is updated.
+     *
+     * @param node the node
+     * @param property the property
+     * @throws IllegalArgumentException if node or property is null
+     */
+    public void updated(Node node, Property property) {
+        Parameters.requireNonNull(node, "node");
+        Parameters.requireNonNull(property, "property");
+
+        Entry entry = entry(node, node.getNodePath());
+        if (property == Property.NAME && !entry.inserted) {
+            if (entry.renames == null) {
+                entry.renames = new ArrayList<Rename>(1);
+            }
+            entry.renames.add(new Rename(++sequence, node.getName()));
+        }
+        entry.properties.add(property);
+    }
+
+    /**
+     * Records that the attributes or display names of the node were handed out, and could therefore be changed in place.
+     * Node implementations invoke this when returning their attributes or display names, so that changes made to them are
+     * detected by {@link #getChanges()}.
+     *
+     * @param node the node
+     * @throws IllegalArgumentException if node is null
+     */
+    public void touched(Node node) {
+        Parameters.requireNonNull(node, "node");
+
+        if (!touched.containsKey(node)) {
+            touched.put(node, node.getNodePath());
+        }
+    }
+
+    /**
+     * Returns true if no changes have been recorded.
+     *
+     * @return true if there is nothing to save
+     */
+    public boolean isEmpty() {
+        return getChanges().isEmpty();
+    }
+
+    /**
+     * Returns the minimal set of changes to save. Removals, insertions, moves and renames are returned in the order they
+     * were made, so that a parent is always inserted before it's children and a name freed by a removal or rename can be
+     * reused by a later change. A node moved out of a node that is removed afterwards is moved before that removal. Each
+     * rename of a node renamed more than once is a separate change, so that names can be swapped. Updates that do not
+     * change the name come last.
+     *
+     * @return the changes
+     */
+    public List<NodeChange> getChanges() {
+        collectTouched();
+
+        List<Step> steps = new ArrayList<Step>();
+        List<Entry> updated = new ArrayList<Entry>();
+        Set<Property> none = EnumSet.noneOf(Property.class);
+        for (Entry entry : order) {
+            if (isRemoved(entry.node.getParent())) {
+                continue;
+            }
+
+            if (entry.removed) {
+                if (!entry.inserted) {
+                    NodeChange change = new NodeChange(Type.REMOVED, entry.node, null, entry.previousPath, none);
+                    steps.add(new Step(2 * entry.structural, entry.structural, change));
+                }
+            } else if (entry.inserted) {
+                NodeChange change = new NodeChange(Type.INSERTED, entry.node, entry.node.getNodePath(), null, none);
+                steps.add(new Step(2 * entry.structural, entry.structural, change));
+            } else {
+                if (entry.moved && !isUnmoved(entry)) {
+                    NodeChange change = new NodeChange(Type.MOVED, entry.node, entry.node.getNodePath(), entry.previousPath,
+                            none);
+                    Entry source = removedAncestor(entry.parent);
+                    int position = (source != null && source.structural < entry.structural) ? 2 * source.structural - 1
+                            : 2 * entry.structural;
+                    steps.add(new Step(position, entry.structural, change));
+                }
+                if (!addRenames(entry, steps) && !entry.properties.isEmpty()) {
+                    updated.add(entry);
+                }
+            }
+        }
+
+        Collections.sort(steps, new Comparator<Step>() {
+            @Override
+            public int compare(Step s1, Step s2) {
+                if (s1.position != s2.position) {
+                    return (s1.position < s2.position) ? -1 : 1;
+                }
+                return (s1.sequence < s2.sequence) ? -1 : ((s1.sequence == s2.sequence) ? 0 : 1);
+            }
+        });
+
+        List<NodeChange> changes = new ArrayList<NodeChange>(steps.size() + updated.size());
+        for (Step step : steps) {
+            changes.add(step.change);
+        }
+        for (Entry entry : updated) {
+            changes.add(new NodeChange(Type.UPDATED, entry.node, entry.node.getNodePath(), entry.previousPath,
+                    entry.properties));
+        }
+        return changes;
+    }
+
+    /**
+     * Clears all recorded changes, and marks the attributes and display names of touched nodes as not modified. This is
+     * invoked once the changes have been saved.
+     */
+    public void clear() {
+        for (Node node : new ArrayList<Node>(touched.keySet())) {
+            node.getAttributes().resetModified();
+            LocalizedString displayNames = node.getDisplayNames();
+            if (displayNames != null) {
+                displayNames.resetModified();
+            }
+        }
+        entries.clear();
+        order.clear();
+        touched.clear();
+    }
+
+    private void collectTouched() {
+        for (Map.Entry<Node, NodePath> touchedEntry : new ArrayList<Map.Entry<Node, NodePath>>(touched.entrySet())) {
+            Node node = touchedEntry.getKey();
+            Entry entry = entries.get(node);
+            if (entry != null && (entry.inserted || entry.removed)) {
+                continue;
+            }
+
+            if (node.getAttributes().isModified()) {
+                entry(node, touchedEntry.getValue()).properties.add(Property.ATTRIBUTES);
+            }
+            LocalizedString displayNames = node.getDisplayNames();
+            if (displayNames != null && displayNames.isModified()) {
+                entry(node, touchedEntry.getValue()).properties.add(Property.DISPLAY_NAMES);
+            }
+        }
+    }
+
+    /**
+     * Adds a step for each rename of the node which changed it's name, the last one carrying all updated properties.
+     * Returns false, and drops the name from the updated properties, if the name was not changed.
+     */
+    private static boolean addRenames(Entry entry, List<Step> steps) {
+        if (entry.renames == null) {
+            return false;
+        }
+
+        List<Rename> renames = new ArrayList<Rename>(entry.renames.size());
+        List<String> names = new ArrayList<String>(entry.renames.size());
+        for (int i = 0; i < entry.renames.size(); i++) {
+            Rename rename = entry.renames.get(i);
+            String name = (i + 1 < entry.renames.size()) ? entry.renames.get(i + 1).from : entry.node.getName();
+            if (!name.equals(rename.from)) {
+                renames.add(rename);
+                names.add(name);
+            }
+        }
+        if (renames.isEmpty()) {
+            entry.properties.remove(Property.NAME);
+            return false;
+        }
+
+        NodePath parentPath = entry.node.getNodePath().parent();
+        Set<Property> name = EnumSet.of(Property.NAME);
+        for (int i = 0; i < renames.size(); i++) {
+            Rename rename = renames.get(i);
+            NodePath previousPath = (i == 0) ? entry.previousPath : parentPath.append(rename.from);
+            NodeChange change;
+            if (i + 1 < renames.size()) {
+                change = new NodeChange(Type.UPDATED, entry.node, parentPath.append(names.get(i)), previousPath, name);
+            } else {
+                change = new NodeChange(Type.UPDATED, entry.node, entry.node.getNodePath(), previousPath, entry.properties);
+            }
+            steps.add(new Step(2 * rename.sequence, rename.sequence, change));
+        }
+        return true;
+    }
+
+    /**
+     * Returns the outermost removed node among the node and it's ancestors, or null if none was removed
+     */
+    private Entry removedAncestor(Node node) {
+        Entry removed = null;
+        for (; node != null; node = node.getParent()) {
+            Entry entry = entries.get(node);
+            if (entry != null && entry.removed) {
+                removed = entry;
+            }
+        }
+        return removed;
+    }
+
+    private boolean isRemoved(Node node) {
+        for (; node != null; node = node.getParent()) {
+            Entry entry = entries.get(node);
+            if (entry != null && entry.removed) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isUnmoved(Entry entry) {
+        Node parent = entry.node.getParent();
+        return parent == entry.parent && parent != null && parent.indexOf(entry.node.getName()) == entry.index;
+    }
+
+    private Entry entry(Node node, NodePath previousPath) {
+        Entry entry = entries.get(node);
+        if (entry == null) {
+            entry = new Entry(node, previousPath);
+            entries.put(node, entry);
+            order.add(entry);
+        }
+        return entry;
+    }
+
+    private static class Entry implements Serializable {
+        private final Node node;
+        private final NodePath previousPath;
+        private final EnumSet<Property> properties;
+        private boolean inserted;
+        private boolean removed;
+        private boolean moved;
+        private int structural;
+        private List<Rename> renames;
+        private Node parent;
+        private int index;
+
+        private Entry(Node node, NodePath previousPath) {
+            this.node = node;
+            this.previousPath = previousPath;
+            this.properties = EnumSet.noneOf(Property.class);
+        }
+    }
+
+    private static class Rename implements Serializable {
+        private final int sequence;
+        private final String from;
+
+        private Rename(int sequence, String from) {
+            this.sequence = sequence;
+            this.from = from;
+        }
+    }
+
+    /**
+     * A change to return, with it's position among the other changes
+     */
+    private static class Step {
+        private final int position;
+        private final int sequence;
+        private final NodeChange change;
+
+        private Step(int position, int sequence, NodeChange change) {
+            this.position = position;
+            this.sequence = sequence;
+            this.change = change;
+        }
+    }
+}
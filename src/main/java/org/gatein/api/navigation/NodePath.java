@@ -22,21 +22,30 @@
 
 package org.gatein.api.navigation;
 
+import org.gatein.api.internal.Interner;
 import org.gatein.api.internal.Parameters;
 import org.gatein.api.internal.StringJoiner;
 import org.gatein.api.internal.StringSplitter;
 
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 /**
+ * A path to a node. Paths are immutable and share their parent paths, so {@link #parent()} and appending a segment are
+ * constant time operations.
+ *
  * @author <a href="mailto:nscavell@redhat.com">Nick Scavelli</a>
  */
 public class NodePath implements Iterable<String>, Comparable<NodePath>, Serializable {
+    private static final StringSplitter SPLITTER = StringSplitter.splitter("/").trim().ignoreEmptyStrings();
+    private static final Interner<String> SEGMENTS = new Interner<String>();
+    private static final String[] NO_SEGMENTS = new String[0];
     private static final NodePath ROOT_PATH = new NodePath();
 
     /**
@@ -46,7 +55,7 @@ public class NodePath implements Iterable<String>, Comparable<NodePath>, Seriali
      * @return a node path
      */
     public static NodePath path(String... elements) {
-        return new NodePath(Parameters.requireNonEmpty(elements, "elements"));
+        return append(ROOT_PATH, Parameters.requireNonEmpty(elements, "elements"));
     }
 
     /**
@@ -65,21 +74,53 @@ public class NodePath implements Iterable<String>, Comparable<NodePath>, Seriali
      * @return a node path
      */
     public static NodePath fromString(String path) {
-        return new NodePath(StringSplitter.splitter("/").trim().ignoreEmptyStrings().split(path));
+        // Parsed segments are new strings, interned so that paths parsed from requests share them
+        String[] segments = SPLITTER.split(path);
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = SEGMENTS.intern(segments[i]);
+        }
+        return append(ROOT_PATH, segments);
+    }
+
+    private static NodePath append(NodePath path, String[] elements) {
+        for (String element : elements) {
+            path = new NodePath(path, element);
+        }
+        return path;
     }
 
-    private final List<String> pathList;
+    private final transient NodePath parent;
+    private final transient String segment;
+    private final transient int size;
+    private final transient int hash;
+
+    // Segments indexed from the root, only created when random access is needed
+    private transient volatile String[] segments;
 
     private NodePath() {
-        this(Collections.<String> emptyList());
+        this.parent = null;
+        this.segment = null;
+        this.size = 0;
+        this.hash = 1;
+        this.segments = NO_SEGMENTS;
     }
 
-    private NodePath(String... pathList) {
-        this(Arrays.asList(pathList));
+    private NodePath(NodePath parent, String segment) {
+        this.parent = parent;
+        this.segment = segment;
+        this.size = parent.size + 1;
+        // Same as List.hashCode, so paths hash the same as before
+        this.hash = 31 * parent.hash + (segment == null ? 0 : segment.hashCode());
     }
 
-    private NodePath(List<String> pathList) {
-        this.pathList = new ArrayList<String>(pathList);
+    /**
+     * Adds the specified element to the end of this path
+     *
+     * @param element the element to append
+     * @return the combined path
+     */
+    public NodePath append(String element) {
+        return new NodePath(this, element);
     }
 
     /**
@@ -89,7 +130,7 @@ public class NodePath implements Iterable<String>, Comparable<NodePath>, Seriali
      * @return the combined path
      */
     public NodePath append(String... elements) {
-        return append(new NodePath(Parameters.requireNonNull(elements, "elements")));
+        return append(this, Parameters.requireNonNull(elements, "elements"));
     }
 
     /**
@@ -99,11 +140,17 @@ public class NodePath implements Iterable<String>, Comparable<NodePath>, Seriali
      * @return the combined path
      */
     public NodePath append(NodePath path) {
-        List<String> list = new ArrayList<String>(pathList.size() + path.pathList.size());
-        list.addAll(pathList);
-        list.addAll(path.pathList);
-
-        return new NodePath(list);
+        Parameters.requireNonNull(path, "path");
+        if (path.size == 0)
+            return this;
+        if (size == 0)
+            return path;
+
+        NodePath result = this;
+        for (String segment : path.segments()) {
+            result = new NodePath(result, segment);
+        }
+        return result;
     }
 
     /**
@@ -124,7 +171,22 @@ public class NodePath implements Iterable<String>, Comparable<NodePath>, Seriali
      * @return the sub-path
      */
     public NodePath subPath(int fromIndex, int toIndex) {
-        return new NodePath(new ArrayList<String>(pathList.subList(fromIndex, toIndex)));
+        if (fromIndex < 0)
+            throw new IndexOutOfBoundsException("fromIndex = " + fromIndex);
+        if (toIndex > size)
+            throw new IndexOutOfBoundsException("toIndex = " + toIndex);
+        if (fromIndex > toIndex)
+            throw new IllegalArgumentException("fromIndex(" + fromIndex + ") > toIndex(" + toIndex + ")");
+
+        if (fromIndex == 0)
+            return ancestor(toIndex);
+
+        String[] segments = segments();
+        NodePath path = ROOT_PATH;
+        for (int i = fromIndex; i < toIndex; i++) {
+            path = new NodePath(path, segments[i]);
+        }
+        return path;
     }
 
     /**
@@ -134,7 +196,10 @@ public class NodePath implements Iterable<String>, Comparable<NodePath>, Seriali
      * @return the specific part of the path
      */
     public String getSegment(int index) {
-        return pathList.get(index);
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+
+        return (index == size - 1) ? segment : segments()[index];
     }
 
     /**
@@ -143,8 +208,7 @@ public class NodePath implements Iterable<String>, Comparable<NodePath>, Seriali
      * @return the last part of the path
      */
     public String getLastSegment() {
-        int size = size();
-        return (size == 0) ? null : getSegment(size - 1);
+        return segment;
     }
 
     /**
@@ -153,10 +217,7 @@ public class NodePath implements Iterable<String>, Comparable<NodePath>, Seriali
      * @return the path
      */
     public NodePath parent() {
-        if (pathList.isEmpty())
-            return null;
-
-        return subPath(0, size() - 1);
+        return parent;
     }
 
     /**
@@ -166,17 +227,10 @@ public class NodePath implements Iterable<String>, Comparable<NodePath>, Seriali
      * @return true if the specified path is a descendant of this path
      */
     public boolean isParent(NodePath path) {
-        if (size() >= path.size())
+        if (size >= path.size)
             return false;
 
-        for (int i = 0; i < size(); i++) {
-            String name = getSegment(i);
-            if (!name.equals(path.getSegment(i))) {
-                return false;
-            }
-        }
-
-        return true;
+        return equals(path.ancestor(size));
     }
 
     /**
@@ -185,7 +239,7 @@ public class NodePath implements Iterable<String>, Comparable<NodePath>, Seriali
      * @return the size of the node path
      */
     public int size() {
-        return pathList.size();
+        return size;
     }
 
     /**
@@ -194,7 +248,7 @@ public class NodePath implements Iterable<String>, Comparable<NodePath>, Seriali
      * @return the path as an unmodifiable list of strings
      */
     public List<String> asList() {
-        return Collections.unmodifiableList(pathList);
+        return Collections.unmodifiableList(Arrays.asList(segments()));
     }
 
     /**
@@ -203,38 +257,66 @@ public class NodePath implements Iterable<String>, Comparable<NodePath>, Seriali
      * @return the path as an array of strings
      */
     public String[] asArray() {
-        return pathList.toArray(new String[pathList.size()]);
+        return segments().clone();
+    }
+
+    private NodePath ancestor(int size) {
+        NodePath path = this;
+        while (path.size > size) {
+            path = path.parent;
+        }
+        return path;
+    }
+
+    private String[] segments() {
+        String[] segments = this.segments;
+        if (segments == null) {
+            segments = new String[size];
+            NodePath path = this;
+            for (int i = size - 1; i >= 0; i--) {
+                segments[i] = path.segment;
+                path = path.parent;
+            }
+            this.segments = segments;
+        }
+        return segments;
     }
 
     @Override
     public int compareTo(NodePath other) {
-        int size = size();
-        int otherSize = other.size();
+        if (this == other)
+            return 0;
 
-        for (int i = 0; i < otherSize; i++) {
-            if (i >= size)
-                break;
+        String[] segments = segments();
+        String[] otherSegments = other.segments();
+        int size = Math.min(segments.length, otherSegments.length);
 
-            int result = getSegment(i).compareTo(other.getSegment(i));
+        for (int i = 0; i < size; i++) {
+            int result = segments[i].compareTo(otherSegments[i]);
             if (result != 0)
                 return result;
         }
 
-        return (size < otherSize ? -1 : (size == otherSize ? 0 : 1));
+        return (segments.length < otherSegments.length ? -1 : (segments.length == otherSegments.length ? 0 : 1));
     }
 
     @Override
     public Iterator<String> iterator() {
-        final Iterator<String> iterator = pathList.iterator();
+        final String[] segments = segments();
         return new Iterator<String>() {
+            private int index;
+
             @Override
             public boolean hasNext() {
-                return iterator.hasNext();
+                return index < segments.length;
             }
 
             @Override
             public String next() {
-                return iterator.next();
+                if (index >= segments.length)
+                    throw new NoSuchElementException();
+
+                return segments[index++];
             }
 
             @Override
@@ -252,17 +334,49 @@ public class NodePath implements Iterable<String>, Comparable<NodePath>, Seriali
             return false;
 
         NodePath that = (NodePath) o;
+        if (size != that.size || hash != that.hash)
+            return false;
+
+        // Both paths end at the root at the same time, and stop early at a shared parent
+        NodePath path = this;
+        while (path != that) {
+            if (path.segment == null ? that.segment != null : !path.segment.equals(that.segment))
+                return false;
+
+            path = path.parent;
+            that = that.parent;
+        }
 
-        return pathList.equals(that.pathList);
+        return true;
     }
 
     @Override
     public int hashCode() {
-        return pathList.hashCode();
+        return hash;
     }
 
     @Override
     public String toString() {
-        return StringJoiner.joiner("/").leading().join(pathList);
+        return StringJoiner.joiner("/").leading().join(segments());
+    }
+
+    private Object writeReplace() {
+        return new SerializedForm(segments());
+    }
+
+    private void readObject(ObjectInputStream in) throws InvalidObjectException {
+        throw new InvalidObjectException("Serialized form required");
+    }
+
+    private static class SerializedForm implements Serializable {
+        private final String[] segments;
+
+        private SerializedForm(String[] segments) {
+            this.segments = segments;
+        }
+
+        private Object readResolve() {
+            return append(ROOT_PATH, segments);
+        }
     }
 }
@@ -0,0 +1,455 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.navigation;
+
+import org.gatein.api.internal.ObjectToStringBuilder;
+import org.gatein.api.internal.Parameters;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Resolves URI's, for example <code>/home/about/team</code>, to the deepest matching node of a navigation. The paths of the
+ * loaded nodes of the navigation are indexed by segment, so a URI is resolved in a single pass over it's characters
+ * without creating a <code>NodePath</code>, and {@link #resolveNode(String)} does not allocate.
+ * <p>
+ * Segments of a URI are separated by '/', trimmed and empty segments are ignored, the same as
+ * {@link NodePath#fromString(String)}.
+ * </p>
+ * <p>
+ * Resolving is thread safe and never blocks. The index is updated incrementally with {@link #update(Node)},
+ * {@link #remove(NodePath)} or {@link #apply(List)} once changes are saved, and readers see either the previous or the new
+ * version of any changed subtree.
+ * </p>
+ */
+public class NodeResolver {
+    private final Entry root;
+
+    /**
+     * Creates a resolver indexing the currently loaded nodes of the tree the root node belongs to.
+     *
+     * @param root the root node of the navigation
+     * @throws IllegalArgumentException if root is null, or if root is not the root node
+     */
+    public NodeResolver(Node root) {
+        Parameters.requireNonNull(root, "root");
+        if (!root.isRoot()) {
+            throw new IllegalArgumentException("Node " + root.getNodePath() + " is not the root node");
+        }
+
+        this.root = new Entry(null, root, NodePath.root());
+        this.root.children = children(root, NodePath.root(), null);
+    }
+
+    /**
+     * Returns the deepest node matching the URI.
+     *
+     * @param uri the URI, for example <code>/home/about/team</code>
+     * @return the deepest matching node, which is the root node if not even the first segment matches
+     * @throws IllegalArgumentException if uri is null
+     */
+    public Node resolveNode(String uri) {
+        return match(Parameters.requireNonNull(uri, "uri"), null).node;
+    }
+
+    /**
+     * Returns the deepest node matching the URI, and the part of the URI that did not match.
+     *
+     * @param uri the URI, for example <code>/home/about/team</code>
+     * @return the match
+     * @throws IllegalArgumentException if uri is null
+     */
+    public Match resolve(String uri) {
+        Match match = new Match(Parameters.requireNonNull(uri, "uri"));
+        match(uri, match);
+        return match;
+    }
+
+    private Entry match(String uri, Match match) {
+        Entry entry = root;
+        int index = 0;
+        int length = uri.length();
+        while (index < length) {
+            int end = uri.indexOf('/', index);
+            if (end < 0)
+                end = length;
+
+            int from = index;
+            int to = end;
+            while (from < to && uri.charAt(from) <= ' ') {
+                from++;
+            }
+            while (from < to && uri.charAt(to - 1) <= ' ') {
+                to--;
+            }
+
+            if (from < to) {
+                Entry child = entry.children.get(uri, from, to);
+                if (child == null)
+                    break;
+
+                entry = child;
+            }
+            index = end + 1;
+        }
+
+        if (match != null) {
+            match.entry = entry;
+            match.index = Math.min(index, length);
+        }
+        return entry;
+    }
+
+    /**
+     * Returns the indexed node with the path
+     *
+     * @param nodePath the path of the node
+     * @return the node, or null if no node is indexed with the path
+     * @throws IllegalArgumentException if nodePath is null
+     */
+    public Node getNode(NodePath nodePath) {
+        Entry entry = find(Parameters.requireNonNull(nodePath, "nodePath"));
+        return (entry == null) ? null : entry.node;
+    }
+
+    /**
+     * Indexes a node that was added or changed, together with it's loaded descendants. If the children of the node are not
+     * loaded, the previously indexed descendants are kept.
+     *
+     * @param node the node
+     * @throws IllegalArgumentException if node is null, or if the parent of the node is not indexed
+     */
+    public synchronized void update(Node node) {
+        Parameters.requireNonNull(node, "node");
+
+        if (!index(node, null)) {
+            throw new IllegalArgumentException("Parent of node " + node.getNodePath() + " is not indexed");
+        }
+    }
+
+    /**
+     * Removes a node, and all of it's descendants, from the index.
+     *
+     * @param nodePath the path of the node removed
+     * @return true if the node was indexed
+     * @throws IllegalArgumentException if nodePath is null or the root path
+     */
+    public synchronized boolean remove(NodePath nodePath) {
+        Parameters.requireNonNull(nodePath, "nodePath");
+        if (nodePath.size() == 0) {
+            throw new IllegalArgumentException("Root node can not be removed");
+        }
+
+        Entry parent = find(nodePath.parent());
+        if (parent == null || parent.children.get(nodePath.getLastSegment()) == null)
+            return false;
+
+        parent.children = parent.children.without(nodePath.getLastSegment());
+        return true;
+    }
+
+    /**
+     * Updates the index with the changes saved to the navigation. Changes to nodes that are no longer part of the indexed
+     * tree are ignored.
+     *
+     * @param changes the changes, as returned by {@link NodeChangeJournal#getChanges()}
+     * @throws IllegalArgumentException if changes is null
+     */
+    public synchronized void apply(List<NodeChange> changes) {
+        Parameters.requireNonNull(changes, "changes");
+
+        for (NodeChange change : changes) {
+            NodePath previous = change.getPreviousNodePath();
+            switch (change.getType()) {
+                case REMOVED:
+                    remove(previous);
+                    break;
+                case INSERTED:
+                    index(change.getNode(), null);
+                    break;
+                default:
+                    if (previous != null && !previous.equals(change.getNodePath())) {
+                        // Moved or renamed, descendants that are not loaded are kept at the new path. The previous path
+                        // may already be taken by a node inserted in it's place, which is kept
+                        Entry entry = find(previous);
+                        if (entry != null && entry.node == change.getNode()) {
+                            remove(previous);
+                        } else {
+                            entry = null;
+                        }
+                        index(change.getNode(), (entry == null) ? null : entry.children);
+                    } else {
+                        Entry entry = find(change.getNodePath());
+                        if (entry != null) {
+                            entry.node = change.getNode();
+                        }
+                    }
+            }
+        }
+    }
+
+    private boolean index(Node node, Table previousChildren) {
+        NodePath nodePath = node.getNodePath();
+        if (nodePath.size() == 0) {
+            root.node = node;
+            root.children = children(node, nodePath, root.children);
+            return true;
+        }
+
+        Entry parent = find(nodePath.parent());
+        if (parent == null)
+            return false;
+
+        if (previousChildren == null) {
+            Entry previous = parent.children.get(node.getName());
+            previousChildren = (previous == null) ? null : previous.children;
+        } else {
+            previousChildren = rebase(previousChildren, nodePath);
+        }
+
+        Entry entry = new Entry(node.getName(), node, nodePath);
+        entry.children = children(node, nodePath, previousChildren);
+        parent.children = parent.children.with(entry);
+        return true;
+    }
+
+    private static Table rebase(Table table, NodePath parentPath) {
+        Table result = Table.create(table.size);
+        for (Entry child : table) {
+            Entry entry = new Entry(child.name, child.node, parentPath.append(child.name));
+            entry.children = rebase(child.children, entry.path);
+            result.put(entry);
+        }
+        return result;
+    }
+
+    private Entry find(NodePath nodePath) {
+        Entry entry = root;
+        for (int i = 0; i < nodePath.size() && entry != null; i++) {
+            entry = entry.children.get(nodePath.getSegment(i));
+        }
+        return entry;
+    }
+
+    private static Table children(Node node, NodePath nodePath, Table previous) {
+        if (!node.isChildrenLoaded())
+            return (previous == null) ? Table.EMPTY : previous;
+
+        Table table = Table.create(node.getChildCount());
+        for (Node child : node) {
+            NodePath childPath = nodePath.append(child.getName());
+            Entry entry = new Entry(child.getName(), child, childPath);
+            Entry previousChild = (previous == null) ? null : previous.get(child.getName());
+            entry.children = children(child, childPath, (previousChild == null) ? null : previousChild.children);
+            table.put(entry);
+        }
+        return table;
+    }
+
+    /**
+     * The result of resolving a URI
+     */
+    public static final class Match {
+        private final String uri;
+        private Entry entry;
+        private int index;
+
+        private Match(String uri) {
+            this.uri = uri;
+        }
+
+        /**
+         * The deepest node matching the URI
+         *
+         * @return the node
+         */
+        public Node getNode() {
+            return entry.node;
+        }
+
+        /**
+         * The path of the deepest node matching the URI
+         *
+         * @return the node path
+         */
+        public NodePath getNodePath() {
+            return entry.path;
+        }
+
+        /**
+         * Returns true if every segment of the URI matched a node
+         *
+         * @return true if the URI matched completely
+         */
+        public boolean isComplete() {
+            return index == uri.length();
+        }
+
+        /**
+         * The segments of the URI that did not match a node
+         *
+         * @return the remaining path, which is the root path if the URI matched completely
+         */
+        public NodePath getRemainder() {
+            return isComplete() ? NodePath.root() : NodePath.fromString(uri.substring(index));
+        }
+
+        @Override
+        public String toString() {
+            return ObjectToStringBuilder.toStringBuilder(getClass()).add("nodePath", entry.path)
+                    .add("remainder", getRemainder()).toString();
+        }
+    }
+
+    private static final class Entry {
+        private final String name;
+        private final NodePath path;
+        private volatile Node node;
+        private volatile Table children;
+
+        private Entry(String name, Node node, NodePath path) {
+            this.name = name;
+            this.node = node;
+            this.path = path;
+        }
+    }
+
+    /**
+     * Open addressing table of child entries by name, looked up by a region of a string. Tables are never modified once
+     * published, changes create a copy.
+     */
+    private static final class Table implements Iterable<Entry> {
+        private static final Table EMPTY = new Table(1);
+
+        private final Entry[] entries;
+        private int size;
+
+        private Table(int capacity) {
+            entries = new Entry[capacity];
+        }
+
+        private static Table create(int expectedSize) {
+            int capacity = 2;
+            while (capacity < expectedSize * 2) {
+                capacity <<= 1;
+            }
+            return new Table(capacity);
+        }
+
+        private Entry get(String name) {
+            return get(name, 0, name.length());
+        }
+
+        private Entry get(String string, int from, int to) {
+            if (size == 0)
+                return null;
+
+            int length = to - from;
+            int hash = 0;
+            for (int i = from; i < to; i++) {
+                hash = 31 * hash + string.charAt(i);
+            }
+
+            int mask = entries.length - 1;
+            for (int i = spread(hash) & mask;; i = (i + 1) & mask) {
+                Entry entry = entries[i];
+                if (entry == null)
+                    return null;
+
+                String name = entry.name;
+                if (name.length() == length && name.hashCode() == hash && name.regionMatches(0, string, from, length))
+                    return entry;
+            }
+        }
+
+        private void put(Entry entry) {
+            int mask = entries.length - 1;
+            for (int i = spread(entry.name.hashCode()) & mask;; i = (i + 1) & mask) {
+                Entry existing = entries[i];
+                if (existing == null) {
+                    entries[i] = entry;
+                    size++;
+                    return;
+                } else if (existing.name.equals(entry.name)) {
+                    entries[i] = entry;
+                    return;
+                }
+            }
+        }
+
+        private Table with(Entry entry) {
+            Table table = create(size + 1);
+            for (Entry e : entries) {
+                if (e != null)
+                    table.put(e);
+            }
+            table.put(entry);
+            return table;
+        }
+
+        private Table without(String name) {
+            Table table = create(size - 1);
+            for (Entry e : entries) {
+                if (e != null && !e.name.equals(name))
+                    table.put(e);
+            }
+            return table;
+        }
+
+        @Override
+        public Iterator<Entry> iterator() {
+            return new Iterator<Entry>() {
+                private int index = next(0);
+
+                private int next(int from) {
+                    while (from < entries.length && entries[from] == null) {
+                        from++;
+                    }
+                    return from;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return index < entries.length;
+                }
+
+                @Override
+                public Entry next() {
+                    Entry entry = entries[index];
+                    index = next(index + 1);
+                    return entry;
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException("Remove operation not supported");
+                }
+            };
+        }
+
+        private static int spread(int h) {
+            h ^= (h >>> 20) ^ (h >>> 12);
+            return h ^ (h >>> 7) ^ (h >>> 4);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.navigation;
+
+import org.gatein.api.internal.Parameters;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A depth-first iterator over a node and all of it's loaded descendants, which can be split to traverse the subtree from
+ * several threads. Nodes are returned before their children, and children in the order of their parent.
+ * <p>
+ * {@link #split()} hands off part of the nodes not yet returned to a new traversal, so each node is returned by exactly one
+ * of the traversals. Splitting hands off the least deep pending nodes, which usually have the largest subtrees. For
+ * example to traverse a large navigation with an <code>ExecutorService</code>:
+ * </p>
+ *
+ * <pre>
+ * for (final NodeTraversal traversal : NodeTraversal.partition(root, threads)) {
+ *     executor.submit(new Runnable() {
+ *         public void run() {
+ *             while (traversal.hasNext()) {
+ *                 index(traversal.next());
+ *             }
+ *         }
+ *     });
+ * }
+ * </pre>
+ * <p>
+ * A traversal is not thread safe, and the nodes must not be changed while they are traversed.
+ * </p>
+ *
+ * @see Nodes#depthFirst(Node)
+ */
+public final class NodeTraversal implements Iterator<Node> {
+    /**
+     * Creates a traversal of the node and all of it's loaded descendants
+     *
+     * @param node the node to start from
+     * @return the traversal
+     * @throws IllegalArgumentException if node is null
+     */
+    public static NodeTraversal depthFirst(Node node) {
+        NodeTraversal traversal = new NodeTraversal();
+        traversal.pending.push(Parameters.requireNonNull(node, "node"));
+        return traversal;
+    }
+
+    /**
+     * Splits a traversal of the node and all of it's loaded descendants into at most the number of parts, by repeatedly
+     * splitting the part with the most pending nodes.
+     *
+     * @param node the node to start from
+     * @param parts the number of parts
+     * @return the traversals, fewer than the number of parts if the subtree is too small to split further
+     * @throws IllegalArgumentException if node is null, or parts is less than 1
+     */
+    public static List<NodeTraversal> partition(Node node, int parts) {
+        if (parts < 1)
+            throw new IllegalArgumentException("parts must be greater than 0");
+
+        List<NodeTraversal> traversals = new ArrayList<NodeTraversal>(parts);
+        traversals.add(depthFirst(node));
+        while (traversals.size() < parts) {
+            NodeTraversal split = null;
+            List<NodeTraversal> candidates = new ArrayList<NodeTraversal>(traversals);
+            while (split == null && !candidates.isEmpty()) {
+                NodeTraversal largest = null;
+                for (NodeTraversal candidate : candidates) {
+                    if (largest == null || candidate.pending.size() > largest.pending.size()) {
+                        largest = candidate;
+                    }
+                }
+                candidates.remove(largest);
+                split = largest.split();
+            }
+
+            if (split == null)
+                break;
+
+            traversals.add(split);
+        }
+        return traversals;
+    }
+
+    // Nodes to return first without pushing their children, which are already pending
+    private final Deque<Node> expanded;
+    private final Deque<Node> pending;
+
+    private NodeTraversal() {
+        expanded = new ArrayDeque<Node>(0);
+        pending = new ArrayDeque<Node>();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !expanded.isEmpty() || !pending.isEmpty();
+    }
+
+    @Override
+    public Node next() {
+        if (!expanded.isEmpty()) {
+            return expanded.poll();
+        }
+
+        Node node = pending.poll();
+        if (node == null)
+            throw new NoSuchElementException();
+
+        pushChildren(node);
+        return node;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Remove operation not supported");
+    }
+
+    /**
+     * Hands off part of the nodes not yet returned by this traversal to a new traversal.
+     *
+     * @return the new traversal, or null if there are no nodes to hand off
+     */
+    public NodeTraversal split() {
+        while (pending.size() == 1) {
+            // Make the children of a single pending node available to split
+            Node node = pending.pop();
+            pushChildren(node);
+            expanded.add(node);
+        }
+
+        int size = pending.size();
+        if (size < 2)
+            return null;
+
+        // The bottom of the stack holds the least deep nodes, which are visited last
+        NodeTraversal split = new NodeTraversal();
+        for (int i = size / 2; i > 0; i--) {
+            split.pending.push(pending.pollLast());
+        }
+        return split;
+    }
+
+    private void pushChildren(Node node) {
+        if (node.isChildrenLoaded()) {
+            for (int i = node.getChildCount() - 1; i >= 0; i--) {
+                pending.push(node.getChild(i));
+            }
+        }
+    }
+}
@@ -22,9 +22,18 @@
 
 package org.gatein.api.navigation;
 
+import org.gatein.api.common.Filter;
+import org.gatein.api.internal.Parameters;
+
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Queue;
 
 /**
  * @author <a href="mailto:nscavell@redhat.com">Nick Scavelli</a>
@@ -45,6 +54,44 @@ public class Nodes {
         return Collections.unmodifiableList(l);
     }
 
+    /**
+     * Returns a view of the node and all of it's loaded descendants, iterated depth-first. A node is returned before it's
+     * children, and children in the order of their parent. Nothing is copied, so iterating a large tree does not require
+     * memory proportional to the size of the tree.
+     *
+     * @param node the node to start from
+     * @return an iterable of the node and it's loaded descendants
+     * @throws IllegalArgumentException if node is null
+     * @see NodeTraversal
+     */
+    public static Iterable<Node> depthFirst(final Node node) {
+        Parameters.requireNonNull(node, "node");
+        return new Iterable<Node>() {
+            @Override
+            public Iterator<Node> iterator() {
+                return NodeTraversal.depthFirst(node);
+            }
+        };
+    }
+
+    /**
+     * Returns a view of the node and all of it's loaded descendants, iterated breadth-first. All nodes at a depth are
+     * returned before any node of the next depth.
+     *
+     * @param node the node to start from
+     * @return an iterable of the node and it's loaded descendants
+     * @throws IllegalArgumentException if node is null
+     */
+    public static Iterable<Node> breadthFirst(final Node node) {
+        Parameters.requireNonNull(node, "node");
+        return new Iterable<Node>() {
+            @Override
+            public Iterator<Node> iterator() {
+                return new BreadthFirstIterator(node);
+            }
+        };
+    }
+
     // ----------------- Node Visitor Utility Methods
 
     /**
@@ -120,6 +167,157 @@ public class Nodes {
         return new DelegatingPathVisitor(path, visitor);
     }
 
+    /**
+     * Creates a <code>NodeVisitor</code> which will visit nodes matching any of the paths in one traversal. Each matching
+     * segment will load all children until the end of a path is met, in which the visitor mapped to that path is used to
+     * determine further visiting, as done by {@link #visitNodes(NodePath, NodeVisitor)}. Branches shared by several paths are
+     * only visited once.
+     * <p>
+     * The visitor matches paths using {@link NodeVisitor.NodeDetails#getNodePath()} so it must be used to visit nodes starting
+     * from the root node, i.e. with {@link Navigation#getRootNode(NodeVisitor)}.
+     * </p>
+     *
+     * @param visitors the paths to the nodes mapped to the visitor object used once the path is met
+     * @return a visitor object
+     * @throws IllegalArgumentException if visitors is null, or contains a null path or visitor
+     */
+    public static NodeVisitor visitNodes(Map<NodePath, NodeVisitor> visitors) {
+        Parameters.requireNonNull(visitors, "visitors");
+
+        NodePath[] paths = new NodePath[visitors.size()];
+        NodeVisitor[] pathVisitors = new NodeVisitor[visitors.size()];
+        int i = 0;
+        for (Map.Entry<NodePath, NodeVisitor> entry : visitors.entrySet()) {
+            paths[i] = Parameters.requireNonNull(entry.getKey(), "path");
+            pathVisitors[i] = Parameters.requireNonNull(entry.getValue(), "visitor");
+            i++;
+        }
+
+        return new MultiPathVisitor(paths, pathVisitors);
+    }
+
+    /**
+     * Creates a <code>NodeVisitor</code> which will visit nodes matching any of the paths in one traversal, and once the end of
+     * a path is met visit nodes up to the depth mapped to that path. This is a shortcut for {@link #visitNodes(Map)} with a
+     * {@link #visitNodes(int)} visitor for each path.
+     *
+     * @param depths the paths to the nodes mapped to the depth to visit once the path is met. A depth less than 0 will visit
+     *        all.
+     * @return a visitor object
+     * @throws IllegalArgumentException if depths is null, or contains a null path or depth
+     */
+    public static NodeVisitor visitDepths(Map<NodePath, Integer> depths) {
+        Parameters.requireNonNull(depths, "depths");
+
+        Map<NodePath, NodeVisitor> visitors = new LinkedHashMap<NodePath, NodeVisitor>(depths.size() * 2);
+        for (Map.Entry<NodePath, Integer> entry : depths.entrySet()) {
+            Integer depth = Parameters.requireNonNull(entry.getValue(), "depth");
+            visitors.put(Parameters.requireNonNull(entry.getKey(), "path"), visitNodes(depth));
+        }
+
+        return visitNodes(visitors);
+    }
+
+    /**
+     * Creates a <code>NodeVisitor</code> which will visit a node if any of the visitors would visit it. This can be used to
+     * load several branches of a navigation in one traversal, for example
+     * <code>union(visitChildren(), visitNodes(NodePath.path("footer"), visitAll()))</code>.
+     *
+     * @param visitors the visitors
+     * @return a visitor object
+     * @throws IllegalArgumentException if visitors is null, empty or contains a null visitor
+     */
+    public static NodeVisitor union(NodeVisitor... visitors) {
+        visitors = requireVisitors(visitors);
+        return (visitors.length == 1) ? visitors[0] : new UnionVisitor(visitors);
+    }
+
+    /**
+     * Creates a <code>NodeVisitor</code> which will visit a node only if all of the visitors would visit it. This can be used
+     * to restrict another visitor, for example <code>intersection(visitAll(), visitIf(visible()))</code> will not visit
+     * below nodes that are not visible.
+     *
+     * @param visitors the visitors
+     * @return a visitor object
+     * @throws IllegalArgumentException if visitors is null, empty or contains a null visitor
+     */
+    public static NodeVisitor intersection(NodeVisitor... visitors) {
+        visitors = requireVisitors(visitors);
+        return (visitors.length == 1) ? visitors[0] : new IntersectionVisitor(visitors);
+    }
+
+    /**
+     * Creates a <code>NodeVisitor</code> which will visit any node accepted by the filter, at any depth. The root node is
+     * always visited. This is usually combined with other visitors using {@link #intersection(NodeVisitor...)}.
+     *
+     * @param filter the filter on the details of the node being visited
+     * @return a visitor object
+     * @throws IllegalArgumentException if filter is null
+     */
+    public static NodeVisitor visitIf(Filter<NodeVisitor.NodeDetails> filter) {
+        return new FilterVisitor(Parameters.requireNonNull(filter, "filter"));
+    }
+
+    /**
+     * A filter accepting nodes that are currently visible, as determined by {@link Visibility#isVisible()}
+     *
+     * @return a filter object
+     */
+    public static Filter<NodeVisitor.NodeDetails> visible() {
+        return VISIBLE;
+    }
+
+    /**
+     * A filter accepting nodes that have a page
+     *
+     * @return a filter object
+     */
+    public static Filter<NodeVisitor.NodeDetails> hasPage() {
+        return HAS_PAGE;
+    }
+
+    private static NodeVisitor[] requireVisitors(NodeVisitor[] visitors) {
+        Parameters.requireNonEmpty(visitors, "visitors");
+        for (NodeVisitor visitor : visitors) {
+            Parameters.requireNonNull(visitor, "visitor");
+        }
+        return visitors.clone();
+    }
+
+    // ----------------- Private traversal stuff
+
+    private static class BreadthFirstIterator implements Iterator<Node> {
+        private final Queue<Node> queue = new ArrayDeque<Node>();
+
+        public BreadthFirstIterator(Node node) {
+            queue.add(node);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !queue.isEmpty();
+        }
+
+        @Override
+        public Node next() {
+            Node node = queue.poll();
+            if (node == null)
+                throw new NoSuchElementException();
+
+            if (node.isChildrenLoaded()) {
+                for (Node child : node) {
+                    queue.add(child);
+                }
+            }
+            return node;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Remove operation not supported");
+        }
+    }
+
     // ----------------- Private visitor stuff
 
     private static final NodeVisitor NONE = new DepthVisitor(0);
@@ -168,6 +366,111 @@ public class Nodes {
         }
     }
 
+    // Multiple NodePath visitor
+    private static class MultiPathVisitor implements NodeVisitor {
+        private final NodePath[] paths;
+        private final NodeVisitor[] visitors;
+
+        public MultiPathVisitor(NodePath[] paths, NodeVisitor[] visitors) {
+            this.paths = paths;
+            this.visitors = visitors;
+        }
+
+        @Override
+        public boolean visit(int depth, String name, NodeDetails details) {
+            NodePath current = (details == null) ? NodePath.root() : details.getNodePath();
+            for (int i = 0; i < paths.length; i++) {
+                if (visit(paths[i], visitors[i], current, name, details)) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        private static boolean visit(NodePath path, NodeVisitor visitor, NodePath current, String name, NodeDetails details) {
+            int size = current.size();
+            if (size < path.size()) {
+                return current.isParent(path);
+            } else if (size == path.size()) {
+                return current.equals(path) && visitor.visit(0, name, details);
+            } else {
+                return path.isParent(current) && visitor.visit(size - path.size(), name, details);
+            }
+        }
+    }
+
+    // Union visitor
+    private static class UnionVisitor implements NodeVisitor {
+        private final NodeVisitor[] visitors;
+
+        public UnionVisitor(NodeVisitor[] visitors) {
+            this.visitors = visitors;
+        }
+
+        @Override
+        public boolean visit(int depth, String name, NodeDetails details) {
+            for (NodeVisitor visitor : visitors) {
+                if (visitor.visit(depth, name, details)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    // Intersection visitor
+    private static class IntersectionVisitor implements NodeVisitor {
+        private final NodeVisitor[] visitors;
+
+        public IntersectionVisitor(NodeVisitor[] visitors) {
+            this.visitors = visitors;
+        }
+
+        @Override
+        public boolean visit(int depth, String name, NodeDetails details) {
+            for (NodeVisitor visitor : visitors) {
+                if (!visitor.visit(depth, name, details)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    // Filter visitor
+    private static class FilterVisitor implements NodeVisitor {
+        private final Filter<NodeDetails> filter;
+
+        public FilterVisitor(Filter<NodeDetails> filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean visit(int depth, String name, NodeDetails details) {
+            return details == null || filter.accept(details);
+        }
+    }
+
+    private static final Filter<NodeVisitor.NodeDetails> VISIBLE = new VisibleFilter();
+
+    private static final Filter<NodeVisitor.NodeDetails> HAS_PAGE = new HasPageFilter();
+
+    private static class VisibleFilter implements Filter<NodeVisitor.NodeDetails> {
+        @Override
+        public boolean accept(NodeVisitor.NodeDetails details) {
+            Visibility visibility = details.getVisibility();
+            return visibility == null || visibility.isVisible();
+        }
+    }
+
+    private static class HasPageFilter implements Filter<NodeVisitor.NodeDetails> {
+        @Override
+        public boolean accept(NodeVisitor.NodeDetails details) {
+            return details.getPageId() != null;
+        }
+    }
+
     private Nodes() {
     }
 }
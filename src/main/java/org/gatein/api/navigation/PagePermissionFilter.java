@@ -0,0 +1,144 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.navigation;
+
+import org.gatein.api.Portal;
+import org.gatein.api.common.Filter;
+import org.gatein.api.internal.Parameters;
+import org.gatein.api.page.Page;
+import org.gatein.api.page.PageId;
+import org.gatein.api.security.Permission;
+import org.gatein.api.security.User;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Accepts nodes whose page the user has access or edit permission on, as used by
+ * {@link FilteredNode#showHasAccess(User)} and {@link FilteredNode#showHasEdit(User)}. This is intended to be used by
+ * implementations of {@link FilteredNode}.
+ * <p>
+ * Calling {@link #prepare(Iterable)} with the children of a node before filtering them loads their pages with
+ * {@link Portal#getPages(java.util.Collection)} and checks the permissions with
+ * {@link Portal#hasPermissions(User, List)}, so each level of a navigation costs one lookup of the user instead of one
+ * per node. Decisions are kept by page id for the life of the filter.
+ * </p>
+ */
+public class PagePermissionFilter implements Filter<Node> {
+    private final Portal portal;
+    private final User user;
+    private final boolean edit;
+    private final Map<PageId, Boolean> decisions;
+
+    /**
+     * Creates a filter accepting nodes without a page, and nodes whose page the user has access permission on
+     *
+     * @param portal the portal
+     * @param user the user
+     * @return the filter
+     * @throws IllegalArgumentException if portal or user is null
+     */
+    public static PagePermissionFilter hasAccess(Portal portal, User user) {
+        return new PagePermissionFilter(portal, user, false);
+    }
+
+    /**
+     * Creates a filter accepting nodes whose page the user has edit permission on
+     *
+     * @param portal the portal
+     * @param user the user
+     * @return the filter
+     * @throws IllegalArgumentException if portal or user is null
+     */
+    public static PagePermissionFilter hasEdit(Portal portal, User user) {
+        return new PagePermissionFilter(portal, user, true);
+    }
+
+    private PagePermissionFilter(Portal portal, User user, boolean edit) {
+        this.portal = Parameters.requireNonNull(portal, "portal");
+        this.user = Parameters.requireNonNull(user, "user");
+        this.edit = edit;
+        this.decisions = new HashMap<PageId, Boolean>();
+    }
+
+    /**
+     * Checks the permissions of the pages of the nodes not yet checked, in one batch.
+     *
+     * @param nodes the nodes about to be filtered
+     */
+    public void prepare(Iterable<Node> nodes) {
+        Set<PageId> pageIds = new LinkedHashSet<PageId>();
+        for (Node node : nodes) {
+            PageId pageId = node.getPageId();
+            if (pageId != null && !decisions.containsKey(pageId)) {
+                pageIds.add(pageId);
+            }
+        }
+        if (pageIds.isEmpty()) {
+            return;
+        }
+
+        Map<PageId, Page> pages = portal.getPages(pageIds);
+        List<PageId> checked = new ArrayList<PageId>(pages.size());
+        List<Permission> permissions = new ArrayList<Permission>(pages.size());
+        for (PageId pageId : pageIds) {
+            Page page = pages.get(pageId);
+            if (page == null) {
+                decisions.put(pageId, Boolean.FALSE);
+            } else {
+                checked.add(pageId);
+                permissions.add(edit ? page.getEditPermission() : page.getAccessPermission());
+            }
+        }
+        if (permissions.isEmpty()) {
+            return;
+        }
+
+        BitSet permitted = portal.hasPermissions(user, permissions);
+        for (int i = 0; i < checked.size(); i++) {
+            decisions.put(checked.get(i), permitted.get(i));
+        }
+    }
+
+    @Override
+    public boolean accept(Node element) {
+        PageId pageId = element.getPageId();
+        if (pageId == null) {
+            return !edit;
+        }
+
+        Boolean decision = decisions.get(pageId);
+        if (decision == null) {
+            Page page = portal.getPage(pageId);
+            decision = page != null
+                    && portal.hasPermission(user, edit ? page.getEditPermission() : page.getAccessPermission());
+            decisions.put(pageId, decision);
+        }
+        return decision;
+    }
+}
@@ -0,0 +1,377 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.navigation;
+
+import org.gatein.api.PortalRequest;
+import org.gatein.api.common.Attributes;
+import org.gatein.api.common.i18n.LocalizedString;
+import org.gatein.api.internal.ObjectToStringBuilder;
+import org.gatein.api.internal.Parameters;
+import org.gatein.api.page.PageId;
+import org.gatein.api.site.SiteId;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * An immutable copy of a node, which is part of a {@link NavigationSnapshot}. All methods that would modify the node throw
+ * an {@link UnsupportedOperationException}, and all mutable values returned are copies.
+ */
+class SnapshotNode implements Node {
+    /**
+     * Number of children above which children are looked up by name using an index instead of a scan.
+     */
+    private static final int INDEX_THRESHOLD = 8;
+
+    private final SiteId siteId;
+    private final SnapshotNode parent;
+    private final String name;
+    private final NodePath nodePath;
+    private final LocalizedString displayNames;
+    private final Visibility visibility;
+    private final String iconName;
+    private final PageId pageId;
+    private final Attributes attributes;
+    private final long version;
+    private final long subtreeVersion;
+    private final List<Node> children;
+    private final Map<String, Integer> index;
+
+    SnapshotNode(SiteId siteId, SnapshotNode parent, Node node) {
+        this.siteId = siteId;
+        this.parent = parent;
+        this.name = node.getName();
+        this.nodePath = (parent == null) ? NodePath.root() : parent.nodePath.append(name);
+        this.displayNames = (node.getDisplayNames() == null) ? null : new LocalizedString(node.getDisplayNames());
+        this.visibility = node.getVisibility();
+        this.iconName = node.getIconName();
+        this.pageId = node.getPageId();
+        this.attributes = new Attributes(node.getAttributes());
+        this.version = node.getVersion();
+        this.subtreeVersion = node.getSubtreeVersion();
+
+        if (node.isChildrenLoaded()) {
+            List<Node> list = new ArrayList<Node>(node.getChildCount());
+            for (Node child : node) {
+                list.add(new SnapshotNode(siteId, this, child));
+            }
+            this.children = Collections.unmodifiableList(list);
+            this.index = (list.size() > INDEX_THRESHOLD) ? index(list) : null;
+        } else {
+            this.children = null;
+            this.index = null;
+        }
+    }
+
+    private static Map<String, Integer> index(List<Node> children) {
+        Map<String, Integer> index = new HashMap<String, Integer>(children.size() * 2);
+        for (int i = 0; i < children.size(); i++) {
+            index.put(children.get(i).getName(), i);
+        }
+        return index;
+    }
+
+    SiteId getSiteId() {
+        return siteId;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void setName(String name) {
+        throw immutable();
+    }
+
+    @Override
+    public Node getParent() {
+        return parent;
+    }
+
+    @Override
+    public NodePath getNodePath() {
+        return nodePath;
+    }
+
+    /**
+     * Returns the URI resolved by the current {@link PortalRequest}, or null outside of a request.
+     */
+    @Override
+    public String getURI() {
+        PortalRequest request = PortalRequest.getInstance();
+        if (request == null) {
+            return null;
+        }
+
+        String uri = request.getURIResolver().resolveURI(siteId);
+        if (isRoot()) {
+            return uri;
+        }
+
+        return (uri.endsWith("/") ? uri.substring(0, uri.length() - 1) : uri) + nodePath;
+    }
+
+    @Override
+    public boolean isVisible() {
+        return visibility.isVisible();
+    }
+
+    @Override
+    public Visibility getVisibility() {
+        return visibility;
+    }
+
+    @Override
+    public void setVisibility(Visibility visibility) {
+        throw immutable();
+    }
+
+    @Override
+    public void setVisibility(boolean visible) {
+        throw immutable();
+    }
+
+    @Override
+    public void setVisibility(PublicationDate publicationDate) {
+        throw immutable();
+    }
+
+    @Override
+    public String getIconName() {
+        return iconName;
+    }
+
+    @Override
+    public void setIconName(String iconName) {
+        throw immutable();
+    }
+
+    @Override
+    public PageId getPageId() {
+        return pageId;
+    }
+
+    @Override
+    public void setPageId(PageId pageId) {
+        throw immutable();
+    }
+
+    /**
+     * Returns a copy of the attributes of this node, changes to the attributes returned are not reflected by the node.
+     */
+    @Override
+    public Attributes getAttributes() {
+        return new Attributes(attributes);
+    }
+
+    /**
+     * Returns a copy of the display names of this node, changes to the display names returned are not reflected by the node.
+     */
+    @Override
+    public LocalizedString getDisplayNames() {
+        return (displayNames == null) ? null : new LocalizedString(displayNames);
+    }
+
+    @Override
+    public void setDisplayNames(LocalizedString displayName) {
+        throw immutable();
+    }
+
+    /**
+     * Returns the display name for the locale of the current {@link PortalRequest} if the display name is localized, or the
+     * non localized display name otherwise.
+     */
+    @Override
+    public String getDisplayName() {
+        if (displayNames == null) {
+            return null;
+        } else if (!displayNames.isLocalized()) {
+            return displayNames.getValue();
+        }
+
+        PortalRequest request = PortalRequest.getInstance();
+        Locale locale = (request == null) ? null : request.getLocale();
+        if (locale == null) {
+            return null;
+        }
+
+        String value = displayNames.getValue(locale);
+        if (value == null && locale.getCountry().length() > 0) {
+            value = displayNames.getValue(new Locale(locale.getLanguage()));
+        }
+        return value;
+    }
+
+    @Override
+    public void setDisplayName(String displayName) {
+        throw immutable();
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public long getSubtreeVersion() {
+        return subtreeVersion;
+    }
+
+    @Override
+    public boolean isRoot() {
+        return parent == null;
+    }
+
+    @Override
+    public Node addChild(String childName) {
+        throw immutable();
+    }
+
+    @Override
+    public Node addChild(int index, String childName) {
+        throw immutable();
+    }
+
+    @Override
+    public Node getChild(String childName) {
+        int i = indexOf(childName);
+        return (i < 0) ? null : children.get(i);
+    }
+
+    @Override
+    public Node getChild(int index) {
+        return loadedChildren().get(index);
+    }
+
+    @Override
+    public int getChildCount() throws IllegalStateException {
+        return loadedChildren().size();
+    }
+
+    @Override
+    public boolean hasChild(String childName) {
+        return indexOf(childName) >= 0;
+    }
+
+    @Override
+    public boolean isChildrenLoaded() {
+        return children != null;
+    }
+
+    @Override
+    public Node getNode(String... nodePath) {
+        return getNode(NodePath.path(nodePath));
+    }
+
+    @Override
+    public Node getNode(NodePath nodePath) {
+        Parameters.requireNonNull(nodePath, "nodePath");
+
+        Node node = this;
+        for (String segment : nodePath) {
+            node = node.getChild(segment);
+            if (node == null) {
+                return null;
+            }
+        }
+        return node;
+    }
+
+    @Override
+    public int indexOf(String childName) {
+        Parameters.requireNonNull(childName, "childName");
+        List<Node> children = loadedChildren();
+
+        if (index != null) {
+            Integer i = index.get(childName);
+            return (i == null) ? -1 : i;
+        }
+
+        for (int i = 0; i < children.size(); i++) {
+            if (children.get(i).getName().equals(childName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean removeChild(String childName) {
+        throw immutable();
+    }
+
+    @Override
+    public FilteredNode filter() {
+        return new SnapshotFilteredNode(this);
+    }
+
+    @Override
+    public void sort(Comparator<Node> comparator) {
+        throw immutable();
+    }
+
+    @Override
+    public void moveTo(int index) {
+        throw immutable();
+    }
+
+    @Override
+    public void moveTo(Node parent) {
+        throw immutable();
+    }
+
+    @Override
+    public void moveTo(int index, Node parent) {
+        throw immutable();
+    }
+
+    @Override
+    public Iterator<Node> iterator() {
+        return loadedChildren().iterator();
+    }
+
+    @Override
+    public String toString() {
+        return ObjectToStringBuilder.toStringBuilder(getClass()).add("siteId", siteId).add("nodePath", nodePath)
+                .add("pageId", pageId).add("visibility", visibility).toString();
+    }
+
+    private List<Node> loadedChildren() {
+        if (children == null) {
+            throw new IllegalStateException("Children of node " + nodePath + " were not loaded in the snapshot");
+        }
+        return children;
+    }
+
+    static UnsupportedOperationException immutable() {
+        return new UnsupportedOperationException("Nodes of a navigation snapshot cannot be modified");
+    }
+}
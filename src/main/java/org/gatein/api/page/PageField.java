@@ -0,0 +1,107 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.page;
+
+import org.gatein.api.common.Field;
+import org.gatein.api.security.Membership;
+import org.gatein.api.security.Permission;
+import org.gatein.api.site.SiteType;
+
+import java.util.Collection;
+
+/**
+ * The fields of a {@link Page} that can be used to create {@link org.gatein.api.common.Criteria} for a {@link PageQuery}.
+ * For example <code>PageField.SITE_TYPE.equalTo(SiteType.SITE).and(PageField.DISPLAY_NAME.startsWith("Home"))</code>
+ *
+ * @see PageQuery.Builder#withCriteria(org.gatein.api.common.Criteria)
+ */
+public final class PageField {
+    /**
+     * The name of the page
+     */
+    public static final Field.StringField<Page> NAME = new Field.StringField<Page>("name") {
+        @Override
+        public String getValue(Page page) {
+            return page.getName();
+        }
+    };
+
+    /**
+     * The type of the site of the page
+     */
+    public static final Field<Page, SiteType> SITE_TYPE = new Field<Page, SiteType>("siteType") {
+        @Override
+        public SiteType getValue(Page page) {
+            return page.getSiteId().getType();
+        }
+    };
+
+    /**
+     * The name of the site of the page
+     */
+    public static final Field.StringField<Page> SITE_NAME = new Field.StringField<Page>("siteName") {
+        @Override
+        public String getValue(Page page) {
+            return page.getSiteId().getName();
+        }
+    };
+
+    /**
+     * The display name of the page
+     */
+    public static final Field.StringField<Page> DISPLAY_NAME = new Field.StringField<Page>("displayName") {
+        @Override
+        public String getValue(Page page) {
+            return page.getDisplayName();
+        }
+    };
+
+    /**
+     * The memberships of the access permission of the page. This is empty if everyone can access the page.
+     */
+    public static final Field.CollectionField<Page, Membership> ACCESS_PERMISSION = new Field.CollectionField<Page, Membership>(
+            "accessPermission") {
+        @Override
+        public Collection<Membership> getValue(Page page) {
+            return memberships(page.getAccessPermission());
+        }
+    };
+
+    /**
+     * The memberships of the edit permission of the page.
+     */
+    public static final Field.CollectionField<Page, Membership> EDIT_PERMISSION = new Field.CollectionField<Page, Membership>(
+            "editPermission") {
+        @Override
+        public Collection<Membership> getValue(Page page) {
+            return memberships(page.getEditPermission());
+        }
+    };
+
+    static Collection<Membership> memberships(Permission permission) {
+        return (permission == null) ? null : permission.getMemberships();
+    }
+
+    private PageField() {
+    }
+}
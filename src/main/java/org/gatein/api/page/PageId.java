@@ -22,6 +22,8 @@
 
 package org.gatein.api.page;
 
+import org.gatein.api.internal.IdFormat;
+import org.gatein.api.internal.Interner;
 import org.gatein.api.internal.Parameters;
 import org.gatein.api.security.Group;
 import org.gatein.api.security.User;
@@ -37,10 +39,16 @@ import java.util.Formatter;
  * 
  * @author <a href="mailto:nscavell@redhat.com">Nick Scavelli</a>
  */
-public class PageId implements Formattable, Serializable {
+public class PageId implements Formattable, Serializable, Comparable<PageId> {
+    private static final Interner<PageId> INTERNER = new Interner<PageId>();
+
     private final SiteId siteId;
     private final String pageName;
 
+    // Formatted lazily, racing threads compute the same immutable string
+    private transient String string;
+    private transient String alternateString;
+
     /**
      * Creates a new page id with the specified site name and page name
      * 
@@ -100,6 +108,33 @@ public class PageId implements Formattable, Serializable {
         return pageName;
     }
 
+    /**
+     * Returns a canonical instance of this page id, so that page ids that are equal are also the same instance. The site id
+     * of the canonical instance is interned as well. Canonical instances are only weakly referenced, and are garbage
+     * collected once no longer in use.
+     *
+     * @return the canonical page id
+     * @see SiteId#intern()
+     */
+    public PageId intern() {
+        SiteId canonical = siteId.intern();
+        return INTERNER.intern((canonical == siteId) ? this : new PageId(canonical, pageName));
+    }
+
+    /**
+     * Compares page ids by site id, then by page name.
+     *
+     * @param other the page id to compare to
+     * @return a negative integer, zero, or a positive integer as this page id is less than, equal to, or greater than the
+     *         other
+     * @see SiteId#compareTo(SiteId)
+     */
+    @Override
+    public int compareTo(PageId other) {
+        int result = siteId.compareTo(other.siteId);
+        return (result != 0) ? result : pageName.compareTo(other.pageName);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o)
@@ -121,44 +156,37 @@ public class PageId implements Formattable, Serializable {
 
     @Override
     public String toString() {
-        return String.format("Page.Id[%s]", this);
+        String s = string;
+        if (s == null) {
+            string = s = IdFormat.toString(this);
+        }
+        return s;
     }
 
     @Override
     public void formatTo(Formatter formatter, int flags, int width, int precision) {
         if ((flags & FormattableFlags.ALTERNATE) == FormattableFlags.ALTERNATE) {
-            formatter.format("%#s.%s", siteId, pageName);
+            String s = alternateString;
+            if (s == null) {
+                alternateString = s = IdFormat.toAlternateString(this);
+            }
+            IdFormat.formatTo(formatter, s);
         } else {
-            formatter.format("siteId=[%s], pageName=%s", siteId, pageName);
+            IdFormat.formatTo(formatter, "siteId=[type=", siteId.getType().getName(), ", name=", siteId.getName(),
+                    "], pageName=", pageName);
         }
     }
 
+    /**
+     * Parses a page id from its string, <code>%s</code> or <code>%#s</code> format. If the <code>org.gatein.api.intern</code>
+     * system property is true the page id returned is interned.
+     *
+     * @param idAsString the id as a string
+     * @return the page id
+     * @throws IllegalArgumentException if idAsString is null or is not a page id
+     */
     public static PageId fromString(String idAsString) {
-        Parameters.requireNonNull(idAsString, "idAsString");
-
-        int len;
-        if (idAsString.startsWith("Page.Id[")) {
-            idAsString = idAsString.substring(8, idAsString.length());
-            len = idAsString.length() - 1; // cut off trailing ]
-        } else {
-            len = idAsString.length();
-        }
-
-        int end;
-        int start;
-        String pageName;
-        if (idAsString.startsWith("siteId=[")) {
-            start = 8;
-            end = idAsString.lastIndexOf("], pageName=");
-            pageName = idAsString.substring(end + 12, len);
-        } else {
-            start = 0;
-            end = idAsString.lastIndexOf('.');
-            pageName = idAsString.substring(end + 1, len);
-        }
-
-        SiteId siteId = SiteId.fromString(idAsString.substring(start, end));
-
-        return new PageId(siteId, pageName);
+        PageId pageId = IdFormat.parsePageId(idAsString);
+        return Interner.INTERN_PARSED ? pageId.intern() : pageId;
     }
 }
@@ -22,8 +22,10 @@
 
 package org.gatein.api.page;
 
+import org.gatein.api.common.Criteria;
 import org.gatein.api.common.Filter;
 import org.gatein.api.common.Pagination;
+import org.gatein.api.common.Sorting;
 import org.gatein.api.internal.ObjectToStringBuilder;
 import org.gatein.api.site.SiteId;
 import org.gatein.api.site.SiteType;
@@ -41,14 +43,21 @@ public class PageQuery {
 
     // Common query fields
     private final Pagination pagination;
+    private final Criteria<Page> criteria;
     private final Filter<Page> filter;
+    private final Sorting<Page> sorting;
+    private final PageId startAfter;
 
-    private PageQuery(SiteType siteType, String siteName, String displayName, Pagination pagination, Filter<Page> filter) {
+    private PageQuery(SiteType siteType, String siteName, String displayName, Pagination pagination, Criteria<Page> criteria,
+            Filter<Page> filter, Sorting<Page> sorting, PageId startAfter) {
         this.siteType = siteType;
         this.siteName = siteName;
         this.displayName = displayName;
         this.pagination = pagination;
+        this.criteria = criteria;
         this.filter = filter;
+        this.sorting = sorting;
+        this.startAfter = startAfter;
     }
 
     public Pagination getPagination() {
@@ -75,10 +84,36 @@ public class PageQuery {
         return new Builder().from(this).withPreviousPage().build();
     }
 
+    /**
+     * The criteria pages must match. Implementations evaluate criteria where the pages are stored, for example using an
+     * index, before the {@link #getFilter() filter} is applied to the remaining pages in memory.
+     *
+     * @return the criteria, or null to match all pages
+     * @see PageField
+     */
+    public Criteria<Page> getCriteria() {
+        return criteria;
+    }
+
+    /**
+     * The filter applied in memory to the pages matching the other parameters and criteria of this query.
+     *
+     * @return the filter, or null
+     */
     public Filter<Page> getFilter() {
         return filter;
     }
 
+    /**
+     * The sorting of the pages, for example <code>Sorting.by(PageField.DISPLAY_NAME, Order.ascending)</code>.
+     *
+     * @return the sorting, or null if the order of pages is unspecified
+     * @see Sorting#sort(Iterable, Pagination)
+     */
+    public Sorting<Page> getSorting() {
+        return sorting;
+    }
+
     public SiteType getSiteType() {
         return siteType;
     }
@@ -91,10 +126,53 @@ public class PageQuery {
         return displayName;
     }
 
+    /**
+     * The page id after which results start, in the order of {@link PageId#compareTo(PageId)}. This is used as a keyset
+     * cursor when streaming pages.
+     *
+     * @return the page id to start after, or null to start with the first page
+     * @see org.gatein.api.Portal#streamPages(PageQuery, int)
+     */
+    public PageId getStartAfter() {
+        return startAfter;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+
+        PageQuery query = (PageQuery) o;
+
+        return eq(siteType, query.siteType) && eq(siteName, query.siteName) && eq(displayName, query.displayName)
+                && eq(pagination, query.pagination) && eq(criteria, query.criteria) && eq(filter, query.filter)
+                && eq(sorting, query.sorting) && eq(startAfter, query.startAfter);
+    }
+
+    private static boolean eq(Object o1, Object o2) {
+        return (o1 == null) ? o2 == null : o1.equals(o2);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = (siteType != null ? siteType.hashCode() : 0);
+        result = 31 * result + (siteName != null ? siteName.hashCode() : 0);
+        result = 31 * result + (displayName != null ? displayName.hashCode() : 0);
+        result = 31 * result + (pagination != null ? pagination.hashCode() : 0);
+        result = 31 * result + (criteria != null ? criteria.hashCode() : 0);
+        result = 31 * result + (filter != null ? filter.hashCode() : 0);
+        result = 31 * result + (sorting != null ? sorting.hashCode() : 0);
+        result = 31 * result + (startAfter != null ? startAfter.hashCode() : 0);
+        return result;
+    }
+
     @Override
     public String toString() {
         return ObjectToStringBuilder.toStringBuilder(PageQuery.class).add("siteType", siteType).add("siteName", siteName)
-                .add("displayName", displayName).add("pagination", pagination).add("filter", filter).toString();
+                .add("displayName", displayName).add("pagination", pagination).add("criteria", criteria).add("filter", filter)
+                .add("sorting", sorting).add("startAfter", startAfter).toString();
     }
 
     /**
@@ -110,8 +188,11 @@ public class PageQuery {
         private SiteType siteType;
         private String siteName;
         private String displayName;
+        private Criteria<Page> criteria;
         private Filter<Page> filter;
+        private Sorting<Page> sorting;
         private Pagination pagination;
+        private PageId startAfter;
 
         public Builder() {
             this.pagination = DEFAULT_PAGINATION;
@@ -209,6 +290,17 @@ public class PageQuery {
             return this;
         }
 
+        /**
+         * Sets the criteria for this builder
+         *
+         * @param criteria the criteria, which are created from the fields of {@link PageField}
+         * @return this builder
+         */
+        public Builder withCriteria(Criteria<Page> criteria) {
+            this.criteria = criteria;
+            return this;
+        }
+
         /**
          * Sets the filter for this builder
          *
@@ -220,13 +312,35 @@ public class PageQuery {
             return this;
         }
 
+        /**
+         * Sets the sorting object for this builder
+         *
+         * @param sorting the sorting object, which is usually created from the fields of {@link PageField}
+         * @return this builder
+         */
+        public Builder withSorting(Sorting<Page> sorting) {
+            this.sorting = sorting;
+            return this;
+        }
+
+        /**
+         * Sets the page id after which results start, in the order of {@link PageId#compareTo(PageId)}
+         *
+         * @param startAfter the page id to start after, or null to start with the first page
+         * @return this builder
+         */
+        public Builder withStartAfter(PageId startAfter) {
+            this.startAfter = startAfter;
+            return this;
+        }
+
         /**
          * Creates a new <code>PageQuery</code> object represented by the state of this builder
          *
          * @return a new <code>PageQuery</code> object
          */
         public PageQuery build() {
-            return new PageQuery(siteType, siteName, displayName, pagination, filter);
+            return new PageQuery(siteType, siteName, displayName, pagination, criteria, filter, sorting, startAfter);
         }
 
         /**
@@ -238,7 +352,8 @@ public class PageQuery {
         public Builder from(PageQuery query) {
             return new Builder().withSiteType(query.getSiteType()).withSiteName(query.getSiteName())
                     .withDisplayName(query.getDisplayName()).withPagination(query.getPagination())
-                    .withFilter(query.getFilter());
+                    .withCriteria(query.getCriteria()).withFilter(query.getFilter()).withSorting(query.getSorting())
+                    .withStartAfter(query.getStartAfter());
         }
     }
 }
@@ -0,0 +1,78 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.page;
+
+import org.gatein.api.common.Summary;
+import org.gatein.api.internal.Parameters;
+import org.gatein.api.security.Permission;
+
+/**
+ * An immutable summary of a page, with the id, display name, description and optionally the permissions of the page.
+ * Summaries are returned by projection queries such as
+ * {@link org.gatein.api.Portal#findPageSummaries(PageQuery, boolean)}, which do not load the layout of the page, so they are
+ * much cheaper than {@link Page}'s for pickers and autocomplete.
+ */
+public final class PageSummary extends Summary<PageId> {
+    /**
+     * Creates a summary of a page without permissions
+     *
+     * @param id the page id
+     * @param displayName the display name, or null
+     * @param description the description, or null
+     * @throws IllegalArgumentException if id is null
+     */
+    public PageSummary(PageId id, String displayName, String description) {
+        super(id, displayName, description, null, null);
+    }
+
+    /**
+     * Creates a summary of a page
+     *
+     * @param id the page id
+     * @param displayName the display name, or null
+     * @param description the description, or null
+     * @param accessPermission the access permission, or null if permissions are not included
+     * @param editPermission the edit permission, or null if permissions are not included
+     * @throws IllegalArgumentException if id is null
+     */
+    public PageSummary(PageId id, String displayName, String description, Permission accessPermission, Permission editPermission) {
+        super(id, displayName, description, accessPermission, editPermission);
+    }
+
+    /**
+     * Creates a summary of a page
+     *
+     * @param page the page
+     * @param includePermissions true to include the permissions of the page
+     * @throws IllegalArgumentException if page is null
+     */
+    public PageSummary(Page page, boolean includePermissions) {
+        super(Parameters.requireNonNull(page, "page").getId(), page.getDisplayName(), page.getDescription(),
+                includePermissions ? page.getAccessPermission() : null, includePermissions ? page.getEditPermission() : null);
+    }
+
+    @Override
+    public PageId getId() {
+        return super.getId();
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.security;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A {@link Permission} compiled into hash sets, matched against an {@link Identity} by lookups instead of scanning the
+ * memberships of the permission: user memberships by user id, {@link Membership#ANY} memberships by group, and all other
+ * memberships as is.
+ */
+final class CompiledPermission {
+    private final Permission permission;
+    private final int hash;
+    private final Set<String> users;
+    private final Set<Group> anyGroups;
+    private final Set<Membership> memberships;
+
+    CompiledPermission(Permission permission) {
+        this.permission = permission;
+        this.hash = permission.hashCode();
+
+        Set<String> users = new HashSet<String>();
+        Set<Group> anyGroups = new HashSet<Group>();
+        Set<Membership> memberships = new HashSet<Membership>();
+        for (Membership membership : permission.getMemberships()) {
+            if (membership.getGroup() == null) {
+                users.add(membership.getMembershipType());
+            } else if (Membership.ANY.equals(membership.getMembershipType())) {
+                anyGroups.add(membership.getGroup());
+            } else {
+                memberships.add(membership);
+            }
+        }
+        this.users = users;
+        this.anyGroups = anyGroups;
+        this.memberships = memberships;
+    }
+
+    Permission getPermission() {
+        return permission;
+    }
+
+    int hash() {
+        return hash;
+    }
+
+    boolean hasGroupMemberships() {
+        return !anyGroups.isEmpty() || !memberships.isEmpty();
+    }
+
+    boolean matchesUser(Identity identity) {
+        return !users.isEmpty() && users.contains(identity.getUser().getId());
+    }
+
+    boolean matchesGroupMemberships(Identity identity) {
+        return intersects(anyGroups, identity.groups()) || intersects(memberships, identity.memberships());
+    }
+
+    private static <T> boolean intersects(Set<T> set, Set<T> other) {
+        if (set.size() > other.size()) {
+            Set<T> swap = set;
+            set = other;
+            other = swap;
+        }
+        for (T value : set) {
+            if (other.contains(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
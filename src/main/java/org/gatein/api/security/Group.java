@@ -24,6 +24,7 @@ package org.gatein.api.security;
 
 import java.io.Serializable;
 
+import org.gatein.api.internal.Interner;
 import org.gatein.api.internal.Parameters;
 import org.gatein.api.internal.StringJoiner;
 import org.gatein.api.internal.ObjectToStringBuilder;
@@ -35,6 +36,9 @@ import org.gatein.api.internal.StringSplitter;
  * @author <a href="mailto:nscavell@redhat.com">Nick Scavelli</a>
  */
 public class Group implements Serializable {
+    private static final StringSplitter SPLITTER = StringSplitter.splitter("/").trim().ignoreEmptyStrings();
+    private static final Interner<Group> INTERNER = new Interner<Group>();
+
     private final String id;
 
     /**
@@ -61,7 +65,7 @@ public class Group implements Serializable {
      * @throws IllegalArgumentException if id is null
      */
     public Group(String id) {
-        this(StringSplitter.splitter("/").trim().ignoreEmptyStrings().split(Parameters.requireNonNull(id, "id")));
+        this(SPLITTER.split(Parameters.requireNonNull(id, "id")));
     }
 
     /**
@@ -73,6 +77,16 @@ public class Group implements Serializable {
         return id;
     }
 
+    /**
+     * Returns a canonical instance of this group, so that groups that are equal are also the same instance. Canonical
+     * instances are only weakly referenced, and are garbage collected once no longer in use.
+     *
+     * @return the canonical group
+     */
+    public Group intern() {
+        return INTERNER.intern(this);
+    }
+
     @Override
     public String toString() {
         return ObjectToStringBuilder.toStringBuilder(getClass()).add("groupId", id).toString();
@@ -0,0 +1,322 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.security;
+
+import org.gatein.api.internal.Parameters;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * An immutable index of groups by the segments of their ids, for example <code>/platform/users</code> is indexed under
+ * <code>platform</code> then <code>users</code>. Groups are looked up by walking the segments of their id in place, so
+ * membership, ancestor and descendant queries cost one binary search of the children per segment and don't allocate.
+ * <p>
+ * Each group is indexed with the membership types it was added with, sorted so they're found by binary search. Groups
+ * added with {@link #ofGroups(Collection)}, and memberships of type {@link Membership#ANY}, match memberships of any type
+ * in the group.
+ * </p>
+ */
+public final class GroupIndex {
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Set<String> ANY_TYPE = Collections.singleton(Membership.ANY);
+
+    private final Node root;
+    private final int size;
+
+    /**
+     * Creates an index of the groups, where each group matches memberships of any type
+     *
+     * @param groups the groups
+     * @return the index
+     * @throws IllegalArgumentException if groups is null or contains null
+     */
+    public static GroupIndex ofGroups(Collection<Group> groups) {
+        Parameters.requireNonNullElements(groups, "groups");
+
+        Map<Group, Set<String>> types = new LinkedHashMap<Group, Set<String>>();
+        for (Group group : groups) {
+            types.put(group, ANY_TYPE);
+        }
+        return new GroupIndex(types);
+    }
+
+    /**
+     * Creates an index of the groups of the memberships, along with the membership types of each group
+     *
+     * @param memberships the memberships, which must all have a group
+     * @return the index
+     * @throws IllegalArgumentException if memberships is null, or if a membership is null or has no group
+     */
+    public static GroupIndex ofMemberships(Collection<Membership> memberships) {
+        Parameters.requireNonNullElements(memberships, "memberships");
+
+        Map<Group, Set<String>> types = new LinkedHashMap<Group, Set<String>>();
+        for (Membership membership : memberships) {
+            Group group = Parameters.requireNonNull(membership.getGroup(), "membership.group");
+            Set<String> groupTypes = types.get(group);
+            if (groupTypes == null) {
+                groupTypes = new TreeSet<String>();
+                types.put(group, groupTypes);
+            }
+            groupTypes.add(membership.getMembershipType());
+        }
+        return new GroupIndex(types);
+    }
+
+    private GroupIndex(Map<Group, Set<String>> types) {
+        Builder root = new Builder(null);
+        for (Map.Entry<Group, Set<String>> entry : types.entrySet()) {
+            String id = entry.getKey().getId();
+            Builder node = root;
+            for (int start = skip(id, 0); start < id.length(); start = skip(id, end(id, start))) {
+                node = node.child(id.substring(start, end(id, start)));
+            }
+            if (node != root) {
+                node.group = entry.getKey();
+                node.types = entry.getValue().toArray(new String[entry.getValue().size()]);
+            }
+        }
+        this.root = root.build();
+        this.size = types.size();
+    }
+
+    /**
+     * Returns the number of groups in the index
+     *
+     * @return the number of groups
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns true if the group is in the index
+     *
+     * @param group the group
+     * @return true if the group is in the index
+     * @throws IllegalArgumentException if group is null
+     */
+    public boolean contains(Group group) {
+        Node node = find(Parameters.requireNonNull(group, "group"));
+        return node != null && node.group != null;
+    }
+
+    /**
+     * Returns true if the index has the group of the membership with a matching membership type, where a membership type
+     * of {@link Membership#ANY} on either side matches any type
+     *
+     * @param membership the membership
+     * @return true if the membership is in the index
+     * @throws IllegalArgumentException if membership is null or has no group
+     */
+    public boolean contains(Membership membership) {
+        Parameters.requireNonNull(membership, "membership");
+
+        Node node = find(Parameters.requireNonNull(membership.getGroup(), "membership.group"));
+        if (node == null || node.group == null) {
+            return false;
+        }
+
+        String type = membership.getMembershipType();
+        return Membership.ANY.equals(type) || node.hasType(Membership.ANY) || node.hasType(type);
+    }
+
+    /**
+     * Returns true if the index has a parent of the group, or a parent of a parent and so on. The group itself is not an
+     * ancestor.
+     *
+     * @param group the group
+     * @return true if an ancestor of the group is in the index
+     * @throws IllegalArgumentException if group is null
+     */
+    public boolean containsAncestorOf(Group group) {
+        String id = Parameters.requireNonNull(group, "group").getId();
+
+        Node node = root;
+        for (int start = skip(id, 0); start < id.length(); start = skip(id, end(id, start))) {
+            if (node.group != null) {
+                return true;
+            }
+            node = node.child(id, start, end(id, start));
+            if (node == null) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if the index has a child of the group, or a child of a child and so on. The group itself is not a
+     * descendant.
+     *
+     * @param group the group
+     * @return true if a descendant of the group is in the index
+     * @throws IllegalArgumentException if group is null
+     */
+    public boolean containsDescendantOf(Group group) {
+        Node node = find(Parameters.requireNonNull(group, "group"));
+        return node != null && node.children.length > 0;
+    }
+
+    /**
+     * Returns the groups in the index that are descendants of the group, ordered by the segments of their ids with parents
+     * before their children. The group itself is not a descendant.
+     *
+     * @param group the group
+     * @return the descendants of the group
+     * @throws IllegalArgumentException if group is null
+     */
+    public List<Group> getDescendants(Group group) {
+        Node node = find(Parameters.requireNonNull(group, "group"));
+        if (node == null || node.children.length == 0) {
+            return Collections.emptyList();
+        }
+
+        List<Group> descendants = new ArrayList<Group>();
+        for (Node child : node.children) {
+            child.collect(descendants);
+        }
+        return descendants;
+    }
+
+    private Node find(Group group) {
+        String id = group.getId();
+
+        Node node = root;
+        for (int start = skip(id, 0); start < id.length(); start = skip(id, end(id, start))) {
+            node = node.child(id, start, end(id, start));
+            if (node == null) {
+                return null;
+            }
+        }
+        return (node == root) ? null : node;
+    }
+
+    private static int skip(String id, int index) {
+        while (index < id.length() && id.charAt(index) == '/') {
+            index++;
+        }
+        return index;
+    }
+
+    private static int end(String id, int start) {
+        int end = id.indexOf('/', start);
+        return (end < 0) ? id.length() : end;
+    }
+
+    private static final class Node {
+        private final String segment;
+        private final Group group;
+        private final String[] types;
+        private final Node[] children;
+
+        private Node(String segment, Group group, String[] types, Node[] children) {
+            this.segment = segment;
+            this.group = group;
+            this.types = types;
+            this.children = children;
+        }
+
+        private Node child(String id, int start, int end) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int cmp = compare(children[mid].segment, id, start, end);
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    return children[mid];
+                }
+            }
+            return null;
+        }
+
+        private boolean hasType(String type) {
+            return Arrays.binarySearch(types, type) >= 0;
+        }
+
+        private void collect(List<Group> groups) {
+            if (group != null) {
+                groups.add(group);
+            }
+            for (Node child : children) {
+                child.collect(groups);
+            }
+        }
+
+        // Same order as String.compareTo, without creating a string of the segment in the id
+        private static int compare(String segment, String id, int start, int end) {
+            int length = end - start;
+            int n = Math.min(segment.length(), length);
+            for (int i = 0; i < n; i++) {
+                char c1 = segment.charAt(i);
+                char c2 = id.charAt(start + i);
+                if (c1 != c2) {
+                    return c1 - c2;
+                }
+            }
+            return segment.length() - length;
+        }
+    }
+
+    private static final class Builder {
+        private final String segment;
+        private final TreeMap<String, Builder> children = new TreeMap<String, Builder>();
+        private Group group;
+        private String[] types;
+
+        private Builder(String segment) {
+            this.segment = segment;
+        }
+
+        private Builder child(String segment) {
+            Builder child = children.get(segment);
+            if (child == null) {
+                child = new Builder(segment);
+                children.put(segment, child);
+            }
+            return child;
+        }
+
+        private Node build() {
+            Node[] nodes = children.isEmpty() ? NO_CHILDREN : new Node[children.size()];
+            int i = 0;
+            for (Builder child : children.values()) {
+                nodes[i++] = child.build();
+            }
+            return new Node(segment, group, types, nodes);
+        }
+    }
+}
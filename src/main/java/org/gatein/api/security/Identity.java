@@ -0,0 +1,178 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.security;
+
+import org.gatein.api.internal.ObjectToStringBuilder;
+import org.gatein.api.internal.Parameters;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A snapshot of a user and the memberships of the user, used to evaluate permissions with a {@link PermissionEvaluator}.
+ * Identities are immutable, a new identity should be created when the memberships of the user change.
+ */
+public final class Identity implements Serializable {
+    private final User user;
+    private final Set<Membership> memberships;
+    private final Set<Group> groups;
+    private final int fingerprint;
+
+    // Created lazily, racing threads create equal immutable indexes
+    private transient GroupIndex groupIndex;
+
+    /**
+     * Creates an identity for a user without memberships
+     *
+     * @param user the user
+     * @throws IllegalArgumentException if user is null
+     */
+    public Identity(User user) {
+        this(user, Collections.<Membership> emptySet());
+    }
+
+    /**
+     * Creates an identity for a user with the specified memberships
+     *
+     * @param user the user
+     * @param memberships the memberships of the user, which must all have a group
+     * @throws IllegalArgumentException if user or memberships is null, or if a membership is null or has no group
+     */
+    public Identity(User user, Collection<Membership> memberships) {
+        this.user = Parameters.requireNonNull(user, "user");
+        Parameters.requireNonNullElements(memberships, "memberships");
+
+        Set<Membership> set = new HashSet<Membership>(memberships.size() * 2);
+        Set<Group> groups = new HashSet<Group>(memberships.size() * 2);
+        for (Membership membership : memberships) {
+            groups.add(Parameters.requireNonNull(membership.getGroup(), "membership.group"));
+            set.add(membership);
+        }
+        this.memberships = set;
+        this.groups = groups;
+        this.fingerprint = set.hashCode();
+    }
+
+    /**
+     * Returns the user
+     *
+     * @return the user
+     */
+    public User getUser() {
+        return user;
+    }
+
+    /**
+     * Returns the memberships of the user
+     *
+     * @return the memberships
+     */
+    public Set<Membership> getMemberships() {
+        return Collections.unmodifiableSet(memberships);
+    }
+
+    /**
+     * Returns true if the user has the membership
+     *
+     * @param membership the membership
+     * @return true if the user has the membership
+     */
+    public boolean hasMembership(Membership membership) {
+        return memberships.contains(membership);
+    }
+
+    /**
+     * Returns true if the user has any membership in the group
+     *
+     * @param group the group
+     * @return true if the user is a member of the group
+     */
+    public boolean isMemberOf(Group group) {
+        return groups.contains(group);
+    }
+
+    /**
+     * Returns an index of the memberships of the user by group, to check memberships in parents or children of a group.
+     *
+     * @return the group index
+     */
+    public GroupIndex getGroupIndex() {
+        GroupIndex index = groupIndex;
+        if (index == null) {
+            groupIndex = index = GroupIndex.ofMemberships(memberships);
+        }
+        return index;
+    }
+
+    /**
+     * Returns a hash of the memberships, which is the same for identities with equal memberships regardless of the user
+     *
+     * @return the fingerprint of the memberships
+     */
+    public int getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Returns true if the identity has the same memberships as this identity, regardless of the user
+     *
+     * @param other the identity to compare to
+     * @return true if the memberships are equal
+     */
+    public boolean hasSameMemberships(Identity other) {
+        return other == this || (other.fingerprint == fingerprint && other.memberships.equals(memberships));
+    }
+
+    Set<Membership> memberships() {
+        return memberships;
+    }
+
+    Set<Group> groups() {
+        return groups;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+
+        Identity other = (Identity) o;
+        return user.equals(other.user) && hasSameMemberships(other);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * user.hashCode() + fingerprint;
+    }
+
+    @Override
+    public String toString() {
+        return ObjectToStringBuilder.toStringBuilder(getClass()).add("user", user.getId()).add("memberships", memberships)
+                .toString();
+    }
+}
@@ -24,6 +24,7 @@ package org.gatein.api.security;
 
 import java.io.Serializable;
 
+import org.gatein.api.internal.Interner;
 import org.gatein.api.internal.Parameters;
 import org.gatein.api.internal.StringSplitter;
 
@@ -35,6 +36,9 @@ import org.gatein.api.internal.StringSplitter;
 public class Membership implements Serializable {
     public static final String ANY = "*";
 
+    private static final StringSplitter SPLITTER = StringSplitter.splitter(":");
+    private static final Interner<Membership> INTERNER = new Interner<Membership>();
+
     /**
      * Creates a new membership for any membership type in the specified group
      *
@@ -87,6 +91,23 @@ public class Membership implements Serializable {
         return group;
     }
 
+    /**
+     * Returns a canonical instance of this membership, so that memberships that are equal are also the same instance. The
+     * group of the canonical instance is interned as well. Canonical instances are only weakly referenced, and are garbage
+     * collected once no longer in use.
+     *
+     * @return the canonical membership
+     * @see Group#intern()
+     */
+    public Membership intern() {
+        if (group == null) {
+            return INTERNER.intern(this);
+        }
+
+        Group canonical = group.intern();
+        return INTERNER.intern((canonical == group) ? this : new Membership(membershipType, canonical));
+    }
+
     @Override
     public String toString() {
         if (group == null) {
@@ -140,16 +161,26 @@ public class Membership implements Serializable {
         return true;
     }
 
+    /**
+     * Parses a membership from its string format, for example <code>manager:/platform/administrators</code>. If the
+     * <code>org.gatein.api.intern</code> system property is true the membership returned is interned.
+     *
+     * @param membership the membership as a string
+     * @return the membership
+     * @throws IllegalArgumentException if membership is null or is not a membership
+     */
     public static Membership fromString(String membership) {
         Parameters.requireNonNull(membership, "membership");
 
-        String[] parts = StringSplitter.splitter(":").split(membership);
+        String[] parts = SPLITTER.split(membership);
+        Membership parsed;
         if (parts.length == 1) {
-            return new Membership(new User(parts[0]));
+            parsed = new Membership(new User(parts[0]));
         } else if (parts.length == 2) {
-            return new Membership(parts[0], new Group(parts[1]));
+            parsed = new Membership(parts[0], new Group(parts[1]));
         } else {
             throw new IllegalArgumentException("Invalid membership string " + membership);
         }
+        return Interner.INTERN_PARSED ? parsed.intern() : parsed;
     }
 }
@@ -58,6 +58,9 @@ public class Permission implements Serializable {
 
     private final Set<Membership> memberships;
 
+    // Permissions are immutable, so the hash of the memberships is computed once
+    private transient int hash;
+
     /**
      * Creates a permission where everyone can access the resource (public)
      */
@@ -149,7 +152,11 @@ public class Permission implements Serializable {
      */
     @Override
     public int hashCode() {
-        return memberships != null ? memberships.hashCode() : 0;
+        int h = hash;
+        if (h == 0 && memberships != null) {
+            hash = h = memberships.hashCode();
+        }
+        return h;
     }
 
     /**
@@ -0,0 +1,154 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.security;
+
+import org.gatein.api.internal.Parameters;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Evaluates permissions against the memberships of an {@link Identity}. This object is thread safe, and is meant to be
+ * shared by all evaluations of a portal.
+ * <p>
+ * Each permission is compiled once into hash sets, so that it's matched by lookups rather than by scanning its memberships.
+ * Decisions that depend on the group memberships of an identity are cached per {@link Identity#getFingerprint()} and
+ * permission, so they're shared by all identities with the same memberships. Since identities and permissions are
+ * immutable the cached decisions never become stale. Each cache is cleared once it holds the maximum number of entries.
+ * </p>
+ */
+public class PermissionEvaluator {
+    /**
+     * The default maximum number of entries of each cache
+     */
+    public static final int DEFAULT_MAXIMUM_SIZE = 10000;
+
+    private final int maximumSize;
+    private final ConcurrentMap<Permission, CompiledPermission> compiled;
+    private final ConcurrentMap<Decision, Boolean> decisions;
+
+    /**
+     * Creates an evaluator with caches of {@link #DEFAULT_MAXIMUM_SIZE} entries
+     */
+    public PermissionEvaluator() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * Creates an evaluator
+     *
+     * @param maximumSize the maximum number of entries of each cache
+     * @throws IllegalArgumentException if maximumSize is less than 1
+     */
+    public PermissionEvaluator(int maximumSize) {
+        this.maximumSize = Parameters.requirePositive(maximumSize, "maximumSize");
+        this.compiled = new ConcurrentHashMap<Permission, CompiledPermission>();
+        this.decisions = new ConcurrentHashMap<Decision, Boolean>();
+    }
+
+    /**
+     * Returns true if the identity has the permission, that is if the permission is accessible to everyone, or includes the
+     * user of the identity, or one of the memberships of the identity.
+     *
+     * @param identity the identity
+     * @param permission the permission
+     * @return true if the identity has the permission
+     * @throws IllegalArgumentException if identity or permission is null
+     */
+    public boolean hasPermission(Identity identity, Permission permission) {
+        Parameters.requireNonNull(identity, "identity");
+        Parameters.requireNonNull(permission, "permission");
+
+        if (permission.isAccessibleToEveryone()) {
+            return true;
+        }
+
+        CompiledPermission matcher = compile(permission);
+        if (matcher.matchesUser(identity)) {
+            return true;
+        } else if (!matcher.hasGroupMemberships()) {
+            return false;
+        }
+
+        Decision key = new Decision(identity, matcher);
+        Boolean decision = decisions.get(key);
+        if (decision == null) {
+            decision = matcher.matchesGroupMemberships(identity);
+            put(decisions, key, decision);
+        }
+        return decision;
+    }
+
+    /**
+     * Removes all compiled permissions and cached decisions.
+     */
+    public void invalidateAll() {
+        compiled.clear();
+        decisions.clear();
+    }
+
+    private CompiledPermission compile(Permission permission) {
+        CompiledPermission matcher = compiled.get(permission);
+        if (matcher == null) {
+            matcher = new CompiledPermission(permission);
+            put(compiled, permission, matcher);
+        }
+        return matcher;
+    }
+
+    private <K, V> void put(ConcurrentMap<K, V> cache, K key, V value) {
+        if (cache.size() >= maximumSize) {
+            cache.clear();
+        }
+        cache.put(key, value);
+    }
+
+    private static class Decision {
+        private final Identity identity;
+        private final CompiledPermission permission;
+        private final int hash;
+
+        private Decision(Identity identity, CompiledPermission permission) {
+            this.identity = identity;
+            this.permission = permission;
+            this.hash = 31 * identity.getFingerprint() + permission.hash();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Decision))
+                return false;
+
+            Decision other = (Decision) o;
+            return hash == other.hash && identity.hasSameMemberships(other.identity)
+                    && (permission == other.permission || permission.getPermission().equals(other.permission.getPermission()));
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.site;
+
+import org.gatein.api.common.Field;
+import org.gatein.api.security.Membership;
+import org.gatein.api.security.Permission;
+
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * The fields of a {@link Site} that can be used to create {@link org.gatein.api.common.Criteria} for a {@link SiteQuery}.
+ * For example <code>SiteField.TYPE.equalTo(SiteType.SPACE).and(SiteField.NAME.startsWith("/platform"))</code>
+ *
+ * @see SiteQuery.Builder#withCriteria(org.gatein.api.common.Criteria)
+ */
+public final class SiteField {
+    /**
+     * The name of the site
+     */
+    public static final Field.StringField<Site> NAME = new Field.StringField<Site>("name") {
+        @Override
+        public String getValue(Site site) {
+            return site.getName();
+        }
+    };
+
+    /**
+     * The type of the site
+     */
+    public static final Field<Site, SiteType> TYPE = new Field<Site, SiteType>("type") {
+        @Override
+        public SiteType getValue(Site site) {
+            return site.getType();
+        }
+    };
+
+    /**
+     * The display name of the site
+     */
+    public static final Field.StringField<Site> DISPLAY_NAME = new Field.StringField<Site>("displayName") {
+        @Override
+        public String getValue(Site site) {
+            return site.getDisplayName();
+        }
+    };
+
+    /**
+     * The locale of the site
+     */
+    public static final Field<Site, Locale> LOCALE = new Field<Site, Locale>("locale") {
+        @Override
+        public Locale getValue(Site site) {
+            return site.getLocale();
+        }
+    };
+
+    /**
+     * The keys of the attributes of the site
+     */
+    public static final Field.CollectionField<Site, String> ATTRIBUTE_KEYS = new Field.CollectionField<Site, String>(
+            "attributeKeys") {
+        @Override
+        public Collection<String> getValue(Site site) {
+            return site.getAttributes().keySet();
+        }
+    };
+
+    /**
+     * The memberships of the access permission of the site. This is empty if everyone can access the site.
+     */
+    public static final Field.CollectionField<Site, Membership> ACCESS_PERMISSION = new Field.CollectionField<Site, Membership>(
+            "accessPermission") {
+        @Override
+        public Collection<Membership> getValue(Site site) {
+            return memberships(site.getAccessPermission());
+        }
+    };
+
+    /**
+     * The memberships of the edit permission of the site.
+     */
+    public static final Field.CollectionField<Site, Membership> EDIT_PERMISSION = new Field.CollectionField<Site, Membership>(
+            "editPermission") {
+        @Override
+        public Collection<Membership> getValue(Site site) {
+            return memberships(site.getEditPermission());
+        }
+    };
+
+    static Collection<Membership> memberships(Permission permission) {
+        return (permission == null) ? null : permission.getMemberships();
+    }
+
+    private SiteField() {
+    }
+}
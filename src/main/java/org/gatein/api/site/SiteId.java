@@ -24,6 +24,8 @@ package org.gatein.api.site;
 
 import org.gatein.api.security.Group;
 import org.gatein.api.security.User;
+import org.gatein.api.internal.IdFormat;
+import org.gatein.api.internal.Interner;
 import org.gatein.api.internal.Parameters;
 import org.gatein.api.page.PageId;
 
@@ -31,18 +33,22 @@ import java.io.Serializable;
 import java.util.Formattable;
 import java.util.FormattableFlags;
 import java.util.Formatter;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * The id of site
  * 
  * @author <a href="mailto:nscavell@redhat.com">Nick Scavelli</a>
  */
-public class SiteId implements Formattable, Serializable {
+public class SiteId implements Formattable, Serializable, Comparable<SiteId> {
+    private static final Interner<SiteId> INTERNER = new Interner<SiteId>();
+
     private final SiteType type;
     private final String name;
 
+    // Formatted lazily, racing threads compute the same immutable string
+    private transient String string;
+    private transient String alternateString;
+
     /**
      * Creates a new site id for a site with the specific name
      * 
@@ -109,6 +115,29 @@ public class SiteId implements Formattable, Serializable {
         return new PageId(this, pageName);
     }
 
+    /**
+     * Returns a canonical instance of this site id, so that site ids that are equal are also the same instance. Canonical
+     * instances are only weakly referenced, and are garbage collected once no longer in use.
+     *
+     * @return the canonical site id
+     */
+    public SiteId intern() {
+        return INTERNER.intern(this);
+    }
+
+    /**
+     * Compares site ids by type, in the order of {@link SiteType}, then by name.
+     *
+     * @param other the site id to compare to
+     * @return a negative integer, zero, or a positive integer as this site id is less than, equal to, or greater than the
+     *         other
+     */
+    @Override
+    public int compareTo(SiteId other) {
+        int result = type.compareTo(other.type);
+        return (result != 0) ? result : name.compareTo(other.name);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o)
@@ -130,59 +159,36 @@ public class SiteId implements Formattable, Serializable {
 
     @Override
     public String toString() {
-        return String.format("Site.Id[%s]", this);
+        String s = string;
+        if (s == null) {
+            string = s = IdFormat.toString(this);
+        }
+        return s;
     }
 
     @Override
     public void formatTo(Formatter formatter, int flags, int width, int precision) {
         if ((flags & FormattableFlags.ALTERNATE) == FormattableFlags.ALTERNATE) {
-            formatter.format("%s.%s", type.getName(), name.replaceAll("/", "~"));
+            String s = alternateString;
+            if (s == null) {
+                alternateString = s = IdFormat.toAlternateString(this);
+            }
+            IdFormat.formatTo(formatter, s);
         } else {
-            formatter.format("type=%s, name=%s", type.getName(), name);
+            IdFormat.formatTo(formatter, "type=", type.getName(), ", name=", name);
         }
     }
 
-    private static final String NAME_REGEX = "[A-Za-z0-9-_/~]";
-    private static final String TYPE_REGEX = "\\w{4,9}";
-    private static final Pattern PATTERN1 = Pattern.compile("type=(" + TYPE_REGEX + "), name=(" + NAME_REGEX + "*)");
-    private static final Pattern PATTERN2 = Pattern.compile("(" + TYPE_REGEX + ")\\.(" + NAME_REGEX + "*)");
-
+    /**
+     * Parses a site id from its string, <code>%s</code> or <code>%#s</code> format. If the <code>org.gatein.api.intern</code>
+     * system property is true the site id returned is interned.
+     *
+     * @param idAsString the id as a string
+     * @return the site id
+     * @throws IllegalArgumentException if idAsString is null or is not a site id
+     */
     public static SiteId fromString(String idAsString) {
-        Parameters.requireNonNull(idAsString, "idAsString");
-
-        int len = idAsString.length();
-        if (idAsString.startsWith("Site.Id[type=")) // Handle the toString()
-        {
-            int begin = idAsString.indexOf("type=") + 5;
-            int end = idAsString.indexOf(",", begin);
-            String type = idAsString.substring(begin, end);
-
-            begin = idAsString.indexOf("name=") + 5;
-            end = len - 1;
-            String name = idAsString.substring(begin, end);
-
-            return new SiteId(SiteType.forName(type), name);
-        } else // Handle both %s and %#s formats
-        {
-            // Match two patterns (easier then making one complicated regex)
-            Matcher matcher = PATTERN1.matcher(idAsString);
-            boolean matches = matcher.matches();
-            if (!matches) {
-                matcher = PATTERN2.matcher(idAsString);
-                matches = matcher.matches();
-            }
-
-            // Parse it
-            if (matches) {
-                String type = matcher.group(1);
-                String name = matcher.group(2);
-                if (name.contains("~")) {
-                    name = name.replaceAll("~", "/");
-                }
-                return new SiteId(SiteType.forName(type), name);
-            }
-        }
-
-        throw new IllegalArgumentException("Unknown syntax for id string " + idAsString);
+        SiteId siteId = IdFormat.parseSiteId(idAsString);
+        return Interner.INTERN_PARSED ? siteId.intern() : siteId;
     }
 }
@@ -22,6 +22,7 @@
 
 package org.gatein.api.site;
 
+import org.gatein.api.common.Criteria;
 import org.gatein.api.common.Filter;
 import org.gatein.api.common.Pagination;
 import org.gatein.api.common.Sorting;
@@ -38,9 +39,11 @@ import java.util.EnumSet;
 public class SiteQuery {
     private final EnumSet<SiteType> siteTypes;
     private final boolean includeEmptySites;
+    private final Criteria<Site> criteria;
     private final Filter<Site> filter;
     private final Pagination pagination;
     private final Sorting<Site> sorting;
+    private final SiteId startAfter;
 
     /**
      * Creates a site query object for all parameters which make up the query. The {@link SiteQuery.Builder} object should be
@@ -50,13 +53,15 @@ public class SiteQuery {
      * @param includeEmptySites flag if true will include sites that are empty (i.e. no navigation associated with it).
      * @see SiteQuery.Builder
      */
-    private SiteQuery(EnumSet<SiteType> siteTypes, boolean includeEmptySites, Filter<Site> filter, Pagination pagination,
-            Sorting<Site> sorting) {
+    private SiteQuery(EnumSet<SiteType> siteTypes, boolean includeEmptySites, Criteria<Site> criteria, Filter<Site> filter,
+            Pagination pagination, Sorting<Site> sorting, SiteId startAfter) {
         this.siteTypes = siteTypes;
         this.includeEmptySites = includeEmptySites;
+        this.criteria = criteria;
         this.filter = filter;
         this.pagination = pagination;
         this.sorting = sorting;
+        this.startAfter = startAfter;
     }
 
     /**
@@ -80,10 +85,32 @@ public class SiteQuery {
         return includeEmptySites;
     }
 
+    /**
+     * The criteria sites must match. Implementations evaluate criteria where the sites are stored, for example using an
+     * index, before the {@link #getFilter() filter} is applied to the remaining sites in memory.
+     *
+     * @return the criteria, or null to match all sites
+     * @see SiteField
+     */
+    public Criteria<Site> getCriteria() {
+        return criteria;
+    }
+
+    /**
+     * The filter applied in memory to the sites matching the site types and criteria of this query.
+     *
+     * @return the filter, or null
+     */
     public Filter<Site> getFilter() {
         return filter;
     }
 
+    /**
+     * The sorting of the sites, for example <code>Sorting.by(SiteField.DISPLAY_NAME, Order.ascending)</code>.
+     *
+     * @return the sorting, or null if the order of sites is unspecified
+     * @see Sorting#sort(Iterable, Pagination)
+     */
     public Sorting<Site> getSorting() {
         return sorting;
     }
@@ -92,6 +119,17 @@ public class SiteQuery {
         return pagination;
     }
 
+    /**
+     * The site id after which results start, in the order of {@link SiteId#compareTo(SiteId)}. This is used as a keyset
+     * cursor when streaming sites.
+     *
+     * @return the site id to start after, or null to start with the first site
+     * @see org.gatein.api.Portal#streamSites(SiteQuery, int)
+     */
+    public SiteId getStartAfter() {
+        return startAfter;
+    }
+
     /**
      * Convenience method for creating a new SiteQuery with pagination set to the next page represented by by
      * {@link org.gatein.api.common.Pagination#getNext()}
@@ -112,6 +150,36 @@ public class SiteQuery {
         return new Builder().from(this).withPreviousPage().build();
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+
+        SiteQuery query = (SiteQuery) o;
+
+        return eq(siteTypes, query.siteTypes) && includeEmptySites == query.includeEmptySites
+                && eq(criteria, query.criteria) && eq(filter, query.filter) && eq(pagination, query.pagination)
+                && eq(sorting, query.sorting) && eq(startAfter, query.startAfter);
+    }
+
+    private static boolean eq(Object o1, Object o2) {
+        return (o1 == null) ? o2 == null : o1.equals(o2);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = (siteTypes != null ? siteTypes.hashCode() : 0);
+        result = 31 * result + (includeEmptySites ? 1 : 0);
+        result = 31 * result + (criteria != null ? criteria.hashCode() : 0);
+        result = 31 * result + (filter != null ? filter.hashCode() : 0);
+        result = 31 * result + (pagination != null ? pagination.hashCode() : 0);
+        result = 31 * result + (sorting != null ? sorting.hashCode() : 0);
+        result = 31 * result + (startAfter != null ? startAfter.hashCode() : 0);
+        return result;
+    }
+
     /**
      * The builder class responsible for building SiteQuery objects.
      *
@@ -134,9 +202,11 @@ public class SiteQuery {
 
         private EnumSet<SiteType> siteTypes;
         private boolean emptySites;
+        private Criteria<Site> criteria;
         private Filter<Site> filter;
         private Pagination pagination;
         private Sorting<Site> sorting;
+        private SiteId startAfter;
 
         public Builder() {
             pagination = DEFAULT_PAGINATION;
@@ -234,6 +304,17 @@ public class SiteQuery {
             return this;
         }
 
+        /**
+         * Sets the criteria for this builder
+         *
+         * @param criteria the criteria, which are created from the fields of {@link SiteField}
+         * @return this builder
+         */
+        public Builder withCriteria(Criteria<Site> criteria) {
+            this.criteria = criteria;
+            return this;
+        }
+
         /**
          * Sets the filter for this builder
          *
@@ -248,7 +329,7 @@ public class SiteQuery {
         /**
          * Sets the sorting object for this builder
          *
-         * @param sorting the sorting object
+         * @param sorting the sorting object, which is usually created from the fields of {@link SiteField}
          * @return this builder
          */
         public Builder withSorting(Sorting<Site> sorting) {
@@ -256,6 +337,17 @@ public class SiteQuery {
             return this;
         }
 
+        /**
+         * Sets the site id after which results start, in the order of {@link SiteId#compareTo(SiteId)}
+         *
+         * @param startAfter the site id to start after, or null to start with the first site
+         * @return this builder
+         */
+        public Builder withStartAfter(SiteId startAfter) {
+            this.startAfter = startAfter;
+            return this;
+        }
+
         /**
          * Sets the order of the sorting object of this builder to <code>Sorting.Order.ascending</code>
          *
@@ -285,7 +377,7 @@ public class SiteQuery {
             if (siteTypes == null || siteTypes.isEmpty())
                 siteTypes = EnumSet.of(SiteType.SITE);
 
-            return new SiteQuery(siteTypes, emptySites, filter, pagination, sorting);
+            return new SiteQuery(siteTypes, emptySites, criteria, filter, pagination, sorting, startAfter);
         }
 
         /**
@@ -296,7 +388,9 @@ public class SiteQuery {
          */
         public Builder from(SiteQuery query) {
             return new Builder().includeEmptySites(query.isIncludeEmptySites()).withSiteTypes(query.getSiteTypes())
-                    .withFilter(query.getFilter()).withPagination(query.getPagination()).withSorting(query.getSorting());
+                    .withCriteria(query.getCriteria()).withFilter(query.getFilter()).withPagination(query.getPagination())
+                    .withSorting(query.getSorting())
+                    .withStartAfter(query.getStartAfter());
         }
     }
 }
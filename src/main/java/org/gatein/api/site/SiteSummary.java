@@ -0,0 +1,78 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.site;
+
+import org.gatein.api.common.Summary;
+import org.gatein.api.internal.Parameters;
+import org.gatein.api.security.Permission;
+
+/**
+ * An immutable summary of a site, with the id, display name, description and optionally the permissions of the site.
+ * Summaries are returned by projection queries such as
+ * {@link org.gatein.api.Portal#findSiteSummaries(SiteQuery, boolean)}, which do not load the attributes of the site, so they are
+ * much cheaper than {@link Site}'s for pickers and autocomplete.
+ */
+public final class SiteSummary extends Summary<SiteId> {
+    /**
+     * Creates a summary of a site without permissions
+     *
+     * @param id the site id
+     * @param displayName the display name, or null
+     * @param description the description, or null
+     * @throws IllegalArgumentException if id is null
+     */
+    public SiteSummary(SiteId id, String displayName, String description) {
+        super(id, displayName, description, null, null);
+    }
+
+    /**
+     * Creates a summary of a site
+     *
+     * @param id the site id
+     * @param displayName the display name, or null
+     * @param description the description, or null
+     * @param accessPermission the access permission, or null if permissions are not included
+     * @param editPermission the edit permission, or null if permissions are not included
+     * @throws IllegalArgumentException if id is null
+     */
+    public SiteSummary(SiteId id, String displayName, String description, Permission accessPermission, Permission editPermission) {
+        super(id, displayName, description, accessPermission, editPermission);
+    }
+
+    /**
+     * Creates a summary of a site
+     *
+     * @param site the site
+     * @param includePermissions true to include the permissions of the site
+     * @throws IllegalArgumentException if site is null
+     */
+    public SiteSummary(Site site, boolean includePermissions) {
+        super(Parameters.requireNonNull(site, "site").getId(), site.getDisplayName(), site.getDescription(),
+                includePermissions ? site.getAccessPermission() : null, includePermissions ? site.getEditPermission() : null);
+    }
+
+    @Override
+    public SiteId getId() {
+        return super.getId();
+    }
+}
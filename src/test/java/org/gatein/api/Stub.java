@@ -0,0 +1,113 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.gatein.api;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A stub of an interface backed by a dynamic proxy. Methods answer by name, as stubbed with {@link #returns(String, Object)}
+ * or {@link #answers(String, Answer)}, otherwise they are forwarded to the target, if any, or throw
+ * <code>UnsupportedOperationException</code>. Calls are counted by method name, and the arguments of the last call are
+ * kept.
+ */
+public class Stub<T> implements InvocationHandler {
+    public static <T> Stub<T> of(Class<T> type) {
+        return new Stub<T>(type, null);
+    }
+
+    public static <T> Stub<T> of(Class<T> type, T target) {
+        return new Stub<T>(type, target);
+    }
+
+    private final T proxy;
+    private final T target;
+    private final Map<String, Answer> answers = new HashMap<String, Answer>();
+    private final Map<String, Integer> calls = new HashMap<String, Integer>();
+    private final Map<String, Object[]> lastArgs = new HashMap<String, Object[]>();
+
+    private Stub(Class<T> type, T target) {
+        this.proxy = type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, this));
+        this.target = target;
+    }
+
+    public Stub<T> returns(String method, final Object value) {
+        return answers(method, new Answer() {
+            @Override
+            public Object answer(Object[] args) {
+                return value;
+            }
+        });
+    }
+
+    public Stub<T> answers(String method, Answer answer) {
+        answers.put(method, answer);
+        return this;
+    }
+
+    public T get() {
+        return proxy;
+    }
+
+    public int calls(String method) {
+        Integer count = calls.get(method);
+        return (count == null) ? 0 : count;
+    }
+
+    public Object[] lastArgs(String method) {
+        return lastArgs.get(method);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String m = method.getName();
+        args = (args == null) ? new Object[0] : args;
+        calls.put(m, calls(m) + 1);
+        lastArgs.put(m, args);
+
+        Answer answer = answers.get(m);
+        if (answer != null) {
+            return answer.answer(args);
+        } else if (target != null) {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        } else if (m.equals("equals")) {
+            return proxy == args[0];
+        } else if (m.equals("hashCode")) {
+            return System.identityHashCode(proxy);
+        } else if (m.equals("toString")) {
+            return "Stub[" + proxy.getClass().getInterfaces()[0].getSimpleName() + "]";
+        }
+        throw new UnsupportedOperationException(m);
+    }
+
+    public static interface Answer {
+        Object answer(Object[] args) throws Throwable;
+    }
+}
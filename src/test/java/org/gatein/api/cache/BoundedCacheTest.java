@@ -0,0 +1,140 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.gatein.api.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.gatein.api.common.Filter;
+import org.junit.Test;
+
+public class BoundedCacheTest {
+    private long time;
+
+    private final BoundedCache.Ticker ticker = new BoundedCache.Ticker() {
+        @Override
+        public long nanoTime() {
+            return time;
+        }
+    };
+
+    @Test
+    public void lru() {
+        BoundedCache<String, String> cache = cache(3, CachingPortal.Eviction.LRU, 0);
+        put(cache, "a", "b", "c");
+        cache.get("a");
+        put(cache, "d");
+
+        assertEquals(3, cache.size());
+        assertNull(cache.get("b"));
+        assertEquals("a", cache.get("a"));
+        assertEquals("c", cache.get("c"));
+        assertEquals("d", cache.get("d"));
+    }
+
+    @Test
+    public void lfu() {
+        BoundedCache<String, String> cache = cache(3, CachingPortal.Eviction.LFU, 0);
+        put(cache, "a", "b", "c");
+        cache.get("a");
+        cache.get("a");
+        cache.get("b");
+        cache.get("c");
+        cache.get("c");
+        put(cache, "d");
+
+        // b was used least, then d is the only entry used once
+        assertNull(cache.get("b"));
+        put(cache, "e");
+        assertNull(cache.get("d"));
+        assertEquals("a", cache.get("a"));
+        assertEquals("c", cache.get("c"));
+        assertEquals("e", cache.get("e"));
+    }
+
+    @Test
+    public void weight() {
+        BoundedCache<String, String> cache = cache(10, CachingPortal.Eviction.LRU, 0);
+        assertTrue(cache.put("a", "a", 4, cache.generation()));
+        assertTrue(cache.put("b", "b", 4, cache.generation()));
+        assertEquals(8, cache.weight());
+
+        assertTrue(cache.put("c", "c", 4, cache.generation()));
+        assertEquals(8, cache.weight());
+        assertNull(cache.get("a"));
+
+        assertFalse(cache.put("d", "d", 11, cache.generation()));
+        assertTrue(cache.put("b", "b", 1, cache.generation()));
+        assertEquals(5, cache.weight());
+    }
+
+    @Test
+    public void timeToLive() {
+        BoundedCache<String, String> cache = cache(10, CachingPortal.Eviction.LRU, 100);
+        put(cache, "a");
+        time = 99;
+        assertEquals("a", cache.get("a"));
+        time = 100;
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void generation() {
+        BoundedCache<String, String> cache = cache(10, CachingPortal.Eviction.LRU, 0);
+        long generation = cache.generation();
+        cache.remove("a");
+        assertFalse(cache.put("a", "stale", 1, generation));
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    public void removeIf() {
+        BoundedCache<String, String> cache = cache(10, CachingPortal.Eviction.LFU, 0);
+        put(cache, "a", "ab", "b");
+        cache.get("ab");
+
+        int removed = cache.removeIf(new Filter<String>() {
+            @Override
+            public boolean accept(String key) {
+                return key.startsWith("a");
+            }
+        });
+
+        assertEquals(2, removed);
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.weight());
+        assertEquals("b", cache.get("b"));
+    }
+
+    private BoundedCache<String, String> cache(long maximumWeight, CachingPortal.Eviction eviction, long timeToLive) {
+        return new BoundedCache<String, String>(maximumWeight, eviction, timeToLive, ticker);
+    }
+
+    private static void put(BoundedCache<String, String> cache, String... keys) {
+        for (String key : keys) {
+            cache.put(key, key, 1, cache.generation());
+        }
+    }
+}
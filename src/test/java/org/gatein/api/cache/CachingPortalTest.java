@@ -0,0 +1,300 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.gatein.api.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.gatein.api.Portal;
+import org.gatein.api.Stub;
+import org.gatein.api.common.BatchResult;
+import org.gatein.api.memory.InMemoryPortal;
+import org.gatein.api.navigation.Navigation;
+import org.gatein.api.navigation.Node;
+import org.gatein.api.navigation.Nodes;
+import org.gatein.api.page.Page;
+import org.gatein.api.page.PageId;
+import org.gatein.api.page.PageQuery;
+import org.gatein.api.security.Membership;
+import org.gatein.api.security.Permission;
+import org.gatein.api.security.User;
+import org.gatein.api.site.Site;
+import org.gatein.api.site.SiteId;
+import org.gatein.api.site.SiteQuery;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CachingPortalTest {
+    private static final CachingPortal.Copier COPIER = new CachingPortal.Copier() {
+        @Override
+        public Site copy(Site site) {
+            return InMemoryPortal.copyOf(site);
+        }
+
+        @Override
+        public Page copy(Page page) {
+            return InMemoryPortal.copyOf(page);
+        }
+    };
+
+    private InMemoryPortal memory;
+    private Stub<Portal> delegate;
+    private long time;
+    private CachingPortal portal;
+
+    @Before
+    public void before() {
+        memory = new InMemoryPortal();
+        Site site = memory.createSite(new SiteId("classic"));
+        site.setDisplayName("classic");
+        memory.saveSite(site);
+        memory.saveSite(memory.createSite(new SiteId("other")));
+        memory.savePage(memory.createPage(new PageId("classic", "home")));
+        memory.savePage(memory.createPage(new PageId("other", "home")));
+        memory.addMembership(new User("john"), Membership.any("platform", "users"));
+
+        delegate = Stub.of(Portal.class, (Portal) memory);
+        portal = new CachingPortal.Builder(delegate.get()).withCopier(COPIER).withTicker(new BoundedCache.Ticker() {
+            @Override
+            public long nanoTime() {
+                return time;
+            }
+        }).withTimeToLive(1, TimeUnit.SECONDS).build();
+    }
+
+    @Test
+    public void getSite() {
+        Site site = portal.getSite(new SiteId("classic"));
+        site.setDisplayName("Changed");
+
+        Site cached = portal.getSite(new SiteId("classic"));
+        assertEquals(1, calls("getSite"));
+        assertNotSame(site, cached);
+        assertEquals("classic", cached.getDisplayName());
+
+        assertNull(portal.getSite(new SiteId("foo")));
+        assertNull(portal.getSite(new SiteId("foo")));
+        assertEquals(2, calls("getSite"));
+    }
+
+    @Test
+    public void getSite_NotCopied() {
+        portal = new CachingPortal.Builder(delegate.get()).build();
+
+        Site site = portal.getSite(new SiteId("classic"));
+        assertSame(site, portal.getSite(new SiteId("classic")));
+        assertEquals(1, calls("getSite"));
+    }
+
+    @Test
+    public void saveSite() {
+        portal.getSite(new SiteId("classic"));
+        portal.findSites(new SiteQuery.Builder().build());
+        portal.findPages(new PageQuery.Builder().build());
+
+        portal.saveSite(portal.getSite(new SiteId("classic")));
+        portal.getSite(new SiteId("classic"));
+        portal.findSites(new SiteQuery.Builder().build());
+        portal.findPages(new PageQuery.Builder().build());
+
+        assertEquals(2, calls("getSite"));
+        assertEquals(2, calls("findSites"));
+        assertEquals(1, calls("findPages"));
+    }
+
+    @Test
+    public void removeSite() {
+        portal.getPage(new PageId("classic", "home"));
+        portal.getPage(new PageId("other", "home"));
+
+        portal.removeSite(new SiteId("classic"));
+        portal.getPage(new PageId("classic", "home"));
+        portal.getPage(new PageId("other", "home"));
+
+        assertEquals(3, calls("getPage"));
+    }
+
+    @Test
+    public void savePage() {
+        PageQuery classic = new PageQuery.Builder().withSiteId(new SiteId("classic")).build();
+        PageQuery other = new PageQuery.Builder().withSiteId(new SiteId("other")).build();
+        portal.getPage(new PageId("classic", "home"));
+        portal.findPages(classic);
+        portal.findPages(other);
+
+        portal.savePage(memory.getPage(new PageId("classic", "home")));
+        portal.getPage(new PageId("classic", "home"));
+        portal.findPages(classic);
+        portal.findPages(other);
+
+        assertEquals(2, calls("getPage"));
+        assertEquals(3, calls("findPages"));
+    }
+
+    @Test
+    public void savePages() {
+        PageQuery classic = new PageQuery.Builder().withSiteId(new SiteId("classic")).build();
+        PageQuery other = new PageQuery.Builder().withSiteId(new SiteId("other")).build();
+        portal.getPage(new PageId("classic", "home"));
+        portal.getSite(new SiteId("classic"));
+        portal.findPages(classic);
+        portal.findPages(other);
+
+        portal.savePages(Arrays.asList(memory.getPage(new PageId("classic", "home"))), BatchResult.DEFAULT_CHUNK_SIZE);
+        portal.getPage(new PageId("classic", "home"));
+        portal.getSite(new SiteId("classic"));
+        portal.findPages(classic);
+        portal.findPages(other);
+
+        assertEquals(1, calls("savePages"));
+        assertEquals(2, calls("getPage"));
+        assertEquals(1, calls("getSite"));
+        assertEquals(3, calls("findPages"));
+    }
+
+    @Test
+    public void removeSites() {
+        portal.getSite(new SiteId("classic"));
+        portal.getPage(new PageId("classic", "home"));
+        portal.getPage(new PageId("other", "home"));
+
+        portal.removeSites(Arrays.asList(new SiteId("classic"), new SiteId("foo")), BatchResult.DEFAULT_CHUNK_SIZE);
+        portal.getSite(new SiteId("classic"));
+        portal.getPage(new PageId("classic", "home"));
+        portal.getPage(new PageId("other", "home"));
+
+        assertEquals(2, calls("getSite"));
+        assertEquals(3, calls("getPage"));
+    }
+
+    @Test
+    public void getSites() {
+        portal.getSite(new SiteId("classic"));
+
+        Map<SiteId, Site> result = portal.getSites(Arrays.asList(new SiteId("classic"), new SiteId("foo")));
+        assertEquals(Collections.singleton(new SiteId("classic")), result.keySet());
+        assertEquals(Collections.singletonList(new SiteId("foo")), delegate.lastArgs("getSites")[0]);
+
+        portal.getSites(Arrays.asList(new SiteId("classic"), new SiteId("foo")));
+        assertEquals(1, calls("getSites"));
+    }
+
+    @Test
+    public void withCopier() {
+        final List<Object> copied = new ArrayList<Object>();
+        portal = new CachingPortal.Builder(delegate.get()).withCopier(new CachingPortal.Copier() {
+            @Override
+            public Site copy(Site site) {
+                copied.add(site.getId());
+                return site;
+            }
+
+            @Override
+            public Page copy(Page page) {
+                copied.add(page.getId());
+                return page;
+            }
+        }).build();
+
+        Page page = portal.getPage(new PageId("classic", "home"));
+        assertSame(page, portal.getPage(new PageId("classic", "home")));
+        portal.findPages(new PageQuery.Builder().build());
+        assertEquals(1, calls("getPage"));
+        assertEquals(Arrays.asList(new PageId("classic", "home"), new PageId("classic", "home"),
+                new PageId("classic", "home"), new PageId("other", "home")), copied);
+    }
+
+    @Test
+    public void navigation() {
+        Navigation navigation = portal.getNavigation(new SiteId("classic"));
+        assertTrue(navigation == portal.getNavigation(new SiteId("classic")));
+        assertEquals(1, calls("getNavigation"));
+
+        Node root = memory.getNavigation(new SiteId("classic")).getRootNode(Nodes.visitChildren());
+        root.addChild("foo");
+        memory.getNavigation(new SiteId("classic")).saveNode(root);
+        portal.getNavigation(new SiteId("classic"));
+        assertEquals(2, calls("getNavigation"));
+
+        portal.close();
+        assertEquals(1, calls("removeNavigationListener"));
+    }
+
+    @Test
+    public void navigation_SitesInvalidated() {
+        SiteQuery query = new SiteQuery.Builder().build();
+        assertEquals(0, portal.findSites(query).size());
+
+        Node root = memory.getNavigation(new SiteId("classic")).getRootNode(Nodes.visitChildren());
+        root.addChild("home");
+        memory.getNavigation(new SiteId("classic")).saveNode(root);
+
+        assertEquals(1, portal.findSites(query).size());
+        assertEquals(2, calls("findSites"));
+    }
+
+    @Test
+    public void hasPermission() {
+        Permission users = Permission.any("platform", "users");
+        assertTrue(portal.hasPermission(new User("john"), users));
+        assertTrue(portal.hasPermission(new User("john"), users));
+        assertFalse(portal.hasPermission(new User("mary"), users));
+        assertEquals(2, calls("hasPermission"));
+
+        time = TimeUnit.SECONDS.toNanos(1);
+        portal.hasPermission(new User("john"), users);
+        assertEquals(3, calls("hasPermission"));
+    }
+
+    @Test
+    public void hasPermissions() {
+        assertTrue(portal.hasPermission(new User("john"), Permission.everyone()));
+
+        BitSet result = portal.hasPermissions(new User("john"), Arrays.asList(Permission.any("platform", "users"),
+                Permission.everyone()));
+        assertEquals(2, result.cardinality());
+        assertEquals(Collections.singletonList(Permission.any("platform", "users")),
+                delegate.lastArgs("hasPermissions")[1]);
+
+        result = portal.hasPermissions(new User("mary"), Arrays.asList(Permission.any("platform", "users")));
+        assertFalse(result.get(0));
+        portal.hasPermissions(new User("john"),
+                Arrays.asList(Permission.any("platform", "users"), Permission.everyone()));
+        assertEquals(2, calls("hasPermissions"));
+    }
+
+    private int calls(String method) {
+        return delegate.calls(method);
+    }
+}
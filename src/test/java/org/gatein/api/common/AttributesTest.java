@@ -150,5 +150,24 @@ public class AttributesTest {
         assertFalse(attributes.containsKey(Attributes.key("my.prop", Integer.class)));
     }
 
+    @Test
+    public void modified() {
+        assertFalse(attributes.isModified());
+        attributes.put("my.prop", "string");
+        assertTrue(attributes.isModified());
+
+        attributes.resetModified();
+        attributes.put("my.prop", "string");
+        attributes.remove("other.prop");
+        assertFalse(attributes.isModified());
 
+        attributes.put(Attributes.key("my.prop", String.class), "other");
+        assertTrue(attributes.isModified());
+
+        attributes.resetModified();
+        attributes.remove("my.prop");
+        assertTrue(attributes.isModified());
+
+        assertFalse(new Attributes(attributes).isModified());
+    }
 }
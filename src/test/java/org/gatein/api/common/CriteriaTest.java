@@ -0,0 +1,160 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.gatein.api.Stub;
+import org.gatein.api.security.Membership;
+import org.gatein.api.security.Permission;
+import org.gatein.api.site.Site;
+import org.gatein.api.site.SiteField;
+import org.gatein.api.site.SiteId;
+import org.gatein.api.site.SiteType;
+import org.junit.Test;
+
+public class CriteriaTest {
+    private static final Field.StringField<String> VALUE = new Field.StringField<String>("value") {
+        @Override
+        public String getValue(String element) {
+            return element;
+        }
+    };
+
+    private static final Field<String, Integer> LENGTH = new Field<String, Integer>("length") {
+        @Override
+        public Integer getValue(String element) {
+            return element.length();
+        }
+    };
+
+    private static final Field.CollectionField<String, Character> CHARACTERS = new Field.CollectionField<String, Character>(
+            "characters") {
+        @Override
+        public Collection<Character> getValue(String element) {
+            List<Character> list = new ArrayList<Character>();
+            for (char c : element.toCharArray()) {
+                list.add(c);
+            }
+            return list;
+        }
+    };
+
+    @Test
+    public void conditions() {
+        assertTrue(VALUE.equalTo("foo").accept("foo"));
+        assertFalse(VALUE.equalTo("foo").accept("bar"));
+        assertTrue(VALUE.startsWith("fo").accept("foo"));
+        assertFalse(VALUE.startsWith("fo").accept("bar"));
+        assertTrue(LENGTH.in(Arrays.asList(1, 3)).accept("foo"));
+        assertFalse(LENGTH.in(Arrays.asList(1, 2)).accept("foo"));
+        assertTrue(CHARACTERS.contains('o').accept("foo"));
+        assertFalse(CHARACTERS.contains('a').accept("foo"));
+    }
+
+    @Test
+    public void combined() {
+        Criteria<String> criteria = VALUE.startsWith("f").and(LENGTH.equalTo(3).or(CHARACTERS.contains('x')));
+        assertTrue(criteria.accept("foo"));
+        assertTrue(criteria.accept("fx"));
+        assertFalse(criteria.accept("fo"));
+        assertFalse(criteria.accept("bar"));
+
+        assertTrue(criteria.negate().accept("bar"));
+        assertSame(criteria, criteria.negate().negate());
+
+        List<Criteria<String>> list = new ArrayList<Criteria<String>>();
+        list.add(VALUE.startsWith("f"));
+        list.add(LENGTH.equalTo(2));
+        assertTrue(Criteria.all(list).accept("fo"));
+        assertFalse(Criteria.all(list).accept("foo"));
+        assertTrue(Criteria.any(list).accept("foo"));
+        assertFalse(Criteria.any(list).accept("bar"));
+    }
+
+    @Test
+    public void visit() {
+        Criteria<String> criteria = VALUE.startsWith("f").and(LENGTH.in(Arrays.asList(1, 3)).or(VALUE.equalTo("x").negate()));
+        assertEquals("(value STARTS_WITH f AND (length IN [1, 3] OR NOT value EQUAL x))", criteria.visit(new Printer()));
+    }
+
+    @Test
+    public void siteFields() {
+        Site site = site(new SiteId(SiteType.SPACE, "/platform/users"), Permission.any("platform", "users"));
+
+        assertTrue(SiteField.TYPE.equalTo(SiteType.SPACE).accept(site));
+        assertTrue(SiteField.NAME.startsWith("/platform").accept(site));
+        assertTrue(SiteField.ACCESS_PERMISSION.contains(Membership.any("platform", "users")).accept(site));
+        assertFalse(SiteField.ACCESS_PERMISSION.contains(Membership.any("platform", "administrators")).accept(site));
+        assertTrue(SiteField.ATTRIBUTE_KEYS.contains("key").accept(site));
+        assertEquals(SiteField.NAME, SiteField.NAME);
+        assertFalse(SiteField.NAME.equals(SiteField.DISPLAY_NAME));
+    }
+
+    private static Site site(SiteId id, Permission access) {
+        Attributes attributes = new Attributes();
+        attributes.put("key", "value");
+        return Stub.of(Site.class).returns("getType", id.getType()).returns("getName", id.getName())
+                .returns("getAccessPermission", access).returns("getAttributes", attributes).get();
+    }
+
+    private static class Printer implements Criteria.Visitor<String, String> {
+        @Override
+        public String visitAnd(List<Criteria<String>> criteria) {
+            return join(criteria, " AND ");
+        }
+
+        @Override
+        public String visitOr(List<Criteria<String>> criteria) {
+            return join(criteria, " OR ");
+        }
+
+        @Override
+        public String visitNot(Criteria<String> criteria) {
+            return "NOT " + criteria.visit(this);
+        }
+
+        @Override
+        public String visitCondition(Criteria.Condition<String, ?> condition) {
+            return condition.getField().getName() + " " + condition.getOperator() + " " + condition.getOperand();
+        }
+
+        private String join(List<Criteria<String>> criteria, String separator) {
+            StringBuilder sb = new StringBuilder("(");
+            for (int i = 0; i < criteria.size(); i++) {
+                if (i > 0)
+                    sb.append(separator);
+                sb.append(criteria.get(i).visit(this));
+            }
+            return sb.append(")").toString();
+        }
+    }
+}
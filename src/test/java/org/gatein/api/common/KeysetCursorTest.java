@@ -0,0 +1,133 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.junit.Test;
+
+public class KeysetCursorTest {
+
+    @Test
+    public void iterate() {
+        Numbers cursor = new Numbers(10, null, 3);
+
+        assertEquals(range(0, 10), drain(cursor));
+        assertEquals(4, cursor.fetches);
+        assertEquals(8, (int) cursor.lastAfter);
+    }
+
+    @Test
+    public void exactBatches() {
+        Numbers cursor = new Numbers(9, null, 3);
+
+        assertEquals(range(0, 9), drain(cursor));
+        assertEquals(4, cursor.fetches);
+    }
+
+    @Test
+    public void startAfter() {
+        assertEquals(range(5, 10), drain(new Numbers(10, 4, 2)));
+    }
+
+    @Test
+    public void empty() {
+        Numbers cursor = new Numbers(0, null, 5);
+        assertFalse(cursor.hasNext());
+        assertFalse(cursor.hasNext());
+        assertEquals(1, cursor.fetches);
+    }
+
+    @Test
+    public void close() {
+        Numbers cursor = new Numbers(10, null, 3);
+        assertTrue(cursor.hasNext());
+        cursor.next();
+
+        cursor.close();
+        assertFalse(cursor.hasNext());
+        assertEquals(1, cursor.fetches);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void next_Exhausted() {
+        Numbers cursor = new Numbers(1, null, 3);
+        cursor.next();
+        cursor.next();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidFetchSize() {
+        new Numbers(1, null, 0);
+    }
+
+    private static List<Integer> range(int from, int to) {
+        List<Integer> list = new ArrayList<Integer>();
+        for (int i = from; i < to; i++) {
+            list.add(i);
+        }
+        return list;
+    }
+
+    private static List<Integer> drain(Cursor<Integer> cursor) {
+        List<Integer> list = new ArrayList<Integer>();
+        try {
+            while (cursor.hasNext()) {
+                list.add(cursor.next());
+            }
+        } finally {
+            cursor.close();
+        }
+        return list;
+    }
+
+    private static class Numbers extends KeysetCursor<Integer, Integer> {
+        private final int count;
+        private int fetches;
+        private Integer lastAfter;
+
+        Numbers(int count, Integer startAfter, int fetchSize) {
+            super(startAfter, fetchSize);
+            this.count = count;
+        }
+
+        @Override
+        protected List<Integer> fetch(Integer after, int limit) {
+            fetches++;
+            lastAfter = after;
+            int from = (after == null) ? 0 : after + 1;
+            return range(from, Math.min(count, from + limit));
+        }
+
+        @Override
+        protected Integer getKey(Integer result) {
+            return result;
+        }
+    }
+}
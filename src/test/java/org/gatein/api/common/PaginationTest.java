@@ -0,0 +1,56 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class PaginationTest {
+
+    @Test
+    public void getPageCount() {
+        Pagination pagination = new Pagination(0, 15);
+        assertEquals(1, pagination.getPageCount(0));
+        assertEquals(1, pagination.getPageCount(1));
+        assertEquals(1, pagination.getPageCount(15));
+        assertEquals(2, pagination.getPageCount(16));
+        assertEquals(143165577, pagination.getPageCount(Integer.MAX_VALUE));
+        assertEquals(1, new Pagination(0, -1).getPageCount(100));
+    }
+
+    @Test
+    public void hasNext() {
+        assertTrue(new Pagination(0, 15).hasNext(16));
+        assertFalse(new Pagination(0, 15).hasNext(15));
+        assertFalse(new Pagination(15, 15).hasNext(30));
+        assertTrue(new Pagination(15, 15).hasNext(31));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void getPageCount_Negative() {
+        new Pagination(0, 15).getPageCount(-1);
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.gatein.api.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.gatein.api.common.Sorting.Order;
+import org.junit.Test;
+
+public class SortingTest {
+    private static final Field<String, Integer> LENGTH = new Field<String, Integer>("length") {
+        @Override
+        public Integer getValue(String element) {
+            return element.length();
+        }
+    };
+
+    private static final Field<String, String> VALUE = new Field<String, String>("value") {
+        @Override
+        public String getValue(String element) {
+            return element;
+        }
+    };
+
+    private static final Field<String, Character> FIRST = new Field<String, Character>("first") {
+        @Override
+        public Character getValue(String element) {
+            return element.isEmpty() ? null : element.charAt(0);
+        }
+    };
+
+    @Test
+    public void keys() {
+        Sorting<String> sorting = Sorting.by(LENGTH, Order.descending).thenBy(VALUE, Order.ascending);
+
+        assertEquals(2, sorting.getKeys().size());
+        assertEquals(Arrays.asList("ccc", "aa", "bb", "a"), sorting.sort(Arrays.asList("a", "bb", "ccc", "aa"), null));
+    }
+
+    @Test
+    public void keys_NullFirst() {
+        Sorting<String> sorting = Sorting.by(FIRST, Order.ascending);
+        assertEquals(Arrays.asList("", "a", "b"), sorting.sort(Arrays.asList("b", "", "a"), null));
+
+        sorting = Sorting.by(FIRST, Order.descending);
+        assertEquals(Arrays.asList("b", "a", ""), sorting.sort(Arrays.asList("b", "", "a"), null));
+    }
+
+    @Test
+    public void order() {
+        List<String> list = Arrays.asList("b", "c", "a");
+        assertEquals(Arrays.asList("a", "b", "c"), new Sorting<String>(Order.ascending).sort(list, null));
+        assertEquals(Arrays.asList("c", "b", "a"), new Sorting<String>(Order.descending).sort(list, null));
+        assertTrue(new Sorting<String>(Order.ascending).getKeys().isEmpty());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void thenBy_NoKeys() {
+        new Sorting<String>(Order.ascending).thenBy(VALUE, Order.ascending);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void keys_Empty() {
+        new Sorting<String>(Collections.<Sorting.Key<String>> emptyList());
+    }
+
+    @Test
+    public void sort_Pagination() {
+        Sorting<String> sorting = Sorting.by(VALUE, Order.ascending);
+        List<String> list = Arrays.asList("e", "b", "d", "a", "c");
+
+        assertEquals(Arrays.asList("a", "b"), sorting.sort(list, new Pagination(0, 2)));
+        assertEquals(Arrays.asList("c", "d"), sorting.sort(list, new Pagination(2, 2)));
+        assertEquals(Arrays.asList("e"), sorting.sort(list, new Pagination(4, 2)));
+        assertEquals(Collections.emptyList(), sorting.sort(list, new Pagination(6, 2)));
+        assertEquals(Arrays.asList("c", "d", "e"), sorting.sort(list, new Pagination(2, -1)));
+    }
+
+    @Test
+    public void sort_SameAsFullSort() {
+        Random random = new Random(42);
+        List<String> list = new ArrayList<String>();
+        for (int i = 0; i < 1000; i++) {
+            list.add(Integer.toString(random.nextInt(100), 36) + "-" + i);
+        }
+
+        // Sorting by the first character only has many ties, which must keep their order as with a stable sort
+        Sorting<String> sorting = Sorting.by(FIRST, Order.ascending);
+        List<String> sorted = new ArrayList<String>(list);
+        Collections.sort(sorted, sorting.asComparator());
+
+        for (int offset : new int[] { 0, 15, 990, 1000 }) {
+            int to = Math.min(offset + 15, sorted.size());
+            assertEquals(sorted.subList(offset, to), sorting.sort(list, new Pagination(offset, 15)));
+        }
+        assertEquals(sorted, sorting.sort(list, new Pagination(0, Integer.MAX_VALUE)));
+    }
+}
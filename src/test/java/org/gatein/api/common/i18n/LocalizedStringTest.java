@@ -109,4 +109,24 @@ public class LocalizedStringTest {
         assertFalse(localizedString.isLocalized());
         assertEquals("non localized", localizedString.getValue());
     }
+
+    @Test
+    public void testModified() {
+        LocalizedString localizedString = new LocalizedString("simple");
+        assertFalse(localizedString.isModified());
+        localizedString.setValue("simple");
+        assertFalse(localizedString.isModified());
+        localizedString.setValue("other");
+        assertTrue(localizedString.isModified());
+
+        localizedString.resetModified();
+        localizedString.setLocalizedValue(Locale.ENGLISH, "Hello");
+        assertTrue(localizedString.isModified());
+
+        localizedString.resetModified();
+        localizedString.setLocalizedValue(Locale.ENGLISH, "Hello");
+        localizedString.removeLocalizedValue(Locale.FRENCH);
+        assertFalse(localizedString.isModified());
+        assertFalse(new LocalizedString(localizedString).isModified());
+    }
 }
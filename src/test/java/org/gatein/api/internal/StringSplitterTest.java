@@ -0,0 +1,77 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.internal;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class StringSplitterTest {
+    private static final String[] STRINGS = { "", "/", "//", "a", " a ", "/a", "a/", "/a/", "//a//", "a/b", "a//b", "/a/b/c",
+            " / a / ", "a/ /b", "a/b/ ", " ", "/ ", "a/b//", "a:b:c" };
+
+    private static final int[] LIMITS = { -1, 0, 1, 2, 3, 10 };
+
+    @Test
+    public void split() {
+        assertArrayEquals(new String[] { "", "a", "b" }, StringSplitter.splitter("/").split("/a/b/"));
+        assertArrayEquals(new String[] { "a", "b" }, StringSplitter.splitter("/").trim().ignoreEmptyStrings().split(" /a/ b/ "));
+        assertArrayEquals(new String[] { "a", "b/c" }, StringSplitter.splitter("/").limit(2).split("a/b/c"));
+        assertArrayEquals(new String[] { "" }, StringSplitter.splitter("/").split(""));
+        assertArrayEquals(new String[] {}, StringSplitter.splitter("/").split("//"));
+    }
+
+    @Test
+    public void sameAsRegex() {
+        // A character class is not a literal, so is split by the regex as before
+        assertSame("/", "[/]");
+        assertSame(":", "[:]");
+        assertSame("\\.", "[.]");
+    }
+
+    private static void assertSame(String separator, String regex) {
+        for (int limit : LIMITS) {
+            for (int options = 0; options < 4; options++) {
+                StringSplitter fast = options(StringSplitter.splitter(separator).limit(limit), options);
+                StringSplitter expected = options(StringSplitter.splitter(regex).limit(limit), options);
+
+                for (String string : STRINGS) {
+                    string = string.replace("/", separator.substring(separator.length() - 1));
+                    String message = "'" + string + "' limit " + limit + " options " + options + " expected "
+                            + Arrays.toString(expected.split(string)) + " was " + Arrays.toString(fast.split(string));
+                    assertArrayEquals(message, expected.split(string), fast.split(string));
+                }
+            }
+        }
+    }
+
+    private static StringSplitter options(StringSplitter splitter, int options) {
+        if ((options & 1) != 0)
+            splitter = splitter.trim();
+        if ((options & 2) != 0)
+            splitter = splitter.ignoreEmptyStrings();
+        return splitter;
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.gatein.api.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.gatein.api.ApiException;
+import org.gatein.api.EntityAlreadyExistsException;
+import org.gatein.api.EntityNotFoundException;
+import org.gatein.api.navigation.Navigation;
+import org.gatein.api.navigation.NavigationEvent;
+import org.gatein.api.navigation.NavigationListener;
+import org.gatein.api.navigation.Node;
+import org.gatein.api.navigation.NodePath;
+import org.gatein.api.navigation.NodeVisitor;
+import org.gatein.api.navigation.Nodes;
+import org.gatein.api.page.PageId;
+import org.gatein.api.site.SiteId;
+import org.junit.Before;
+import org.junit.Test;
+
+public class InMemoryNavigationTest {
+
+    private InMemoryPortal portal;
+    private Navigation navigation;
+    private List<NavigationEvent> events;
+
+    @Before
+    public void before() {
+        portal = new InMemoryPortal();
+        portal.saveSite(portal.createSite(new SiteId("classic")));
+        navigation = portal.getNavigation(new SiteId("classic"));
+
+        events = new ArrayList<NavigationEvent>();
+        portal.addNavigationListener(new NavigationListener() {
+            @Override
+            public void onEvents(List<NavigationEvent> batch) {
+                events.addAll(batch);
+            }
+        });
+
+        Node root = navigation.getRootNode(Nodes.visitAll());
+        Node home = root.addChild("home");
+        home.setPageId(new PageId("classic", "homepage"));
+        home.addChild("news");
+        root.addChild("about").setVisibility(false);
+        navigation.saveNode(root);
+        events.clear();
+    }
+
+    @Test
+    public void load() {
+        Node root = navigation.getRootNode(Nodes.visitChildren());
+        assertEquals(2, root.getChildCount());
+        assertEquals("home", root.getChild(0).getName());
+        assertFalse(root.getChild("home").isChildrenLoaded());
+        assertEquals(new PageId("classic", "homepage"), root.getChild("home").getPageId());
+        assertFalse(root.getChild("about").isVisible());
+
+        Node news = navigation.getNode(NodePath.path("home", "news"));
+        assertEquals(NodePath.path("home", "news"), news.getNodePath());
+        assertNull(navigation.getNode(NodePath.path("home", "foo")));
+
+        Map<NodePath, NodeVisitor> visitors = new LinkedHashMap<NodePath, NodeVisitor>();
+        visitors.put(NodePath.path("home"), Nodes.visitChildren());
+        visitors.put(NodePath.path("foo"), Nodes.visitChildren());
+        Map<NodePath, Node> nodes = navigation.getNodes(visitors);
+        assertEquals(1, nodes.size());
+        assertEquals(1, nodes.get(NodePath.path("home")).getChildCount());
+    }
+
+    @Test
+    public void save() {
+        Node root = navigation.getRootNode(Nodes.visitAll());
+        root.getChild("home").setName("start");
+        root.getChild("about").moveTo(0);
+        root.getNode("start", "news").getAttributes().put("key", "value");
+        root.removeChild("start");
+        root.addChild("contact");
+        navigation.saveNode(root);
+
+        Node loaded = navigation.getRootNode(Nodes.visitAll());
+        assertEquals(2, loaded.getChildCount());
+        assertEquals("about", loaded.getChild(0).getName());
+        assertEquals("contact", loaded.getChild(1).getName());
+
+        assertEquals(3, events.size());
+        assertEquals(NavigationEvent.Type.NODE_MOVED, events.get(0).getType());
+        assertEquals(NavigationEvent.Type.NODE_REMOVED, events.get(1).getType());
+        assertEquals(NodePath.path("home"), events.get(1).getNodePath());
+    }
+
+    @Test
+    public void save_MovedOutOfRemoved() {
+        Node root = navigation.getRootNode(Nodes.visitAll());
+        root.getNode("home", "news").moveTo(0, root);
+        root.removeChild("home");
+        navigation.saveNode(root);
+
+        Node loaded = navigation.getRootNode(Nodes.visitAll());
+        assertEquals(2, loaded.getChildCount());
+        assertEquals("news", loaded.getChild(0).getName());
+        assertEquals("about", loaded.getChild(1).getName());
+    }
+
+    @Test
+    public void save_NamesSwapped() {
+        Node root = navigation.getRootNode(Nodes.visitAll());
+        root.getChild("home").setName("tmp");
+        root.getChild("about").setName("home");
+        root.getChild("tmp").setName("about");
+        navigation.saveNode(root);
+
+        Node loaded = navigation.getRootNode(Nodes.visitAll());
+        assertEquals("about", loaded.getChild(0).getName());
+        assertEquals(new PageId("classic", "homepage"), loaded.getChild("about").getPageId());
+        assertNotNull(loaded.getNode("about", "news"));
+        assertEquals("home", loaded.getChild(1).getName());
+        assertFalse(loaded.getChild("home").isVisible());
+    }
+
+    @Test
+    public void save_RenamedThenNameReused() {
+        Node root = navigation.getRootNode(Nodes.visitAll());
+        root.getChild("home").setName("start");
+        root.addChild("home").setIconName("house");
+        root.getChild("about").setName("contact");
+        root.getChild("contact").moveTo(0);
+        navigation.saveNode(root);
+
+        Node loaded = navigation.getRootNode(Nodes.visitAll());
+        assertEquals(3, loaded.getChildCount());
+        assertEquals("contact", loaded.getChild(0).getName());
+        assertEquals("start", loaded.getChild(1).getName());
+        assertEquals("home", loaded.getChild(2).getName());
+        assertNotNull(loaded.getNode("start", "news"));
+        assertEquals("house", loaded.getChild("home").getIconName());
+        assertEquals(new PageId("classic", "homepage"), loaded.getChild("start").getPageId());
+    }
+
+    @Test
+    public void save_Concurrent() {
+        Node first = navigation.getRootNode(Nodes.visitAll());
+        Node second = navigation.getRootNode(Nodes.visitAll());
+
+        first.addChild("contact");
+        first.getChild("home").setIconName("house");
+        navigation.saveNode(first);
+
+        second.addChild(0, "blog");
+        second.getNode("home", "news").setIconName("paper");
+        navigation.saveNode(second);
+
+        Node loaded = navigation.getRootNode(Nodes.visitAll());
+        assertEquals("blog", loaded.getChild(0).getName());
+        assertEquals("contact", loaded.getChild(3).getName());
+        assertEquals("house", loaded.getChild("home").getIconName());
+        assertEquals("paper", loaded.getNode("home", "news").getIconName());
+    }
+
+    @Test
+    public void save_Conflict() {
+        Node first = navigation.getRootNode(Nodes.visitAll());
+        Node second = navigation.getRootNode(Nodes.visitAll());
+
+        first.addChild("contact");
+        navigation.saveNode(first);
+
+        second.getChild("about").setIconName("info");
+        second.addChild("contact");
+        try {
+            navigation.saveNode(second);
+            fail("Expected ApiException");
+        } catch (ApiException e) {
+        }
+
+        Node loaded = navigation.getRootNode(Nodes.visitAll());
+        assertEquals(3, loaded.getChildCount());
+        assertNull(loaded.getChild("about").getIconName());
+    }
+
+    @Test(expected = EntityAlreadyExistsException.class)
+    public void addChild_Exists() {
+        navigation.getRootNode(Nodes.visitChildren()).addChild("home");
+    }
+
+    @Test
+    public void refresh() {
+        Node root = navigation.getRootNode(Nodes.visitChildren());
+        Node home = root.getChild("home");
+        assertFalse(navigation.refreshNodeIfModified(root, Nodes.visitChildren()));
+
+        Node other = navigation.getRootNode(Nodes.visitChildren());
+        other.addChild("contact");
+        navigation.saveNode(other);
+
+        assertTrue(navigation.refreshNodeIfModified(root, Nodes.visitChildren()));
+        assertEquals(3, root.getChildCount());
+        assertTrue(home == root.getChild("home"));
+        assertEquals(root.getSubtreeVersion(), navigation.getRootNode(Nodes.visitNone()).getSubtreeVersion());
+
+        root.addChild("blog");
+        try {
+            navigation.refreshNode(root);
+            fail("Expected ApiException");
+        } catch (ApiException e) {
+        }
+    }
+
+    @Test
+    public void refresh_SavedByOther() {
+        Node root = navigation.getRootNode(Nodes.visitAll());
+        Node other = navigation.getRootNode(Nodes.visitAll());
+        other.getChild("about").setIconName("info");
+        navigation.saveNode(other);
+
+        root.getChild("home").setIconName("house");
+        navigation.saveNode(root);
+
+        assertTrue(navigation.refreshNodeIfModified(root, Nodes.visitAll()));
+        assertEquals("info", root.getChild("about").getIconName());
+        assertEquals("house", root.getChild("home").getIconName());
+        assertFalse(navigation.refreshNodeIfModified(root, Nodes.visitAll()));
+
+        assertTrue(navigation.refreshNodeIfModified(other, Nodes.visitAll()));
+        assertEquals("house", other.getChild("home").getIconName());
+    }
+
+    @Test
+    public void removeNode() {
+        assertTrue(navigation.removeNode(NodePath.path("home")));
+        assertNull(navigation.getNode(NodePath.path("home")));
+        assertFalse(navigation.removeNode(NodePath.root()));
+        assertEquals(1, events.size());
+
+        try {
+            navigation.removeNode(NodePath.path("home"));
+            fail("Expected EntityNotFoundException");
+        } catch (EntityNotFoundException e) {
+        }
+    }
+
+    @Test
+    public void filter() {
+        Node root = navigation.getRootNode(Nodes.visitChildren());
+        Node filtered = root.filter().showVisible();
+
+        assertEquals(1, filtered.getChildCount());
+        assertNotNull(filtered.getChild("home"));
+        assertNull(filtered.getChild("about"));
+
+        filtered.addChild("contact");
+        navigation.saveNode(filtered);
+        assertNotNull(navigation.getNode(NodePath.path("contact")));
+    }
+}
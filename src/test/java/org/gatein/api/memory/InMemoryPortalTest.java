@@ -0,0 +1,358 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.gatein.api.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.gatein.api.EntityAlreadyExistsException;
+import org.gatein.api.EntityNotFoundException;
+import org.gatein.api.application.ApplicationType;
+import org.gatein.api.common.BatchResult;
+import org.gatein.api.common.Cursor;
+import org.gatein.api.common.Filter;
+import org.gatein.api.common.Sorting;
+import org.gatein.api.composition.Container;
+import org.gatein.api.navigation.Navigation;
+import org.gatein.api.navigation.Node;
+import org.gatein.api.navigation.Nodes;
+import org.gatein.api.page.Page;
+import org.gatein.api.page.PageField;
+import org.gatein.api.page.PageId;
+import org.gatein.api.page.PageQuery;
+import org.gatein.api.page.PageSummary;
+import org.gatein.api.security.Group;
+import org.gatein.api.security.Membership;
+import org.gatein.api.security.Permission;
+import org.gatein.api.security.User;
+import org.gatein.api.site.Site;
+import org.gatein.api.site.SiteField;
+import org.gatein.api.site.SiteId;
+import org.gatein.api.site.SiteQuery;
+import org.gatein.api.site.SiteType;
+import org.junit.Before;
+import org.junit.Test;
+
+public class InMemoryPortalTest {
+
+    private InMemoryPortal portal;
+
+    @Before
+    public void before() {
+        portal = new InMemoryPortal();
+        for (String name : new String[] { "classic", "acme", "mobile" }) {
+            Site site = portal.createSite(new SiteId(name));
+            site.setDisplayName(name.toUpperCase());
+            portal.saveSite(site);
+            Navigation navigation = portal.getNavigation(site.getId());
+            Node root = navigation.getRootNode(Nodes.visitChildren());
+            root.addChild("home");
+            navigation.saveNode(root);
+        }
+        Site space = portal.createSite(new SiteId(new Group("platform", "users")));
+        portal.saveSite(space);
+    }
+
+    @Test
+    public void site() {
+        Site site = portal.getSite(new SiteId("classic"));
+        assertEquals("CLASSIC", site.getDisplayName());
+
+        site.setDisplayName("changed");
+        assertEquals("CLASSIC", portal.getSite(new SiteId("classic")).getDisplayName());
+
+        portal.saveSite(site);
+        assertEquals("changed", portal.getSite(new SiteId("classic")).getDisplayName());
+
+        assertNull(portal.getSite(new SiteId("foo")));
+        assertEquals(2, portal.getSites(Arrays.asList(new SiteId("classic"), new SiteId("foo"), new SiteId("acme"))).size());
+    }
+
+    @Test(expected = EntityAlreadyExistsException.class)
+    public void createSite_Exists() {
+        portal.createSite(new SiteId("classic"));
+    }
+
+    @Test
+    public void removeSite() {
+        portal.savePage(portal.createPage(new PageId("classic", "home")));
+
+        assertTrue(portal.removeSite(new SiteId("classic")));
+        assertFalse(portal.removeSite(new SiteId("classic")));
+        assertNull(portal.getNavigation(new SiteId("classic")));
+        assertNull(portal.getPage(new PageId("classic", "home")));
+    }
+
+    @Test
+    public void saveSites() {
+        Site acme = portal.getSite(new SiteId("acme"));
+        acme.setDisplayName("changed");
+        Site foo = portal.createSite(new SiteId("foo"));
+
+        BatchResult<SiteId> result = portal.saveSites(Arrays.asList(acme, foo), 1);
+        assertTrue(result.isSuccessful());
+        assertEquals(Arrays.asList(new SiteId("acme"), new SiteId("foo")), result.getSucceeded());
+        assertEquals("changed", portal.getSite(new SiteId("acme")).getDisplayName());
+        assertNotNull(portal.getSite(new SiteId("foo")));
+
+        try {
+            portal.saveSites(Arrays.asList(acme, null), 1);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            portal.saveSites(Arrays.asList(acme), 0);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    @Test
+    public void removeSites() {
+        BatchResult<SiteId> result = portal.removeSites(Arrays.asList(new SiteId("acme"), new SiteId("foo")),
+                BatchResult.DEFAULT_CHUNK_SIZE);
+        assertEquals(Arrays.asList(new SiteId("acme")), result.getSucceeded());
+        assertTrue(result.getFailed().get(new SiteId("foo")) instanceof EntityNotFoundException);
+        assertNull(portal.getSite(new SiteId("acme")));
+    }
+
+    @Test
+    public void savePages_RemovePages() {
+        List<Page> pages = new ArrayList<Page>();
+        for (String name : new String[] { "a", "b", "c" }) {
+            pages.add(portal.createPage(new PageId("classic", name)));
+        }
+        Page orphan = portal.createPage(new PageId("acme", "orphan"));
+        pages.add(orphan);
+        portal.removeSite(new SiteId("acme"));
+
+        BatchResult<PageId> saved = portal.savePages(pages, 2);
+        assertFalse(saved.isSuccessful());
+        assertEquals(3, saved.getSucceeded().size());
+        assertTrue(saved.getFailed().get(orphan.getId()) instanceof EntityNotFoundException);
+        assertNotNull(portal.getPage(new PageId("classic", "c")));
+
+        BatchResult<PageId> removed = portal.removePages(Arrays.asList(new PageId("classic", "a"), new PageId("classic",
+                "x")), 2);
+        assertEquals(Arrays.asList(new PageId("classic", "a")), removed.getSucceeded());
+        assertEquals(Collections.singleton(new PageId("classic", "x")), removed.getFailed().keySet());
+        assertNull(portal.getPage(new PageId("classic", "a")));
+    }
+
+    @Test
+    public void findSites() {
+        List<Site> sites = portal.findSites(new SiteQuery.Builder().withAllSiteTypes().build());
+        assertEquals(Arrays.asList(new SiteId("acme"), new SiteId("classic"), new SiteId("mobile")), ids(sites));
+
+        sites = portal.findSites(new SiteQuery.Builder().withAllSiteTypes().includeEmptySites(true).build());
+        assertEquals(4, sites.size());
+
+        sites = portal.findSites(new SiteQuery.Builder().withCriteria(SiteField.NAME.in(Arrays.asList("mobile", "acme", "x")))
+                .build());
+        assertEquals(Arrays.asList(new SiteId("acme"), new SiteId("mobile")), ids(sites));
+
+        sites = portal.findSites(new SiteQuery.Builder().withPagination(1, 1).build());
+        assertEquals(Arrays.asList(new SiteId("classic")), ids(sites));
+
+        sites = portal.findSites(new SiteQuery.Builder().withStartAfter(new SiteId("acme")).build());
+        assertEquals(Arrays.asList(new SiteId("classic"), new SiteId("mobile")), ids(sites));
+
+        sites = portal.findSites(new SiteQuery.Builder().withSorting(
+                Sorting.by(SiteField.DISPLAY_NAME, Sorting.Order.descending)).withPagination(0, 2).build());
+        assertEquals(Arrays.asList(new SiteId("mobile"), new SiteId("classic")), ids(sites));
+
+        sites = portal.findSites(new SiteQuery.Builder().withFilter(new Filter<Site>() {
+            @Override
+            public boolean accept(Site site) {
+                site.setDisplayName("changed");
+                return true;
+            }
+        }).build());
+        assertEquals(3, sites.size());
+        assertEquals("ACME", portal.getSite(new SiteId("acme")).getDisplayName());
+
+        assertEquals(3, portal.countSites(new SiteQuery.Builder().withPagination(0, 1).build()));
+        assertEquals(4, portal.countSites(new SiteQuery.Builder().withAllSiteTypes().includeEmptySites(true).build()));
+        assertEquals(2, portal.countSites(new SiteQuery.Builder().withAllSiteTypes().includeEmptySites(true)
+                .withStartAfter(new SiteId("classic")).build()));
+        assertEquals(2, portal.countSites(new SiteQuery.Builder().includeEmptySites(true)
+                .withCriteria(SiteField.NAME.in(Arrays.asList("mobile", "acme", "x"))).build()));
+        assertEquals(1, portal.findSiteSummaries(new SiteQuery.Builder().withCriteria(SiteField.NAME.equalTo("acme")).build(),
+                false).size());
+    }
+
+    @Test
+    public void streamSites() {
+        Cursor<Site> cursor = portal.streamSites(new SiteQuery.Builder().withAllSiteTypes().includeEmptySites(true).build(), 2);
+        List<Site> sites = new ArrayList<Site>();
+        while (cursor.hasNext()) {
+            sites.add(cursor.next());
+        }
+        assertEquals(Arrays.asList(new SiteId("acme"), new SiteId("classic"), new SiteId("mobile"), new SiteId(new Group(
+                "platform", "users"))), ids(sites));
+    }
+
+    @Test
+    public void page() {
+        Page page = portal.createPage(new PageId("classic", "home"));
+        page.setDisplayName("Home page");
+        portal.savePage(page);
+
+        assertEquals("Home page", portal.getPage(new PageId("classic", "home")).getDisplayName());
+        assertNull(portal.getPage(new PageId("acme", "home")));
+        try {
+            portal.createPage(new PageId("classic", "home"));
+            fail("Expected EntityAlreadyExistsException");
+        } catch (EntityAlreadyExistsException e) {
+        }
+        try {
+            portal.createPage(new PageId("foo", "home"));
+            fail("Expected EntityNotFoundException");
+        } catch (EntityNotFoundException e) {
+        }
+
+        Map<PageId, Page> pages = portal.getPages(Arrays.asList(new PageId("classic", "home"), new PageId("classic", "foo")));
+        assertEquals(1, pages.size());
+
+        assertTrue(portal.removePage(new PageId("classic", "home")));
+        assertFalse(portal.removePage(new PageId("classic", "home")));
+    }
+
+    @Test
+    public void findPages() {
+        for (String site : new String[] { "classic", "acme" }) {
+            for (String name : new String[] { "home", "about", "contact" }) {
+                Page page = portal.createPage(new PageId(site, name));
+                page.setDisplayName(site + " " + name);
+                portal.savePage(page);
+            }
+        }
+
+        List<Page> pages = portal.findPages(new PageQuery.Builder().withSiteName("classic").build());
+        assertEquals(Arrays.asList(new PageId("classic", "about"), new PageId("classic", "contact"),
+                new PageId("classic", "home")), pageIds(pages));
+
+        pages = portal.findPages(new PageQuery.Builder().withCriteria(PageField.NAME.equalTo("home")).build());
+        assertEquals(Arrays.asList(new PageId("acme", "home"), new PageId("classic", "home")), pageIds(pages));
+
+        pages = portal.findPages(new PageQuery.Builder().withDisplayName("ACME C").build());
+        assertEquals(Arrays.asList(new PageId("acme", "contact")), pageIds(pages));
+
+        pages = portal.findPages(new PageQuery.Builder().withStartAfter(new PageId("acme", "home")).withPagination(0, 2)
+                .build());
+        assertEquals(Arrays.asList(new PageId("classic", "about"), new PageId("classic", "contact")), pageIds(pages));
+
+        pages = portal.findPages(new PageQuery.Builder().withSorting(
+                Sorting.by(PageField.DISPLAY_NAME, Sorting.Order.descending)).withPagination(0, 1).build());
+        assertEquals(Arrays.asList(new PageId("classic", "home")), pageIds(pages));
+
+        assertEquals(6, portal.countPages(new PageQuery.Builder().withPagination(0, 1).build()));
+        assertEquals(3, portal.countPages(new PageQuery.Builder().withStartAfter(new PageId("acme", "home")).build()));
+        assertEquals(2, portal.countPages(new PageQuery.Builder().withCriteria(PageField.NAME.equalTo("home")).build()));
+        assertEquals(1, portal.countPages(new PageQuery.Builder().withCriteria(
+                PageField.NAME.equalTo("home").and(PageField.SITE_NAME.equalTo("acme"))).build()));
+        assertEquals(4, portal.countPages(new PageQuery.Builder().withCriteria(PageField.NAME.startsWith("co").negate())
+                .build()));
+        assertEquals(1, portal.countPages(new PageQuery.Builder().withDisplayName("ACME C").build()));
+
+        List<PageSummary> summaries = portal.findPageSummaries(new PageQuery.Builder().withSiteType(SiteType.SITE)
+                .withSiteName("acme").build(), true);
+        assertEquals(3, summaries.size());
+        assertNotNull(summaries.get(0).getAccessPermission());
+    }
+
+    @Test
+    public void hasPermission() {
+        User user = new User("john");
+        portal.addMembership(user, new Membership("member", new Group("platform", "users")));
+
+        assertTrue(portal.hasPermission(user, Permission.everyone()));
+        assertTrue(portal.hasPermission(user, new Permission(user)));
+        assertTrue(portal.hasPermission(user, Permission.any("platform", "users")));
+        assertTrue(portal.hasPermission(user, new Permission("member", new Group("platform", "users"))));
+        assertFalse(portal.hasPermission(user, new Permission("manager", new Group("platform", "users"))));
+        assertFalse(portal.hasPermission(user, Permission.any("platform", "administrators")));
+        assertFalse(portal.hasPermission(new User("mary"), Permission.any("platform", "users")));
+
+        assertTrue(portal.removeMembership(user, new Membership("member", new Group("platform", "users"))));
+        assertFalse(portal.hasPermission(user, Permission.any("platform", "users")));
+    }
+
+    @Test
+    public void hasPermissions() {
+        User user = new User("john");
+        portal.addMembership(user, new Membership("member", new Group("platform", "users")));
+
+        BitSet result = portal.hasPermissions(user, Arrays.asList(Permission.any("platform", "administrators"),
+                Permission.any("platform", "users"), Permission.everyone(), new Permission(new User("mary"))));
+        assertEquals(2, result.cardinality());
+        assertTrue(result.get(1));
+        assertTrue(result.get(2));
+    }
+
+    @Test
+    public void pageBuilder() {
+        Page page = portal.newPageBuilder().name("dashboard").siteName("classic").siteType("portal").displayName("Dashboard")
+                .newColumnsBuilder().child(new InMemoryApplication("app", ApplicationType.PORTLET, "app", "category"))
+                .buildToTopBuilder().build();
+
+        assertEquals(new PageId("classic", "dashboard"), page.getId());
+        assertEquals(1, page.getChildren().size());
+        assertEquals(InMemoryContainer.COLUMNS_TEMPLATE, ((Container) page.getChildren().get(0)).getTemplate());
+        assertEquals(1, ((Container) page.getChildren().get(0)).getChildren().size());
+
+        portal.savePage(page);
+        assertEquals("Dashboard", portal.getPage(new PageId("classic", "dashboard")).getDisplayName());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void pageBuilder_MissingName() {
+        portal.newPageBuilder().siteName("classic").siteType("portal").build();
+    }
+
+    private static List<SiteId> ids(List<Site> sites) {
+        List<SiteId> ids = new ArrayList<SiteId>();
+        for (Site site : sites) {
+            ids.add(site.getId());
+        }
+        return ids;
+    }
+
+    private static List<PageId> pageIds(List<Page> pages) {
+        List<PageId> ids = new ArrayList<PageId>();
+        for (Page page : pages) {
+            ids.add(page.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.gatein.api.navigation;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.gatein.api.common.Attributes;
+import org.gatein.api.common.i18n.LocalizedString;
+import org.gatein.api.page.PageId;
+
+/**
+ * A minimal mutable node backed by a dynamic proxy, supporting the read operations and some of the write operations.
+ */
+public class MockNode implements InvocationHandler {
+    public static Node root() {
+        return create(null, null);
+    }
+
+    private static Node create(MockNode parent, String name) {
+        MockNode handler = new MockNode(parent, name);
+        handler.proxy = (Node) Proxy.newProxyInstance(Node.class.getClassLoader(), new Class<?>[] { Node.class }, handler);
+        return handler.proxy;
+    }
+
+    public static MockNode handler(Node node) {
+        return (MockNode) Proxy.getInvocationHandler(node);
+    }
+
+    private MockNode parent;
+    private Node proxy;
+    private String name;
+    private Visibility visibility = new Visibility();
+    private String iconName;
+    private PageId pageId;
+    private LocalizedString displayNames;
+    private final Attributes attributes = new Attributes();
+    private long version;
+    private long subtreeVersion;
+    private List<Node> children = new ArrayList<Node>();
+
+    private MockNode(MockNode parent, String name) {
+        this.parent = parent;
+        this.name = name;
+    }
+
+    public MockNode unloaded() {
+        children = null;
+        return this;
+    }
+
+    public MockNode version(long version, long subtreeVersion) {
+        this.version = version;
+        this.subtreeVersion = subtreeVersion;
+        return this;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String m = method.getName();
+        if (m.equals("getName")) {
+            return name;
+        } else if (m.equals("setName")) {
+            name = (String) args[0];
+            return null;
+        } else if (m.equals("getParent")) {
+            return parent == null ? null : parent.proxy;
+        } else if (m.equals("getNodePath")) {
+            return parent == null ? NodePath.root() : parent.proxy.getNodePath().append(name);
+        } else if (m.equals("getVersion")) {
+            return version;
+        } else if (m.equals("getSubtreeVersion")) {
+            return subtreeVersion;
+        } else if (m.equals("isRoot")) {
+            return parent == null;
+        } else if (m.equals("getVisibility")) {
+            return visibility;
+        } else if (m.equals("isVisible")) {
+            return visibility.isVisible();
+        } else if (m.equals("setVisibility")) {
+            visibility = args[0] instanceof Boolean ? new Visibility((Boolean) args[0] ? Visibility.Status.VISIBLE
+                    : Visibility.Status.HIDDEN) : (Visibility) args[0];
+            return null;
+        } else if (m.equals("getIconName")) {
+            return iconName;
+        } else if (m.equals("setIconName")) {
+            iconName = (String) args[0];
+            return null;
+        } else if (m.equals("getPageId")) {
+            return pageId;
+        } else if (m.equals("setPageId")) {
+            pageId = (PageId) args[0];
+            return null;
+        } else if (m.equals("getAttributes")) {
+            return attributes;
+        } else if (m.equals("getDisplayNames")) {
+            return displayNames;
+        } else if (m.equals("setDisplayNames")) {
+            displayNames = (LocalizedString) args[0];
+            return null;
+        } else if (m.equals("isChildrenLoaded")) {
+            return children != null;
+        } else if (m.equals("getChildCount")) {
+            return loaded().size();
+        } else if (m.equals("iterator")) {
+            return loaded().iterator();
+        } else if (m.equals("getChild") && args[0] instanceof Integer) {
+            return loaded().get((Integer) args[0]);
+        } else if (m.equals("getChild")) {
+            for (Node child : loaded()) {
+                if (child.getName().equals(args[0])) {
+                    return child;
+                }
+            }
+            return null;
+        } else if (m.equals("addChild")) {
+            Node child = create(this, (String) args[0]);
+            loaded().add(child);
+            return child;
+        } else if (m.equals("indexOf")) {
+            return indexOf((String) args[0]);
+        } else if (m.equals("removeChild")) {
+            int i = indexOf((String) args[0]);
+            return i >= 0 && loaded().remove(i) != null;
+        } else if (m.equals("moveTo") && args[0] instanceof Integer) {
+            MockNode target = (args.length == 1) ? parent : handler((Node) args[1]);
+            parent.loaded().remove(this.proxy);
+            target.loaded().add((Integer) args[0], this.proxy);
+            parent = target;
+            return null;
+        } else if (m.equals("hashCode")) {
+            return System.identityHashCode(proxy);
+        } else if (m.equals("equals")) {
+            return proxy == args[0];
+        } else if (m.equals("toString")) {
+            return "MockNode[" + this.proxy.getNodePath() + "]";
+        }
+        throw new UnsupportedOperationException(m);
+    }
+
+    private int indexOf(String childName) {
+        for (int i = 0; i < loaded().size(); i++) {
+            if (loaded().get(i).getName().equals(childName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private List<Node> loaded() {
+        if (children == null) {
+            throw new IllegalStateException("Children not loaded");
+        }
+        return children;
+    }
+}
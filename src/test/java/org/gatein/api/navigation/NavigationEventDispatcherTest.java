@@ -0,0 +1,204 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.navigation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.gatein.api.site.SiteId;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NavigationEventDispatcherTest {
+    private static final SiteId SITE = new SiteId("classic");
+
+    private Tasks tasks;
+    private Recorder recorder;
+    private NavigationEventDispatcher dispatcher;
+
+    @Before
+    public void before() {
+        tasks = new Tasks();
+        recorder = new Recorder();
+        dispatcher = new NavigationEventDispatcher(tasks, 2);
+        dispatcher.addListener(recorder);
+    }
+
+    @Test
+    public void batched() {
+        dispatcher.publish(event(NavigationEvent.Type.NODE_ADDED, "a"));
+        dispatcher.publish(event(NavigationEvent.Type.NODE_ADDED, "b"));
+        dispatcher.publish(event(NavigationEvent.Type.NODE_ADDED, "c"));
+
+        assertEquals(1, tasks.size());
+        assertTrue(recorder.batches.isEmpty());
+
+        tasks.runAll();
+
+        assertEquals(2, recorder.batches.size());
+        assertEquals(Arrays.asList(event(NavigationEvent.Type.NODE_ADDED, "a"), event(NavigationEvent.Type.NODE_ADDED, "b")),
+                recorder.batches.get(0));
+        assertEquals(Collections.singletonList(event(NavigationEvent.Type.NODE_ADDED, "c")), recorder.batches.get(1));
+
+        dispatcher.publish(event(NavigationEvent.Type.NODE_REMOVED, "a"));
+        tasks.runAll();
+
+        assertEquals(3, recorder.batches.size());
+    }
+
+    @Test
+    public void publishChanges() {
+        Node node = MockNode.root();
+        List<NodeChange> changes = new ArrayList<NodeChange>();
+        changes.add(new NodeChange(NodeChange.Type.REMOVED, node, null, NodePath.path("a"),
+                EnumSet.noneOf(NodeChange.Property.class)));
+        changes.add(new NodeChange(NodeChange.Type.INSERTED, node, NodePath.path("b"), null,
+                EnumSet.noneOf(NodeChange.Property.class)));
+        changes.add(new NodeChange(NodeChange.Type.MOVED, node, NodePath.path("b", "c"), NodePath.path("c"),
+                EnumSet.noneOf(NodeChange.Property.class)));
+        changes.add(new NodeChange(NodeChange.Type.UPDATED, node, NodePath.path("d"), NodePath.path("d"),
+                EnumSet.of(NodeChange.Property.ICON_NAME)));
+
+        dispatcher = new NavigationEventDispatcher(tasks);
+        dispatcher.addListener(recorder);
+        dispatcher.publish(SITE, changes);
+        tasks.runAll();
+
+        assertEquals(1, recorder.batches.size());
+        List<NavigationEvent> events = recorder.batches.get(0);
+        assertEquals(event(NavigationEvent.Type.NODE_REMOVED, "a"), events.get(0));
+        assertEquals(event(NavigationEvent.Type.NODE_ADDED, "b"), events.get(1));
+        assertEquals(new NavigationEvent(NavigationEvent.Type.NODE_MOVED, SITE, NodePath.path("b", "c"), NodePath.path("c")),
+                events.get(2));
+        assertEquals(event(NavigationEvent.Type.NODE_UPDATED, "d"), events.get(3));
+        assertNull(events.get(3).getPreviousNodePath());
+    }
+
+    @Test
+    public void publishNoChanges() {
+        dispatcher.publish(SITE, Collections.<NodeChange> emptyList());
+        assertEquals(0, tasks.size());
+    }
+
+    @Test
+    public void failingListener() {
+        dispatcher = new NavigationEventDispatcher(tasks);
+        dispatcher.addListener(new NavigationListener() {
+            @Override
+            public void onEvents(List<NavigationEvent> events) {
+                throw new RuntimeException("failed");
+            }
+        });
+        dispatcher.addListener(recorder);
+
+        dispatcher.publish(event(NavigationEvent.Type.NODE_ADDED, "a"));
+        tasks.runAll();
+
+        assertEquals(1, recorder.batches.size());
+    }
+
+    @Test
+    public void removeListener() {
+        assertTrue(dispatcher.removeListener(recorder));
+
+        dispatcher.publish(event(NavigationEvent.Type.NODE_ADDED, "a"));
+        tasks.runAll();
+
+        assertTrue(recorder.batches.isEmpty());
+    }
+
+    @Test
+    public void rejected() {
+        tasks.rejecting = true;
+        try {
+            dispatcher.publish(event(NavigationEvent.Type.NODE_ADDED, "a"));
+            fail("Expected RejectedExecutionException");
+        } catch (RejectedExecutionException e) {
+        }
+
+        tasks.rejecting = false;
+        dispatcher.publish(event(NavigationEvent.Type.NODE_ADDED, "b"));
+        tasks.runAll();
+
+        assertEquals(1, recorder.batches.size());
+        assertEquals(Arrays.asList(event(NavigationEvent.Type.NODE_ADDED, "a"), event(NavigationEvent.Type.NODE_ADDED, "b")),
+                recorder.batches.get(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullEvent() {
+        dispatcher.publish(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidBatchSize() {
+        new NavigationEventDispatcher(tasks, 0);
+    }
+
+    private static NavigationEvent event(NavigationEvent.Type type, String... path) {
+        return new NavigationEvent(type, SITE, NodePath.path(path), null);
+    }
+
+    private static class Tasks implements Executor {
+        private final LinkedList<Runnable> tasks = new LinkedList<Runnable>();
+        private boolean rejecting;
+
+        @Override
+        public void execute(Runnable command) {
+            if (rejecting)
+                throw new RejectedExecutionException();
+
+            tasks.add(command);
+        }
+
+        int size() {
+            return tasks.size();
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty()) {
+                tasks.removeFirst().run();
+            }
+        }
+    }
+
+    private static class Recorder implements NavigationListener {
+        private final List<List<NavigationEvent>> batches = new ArrayList<List<NavigationEvent>>();
+
+        @Override
+        public void onEvents(List<NavigationEvent> events) {
+            batches.add(new ArrayList<NavigationEvent>(events));
+        }
+    }
+}
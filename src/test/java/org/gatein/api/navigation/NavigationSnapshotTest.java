@@ -0,0 +1,234 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.gatein.api.navigation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.gatein.api.Portal;
+import org.gatein.api.Stub;
+import org.gatein.api.common.i18n.LocalizedString;
+import org.gatein.api.page.PageId;
+import org.gatein.api.site.SiteId;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NavigationSnapshotTest {
+
+    private Node root;
+    private Stub<Navigation> stub;
+    private Navigation navigation;
+    private int savedOnLoad;
+
+    @Before
+    public void before() {
+        root = MockNode.root();
+        Node home = root.addChild("home");
+        home.setPageId(new PageId("classic", "homepage"));
+        home.setDisplayNames(new LocalizedString("Home"));
+        home.getAttributes().put("key", "value");
+        home.addChild("news");
+        root.addChild("hidden").setVisibility(false);
+        MockNode.handler(root.addChild("unloaded")).unloaded();
+
+        stub = Stub.of(Navigation.class).returns("getSiteId", new SiteId("classic")).returns("getPriority", 3)
+                .returns("saveNode", null).answers("getRootNode", new Stub.Answer() {
+                    @Override
+                    public Object answer(Object[] args) {
+                        if (stub.calls("getRootNode") == savedOnLoad) {
+                            MockNode.handler(root).version(1, 2);
+                        }
+                        return root;
+                    }
+                });
+        navigation = stub.get();
+    }
+
+    @Test
+    public void create() {
+        NavigationSnapshot snapshot = NavigationSnapshot.create(navigation, Nodes.visitAll());
+
+        assertEquals(new SiteId("classic"), snapshot.getSiteId());
+        assertEquals(3, snapshot.getPriority());
+        assertTrue(snapshot.getRootNode().isRoot());
+        assertEquals(3, snapshot.getRootNode().getChildCount());
+
+        Node home = snapshot.getNode("home");
+        assertEquals(NodePath.path("home"), home.getNodePath());
+        assertSame(snapshot.getRootNode(), home.getParent());
+        assertEquals(new PageId("classic", "homepage"), home.getPageId());
+        assertEquals("Home", home.getDisplayName());
+        assertEquals("value", home.getAttributes().get("key"));
+        assertEquals(NodePath.path("home", "news"), snapshot.getNode("home", "news").getNodePath());
+        assertEquals(1, snapshot.getRootNode().indexOf("hidden"));
+        assertNull(snapshot.getNode("foo"));
+        assertNull(home.getURI());
+    }
+
+    @Test
+    public void create_NotLoaded() {
+        NavigationSnapshot snapshot = NavigationSnapshot.create(navigation, Nodes.visitAll());
+
+        assertFalse(snapshot.getNode("unloaded").isChildrenLoaded());
+        assertNull(snapshot.getNode("unloaded", "child"));
+        try {
+            snapshot.getNode("unloaded").getChildCount();
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException e) {
+        }
+    }
+
+    @Test
+    public void immutable() {
+        NavigationSnapshot snapshot = NavigationSnapshot.create(navigation, Nodes.visitAll());
+        Node home = snapshot.getNode("home");
+
+        try {
+            home.setName("foo");
+            fail("Expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException e) {
+        }
+        try {
+            snapshot.getRootNode().addChild("foo");
+            fail("Expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException e) {
+        }
+        try {
+            snapshot.getRootNode().iterator().remove();
+            fail("Expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException e) {
+        }
+
+        home.getAttributes().put("key", "changed");
+        home.getDisplayNames().setValue("Changed");
+        assertEquals("value", home.getAttributes().get("key"));
+        assertEquals("Home", home.getDisplayName());
+
+        root.getChild("home").getAttributes().put("key", "changed");
+        assertEquals("value", home.getAttributes().get("key"));
+    }
+
+    @Test
+    public void filter() {
+        NavigationSnapshot snapshot = NavigationSnapshot.create(navigation, Nodes.visitAll());
+        FilteredNode filtered = snapshot.getRootNode().filter().showVisible();
+
+        assertEquals(2, filtered.getChildCount());
+        assertFalse(filtered.hasChild("hidden"));
+        assertNull(filtered.getChild("hidden"));
+        assertEquals(1, filtered.indexOf("unloaded"));
+        assertEquals("unloaded", filtered.getChild(1).getName());
+        assertEquals(3, filtered.showAll().getChildCount());
+    }
+
+    @Test
+    public void cache() {
+        NavigationSnapshotCache cache = new NavigationSnapshotCache(portal(), Nodes.visitAll());
+        NavigationSnapshot snapshot = cache.get(new SiteId("classic"));
+        assertSame(snapshot, cache.get(new SiteId("classic")));
+        assertNull(cache.get(new SiteId("foo")));
+
+        NavigationSnapshot updated = cache.update(new SiteId("classic"), new NavigationSnapshotCache.Update() {
+            @Override
+            public void apply(Node root) {
+                root.addChild("added");
+            }
+        });
+
+        assertEquals(1, stub.calls("saveNode"));
+        assertNotSame(snapshot, updated);
+        assertSame(updated, cache.get(new SiteId("classic")));
+        assertNull(snapshot.getNode("added"));
+        assertEquals(NodePath.path("added"), updated.getNode("added").getNodePath());
+
+        cache.invalidate(new SiteId("classic"));
+        assertNotSame(updated, cache.get(new SiteId("classic")));
+    }
+
+    @Test
+    public void refresh() {
+        MockNode.handler(root).version(1, 1);
+
+        NavigationSnapshotCache cache = new NavigationSnapshotCache(portal(), Nodes.visitAll());
+        NavigationSnapshot snapshot = cache.get(new SiteId("classic"));
+        assertEquals(1, snapshot.getRootNode().getVersion());
+        assertEquals(1, snapshot.getRootNode().getSubtreeVersion());
+        assertSame(snapshot, cache.refresh(new SiteId("classic")));
+
+        MockNode.handler(root).version(1, 2);
+        NavigationSnapshot refreshed = cache.refresh(new SiteId("classic"));
+        assertNotSame(snapshot, refreshed);
+        assertEquals(2, refreshed.getRootNode().getSubtreeVersion());
+        assertSame(refreshed, cache.get(new SiteId("classic")));
+    }
+
+    @Test
+    public void cache_SavedWhileCreated() {
+        MockNode.handler(root).version(1, 1);
+        savedOnLoad = 2;
+
+        NavigationSnapshotCache cache = new NavigationSnapshotCache(portal(), Nodes.visitAll());
+        NavigationSnapshot stale = cache.get(new SiteId("classic"));
+        assertEquals(1, stale.getRootNode().getSubtreeVersion());
+
+        NavigationSnapshot snapshot = cache.get(new SiteId("classic"));
+        assertEquals(2, snapshot.getRootNode().getSubtreeVersion());
+        assertSame(snapshot, cache.get(new SiteId("classic")));
+    }
+
+    @Test
+    public void onEvents() {
+        MockNode.handler(root).version(1, 1);
+        NavigationSnapshotCache cache = new NavigationSnapshotCache(portal(), Nodes.visitAll());
+        NavigationSnapshot snapshot = cache.get(new SiteId("classic"));
+        SiteId siteId = new SiteId("classic");
+        List<NavigationEvent> events = Arrays.asList(
+                new NavigationEvent(NavigationEvent.Type.NODE_ADDED, siteId, NodePath.path("added"), null),
+                new NavigationEvent(NavigationEvent.Type.NODE_REMOVED, siteId, NodePath.path("hidden"), null));
+
+        cache.onEvents(events);
+        assertSame(snapshot, cache.get(new SiteId("classic")));
+
+        MockNode.handler(root).version(1, 2);
+        cache.onEvents(events);
+        NavigationSnapshot refreshed = cache.get(new SiteId("classic"));
+        assertNotSame(snapshot, refreshed);
+        assertEquals(2, refreshed.getRootNode().getSubtreeVersion());
+    }
+
+    private Portal portal() {
+        return Stub.of(Portal.class).answers("getNavigation", new Stub.Answer() {
+            @Override
+            public Object answer(Object[] args) {
+                return new SiteId("classic").equals(args[0]) ? navigation : null;
+            }
+        }).get();
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.gatein.api.navigation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.EnumSet;
+import java.util.List;
+
+import org.gatein.api.common.i18n.LocalizedString;
+import org.gatein.api.navigation.NodeChange.Property;
+import org.gatein.api.navigation.NodeChange.Type;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NodeChangeJournalTest {
+
+    private NodeChangeJournal journal;
+    private Node root;
+    private Node home;
+    private Node news;
+
+    @Before
+    public void before() {
+        journal = new NodeChangeJournal();
+        root = MockNode.root();
+        home = root.addChild("home");
+        news = home.addChild("news");
+        root.addChild("about");
+    }
+
+    @Test
+    public void empty() {
+        assertTrue(journal.isEmpty());
+    }
+
+    @Test
+    public void inserted() {
+        Node child = news.addChild("child");
+        journal.inserted(child);
+        journal.updated(child, Property.ICON_NAME);
+        journal.inserted(child.addChild("grandchild"));
+
+        List<NodeChange> changes = journal.getChanges();
+        assertEquals(2, changes.size());
+        assertChange(Type.INSERTED, NodePath.path("home", "news", "child"), null, changes.get(0));
+        assertChange(Type.INSERTED, NodePath.path("home", "news", "child", "grandchild"), null, changes.get(1));
+        assertSame(child, changes.get(0).getNode());
+    }
+
+    @Test
+    public void inserted_Removed() {
+        Node child = news.addChild("child");
+        journal.inserted(child);
+        journal.updated(child, Property.PAGE_ID);
+        journal.removed(child);
+        news.removeChild("child");
+
+        assertTrue(journal.isEmpty());
+    }
+
+    @Test
+    public void removed() {
+        journal.updated(news, Property.VISIBILITY);
+        journal.inserted(news.addChild("child"));
+        journal.removed(news);
+        journal.updated(home, Property.ICON_NAME);
+        journal.removed(home);
+        root.removeChild("home");
+
+        List<NodeChange> changes = journal.getChanges();
+        assertEquals(1, changes.size());
+        assertChange(Type.REMOVED, null, NodePath.path("home"), changes.get(0));
+    }
+
+    @Test
+    public void moved() {
+        journal.moved(root.getChild("about"));
+        root.getChild("about").moveTo(0);
+
+        List<NodeChange> changes = journal.getChanges();
+        assertEquals(1, changes.size());
+        assertChange(Type.MOVED, NodePath.path("about"), NodePath.path("about"), changes.get(0));
+    }
+
+    @Test
+    public void moved_Back() {
+        journal.moved(home);
+        home.moveTo(1);
+        journal.moved(home);
+        home.moveTo(0);
+        journal.moved(news);
+
+        assertTrue(journal.isEmpty());
+    }
+
+    @Test
+    public void updated() {
+        journal.updated(news, Property.NAME);
+        news.setName("latest");
+        journal.updated(news, Property.VISIBILITY);
+        journal.updated(news, Property.VISIBILITY);
+
+        List<NodeChange> changes = journal.getChanges();
+        assertEquals(1, changes.size());
+        assertChange(Type.UPDATED, NodePath.path("home", "latest"), NodePath.path("home", "news"), changes.get(0));
+        assertEquals(EnumSet.of(Property.NAME, Property.VISIBILITY), changes.get(0).getProperties());
+    }
+
+    @Test
+    public void updated_RenamedBack() {
+        journal.updated(news, Property.NAME);
+        news.setName("latest");
+        news.setName("news");
+
+        assertTrue(journal.isEmpty());
+    }
+
+    @Test
+    public void updated_RenamedThenNameReused() {
+        Node about = root.getChild("about");
+        journal.updated(about, Property.VISIBILITY);
+        journal.updated(about, Property.NAME);
+        about.setName("contact");
+        journal.inserted(root.addChild("about"));
+        journal.moved(home);
+        home.moveTo(2);
+        journal.updated(news, Property.NAME);
+        news.setName("latest");
+
+        List<NodeChange> changes = journal.getChanges();
+        assertEquals(4, changes.size());
+        assertChange(Type.UPDATED, NodePath.path("contact"), NodePath.path("about"), changes.get(0));
+        assertEquals(EnumSet.of(Property.VISIBILITY, Property.NAME), changes.get(0).getProperties());
+        assertChange(Type.INSERTED, NodePath.path("about"), null, changes.get(1));
+        assertChange(Type.MOVED, NodePath.path("home"), NodePath.path("home"), changes.get(2));
+        assertChange(Type.UPDATED, NodePath.path("home", "latest"), NodePath.path("home", "news"), changes.get(3));
+    }
+
+    @Test
+    public void updated_NamesSwapped() {
+        Node about = root.getChild("about");
+        journal.updated(home, Property.NAME);
+        home.setName("tmp");
+        journal.updated(about, Property.NAME);
+        about.setName("home");
+        journal.updated(home, Property.NAME);
+        home.setName("about");
+        journal.updated(home, Property.ICON_NAME);
+
+        List<NodeChange> changes = journal.getChanges();
+        assertEquals(3, changes.size());
+        assertChange(Type.UPDATED, NodePath.path("tmp"), NodePath.path("home"), changes.get(0));
+        assertEquals(EnumSet.of(Property.NAME), changes.get(0).getProperties());
+        assertChange(Type.UPDATED, NodePath.path("home"), NodePath.path("about"), changes.get(1));
+        assertChange(Type.UPDATED, NodePath.path("about"), NodePath.path("tmp"), changes.get(2));
+        assertEquals(EnumSet.of(Property.NAME, Property.ICON_NAME), changes.get(2).getProperties());
+        assertSame(home, changes.get(2).getNode());
+    }
+
+    @Test
+    public void removed_AfterChildMovedOut() {
+        journal.moved(news);
+        news.moveTo(0, root);
+        journal.removed(home);
+        root.removeChild("home");
+
+        List<NodeChange> changes = journal.getChanges();
+        assertEquals(2, changes.size());
+        assertChange(Type.MOVED, NodePath.path("news"), NodePath.path("home", "news"), changes.get(0));
+        assertChange(Type.REMOVED, null, NodePath.path("home"), changes.get(1));
+    }
+
+    @Test
+    public void removed_NameReused() {
+        journal.removed(root.getChild("about"));
+        root.removeChild("about");
+        journal.updated(home, Property.NAME);
+        home.setName("about");
+
+        List<NodeChange> changes = journal.getChanges();
+        assertEquals(2, changes.size());
+        assertChange(Type.REMOVED, null, NodePath.path("about"), changes.get(0));
+        assertChange(Type.UPDATED, NodePath.path("about"), NodePath.path("home"), changes.get(1));
+    }
+
+    @Test
+    public void touched() {
+        home.setDisplayNames(new LocalizedString("Home"));
+        journal.touched(home);
+        journal.touched(news);
+        journal.touched(root.getChild("about"));
+        home.getAttributes().put("key", "value");
+        home.getDisplayNames().setValue("Welcome");
+        news.getDisplayNames();
+
+        List<NodeChange> changes = journal.getChanges();
+        assertEquals(1, changes.size());
+        assertChange(Type.UPDATED, NodePath.path("home"), NodePath.path("home"), changes.get(0));
+        assertEquals(EnumSet.of(Property.ATTRIBUTES, Property.DISPLAY_NAMES), changes.get(0).getProperties());
+    }
+
+    @Test
+    public void clear() {
+        journal.touched(home);
+        home.getAttributes().put("key", "value");
+        journal.inserted(news.addChild("child"));
+        journal.clear();
+
+        assertTrue(journal.isEmpty());
+        journal.touched(home);
+        assertTrue(journal.isEmpty());
+    }
+
+    private static void assertChange(Type type, NodePath nodePath, NodePath previousNodePath, NodeChange change) {
+        assertEquals(type, change.getType());
+        assertEquals(nodePath, change.getNodePath());
+        assertEquals(previousNodePath, change.getPreviousNodePath());
+    }
+}
@@ -24,9 +24,18 @@ package org.gatein.api.navigation;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+
 import org.junit.Test;
 
 public class NodePathTest {
@@ -68,4 +77,79 @@ public class NodePathTest {
         assertEquals("/one/two", NodePath.path("one", "two").toString());
     }
 
+    @Test
+    public void append() {
+        NodePath path = NodePath.path("one");
+        assertArrayEquals(new String[] { "one", "two" }, path.append("two").asArray());
+        assertArrayEquals(new String[] { "one", "two", "three" }, path.append("two", "three").asArray());
+        assertArrayEquals(new String[] { "one", "two", "three" }, path.append(NodePath.path("two", "three")).asArray());
+        assertSame(path, path.append(NodePath.root()));
+        assertSame(path, NodePath.root().append(path));
+        assertSame(path, path.append("two").parent());
+        assertSame(path, path.append("two", "three").subPath(0, 1));
+    }
+
+    @Test
+    public void equalsAndHashCode() {
+        NodePath path = NodePath.path("one", "two", "three");
+        assertEquals(path, NodePath.fromString("/one/two/three"));
+        assertEquals(path, NodePath.root().append("one").append("two").append("three"));
+        assertEquals(path, NodePath.path("zero", "one", "two", "three").subPath(1));
+        assertFalse(path.equals(NodePath.path("one", "two", "four")));
+        assertFalse(path.equals(NodePath.path("one", "two")));
+
+        assertEquals(Arrays.asList("one", "two", "three").hashCode(), path.hashCode());
+        assertEquals(Collections.emptyList().hashCode(), NodePath.root().hashCode());
+        assertEquals(path.hashCode(), NodePath.fromString("/one/two/three").hashCode());
+    }
+
+    @Test
+    public void compareTo() {
+        assertEquals(0, NodePath.path("one", "two").compareTo(NodePath.path("one", "two")));
+        assertTrue(NodePath.path("one").compareTo(NodePath.path("one", "two")) < 0);
+        assertTrue(NodePath.path("one", "two").compareTo(NodePath.path("one")) > 0);
+        assertTrue(NodePath.path("a", "z").compareTo(NodePath.path("b")) < 0);
+        assertTrue(NodePath.root().compareTo(NodePath.path("a")) < 0);
+    }
+
+    @Test
+    public void getSegment() {
+        NodePath path = NodePath.path("one", "two", "three");
+        assertEquals("one", path.getSegment(0));
+        assertEquals("two", path.getSegment(1));
+        assertEquals("three", path.getSegment(2));
+        assertEquals("three", path.getLastSegment());
+        assertNull(NodePath.root().getLastSegment());
+        assertEquals(Arrays.asList("one", "two", "three"), path.asList());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getSegment_OutOfBounds() {
+        NodePath.path("one").getSegment(1);
+    }
+
+    @Test
+    public void fromString_SegmentsInterned() {
+        NodePath path = NodePath.fromString("/one/two");
+        assertSame(path.getSegment(0), NodePath.fromString("/one").getLastSegment());
+        assertSame(path.getLastSegment(), NodePath.fromString(new String("one/two/")).getLastSegment());
+    }
+
+    @Test
+    public void serialization() throws Exception {
+        NodePath path = NodePath.path("one", "two");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(out);
+        oos.writeObject(path);
+        oos.writeObject(NodePath.root());
+        oos.close();
+
+        ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(out.toByteArray()));
+        NodePath copy = (NodePath) ois.readObject();
+        assertNotSame(path, copy);
+        assertEquals(path, copy);
+        assertEquals(path.hashCode(), copy.hashCode());
+        assertSame(NodePath.root(), ois.readObject());
+    }
 }
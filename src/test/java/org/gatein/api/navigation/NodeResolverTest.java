@@ -0,0 +1,183 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.navigation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.gatein.api.navigation.NodeChange.Property;
+import org.gatein.api.navigation.NodeChange.Type;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NodeResolverTest {
+
+    private Node root;
+    private Node home;
+    private Node news;
+    private Node about;
+    private NodeResolver resolver;
+
+    @Before
+    public void before() {
+        root = MockNode.root();
+        home = root.addChild("home");
+        news = home.addChild("news");
+        about = root.addChild("about");
+        resolver = new NodeResolver(root);
+    }
+
+    @Test
+    public void resolveNode() {
+        assertSame(root, resolver.resolveNode(""));
+        assertSame(root, resolver.resolveNode("/"));
+        assertSame(home, resolver.resolveNode("/home"));
+        assertSame(news, resolver.resolveNode("/home/news"));
+        assertSame(news, resolver.resolveNode("home/news/"));
+        assertSame(news, resolver.resolveNode("//home/ news //"));
+        assertSame(about, resolver.resolveNode("/about"));
+        assertSame(home, resolver.resolveNode("/home/missing/news"));
+        assertSame(root, resolver.resolveNode("/missing"));
+        assertSame(root, resolver.resolveNode("/hom"));
+    }
+
+    @Test
+    public void resolve() {
+        NodeResolver.Match match = resolver.resolve("/home/news");
+        assertSame(news, match.getNode());
+        assertEquals(NodePath.path("home", "news"), match.getNodePath());
+        assertTrue(match.isComplete());
+        assertEquals(NodePath.root(), match.getRemainder());
+
+        match = resolver.resolve("/home/news/2012/10");
+        assertSame(news, match.getNode());
+        assertFalse(match.isComplete());
+        assertEquals(NodePath.path("2012", "10"), match.getRemainder());
+
+        match = resolver.resolve("/missing");
+        assertSame(root, match.getNode());
+        assertEquals(NodePath.path("missing"), match.getRemainder());
+    }
+
+    @Test
+    public void getNode() {
+        assertSame(root, resolver.getNode(NodePath.root()));
+        assertSame(news, resolver.getNode(NodePath.path("home", "news")));
+        assertNull(resolver.getNode(NodePath.path("home", "missing")));
+    }
+
+    @Test
+    public void manyChildren() {
+        for (int i = 0; i < 100; i++) {
+            about.addChild("child-" + i);
+        }
+        resolver = new NodeResolver(root);
+
+        for (int i = 0; i < 100; i++) {
+            assertSame(about.getChild("child-" + i), resolver.resolveNode("/about/child-" + i));
+        }
+    }
+
+    @Test
+    public void update() {
+        Node child = news.addChild("child");
+        resolver.update(news);
+
+        assertSame(child, resolver.resolveNode("/home/news/child"));
+        assertSame(news, resolver.resolveNode("/home/news"));
+    }
+
+    @Test
+    public void update_NotLoaded() {
+        Node child = news.addChild("child");
+        resolver.update(news);
+
+        MockNode.handler(home).unloaded();
+        resolver.update(home);
+
+        assertSame(home, resolver.resolveNode("/home"));
+        assertSame(child, resolver.resolveNode("/home/news/child"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void update_ParentNotIndexed() {
+        Node child = news.addChild("child").addChild("grandchild");
+        resolver.update(child);
+    }
+
+    @Test
+    public void remove() {
+        assertTrue(resolver.remove(NodePath.path("home")));
+        assertFalse(resolver.remove(NodePath.path("home")));
+
+        assertSame(root, resolver.resolveNode("/home/news"));
+        assertSame(about, resolver.resolveNode("/about"));
+    }
+
+    @Test
+    public void apply() {
+        NodeChangeJournal journal = new NodeChangeJournal();
+
+        journal.removed(about);
+        root.removeChild("about");
+
+        Node child = news.addChild("child");
+        journal.inserted(child);
+
+        journal.updated(home, Property.NAME);
+        home.setName("start");
+
+        resolver.apply(journal.getChanges());
+
+        assertSame(root, resolver.resolveNode("/about"));
+        assertSame(root, resolver.resolveNode("/home"));
+        assertSame(home, resolver.resolveNode("/start"));
+        assertSame(news, resolver.resolveNode("/start/news"));
+        assertSame(child, resolver.resolveNode("/start/news/child"));
+        assertEquals(NodePath.path("start", "news", "child"), resolver.resolve("/start/news/child").getNodePath());
+    }
+
+    @Test
+    public void apply_RenamedAfterNameReused() {
+        about.setName("contact");
+        Node inserted = root.addChild("about");
+        Set<Property> none = EnumSet.noneOf(Property.class);
+        List<NodeChange> changes = new ArrayList<NodeChange>();
+        changes.add(new NodeChange(Type.INSERTED, inserted, NodePath.path("about"), null, none));
+        changes.add(new NodeChange(Type.UPDATED, about, NodePath.path("contact"), NodePath.path("about"),
+                EnumSet.of(Property.NAME)));
+
+        resolver.apply(changes);
+
+        assertSame(inserted, resolver.getNode(NodePath.path("about")));
+        assertSame(about, resolver.getNode(NodePath.path("contact")));
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.api.navigation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class NodeTraversalTest {
+
+    private Node root;
+
+    @Before
+    public void before() {
+        root = MockNode.root();
+        Node a = root.addChild("a");
+        a.addChild("a1");
+        a.addChild("a2").addChild("a21");
+        Node b = root.addChild("b");
+        b.addChild("b1");
+        root.addChild("c");
+    }
+
+    @Test
+    public void depthFirst() {
+        assertEquals(Arrays.asList("/", "/a", "/a/a1", "/a/a2", "/a/a2/a21", "/b", "/b/b1", "/c"),
+                paths(Nodes.depthFirst(root).iterator()));
+    }
+
+    @Test
+    public void breadthFirst() {
+        assertEquals(Arrays.asList("/", "/a", "/b", "/c", "/a/a1", "/a/a2", "/b/b1", "/a/a2/a21"),
+                paths(Nodes.breadthFirst(root).iterator()));
+    }
+
+    @Test
+    public void notLoaded() {
+        MockNode.handler(root.getChild("a")).unloaded();
+
+        assertEquals(Arrays.asList("/", "/a", "/b", "/b/b1", "/c"), paths(Nodes.depthFirst(root).iterator()));
+        assertEquals(Arrays.asList("/", "/a", "/b", "/c", "/b/b1"), paths(Nodes.breadthFirst(root).iterator()));
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void exhausted() {
+        Iterator<Node> iterator = Nodes.depthFirst(root.getChild("c")).iterator();
+        iterator.next();
+        assertFalse(iterator.hasNext());
+        iterator.next();
+    }
+
+    @Test
+    public void split() {
+        NodeTraversal traversal = NodeTraversal.depthFirst(root);
+        NodeTraversal split = traversal.split();
+
+        List<String> first = paths(traversal);
+        List<String> second = paths(split);
+        assertEquals(Arrays.asList("/", "/a", "/a/a1", "/a/a2", "/a/a2/a21", "/b", "/b/b1"), first);
+        assertEquals(Arrays.asList("/c"), second);
+    }
+
+    @Test
+    public void split_Leaf() {
+        assertNull(NodeTraversal.depthFirst(root.getChild("c")).split());
+    }
+
+    @Test
+    public void partition() {
+        for (int parts = 1; parts < 10; parts++) {
+            List<NodeTraversal> traversals = NodeTraversal.partition(root, parts);
+            assertTrue(traversals.size() <= parts);
+
+            Set<String> all = new HashSet<String>();
+            int count = 0;
+            for (NodeTraversal traversal : traversals) {
+                List<String> paths = paths(traversal);
+                all.addAll(paths);
+                count += paths.size();
+            }
+
+            assertEquals(8, count);
+            assertEquals(new HashSet<String>(paths(Nodes.depthFirst(root).iterator())), all);
+        }
+
+        assertEquals(4, NodeTraversal.partition(root, 4).size());
+        assertEquals(1, NodeTraversal.partition(root.getChild("c"), 4).size());
+    }
+
+    private static List<String> paths(Iterator<Node> iterator) {
+        List<String> paths = new ArrayList<String>();
+        while (iterator.hasNext()) {
+            paths.add(iterator.next().getNodePath().toString());
+        }
+        return paths;
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.gatein.api.navigation;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.gatein.api.page.PageId;
+import org.junit.Test;
+
+public class NodesTest {
+
+    @Test
+    public void visitNodes_Depth() {
+        NodeVisitor visitor = Nodes.visitNodes(2);
+
+        assertTrue(visit(visitor, NodePath.root()));
+        assertTrue(visit(visitor, NodePath.path("a")));
+        assertFalse(visit(visitor, NodePath.path("a", "b")));
+    }
+
+    @Test
+    public void visitNodes_Path() {
+        NodeVisitor visitor = Nodes.visitNodes(NodePath.path("a", "b"), Nodes.visitChildren());
+
+        assertTrue(visit(visitor, NodePath.root()));
+        assertTrue(visit(visitor, NodePath.path("a")));
+        assertFalse(visit(visitor, NodePath.path("c")));
+        assertTrue(visit(visitor, NodePath.path("a", "b")));
+        assertFalse(visit(visitor, NodePath.path("a", "b", "c")));
+    }
+
+    @Test
+    public void visitNodes_Paths() {
+        Map<NodePath, NodeVisitor> visitors = new LinkedHashMap<NodePath, NodeVisitor>();
+        visitors.put(NodePath.path("a", "b"), Nodes.visitChildren());
+        visitors.put(NodePath.path("c", "d"), Nodes.visitNone());
+        visitors.put(NodePath.path("e"), Nodes.visitAll());
+        NodeVisitor visitor = Nodes.visitNodes(visitors);
+
+        assertTrue(visit(visitor, NodePath.root()));
+        assertTrue(visit(visitor, NodePath.path("a")));
+        assertTrue(visit(visitor, NodePath.path("c")));
+        assertFalse(visit(visitor, NodePath.path("x")));
+
+        assertTrue(visit(visitor, NodePath.path("a", "b")));
+        assertFalse(visit(visitor, NodePath.path("a", "d")));
+        assertFalse(visit(visitor, NodePath.path("c", "d")));
+        assertFalse(visit(visitor, NodePath.path("c", "b")));
+        assertFalse(visit(visitor, NodePath.path("a", "b", "c")));
+
+        assertTrue(visit(visitor, NodePath.path("e")));
+        assertTrue(visit(visitor, NodePath.path("e", "f", "g")));
+    }
+
+    @Test
+    public void visitNodes_PathsRoot() {
+        Map<NodePath, NodeVisitor> visitors = new LinkedHashMap<NodePath, NodeVisitor>();
+        visitors.put(NodePath.root(), Nodes.visitChildren());
+        NodeVisitor visitor = Nodes.visitNodes(visitors);
+
+        assertTrue(visit(visitor, NodePath.root()));
+        assertFalse(visit(visitor, NodePath.path("a")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void visitNodes_PathsNullVisitor() {
+        Map<NodePath, NodeVisitor> visitors = new LinkedHashMap<NodePath, NodeVisitor>();
+        visitors.put(NodePath.root(), null);
+        Nodes.visitNodes(visitors);
+    }
+
+    @Test
+    public void visitDepths() {
+        Map<NodePath, Integer> depths = new LinkedHashMap<NodePath, Integer>();
+        depths.put(NodePath.root(), 1);
+        depths.put(NodePath.path("a", "b"), 2);
+        depths.put(NodePath.path("c"), -1);
+        NodeVisitor visitor = Nodes.visitDepths(depths);
+
+        assertTrue(visit(visitor, NodePath.root()));
+        assertTrue(visit(visitor, NodePath.path("a")));
+        assertFalse(visit(visitor, NodePath.path("x")));
+        assertTrue(visit(visitor, NodePath.path("a", "b")));
+        assertTrue(visit(visitor, NodePath.path("a", "b", "c")));
+        assertFalse(visit(visitor, NodePath.path("a", "b", "c", "d")));
+        assertTrue(visit(visitor, NodePath.path("c", "d", "e", "f")));
+    }
+
+    @Test
+    public void union() {
+        NodeVisitor visitor = Nodes.union(Nodes.visitChildren(),
+                Nodes.visitNodes(NodePath.path("a", "b"), Nodes.visitChildren()));
+
+        assertTrue(visit(visitor, NodePath.root()));
+        assertTrue(visit(visitor, NodePath.path("a")));
+        assertFalse(visit(visitor, NodePath.path("x")));
+        assertTrue(visit(visitor, NodePath.path("a", "b")));
+        assertFalse(visit(visitor, NodePath.path("a", "b", "c")));
+    }
+
+    @Test
+    public void intersection() {
+        NodeVisitor visitor = Nodes.intersection(Nodes.visitAll(), Nodes.visitIf(Nodes.visible()));
+
+        assertTrue(visit(visitor, NodePath.root()));
+        assertTrue(visit(visitor, new Details(NodePath.path("a"), new Visibility(), null)));
+        assertFalse(visit(visitor, new Details(NodePath.path("a"), new Visibility(Visibility.Status.HIDDEN), null)));
+    }
+
+    @Test
+    public void visitIf_HasPage() {
+        NodeVisitor visitor = Nodes.visitIf(Nodes.hasPage());
+
+        assertTrue(visit(visitor, NodePath.root()));
+        assertFalse(visit(visitor, NodePath.path("a")));
+        assertTrue(visit(visitor, new Details(NodePath.path("a"), new Visibility(), new PageId("classic", "home"))));
+    }
+
+    @Test
+    public void union_Single() {
+        NodeVisitor visitor = Nodes.visitChildren();
+        assertSame(visitor, Nodes.union(visitor));
+        assertSame(visitor, Nodes.intersection(visitor));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void union_Empty() {
+        Nodes.union();
+    }
+
+    static boolean visit(NodeVisitor visitor, Details details) {
+        return visitor.visit(details.path.size(), details.path.getLastSegment(), details);
+    }
+
+    static boolean visit(NodeVisitor visitor, NodePath path) {
+        if (path.size() == 0) {
+            return visitor.visit(0, null, null);
+        }
+        return visitor.visit(path.size(), path.getLastSegment(), new Details(path));
+    }
+
+    static class Details implements NodeVisitor.NodeDetails {
+        private final NodePath path;
+        private final Visibility visibility;
+        private final PageId pageId;
+
+        Details(NodePath path) {
+            this(path, new Visibility(), null);
+        }
+
+        Details(NodePath path, Visibility visibility, PageId pageId) {
+            this.path = path;
+            this.visibility = visibility;
+            this.pageId = pageId;
+        }
+
+        @Override
+        public Visibility getVisibility() {
+            return visibility;
+        }
+
+        @Override
+        public String getIconName() {
+            return null;
+        }
+
+        @Override
+        public PageId getPageId() {
+            return pageId;
+        }
+
+        @Override
+        public NodePath getNodePath() {
+            return path;
+        }
+    }
+}
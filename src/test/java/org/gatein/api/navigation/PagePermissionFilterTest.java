@@ -0,0 +1,142 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.gatein.api.navigation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.gatein.api.Portal;
+import org.gatein.api.Stub;
+import org.gatein.api.common.Filter;
+import org.gatein.api.memory.InMemoryPortal;
+import org.gatein.api.page.Page;
+import org.gatein.api.page.PageId;
+import org.gatein.api.security.Membership;
+import org.gatein.api.security.Permission;
+import org.gatein.api.security.User;
+import org.gatein.api.site.SiteId;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PagePermissionFilterTest {
+
+    private Node root;
+    private Stub<Portal> portal;
+
+    @Before
+    public void before() {
+        InMemoryPortal memory = new InMemoryPortal();
+        memory.saveSite(memory.createSite(new SiteId("classic")));
+        memory.savePage(page(memory, "public", Permission.everyone(), Permission.any("platform", "administrators")));
+        memory.savePage(page(memory, "private", Permission.any("platform", "administrators"),
+                Permission.any("platform", "users")));
+        memory.addMembership(new User("john"), Membership.any("platform", "users"));
+        portal = Stub.of(Portal.class, (Portal) memory);
+
+        root = MockNode.root();
+        root.addChild("public").setPageId(new PageId("classic", "public"));
+        root.addChild("private").setPageId(new PageId("classic", "private"));
+        root.addChild("missing").setPageId(new PageId("classic", "missing"));
+        root.addChild("nopage");
+    }
+
+    @Test
+    public void hasAccess() {
+        PagePermissionFilter filter = PagePermissionFilter.hasAccess(portal.get(), new User("john"));
+        filter.prepare(root);
+
+        assertTrue(filter.accept(root.getChild("public")));
+        assertFalse(filter.accept(root.getChild("private")));
+        assertFalse(filter.accept(root.getChild("missing")));
+        assertTrue(filter.accept(root.getChild("nopage")));
+
+        assertEquals(1, calls("getPages"));
+        assertEquals(1, calls("hasPermissions"));
+        assertEquals(0, calls("hasPermission"));
+
+        filter.prepare(root);
+        assertEquals(1, calls("getPages"));
+    }
+
+    @Test
+    public void hasEdit() {
+        PagePermissionFilter filter = PagePermissionFilter.hasEdit(portal.get(), new User("john"));
+
+        assertFalse(filter.accept(root.getChild("public")));
+        assertFalse(filter.accept(root.getChild("nopage")));
+        assertEquals(1, calls("hasPermission"));
+
+        filter.prepare(root);
+        assertTrue(filter.accept(root.getChild("private")));
+        assertEquals(1, calls("hasPermissions"));
+    }
+
+    @Test
+    public void filteredNode() {
+        root.getChild("private").setVisibility(false);
+        FilteredNode filtered = new MockFilteredNode(root, new ArrayList<Filter<Node>>()).showVisible();
+        filtered.show(PagePermissionFilter.hasAccess(portal.get(), new User("john")));
+
+        assertEquals(1, filtered.indexOf("nopage"));
+        assertNotNull(filtered.getChild("public"));
+        assertNull(filtered.getNode("missing"));
+        assertFalse(filtered.hasChild("private"));
+        assertEquals(2, filtered.getChildCount());
+
+        assertEquals(1, calls("getPages"));
+        assertEquals(new ArrayList<Object>(Arrays.asList(new PageId("classic", "public"), new PageId("classic",
+                "missing"))), new ArrayList<Object>((Collection<?>) portal.lastArgs("getPages")[0]));
+        assertEquals(1, calls("hasPermissions"));
+        assertEquals(0, calls("getPage"));
+        assertEquals(0, calls("hasPermission"));
+    }
+
+    private int calls(String method) {
+        return portal.calls(method);
+    }
+
+    private static Page page(Portal portal, String name, Permission access, Permission edit) {
+        Page page = portal.createPage(new PageId("classic", name));
+        page.setAccessPermission(access);
+        page.setEditPermission(edit);
+        return page;
+    }
+
+    private static class MockFilteredNode extends AbstractFilteredNode {
+        private MockFilteredNode(Node node, List<Filter<Node>> filters) {
+            super(node, filters);
+        }
+
+        @Override
+        protected AbstractFilteredNode newFilteredNode(Node node, List<Filter<Node>> filters) {
+            return new MockFilteredNode(node, filters);
+        }
+    }
+}
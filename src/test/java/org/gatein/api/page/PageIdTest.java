@@ -25,12 +25,15 @@ package org.gatein.api.page;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.util.regex.Pattern;
 
 import org.gatein.api.security.Group;
 import org.gatein.api.security.User;
+import org.gatein.api.site.SiteId;
 import org.junit.Test;
 
 /**
@@ -87,4 +90,39 @@ public class PageIdTest {
         assertEquals(id, PageId.fromString(String.format("%s", id).toString()));
         assertEquals(id, PageId.fromString(String.format("%#s", id).toString()));
     }
+
+    @Test
+    public void testFromString_Invalid() {
+        for (String id : new String[] { "", "home", "site.home", "foo.bar.home", "siteId=[type=site, name=foo]",
+                "Page.Id[site.foo.home", "Page.Id[]" }) {
+            try {
+                PageId.fromString(id);
+                fail("Expected IllegalArgumentException for " + id);
+            } catch (IllegalArgumentException e) {
+            }
+        }
+    }
+
+    @Test
+    public void testToString_Cached() {
+        PageId id = new PageId(new Group("foo", "bar"), "baz");
+        assertEquals("Page.Id[siteId=[type=space, name=/foo/bar], pageName=baz]", id.toString());
+        assertSame(id.toString(), id.toString());
+        assertEquals("space.~foo~bar.baz", String.format("%#s", id));
+    }
+
+    @Test
+    public void compareTo() {
+        assertTrue(new PageId("a", "z").compareTo(new PageId("b", "a")) < 0);
+        assertTrue(new PageId("a", "a").compareTo(new PageId("a", "b")) < 0);
+        assertEquals(0, new PageId("a", "b").compareTo(new PageId("a", "b")));
+        assertTrue(new PageId(new Group("a"), "a").compareTo(new PageId("z", "z")) > 0);
+    }
+
+    @Test
+    public void intern() {
+        PageId id = new PageId("foo", "bar").intern();
+        assertSame(id, PageId.fromString("site.foo.bar").intern());
+        assertSame(id.getSiteId(), new SiteId("foo").intern());
+    }
 }
@@ -0,0 +1,74 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.gatein.api.page;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import org.gatein.api.Stub;
+import org.gatein.api.security.Permission;
+import org.gatein.api.site.SiteSummary;
+import org.junit.Test;
+
+public class PageSummaryTest {
+    @Test
+    public void fromPage() {
+        Page page = page();
+
+        PageSummary summary = new PageSummary(page, false);
+        assertEquals(new PageId("classic", "home"), summary.getId());
+        assertEquals("Home", summary.getDisplayName());
+        assertEquals("The home page", summary.getDescription());
+        assertNull(summary.getAccessPermission());
+        assertNull(summary.getEditPermission());
+        assertEquals(new PageSummary(new PageId("classic", "home"), "Home", "The home page"), summary);
+
+        summary = new PageSummary(page, true);
+        assertEquals(Permission.everyone(), summary.getAccessPermission());
+        assertEquals(Permission.any("platform", "administrators"), summary.getEditPermission());
+        assertFalse(summary.equals(new PageSummary(page, false)));
+        assertEquals(new PageSummary(page, true).hashCode(), summary.hashCode());
+    }
+
+    @Test
+    public void equals_OtherSummary() {
+        PageSummary summary = new PageSummary(new PageId("classic", "home"), "Home", null);
+        assertFalse(summary.equals(new SiteSummary(new PageId("classic", "home").getSiteId(), "Home", null)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullId() {
+        new PageSummary(null, "Home", null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullPage() {
+        new PageSummary(null, false);
+    }
+
+    private static Page page() {
+        return Stub.of(Page.class).returns("getId", new PageId("classic", "home")).returns("getDisplayName", "Home")
+                .returns("getDescription", "The home page").returns("getAccessPermission", Permission.everyone())
+                .returns("getEditPermission", Permission.any("platform", "administrators")).get();
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.gatein.api.security;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+public class GroupIndexTest {
+    private final GroupIndex index = GroupIndex.ofMemberships(Arrays.asList(
+            new Membership("manager", new Group("platform", "administrators")),
+            new Membership("member", new Group("platform", "administrators")),
+            new Membership("member", new Group("spaces", "marketing")),
+            new Membership("*", new Group("spaces", "marketing", "events")),
+            new Membership("member", new Group("spaces", "engineering"))));
+
+    @Test
+    public void contains() {
+        assertEquals(4, index.size());
+        assertTrue(index.contains(new Group("/platform/administrators")));
+        assertFalse(index.contains(new Group("platform")));
+        assertFalse(index.contains(new Group("platform", "users")));
+        assertFalse(index.contains(new Group("platform", "administrators", "foo")));
+    }
+
+    @Test
+    public void contains_Membership() {
+        assertTrue(index.contains(new Membership("manager", new Group("platform", "administrators"))));
+        assertFalse(index.contains(new Membership("editor", new Group("platform", "administrators"))));
+        assertTrue(index.contains(Membership.any("platform", "administrators")));
+        assertTrue(index.contains(new Membership("editor", new Group("spaces", "marketing", "events"))));
+        assertFalse(index.contains(Membership.any("platform")));
+    }
+
+    @Test
+    public void containsAncestorOf() {
+        assertTrue(index.containsAncestorOf(new Group("spaces", "marketing", "events")));
+        assertTrue(index.containsAncestorOf(new Group("platform", "administrators", "foo", "bar")));
+        assertFalse(index.containsAncestorOf(new Group("platform", "administrators")));
+        assertFalse(index.containsAncestorOf(new Group("spaces", "sales", "events")));
+        assertFalse(index.containsAncestorOf(new Group("platform")));
+    }
+
+    @Test
+    public void containsDescendantOf() {
+        assertTrue(index.containsDescendantOf(new Group("platform")));
+        assertTrue(index.containsDescendantOf(new Group("spaces", "marketing")));
+        assertFalse(index.containsDescendantOf(new Group("spaces", "marketing", "events")));
+        assertFalse(index.containsDescendantOf(new Group("organization")));
+    }
+
+    @Test
+    public void getDescendants() {
+        assertEquals(Arrays.asList(new Group("spaces", "engineering"), new Group("spaces", "marketing"), new Group("spaces",
+                "marketing", "events")), index.getDescendants(new Group("spaces")));
+        assertEquals(Collections.emptyList(), index.getDescendants(new Group("spaces", "engineering")));
+        assertEquals(Collections.emptyList(), index.getDescendants(new Group("organization")));
+    }
+
+    @Test
+    public void ofGroups() {
+        GroupIndex groups = GroupIndex.ofGroups(Arrays.asList(new Group("platform"), new Group("platform", "users")));
+        assertTrue(groups.contains(new Membership("member", new Group("platform"))));
+        assertTrue(groups.containsAncestorOf(new Group("platform", "users")));
+        assertEquals(Arrays.asList(new Group("platform", "users")), groups.getDescendants(new Group("platform")));
+    }
+
+    @Test
+    public void identity() {
+        Identity identity = new Identity(new User("john"), Arrays.asList(new Membership("member", new Group("platform",
+                "users"))));
+        assertTrue(identity.getGroupIndex().containsDescendantOf(new Group("platform")));
+        assertTrue(identity.getGroupIndex() == identity.getGroupIndex());
+    }
+}
@@ -23,6 +23,8 @@
 package org.gatein.api.security;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 import org.junit.Test;
 
@@ -44,4 +46,12 @@ public class GroupTest {
         assertEquals(new Group("/group1/group2"), new Group("group1", "group2"));
     }
 
+    @Test
+    public void intern() {
+        Group group = new Group("platform", "administrators");
+        Group other = new Group("/platform/administrators");
+        assertNotSame(group, other);
+        assertSame(group.intern(), other.intern());
+        assertEquals(group, group.intern());
+    }
 }
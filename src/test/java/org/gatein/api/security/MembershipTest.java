@@ -23,6 +23,7 @@ package org.gatein.api.security;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 import org.junit.Test;
 
@@ -74,4 +75,11 @@ public class MembershipTest {
         assertEquals(expectedType, actual.getMembershipType());
     }
 
+    @Test
+    public void intern() {
+        Membership membership = Membership.fromString("member:/platform/administrators").intern();
+        assertSame(membership, new Membership("member", new Group("platform", "administrators")).intern());
+        assertSame(membership.getGroup(), new Group("platform", "administrators").intern());
+        assertSame(new Membership(new User("john")).intern(), new Membership(new User("john")).intern());
+    }
 }
@@ -0,0 +1,102 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.gatein.api.security;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+public class PermissionEvaluatorTest {
+    private final PermissionEvaluator evaluator = new PermissionEvaluator();
+    private final Identity john = new Identity(new User("john"), Arrays.asList(new Membership("manager", new Group(
+            "platform", "administrators")), new Membership("member", new Group("platform", "users"))));
+
+    @Test
+    public void everyone() {
+        assertTrue(evaluator.hasPermission(new Identity(new User("mary")), Permission.everyone()));
+    }
+
+    @Test
+    public void user() {
+        assertTrue(evaluator.hasPermission(john, new Permission(new User("john"))));
+        assertFalse(evaluator.hasPermission(john, new Permission(new User("mary"))));
+    }
+
+    @Test
+    public void membership() {
+        assertTrue(evaluator.hasPermission(john, new Permission("manager", new Group("platform", "administrators"))));
+        assertFalse(evaluator.hasPermission(john, new Permission("manager", new Group("platform", "users"))));
+        assertTrue(evaluator.hasPermission(john, new Permission(new User("mary")).addMembership(new Membership("member",
+                new Group("platform", "users")))));
+    }
+
+    @Test
+    public void any() {
+        assertTrue(evaluator.hasPermission(john, Permission.any("platform", "users")));
+        assertFalse(evaluator.hasPermission(john, Permission.any("organization", "employees")));
+        assertFalse(evaluator.hasPermission(new Identity(new User("mary")), Permission.any("platform", "users")));
+    }
+
+    @Test
+    public void sameMemberships() {
+        Identity mary = new Identity(new User("mary"), john.getMemberships());
+        assertNotSame(john, mary);
+        assertEquals(john.getFingerprint(), mary.getFingerprint());
+        assertTrue(john.hasSameMemberships(mary));
+        assertFalse(john.equals(mary));
+
+        Permission permission = Permission.any("platform", "administrators").addMembership(new Membership(new User("john")));
+        assertTrue(evaluator.hasPermission(john, permission));
+        assertTrue(evaluator.hasPermission(mary, permission));
+        assertFalse(evaluator.hasPermission(new Identity(new User("mary")), permission));
+    }
+
+    @Test
+    public void maximumSize() {
+        PermissionEvaluator evaluator = new PermissionEvaluator(1);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(evaluator.hasPermission(john, Permission.any("platform", "users")));
+            assertFalse(evaluator.hasPermission(john, Permission.any("group" + i)));
+        }
+    }
+
+    @Test
+    public void identity_Invalid() {
+        try {
+            new Identity(new User("john"), Collections.singleton(new Membership(new User("mary"))));
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            new PermissionEvaluator(0);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+}
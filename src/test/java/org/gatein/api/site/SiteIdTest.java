@@ -25,8 +25,12 @@ package org.gatein.api.site;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.IOException;
+import java.util.Formatter;
 import java.util.regex.Pattern;
 
 import org.gatein.api.security.Group;
@@ -97,6 +101,30 @@ public class SiteIdTest {
         assertTrue(urlUnreserved.matcher(String.format("%#s", siteId).toString()).matches());
     }
 
+    @Test
+    public void testFormat_IOException() {
+        final IOException failure = new IOException();
+        Formatter formatter = new Formatter(new Appendable() {
+            @Override
+            public Appendable append(CharSequence csq) throws IOException {
+                throw failure;
+            }
+
+            @Override
+            public Appendable append(CharSequence csq, int start, int end) throws IOException {
+                throw failure;
+            }
+
+            @Override
+            public Appendable append(char c) throws IOException {
+                throw failure;
+            }
+        });
+
+        formatter.format("%#s", new SiteId("foo"));
+        assertSame(failure, formatter.ioException());
+    }
+
     @Test
     public void testFromString() {
         SiteId id = new SiteId("foo-_site0");
@@ -114,4 +142,40 @@ public class SiteIdTest {
         assertEquals(id, SiteId.fromString(String.format("%s", id).toString()));
         assertEquals(id, SiteId.fromString(String.format("%#s", id).toString()));
     }
+
+    @Test
+    public void testFromString_Invalid() {
+        for (String id : new String[] { "", "site", "foo.bar", "site.foo bar", "site.foo.bar", "type=site",
+                "type=foo, name=bar", "Site.Id[type=site, name=foo", "Site.Id[]" }) {
+            try {
+                SiteId.fromString(id);
+                fail("Expected IllegalArgumentException for " + id);
+            } catch (IllegalArgumentException e) {
+            }
+        }
+    }
+
+    @Test
+    public void testToString_Cached() {
+        SiteId id = new SiteId(new Group("foo", "bar"));
+        assertEquals("Site.Id[type=space, name=/foo/bar]", id.toString());
+        assertSame(id.toString(), id.toString());
+        assertEquals("space.~foo~bar", String.format("%#s", id));
+    }
+
+    @Test
+    public void compareTo() {
+        assertTrue(new SiteId("a").compareTo(new SiteId("b")) < 0);
+        assertTrue(new SiteId("b").compareTo(new SiteId("a")) > 0);
+        assertEquals(0, new SiteId("a").compareTo(new SiteId("a")));
+        assertTrue(new SiteId("z").compareTo(new SiteId(new Group("a"))) < 0);
+        assertTrue(new SiteId(new Group("z")).compareTo(new SiteId(new User("a"))) < 0);
+    }
+
+    @Test
+    public void intern() {
+        SiteId id = new SiteId(new Group("foo", "bar"));
+        assertSame(id.intern(), SiteId.fromString("space.~foo~bar").intern());
+        assertEquals(id, id.intern());
+    }
 }
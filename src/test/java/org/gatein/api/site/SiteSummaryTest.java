@@ -0,0 +1,62 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.gatein.api.site;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import org.gatein.api.Stub;
+import org.gatein.api.security.Permission;
+import org.junit.Test;
+
+public class SiteSummaryTest {
+    @Test
+    public void fromSite() {
+        Site site = site();
+
+        SiteSummary summary = new SiteSummary(site, false);
+        assertEquals(new SiteId("classic"), summary.getId());
+        assertEquals("Classic", summary.getDisplayName());
+        assertEquals("The classic site", summary.getDescription());
+        assertNull(summary.getAccessPermission());
+        assertNull(summary.getEditPermission());
+        assertEquals(new SiteSummary(new SiteId("classic"), "Classic", "The classic site"), summary);
+
+        summary = new SiteSummary(site, true);
+        assertEquals(Permission.everyone(), summary.getAccessPermission());
+        assertEquals(Permission.any("platform", "administrators"), summary.getEditPermission());
+        assertFalse(summary.equals(new SiteSummary(site, false)));
+        assertEquals(new SiteSummary(site, true).hashCode(), summary.hashCode());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullId() {
+        new SiteSummary(null, "Classic", null);
+    }
+
+    private static Site site() {
+        return Stub.of(Site.class).returns("getId", new SiteId("classic")).returns("getDisplayName", "Classic")
+                .returns("getDescription", "The classic site").returns("getAccessPermission", Permission.everyone())
+                .returns("getEditPermission", Permission.any("platform", "administrators")).get();
+    }
+}